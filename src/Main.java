@@ -1,7 +1,14 @@
 import model.Island;
 import simulation.Simulation;
+import statistics.EventLog;
+import utils.Scenario;
 import utils.SimulationSettings;
 import view.IslandRenderer;
+import view.LiveViewServer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Thread.sleep(duration)
@@ -16,6 +23,10 @@ import view.IslandRenderer;
  * Сразу вызвал stopSimulation() (~1 мс)
  * Итог: Симуляция не успеет даже начаться.
  *
+ * Вместо sleep() главный поток ждет сигнала завершения (Simulation.awaitCompletion) - это то же
+ * ожидание, но оно заканчивается раньше, если численность пришла к вымиранию, неподвижной точке
+ * или циклу и прогон остановлен (STEADY_STATE_ACTION = STOP), - дальше ждать нечего.
+ *
  * Sleep() приостанавливает главный поток
  * Пока main "спит":
  * Фоновый поток симуляции работает
@@ -25,20 +36,41 @@ import view.IslandRenderer;
 // Главный класс программы, содержащий точку входа
 public class Main {
     public static void main(String[] args) {
+        // 0. Журнал событий (рождения, смерти, перемещения), если он включен в настройках
+        if (SimulationSettings.EVENT_LOG_ENABLED) {
+            EventLog.open(Paths.get(SimulationSettings.EVENT_LOG_DIRECTORY));
+        }
+
         // 1. Инициализация основных компонентов
-        Island island = new Island(); // Создание модели острова
+        Island island = new Island(Scenario.selected()); // Создание модели острова (из сценария -Dscenario, если задан)
         Simulation simulation = new Simulation(island); // Создание движка симуляции
 
+        // Живой просмотр в браузере подписывается на изменения до старта симуляции
+        LiveViewServer liveView = null;
+        if (SimulationSettings.LIVE_VIEW_ENABLED) {
+            try {
+                liveView = new LiveViewServer(simulation, island, SimulationSettings.LIVE_VIEW_PORT);
+                System.out.println("Живой просмотр: " + liveView.getUrl());
+            } catch (IOException e) {
+                System.err.println("Не удалось запустить живой просмотр: " + e.getMessage());
+            }
+        }
+
         // 2. Запуск симуляции
+        simulation.setSteadyStateAction(SimulationSettings.STEADY_STATE_ACTION); // Реакция на установившийся режим
         simulation.startSimulation(); // Старт потока выполнения симуляции
 
         // 3. Тайминг выполнения программы
         try {
             // Перевод минут в миллисекунды:
             // MINUTES * 60 секунд * 1000 миллисекунд
-            Thread.sleep(
-                    SimulationSettings.SIMULATION_DURATION_MINUTES * 60 * 1000L
+            boolean finishedEarly = simulation.awaitCompletion(
+                    SimulationSettings.SIMULATION_DURATION_MINUTES * 60 * 1000L, TimeUnit.MILLISECONDS
             );
+            if (finishedEarly) {
+                System.out.println("\nСимуляция завершена досрочно на дне " + simulation.getDay()
+                        + ": " + simulation.getSteadyState().state());
+            }
         } catch (InterruptedException e) {
             // Обработка прерывания сна потока
             Thread.currentThread().interrupt(); // Восстановление флага прерывания
@@ -47,6 +79,7 @@ public class Main {
 
         // 4. Завершающие действия
         simulation.stopSimulation(); // Остановка потока симуляции
+        if (liveView != null) liveView.close();
 
         // 5. Визуализация результатов
         System.out.println("\n=== Финальное состояние острова ===");
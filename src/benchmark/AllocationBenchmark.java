@@ -0,0 +1,85 @@
+package benchmark;
+
+import model.Island;
+import simulation.Simulation;
+import utils.Scenario;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Бенчмарк скорости выделения памяти за день симуляции.
+ * Сравнивает прогон без пула объектов животных и с пулом (AnimalPool),
+ * чтобы проверить, что пул снижает количество выделяемой памяти.
+ *
+ * Выделенная память считается по всем потокам через com.sun.management.ThreadMXBean
+ * (счетчик выделенных байт каждого потока).
+ *
+ * Запуск из консоли:
+ * java benchmark.AllocationBenchmark [дней_прогрева] [дней_замера]
+ */
+public final class AllocationBenchmark {
+
+    private AllocationBenchmark() {}
+
+    public static void main(String[] args) {
+        int warmupDays = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int measuredDays = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        double[] withoutPool = measure(warmupDays, measuredDays, false);
+        double[] withPool = measure(warmupDays, measuredDays, true);
+        long reused = (long) withPool[2];
+        long allocated = (long) withPool[3];
+
+        System.out.printf("Без пула: %.3f мс/день, %.2f МБ/день%n", withoutPool[0], withoutPool[1]);
+        System.out.printf("С пулом:  %.3f мс/день, %.2f МБ/день%n", withPool[0], withPool[1]);
+        System.out.printf("Снижение выделения памяти: %.1f%%%n", (1 - withPool[1] / withoutPool[1]) * 100);
+        System.out.printf("Рождений из пула: %d, с новым объектом: %d%n", reused, allocated);
+    }
+
+    /**
+     * Прогоняет новую симуляцию.
+     * @param pool Включен ли пул объектов животных острова
+     * @return [0] - среднее время дня в миллисекундах, [1] - выделено мегабайт за день,
+     *         [2] и [3] - рождений из пула и с новым объектом за замеренные дни
+     */
+    static double[] measure(int warmupDays, int measuredDays, boolean pool) {
+        Island island = new Island(Scenario.selected());
+        island.getAnimalPool().setEnabled(pool);
+        Simulation simulation = new Simulation(island);
+        simulation.setConsoleOutput(false);
+        try {
+            simulation.runDays(warmupDays); // Прогрев JIT и наполнение пула
+            long reusedBefore = island.getAnimalPool().getReused();
+            long allocatedBefore = island.getAnimalPool().getAllocated();
+            Map<Long, Long> before = allocatedBytes();
+            long start = System.nanoTime();
+            simulation.runDays(measuredDays);
+            long elapsed = System.nanoTime() - start;
+            long bytes = 0;
+            for (Map.Entry<Long, Long> entry : allocatedBytes().entrySet()) {
+                bytes += entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+            }
+            return new double[] {elapsed / 1e6 / measuredDays, bytes / 1048576.0 / measuredDays,
+                    island.getAnimalPool().getReused() - reusedBefore,
+                    island.getAnimalPool().getAllocated() - allocatedBefore};
+        } finally {
+            simulation.stopSimulation();
+        }
+    }
+
+    /**
+     * @return Выделенные байты по идентификаторам живых потоков
+     */
+    private static Map<Long, Long> allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> result = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) result.put(ids[i], bytes[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import model.Island;
+import simulation.Simulation;
+import statistics.TimeSeriesRecorder;
+import utils.Scenario;
+import utils.SimulationSettings.AnimalConfig;
+
+/**
+ * Бенчмарк обработки животных пачками одного вида (SpeciesBatch).
+ * Сравнивает время дня при отдельной задаче на каждое животное (вызовы вперемешку, мегаморфные)
+ * и при обработке пачками одного вида (вызовы мономорфные и встраиваются JIT).
+ *
+ * Каждый режим лучше запускать в отдельной JVM, чтобы профили типов одного режима не влияли на другой:
+ * java benchmark.BatchingBenchmark [дней_прогрева] [дней_замера] [mixed|batched]
+ *
+ * Проверка встраивания:
+ * java -XX:+UnlockDiagnosticVMOptions -XX:+PrintCompilation -XX:+PrintInlining benchmark.BatchingBenchmark 30 10 batched
+ * В режиме batched в циклах simulation.SpeciesBatch::run<Вид> вызов eat помечен "inline (hot)", а большие
+ * методы - "already compiled into a big method" (прямой вызов без диспетчеризации).
+ * В режиме mixed в лямбде Simulation::lambda$addChunkTasks вызовы eat/reproduce помечены "virtual call".
+ *
+ * Численность животных от прогона к прогону разная, поэтому кроме времени дня печатается
+ * время на одно животное в день - его и нужно сравнивать.
+ */
+public final class BatchingBenchmark {
+
+    private BatchingBenchmark() {}
+
+    public static void main(String[] args) {
+        int warmupDays = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int measuredDays = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        String mode = args.length > 2 ? args[2] : "both";
+
+        if (!mode.equals("batched")) {
+            double[] mixed = measure(warmupDays, measuredDays, false);
+            System.out.printf("Вперемешку:  %.3f мс/день, %.1f нс на животное%n", mixed[0], mixed[1]);
+        }
+        if (!mode.equals("mixed")) {
+            double[] batched = measure(warmupDays, measuredDays, true);
+            System.out.printf("Пачками:     %.3f мс/день, %.1f нс на животное%n", batched[0], batched[1]);
+        }
+    }
+
+    /**
+     * Прогоняет новую симуляцию.
+     * @param batched true - обработка пачками одного вида
+     * @return [0] - среднее время дня в миллисекундах, [1] - время на одно животное в день в наносекундах
+     */
+    static double[] measure(int warmupDays, int measuredDays, boolean batched) {
+        Simulation simulation = new Simulation(new Island(Scenario.selected()));
+        simulation.setConsoleOutput(false);
+        simulation.setSpeciesBatching(batched);
+        try {
+            simulation.runDays(warmupDays); // Прогрев JIT
+            long start = System.nanoTime();
+            simulation.runDays(measuredDays);
+            long elapsed = System.nanoTime() - start;
+
+            // Суммарное количество животных за замеренные дни (по истории статистики)
+            TimeSeriesRecorder series = simulation.getTimeSeries();
+            long animalDays = 0;
+            for (long day = series.getDays() - measuredDays; day < series.getDays(); day++) {
+                for (AnimalConfig config : AnimalConfig.values()) {
+                    animalDays += series.get(day, config, TimeSeriesRecorder.Metric.POPULATION);
+                }
+            }
+            return new double[] {elapsed / 1e6 / measuredDays, (double) elapsed / Math.max(1, animalDays)};
+        } finally {
+            simulation.stopSimulation();
+        }
+    }
+}
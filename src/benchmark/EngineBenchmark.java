@@ -0,0 +1,64 @@
+package benchmark;
+
+import enums.EngineMode;
+import model.Island;
+import simulation.Simulation;
+import statistics.TimeSeriesRecorder;
+import utils.Scenario;
+import utils.SimulationSettings.AnimalConfig;
+
+/**
+ * Бенчмарк способов обработки животных: общий пул потоков (FORK_JOIN) и актор на регион (ACTORS).
+ * Печатает время дня и время на одно животное в день (численность от прогона к прогону разная).
+ *
+ * Регион актора - полоса строк чанков, поэтому для сравнения нужен остров из многих чанков
+ * (например, ISLAND_WIDTH = ISLAND_HEIGHT = 200). Каждый режим лучше запускать в отдельной JVM:
+ * java benchmark.EngineBenchmark [дней_прогрева] [дней_замера] [forkjoin|actors]
+ */
+public final class EngineBenchmark {
+
+    private EngineBenchmark() {}
+
+    public static void main(String[] args) {
+        int warmupDays = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int measuredDays = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        String mode = args.length > 2 ? args[2] : "both";
+
+        if (!mode.equals("actors")) {
+            double[] forkJoin = measure(warmupDays, measuredDays, EngineMode.FORK_JOIN);
+            System.out.printf("Пул потоков: %.3f мс/день, %.1f нс на животное%n", forkJoin[0], forkJoin[1]);
+        }
+        if (!mode.equals("forkjoin")) {
+            double[] actors = measure(warmupDays, measuredDays, EngineMode.ACTORS);
+            System.out.printf("Акторы:      %.3f мс/день, %.1f нс на животное%n", actors[0], actors[1]);
+        }
+    }
+
+    /**
+     * Прогоняет новую симуляцию.
+     * @return [0] - среднее время дня в миллисекундах, [1] - время на одно животное в день в наносекундах
+     */
+    static double[] measure(int warmupDays, int measuredDays, EngineMode engineMode) {
+        Simulation simulation = new Simulation(new Island(Scenario.selected()));
+        simulation.setConsoleOutput(false);
+        simulation.setEngineMode(engineMode);
+        try {
+            simulation.runDays(warmupDays); // Прогрев JIT
+            long start = System.nanoTime();
+            simulation.runDays(measuredDays);
+            long elapsed = System.nanoTime() - start;
+
+            // Суммарное количество животных за замеренные дни (по истории статистики)
+            TimeSeriesRecorder series = simulation.getTimeSeries();
+            long animalDays = 0;
+            for (long day = series.getDays() - measuredDays; day < series.getDays(); day++) {
+                for (AnimalConfig config : AnimalConfig.values()) {
+                    animalDays += series.get(day, config, TimeSeriesRecorder.Metric.POPULATION);
+                }
+            }
+            return new double[] {elapsed / 1e6 / measuredDays, (double) elapsed / Math.max(1, animalDays)};
+        } finally {
+            simulation.stopSimulation();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package benchmark;
+
+import enums.AnimalKind;
+import model.Island;
+import model.Location;
+import simulation.Simulation;
+import utils.Scenario;
+import utils.Settings;
+import utils.SimulationSettings.AnimalConfig;
+
+/**
+ * Бенчмарк балансировки нагрузки между потоками (LoadBalancer) на острове со скоплением животных.
+ * Кроме обычного заселения в левый верхний угол острова (восьмая часть ширины и высоты) добавляются
+ * травоядные - десятая часть maxPerCell каждого вида в каждой клетке. Сравнивается дисбаланс потоков при статическом
+ * разбиении чанков по площади и при разбиении по измеренной стоимости.
+ *
+ * Нужен остров из многих чанков и несколько частей (LOAD_BALANCING_PARTS > 1 или несколько процессоров).
+ * Чанк делится между частями целиком, поэтому в скоплении должно быть заметно больше чанков, чем частей.
+ * Например, при ISLAND_WIDTH = ISLAND_HEIGHT = 200, CHUNK_SIZE = 4 и LOAD_BALANCING_PARTS = 4
+ * (один процессор, 5 + 15 дней) дисбаланс по площади около 300% (все скопление в одной части),
+ * по стоимости - в среднем 5%, не больше 10%. При CHUNK_SIZE = 16 скопление занимает всего 4 чанка,
+ * и ровнее, чем по чанку на часть, его не разделить.
+ *
+ * Запуск из консоли:
+ * java benchmark.LoadBalanceBenchmark [дней_прогрева] [дней_замера] [static|measured]
+ */
+public final class LoadBalanceBenchmark {
+
+    private LoadBalanceBenchmark() {}
+
+    public static void main(String[] args) {
+        int warmupDays = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int measuredDays = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String mode = args.length > 2 ? args[2] : "both";
+
+        if (!mode.equals("measured")) {
+            double[] area = measure(warmupDays, measuredDays, false);
+            System.out.printf("По площади:    %.3f мс/день, дисбаланс %.1f%%, максимальный %.1f%%%n", area[0], area[1], area[2]);
+        }
+        if (!mode.equals("static")) {
+            double[] cost = measure(warmupDays, measuredDays, true);
+            System.out.printf("По стоимости:  %.3f мс/день, дисбаланс %.1f%%, максимальный %.1f%%%n", cost[0], cost[1], cost[2]);
+        }
+    }
+
+    /**
+     * Прогоняет новую симуляцию со скоплением животных.
+     * @param measured true - разбиение по измеренной стоимости, false - по площади
+     * @return [0] - среднее время дня в миллисекундах, [1] - средний и [2] - максимальный дисбаланс за замеренные дни в процентах
+     */
+    static double[] measure(int warmupDays, int measuredDays, boolean measured) {
+        Island island = new Island(Scenario.selected());
+        addCluster(island);
+        Simulation simulation = new Simulation(island);
+        simulation.setConsoleOutput(false);
+        simulation.setCostBalancing(measured);
+        try {
+            simulation.runDays(warmupDays);
+            double imbalanceSum = 0, imbalanceMax = 0;
+            long start = System.nanoTime();
+            for (int day = 0; day < measuredDays; day++) {
+                simulation.runDays(1);
+                imbalanceSum += simulation.getLoadImbalance();
+                imbalanceMax = Math.max(imbalanceMax, simulation.getLoadImbalance());
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.println(simulation.getLoadMetrics());
+            return new double[] {elapsed / 1e6 / measuredDays, imbalanceSum / measuredDays * 100, imbalanceMax * 100};
+        } finally {
+            simulation.stopSimulation();
+        }
+    }
+
+    /**
+     * Заселяет левый верхний угол острова травоядными (десятая часть maxPerCell каждого вида в каждой клетке).
+     */
+    private static void addCluster(Island island) {
+        int width = Math.max(1, island.getWidth() / 8);
+        int height = Math.max(1, island.getHeight() / 8);
+        for (AnimalConfig config : AnimalConfig.values()) {
+            if (config.kind != AnimalKind.HERBIVORE) continue; // Только травоядные
+            Settings.Species species = island.getSettings().species(config);
+            int added = 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    Location location = island.getLocation(x, y);
+                    for (int i = 0; i < species.maxPerCell / 10; i++) {
+                        if (location.addAnimal(species.createAnimal())) added++;
+                    }
+                }
+            }
+            island.getStatistics().recordSpawn(config, added);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package benchmark;
+
+import model.Island;
+import simulation.Simulation;
+import statistics.TimeSeriesRecorder;
+import utils.Scenario;
+import utils.SimulationSettings.AnimalConfig;
+
+/**
+ * Бенчмарк гибридного движка (среднее поле для насыщенных чанков, simulation.MeanField):
+ * ускорение и ошибка численности видов относительно полного расчета по животным.
+ *
+ * Расчет по животным случаен, поэтому два полных прогона тоже расходятся. Прогоняются два полных
+ * расчета и один гибридный с одинаковым начальным заселением; ошибка гибрида сравнивается
+ * с расхождением двух полных прогонов - это шум модели, ниже которого ошибку не измерить.
+ * Ошибка - относительное отклонение численности, просуммированное по дням и видам:
+ * сумма |гибрид - полный| / сумма полный.
+ *
+ * java benchmark.MeanFieldBenchmark [дней]
+ * Пороги переключения - MEAN_FIELD_ENTER_FILL и MEAN_FIELD_EXIT_FILL; насыщенный остров дает,
+ * например, java -Dscenario=scenarios/max-density.properties benchmark.MeanFieldBenchmark 100
+ */
+public final class MeanFieldBenchmark {
+
+    private MeanFieldBenchmark() {}
+
+    public static void main(String[] args) {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+
+        Run full = run(days, false);
+        Run fullAgain = run(days, false);
+        Run hybrid = run(days, true);
+
+        System.out.printf("Полный расчет: %.3f мс/день%n", full.millisPerDay());
+        System.out.printf("Гибрид:        %.3f мс/день, ускорение %.2fx%n",
+                hybrid.millisPerDay(), full.millisPerDay() / hybrid.millisPerDay());
+        System.out.println(hybrid.metrics());
+        System.out.printf("Ошибка численности гибрида: %.1f%% (расхождение двух полных прогонов: %.1f%%)%n",
+                error(hybrid.population(), full.population(), -1) * 100,
+                error(fullAgain.population(), full.population(), -1) * 100);
+
+        System.out.printf("%-12s %12s %12s %9s %9s%n", "Вид", "Полный", "Гибрид", "Ошибка", "Шум");
+        for (AnimalConfig config : AnimalConfig.values()) {
+            int s = config.ordinal();
+            if (full.population()[days - 1][s] == 0 && hybrid.population()[days - 1][s] == 0) continue;
+            System.out.printf("%-12s %12d %12d %8.1f%% %8.1f%%%n", config.name(),
+                    full.population()[days - 1][s], hybrid.population()[days - 1][s],
+                    error(hybrid.population(), full.population(), s) * 100,
+                    error(fullAgain.population(), full.population(), s) * 100);
+        }
+    }
+
+    /**
+     * Итог одного прогона.
+     * @param population Численность по дням и видам
+     * @param metrics Сводка среднего поля (пустая для полного расчета)
+     */
+    record Run(double millisPerDay, int[][] population, String metrics) {}
+
+    /**
+     * Прогоняет новую симуляцию.
+     * @param meanField true - гибрид, false - полный расчет по животным
+     */
+    static Run run(int days, boolean meanField) {
+        Simulation simulation = new Simulation(new Island(Scenario.selected()));
+        simulation.setConsoleOutput(false);
+        simulation.setMeanField(meanField);
+        try {
+            long start = System.nanoTime();
+            simulation.runDays(days);
+            long elapsed = System.nanoTime() - start;
+
+            TimeSeriesRecorder series = simulation.getTimeSeries();
+            AnimalConfig[] species = AnimalConfig.values();
+            int[][] population = new int[days][species.length];
+            for (int day = 0; day < days; day++) {
+                for (AnimalConfig config : species) {
+                    population[day][config.ordinal()] = series.get(day, config, TimeSeriesRecorder.Metric.POPULATION);
+                }
+            }
+            return new Run(elapsed / 1e6 / days, population, simulation.getMeanFieldMetrics());
+        } finally {
+            simulation.stopSimulation();
+        }
+    }
+
+    /**
+     * @param species Индекс вида или -1 - все виды
+     * @return Сумма |actual - expected| / сумма expected по дням (0, если expected всегда 0)
+     */
+    static double error(int[][] actual, int[][] expected, int species) {
+        double difference = 0, total = 0;
+        for (int day = 0; day < expected.length; day++) {
+            for (int s = 0; s < expected[day].length; s++) {
+                if (species >= 0 && s != species) continue;
+                difference += Math.abs(actual[day][s] - expected[day][s]);
+                total += expected[day][s];
+            }
+        }
+        return total == 0 ? 0 : difference / total;
+    }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import enums.AnimalKind;
+import enums.StressProfile;
+import utils.Scenario;
+import utils.Settings;
+import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Генератор нагрузочных сценариев: записывает файлы сценариев (utils.Scenario) для профилей
+ * StressProfile, которые затем подаются бенчмаркам и ансамблю через -Dscenario=файл.
+ *
+ * Запуск: java benchmark.ScenarioGenerator [каталог] [профиль...]
+ * Без профилей генерируются все. Профиль задается именем константы, например MAX_DENSITY.
+ */
+public class ScenarioGenerator {
+    private static final int DENSE_ISLAND_SIZE = 16; // Сторона острова для профилей с заполненными клетками
+    private static final int PREDATOR_ISLAND_SIZE = 64; // Сторона острова для профиля с хищниками
+    private static final int SPARSE_ISLAND_SIZE = 4000; // Сторона разреженного острова
+    private static final int SPARSE_COUNT_FACTOR = 100; // Во сколько раз больше начальных животных на разреженном острове
+
+    public static void main(String[] args) {
+        Path directory = Path.of(args.length > 0 ? args[0] : SimulationSettings.SCENARIO_DIRECTORY);
+        List<StressProfile> profiles = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) profiles.add(StressProfile.valueOf(args[i]));
+        if (profiles.isEmpty()) profiles.addAll(List.of(StressProfile.values()));
+
+        for (StressProfile profile : profiles) {
+            Settings settings = generate(profile, Settings.DEFAULT);
+            Path file = directory.resolve(profile.fileName + ".properties");
+            Scenario.save(settings, "Нагрузочный профиль " + profile, file);
+            long animals = 0;
+            for (AnimalConfig config : AnimalConfig.values()) animals += settings.species(config).initialCount;
+            System.out.printf("%-18s %dx%d, начальных животных: %d -> %s%n",
+                    profile, settings.width, settings.height, animals, file);
+        }
+    }
+
+    /**
+     * Строит настройки профиля на основе базовых (параметры видов и вероятности поедания сохраняются).
+     */
+    public static Settings generate(StressProfile profile, Settings base) {
+        Settings.Builder builder = base.toBuilder();
+        return switch (profile) {
+            case MAX_DENSITY -> {
+                int cells = DENSE_ISLAND_SIZE * DENSE_ISLAND_SIZE;
+                builder.islandSize(DENSE_ISLAND_SIZE, DENSE_ISLAND_SIZE);
+                // Каждого вида - емкость острова; клетка, заполненная до maxPerCell, лишних не принимает
+                for (AnimalConfig config : AnimalConfig.values()) {
+                    builder.initialCount(config, cells * base.species(config).maxPerCell);
+                }
+                yield builder.build();
+            }
+            case PREDATOR_HEAVY -> {
+                int cells = PREDATOR_ISLAND_SIZE * PREDATOR_ISLAND_SIZE;
+                double scale = (double) cells / (base.width * base.height);
+                builder.islandSize(PREDATOR_ISLAND_SIZE, PREDATOR_ISLAND_SIZE);
+                for (AnimalConfig config : AnimalConfig.values()) {
+                    Settings.Species species = base.species(config);
+                    int count = config.kind == AnimalKind.PREDATOR
+                            ? cells * species.maxPerCell / 2
+                            : (int) Math.round(species.initialCount * scale); // Травоядные - с той же плотностью, что в базовых
+                    builder.initialCount(config, count);
+                }
+                yield builder.build();
+            }
+            case SPARSE_WORLD -> {
+                builder.islandSize(SPARSE_ISLAND_SIZE, SPARSE_ISLAND_SIZE);
+                for (AnimalConfig config : AnimalConfig.values()) {
+                    builder.initialCount(config, base.species(config).initialCount * SPARSE_COUNT_FACTOR);
+                }
+                yield builder.build();
+            }
+            case CATERPILLAR_SWARM -> {
+                int cells = DENSE_ISLAND_SIZE * DENSE_ISLAND_SIZE;
+                builder.islandSize(DENSE_ISLAND_SIZE, DENSE_ISLAND_SIZE);
+                for (AnimalConfig config : AnimalConfig.values()) {
+                    int count = config == AnimalConfig.CATERPILLAR ? cells * base.species(config).maxPerCell : 0;
+                    builder.initialCount(config, count);
+                }
+                yield builder.build();
+            }
+        };
+    }
+}
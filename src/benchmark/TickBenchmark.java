@@ -0,0 +1,78 @@
+package benchmark;
+
+import model.Island;
+import simulation.Simulation;
+import statistics.EventLog;
+import statistics.TimeSeriesRecorder;
+import utils.Scenario;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Простой бенчмарк длительности одного дня (тика) симуляции.
+ * Сравнивает прогон без журнала событий и с включенным журналом,
+ * чтобы проверить, что журнал добавляет не более 10% ко времени тика.
+ *
+ * Каждый прогон выращивает свою случайную популяцию, и время дня зависит от неё сильнее, чем
+ * от журнала: одна пара прогонов дает разброс больше самих накладных расходов. Поэтому время
+ * делится на число животных-дней (сумма численности за замеренные дни), прогоны с журналом
+ * и без чередуются rounds раз, а итог - медиана накладных расходов по парам.
+ *
+ * Запуск из консоли:
+ * java benchmark.TickBenchmark [дней_прогрева] [дней_замера] [пар_прогонов]
+ */
+public final class TickBenchmark {
+
+    private TickBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int warmupDays = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int measuredDays = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Path logDir = Files.createTempDirectory("island-events");
+        double[] overheads = new double[rounds];
+        for (int round = 0; round < rounds; round++) {
+            double withoutLog = measure(warmupDays, measuredDays, null);
+            double withLog = measure(warmupDays, measuredDays, logDir);
+            overheads[round] = (withLog / withoutLog - 1) * 100;
+            System.out.printf("Пара %d: без журнала %.3f, с журналом %.3f мкс на животное-день (%+.1f%%)%n",
+                    round + 1, withoutLog, withLog, overheads[round]);
+        }
+        Arrays.sort(overheads);
+        System.out.printf("Накладные расходы журнала: медиана %+.1f%% (от %+.1f%% до %+.1f%%)%n",
+                overheads[rounds / 2], overheads[0], overheads[rounds - 1]);
+        System.out.println("Журнал записан в " + logDir);
+    }
+
+    /**
+     * Прогоняет новую симуляцию и возвращает среднее время на одно животное-день в микросекундах.
+     * @param logDir Папка журнала событий или null, если журнал выключен
+     */
+    static double measure(int warmupDays, int measuredDays, Path logDir) {
+        Simulation simulation = new Simulation(new Island(Scenario.selected()));
+        simulation.setConsoleOutput(false);
+        if (logDir != null) EventLog.open(logDir);
+        try {
+            simulation.runDays(warmupDays); // Прогрев JIT
+            long start = System.nanoTime();
+            int lived = simulation.runDays(measuredDays);
+            long elapsed = System.nanoTime() - start;
+
+            TimeSeriesRecorder series = simulation.getTimeSeries();
+            long animalDays = 0;
+            for (long day = series.getDays() - lived; day < series.getDays(); day++) {
+                for (AnimalConfig config : AnimalConfig.values()) {
+                    animalDays += series.get(day, config, TimeSeriesRecorder.Metric.POPULATION);
+                }
+            }
+            return elapsed / 1e3 / Math.max(1, animalDays);
+        } finally {
+            simulation.stopSimulation();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package distributed;
+
+import enums.Topology;
+import utils.Scenario;
+import utils.Settings;
+import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Координатор распределенного острова: барьер дня, пересылка мигрантов и краевых строк,
+ * сводная статистика.
+ *
+ * Остров делится на горизонтальные полосы (по строкам чанков), каждую полосу симулирует
+ * отдельный процесс Worker. Рабочие соединены с координатором звездой: все сообщения дня
+ * проходят через него, поэтому координатор же служит барьером - следующий день начинается,
+ * когда все рабочие подтвердили миграции предыдущего.
+ *
+ * Мигрант переходит в две фазы: рабочий-получатель добавляет его, если в клетке есть место
+ * (ACCEPTS), и только после этого рабочий-отправитель удаляет его у себя (CONFIRMS).
+ * Животное не теряется и не удваивается, даже если соседняя клетка переполнена.
+ *
+ * Запуск: java distributed.Coordinator [рабочих] [дней] [адрес] [--spawn]
+ * С --spawn координатор сам запускает рабочих - отдельные JVM с тем же classpath, на той же машине.
+ */
+public class Coordinator {
+    private static final int SPECIES = AnimalConfig.values().length;
+
+    private final int workers;
+    private final int width;
+    private final int height;
+    private final int halo;
+    private final int[] rowFrom, rowTo; // Полосы рабочих
+    private final DataInputStream[] in;
+    private final DataOutputStream[] out;
+
+    // Сводка последнего дня
+    private final int[] population = new int[SPECIES];
+    private long plants;
+    private int migrants, rejected;
+    private long bytes; // Байт отправлено координатором рабочим за все время
+
+    private Coordinator(int workers, Settings settings, ServerSocketChannel server) throws IOException {
+        this.workers = workers;
+        this.width = settings.width;
+        this.height = settings.height;
+        this.halo = Protocol.haloRows(settings);
+        this.rowFrom = new int[workers];
+        this.rowTo = new int[workers];
+        this.in = new DataInputStream[workers];
+        this.out = new DataOutputStream[workers];
+        for (int i = 0; i < workers; i++) {
+            SocketChannel channel = server.accept();
+            DataInputStream input = Protocol.input(channel);
+            Protocol.expect(input, Protocol.HELLO);
+            int id = Protocol.readVarInt(input);
+            if (id < 0 || id >= workers || in[id] != null) throw new IOException("Неверный номер рабочего " + id);
+            in[id] = input;
+            out[id] = Protocol.output(channel);
+            rowFrom[id] = Protocol.readVarInt(input);
+            rowTo[id] = Protocol.readVarInt(input);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> positional = new ArrayList<>();
+        boolean spawn = false;
+        for (String arg : args) {
+            if (arg.equals("--spawn")) spawn = true;
+            else positional.add(arg);
+        }
+        int workers = positional.size() > 0 ? Integer.parseInt(positional.get(0)) : SimulationSettings.DISTRIBUTED_WORKERS;
+        int days = positional.size() > 1 ? Integer.parseInt(positional.get(1)) : SimulationSettings.DISTRIBUTED_DAYS;
+        String address = positional.size() > 2 ? positional.get(2) : SimulationSettings.DISTRIBUTED_ADDRESS;
+        Settings settings = Scenario.selected();
+        if (workers > Protocol.maxWorkers(settings)) {
+            System.out.println("Строк чанков только " + Protocol.maxWorkers(settings) + ", рабочих будет столько же");
+            workers = Protocol.maxWorkers(settings);
+        }
+
+        List<Process> processes = new ArrayList<>();
+        try (ServerSocketChannel server = Protocol.listen(address)) {
+            if (spawn) {
+                for (int i = 0; i < workers; i++) processes.add(spawnWorker(i, workers, address));
+            }
+            System.out.println("Координатор: ожидание " + workers + " рабочих на " + address);
+            Coordinator coordinator = new Coordinator(workers, settings, server);
+            long start = System.nanoTime();
+            for (int day = 1; day <= days; day++) {
+                coordinator.runDay(day);
+                if (day % SimulationSettings.STATISTICS_PRINT_INTERVAL_DAYS == 0 || day == days) {
+                    coordinator.printStatistics(day);
+                }
+            }
+            coordinator.stop();
+            System.out.printf("Прожито дней: %d за %.1f с%n", days, (System.nanoTime() - start) / 1e9);
+        }
+        for (Process process : processes) process.waitFor();
+        if (!address.startsWith("tcp:")) Files.deleteIfExists(Path.of(address)); // Файл Unix-сокета
+    }
+
+    // Запускает рабочего в отдельной JVM с теми же classpath и параметрами JVM
+    private static Process spawnWorker(int id, int workers, String address) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Worker.class.getName());
+        command.add(String.valueOf(id));
+        command.add(String.valueOf(workers));
+        command.add(address);
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    // Один день: барьер, отчеты, пересылка мигрантов и гало, подтверждения
+    private void runDay(int day) throws IOException {
+        for (DataOutputStream o : out) {
+            o.writeByte(Protocol.DAY);
+            Protocol.writeVarInt(o, day);
+            o.flush();
+        }
+
+        // Отчеты рабочих
+        List<List<int[]>> arrivals = new ArrayList<>(); // Для каждого получателя: {отправитель, номер у отправителя}
+        List<List<byte[]>> arrivalData = new ArrayList<>(); // ... и сами мигранты в формате протокола
+        List<List<Protocol.Row>> haloRows = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            arrivals.add(new ArrayList<>());
+            arrivalData.add(new ArrayList<>());
+            haloRows.add(new ArrayList<>());
+        }
+        int[] emigrantCounts = new int[workers];
+        Arrays.fill(population, 0);
+        plants = 0;
+        for (int w = 0; w < workers; w++) {
+            DataInputStream i = in[w];
+            Protocol.expect(i, Protocol.REPORT);
+            for (int s = 0; s < SPECIES; s++) population[s] += Protocol.readVarInt(i);
+            plants += Protocol.readVarLong(i);
+
+            int emigrants = Protocol.readVarInt(i);
+            emigrantCounts[w] = emigrants;
+            for (int e = 0; e < emigrants; e++) {
+                int target = Protocol.readVarInt(i);
+                int species = i.readUnsignedByte();
+                float satiety = i.readFloat();
+                long genome = i.readLong();
+                int owner = ownerOf(target / width);
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(16);
+                DataOutputStream data = new DataOutputStream(buffer);
+                Protocol.writeVarInt(data, target);
+                data.writeByte(species);
+                data.writeFloat(satiety);
+                data.writeLong(genome);
+                arrivals.get(owner).add(new int[] {w, e});
+                arrivalData.get(owner).add(buffer.toByteArray());
+            }
+
+            int rows = Protocol.readVarInt(i);
+            for (int r = 0; r < rows; r++) {
+                Protocol.Row row = Protocol.Row.read(i, width, SPECIES);
+                for (int v = 0; v < workers; v++) {
+                    if (v != w && inHalo(v, row.row)) haloRows.get(v).add(row);
+                }
+            }
+        }
+
+        // Иммигранты и гало каждому рабочему
+        for (int w = 0; w < workers; w++) {
+            DataOutputStream o = out[w];
+            o.writeByte(Protocol.ARRIVALS);
+            Protocol.writeVarInt(o, arrivalData.get(w).size());
+            for (byte[] data : arrivalData.get(w)) o.write(data);
+            Protocol.writeVarInt(o, haloRows.get(w).size());
+            for (Protocol.Row row : haloRows.get(w)) row.write(o);
+            o.flush();
+        }
+
+        // Ответы получателей превращаются в подтверждения отправителям
+        boolean[][] confirms = new boolean[workers][];
+        for (int w = 0; w < workers; w++) confirms[w] = new boolean[emigrantCounts[w]];
+        migrants = 0;
+        rejected = 0;
+        for (int w = 0; w < workers; w++) {
+            Protocol.expect(in[w], Protocol.ACCEPTS);
+            boolean[] accepted = Protocol.readBits(in[w]);
+            List<int[]> origins = arrivals.get(w);
+            for (int a = 0; a < accepted.length; a++) {
+                int[] origin = origins.get(a);
+                confirms[origin[0]][origin[1]] = accepted[a];
+                if (accepted[a]) migrants++;
+                else rejected++;
+            }
+        }
+        for (int w = 0; w < workers; w++) {
+            out[w].writeByte(Protocol.CONFIRMS);
+            Protocol.writeBits(out[w], confirms[w]);
+            out[w].flush();
+        }
+
+        bytes = 0;
+        for (DataOutputStream o : out) bytes += o.size();
+    }
+
+    // Рабочий, которому принадлежит строка
+    private int ownerOf(int row) {
+        for (int w = 0; w < workers; w++) {
+            if (row >= rowFrom[w] && row < rowTo[w]) return w;
+        }
+        throw new IllegalStateException("Строка " + row + " не принадлежит ни одному рабочему");
+    }
+
+    // Лежит ли строка в гало рабочего: не дальше halo строк от его полосы (через край - только на торе)
+    private boolean inHalo(int worker, int row) {
+        int above = rowFrom[worker] - row;
+        int below = row - rowTo[worker] + 1;
+        if (above > 0 && above <= halo || below > 0 && below <= halo) return true;
+        if (SimulationSettings.TOPOLOGY != Topology.TORUS) return false;
+        return (above + height > 0 && above + height <= halo) || (below + height > 0 && below + height <= halo);
+    }
+
+    // Сводная статистика всех полос
+    private void printStatistics(int day) {
+        StringBuilder sb = new StringBuilder("\n=== День " + day + " (рабочих: " + workers + ") ===\n");
+        int total = 0;
+        AnimalConfig[] configs = AnimalConfig.values();
+        for (int s = 0; s < SPECIES; s++) {
+            if (population[s] == 0) continue;
+            sb.append(configs[s].name()).append(": ").append(population[s]).append('\n');
+            total += population[s];
+        }
+        sb.append("Всего животных: ").append(total).append('\n');
+        sb.append("Растений: ").append(plants).append('\n');
+        sb.append("Мигрантов за день: ").append(migrants).append(" (не поместились: ").append(rejected).append(")\n");
+        sb.append(String.format("Отправлено координатором (всего): %.1f КБ", bytes / 1024.0));
+        System.out.println(sb);
+    }
+
+    // Останавливает рабочих
+    private void stop() throws IOException {
+        for (DataOutputStream o : out) {
+            o.writeByte(Protocol.STOP);
+            o.flush();
+        }
+    }
+}
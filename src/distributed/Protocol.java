@@ -0,0 +1,235 @@
+package distributed;
+
+import utils.Settings;
+import utils.SimulationSettings;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Двоичный протокол распределенного острова: коды сообщений, компактная запись чисел и сокеты.
+ *
+ * Все числа, кроме сытости (float), генома (long) и вида (byte), записываются как varint - 7 бит на байт, старший
+ * бит означает "есть продолжение". Большая часть чисел (растения клетки, номера видов, количества)
+ * помещается в один байт.
+ *
+ * Сообщения (первый байт - код):
+ * HELLO    рабочий → координатор: номер рабочего, первая строка и строка за последней строкой полосы
+ * DAY      координатор → рабочий: номер дня
+ * REPORT   рабочий → координатор: численность видов, растения, эмигранты (клетка, вид, сытость, геном)
+ *          и краевые строки полосы (растения по x и ненулевые количества животных: x, вид, количество)
+ * ARRIVALS координатор → рабочий: иммигранты и строки гало (в том же формате, что и краевые строки)
+ * ACCEPTS  рабочий → координатор: битовая маска принятых иммигрантов
+ * CONFIRMS координатор → рабочий: битовая маска эмигрантов, которых приняли соседи
+ * STOP     координатор → рабочий: завершить работу
+ *
+ * Адрес: "tcp:порт" - TCP на локальном интерфейсе, иначе - путь к Unix-сокету.
+ *
+ * Полосы и гало зависят от параметров модели, поэтому координатор и рабочие должны загрузить
+ * один и тот же сценарий (-Dscenario; рабочие, запущенные с --spawn, получают его вместе с параметрами JVM).
+ */
+final class Protocol {
+    static final byte HELLO = 1;
+    static final byte DAY = 2;
+    static final byte REPORT = 3;
+    static final byte ARRIVALS = 4;
+    static final byte ACCEPTS = 5;
+    static final byte CONFIRMS = 6;
+    static final byte STOP = 7;
+
+    private static final int BUFFER_SIZE = 1 << 16; // Буфер потоков сокета
+
+    private Protocol() {}
+
+    /**
+     * Строка острова для обмена гало: растения каждой клетки и ненулевые количества животных.
+     */
+    static final class Row {
+        final int row; // Номер строки
+        final int[] plants; // Растения по x
+        final int[] counts; // Количество животных: counts[x * видов + вид]
+
+        Row(int row, int[] plants, int[] counts) {
+            this.row = row;
+            this.plants = plants;
+            this.counts = counts;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeVarInt(out, row);
+            for (int plant : plants) writeVarInt(out, plant);
+            int nonZero = 0;
+            for (int count : counts) if (count != 0) nonZero++;
+            writeVarInt(out, nonZero);
+            int species = counts.length / plants.length;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) continue;
+                writeVarInt(out, i / species);
+                out.writeByte(i % species);
+                writeVarInt(out, counts[i]);
+            }
+        }
+
+        static Row read(DataInputStream in, int width, int species) throws IOException {
+            int row = readVarInt(in);
+            int[] plants = new int[width];
+            for (int x = 0; x < width; x++) plants[x] = readVarInt(in);
+            int[] counts = new int[width * species];
+            int nonZero = readVarInt(in);
+            for (int i = 0; i < nonZero; i++) {
+                int x = readVarInt(in);
+                int s = in.readUnsignedByte();
+                counts[x * species + s] = readVarInt(in);
+            }
+            return new Row(row, plants, counts);
+        }
+    }
+
+    /**
+     * @return Наибольшее количество рабочих: у каждого должна быть хотя бы одна строка чанков
+     */
+    static int maxWorkers(Settings settings) {
+        int chunkSize = SimulationSettings.CHUNK_SIZE;
+        return (settings.height + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Полоса строк рабочего: строки чанков делятся между рабочими поровну.
+     * @return {первая строка, строка за последней строкой}
+     */
+    static int[] strip(int worker, int workers, Settings settings) {
+        int chunkSize = SimulationSettings.CHUNK_SIZE;
+        int chunkRows = maxWorkers(settings);
+        int from = chunkRows * worker / workers * chunkSize;
+        int to = Math.min(settings.height, chunkRows * (worker + 1) / workers * chunkSize);
+        return new int[] {from, to};
+    }
+
+    /**
+     * @return Количество строк гало: на столько строк за край полосы животное может уйти за ход
+     */
+    static int haloRows(Settings settings) {
+        int rows = 0;
+        for (SimulationSettings.AnimalConfig config : SimulationSettings.AnimalConfig.values()) {
+            rows = Math.max(rows, settings.species(config).speedLimit);
+        }
+        return rows;
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+
+    /**
+     * Записывает битовую маску: количество бит и сами биты по 8 в байте.
+     */
+    static void writeBits(DataOutputStream out, boolean[] bits) throws IOException {
+        writeVarInt(out, bits.length);
+        for (int i = 0; i < bits.length; i += 8) {
+            int b = 0;
+            for (int j = 0; j < 8 && i + j < bits.length; j++) {
+                if (bits[i + j]) b |= 1 << j;
+            }
+            out.writeByte(b);
+        }
+    }
+
+    static boolean[] readBits(DataInputStream in) throws IOException {
+        boolean[] bits = new boolean[readVarInt(in)];
+        for (int i = 0; i < bits.length; i += 8) {
+            int b = in.readUnsignedByte();
+            for (int j = 0; j < 8 && i + j < bits.length; j++) {
+                bits[i + j] = (b & (1 << j)) != 0;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Проверяет код следующего сообщения.
+     * @throws IOException Если пришло другое сообщение (рассинхронизация протокола)
+     */
+    static void expect(DataInputStream in, byte type) throws IOException {
+        byte actual = in.readByte();
+        if (actual != type) throw new IOException("Ожидалось сообщение " + type + ", получено " + actual);
+    }
+
+    /**
+     * Открывает серверный сокет координатора.
+     */
+    static ServerSocketChannel listen(String address) throws IOException {
+        if (address.startsWith("tcp:")) {
+            return ServerSocketChannel.open().bind(tcpAddress(address));
+        }
+        Path path = Path.of(address);
+        Files.deleteIfExists(path); // Файл сокета от прошлого запуска
+        return ServerSocketChannel.open(StandardProtocolFamily.UNIX).bind(UnixDomainSocketAddress.of(path));
+    }
+
+    /**
+     * Подключается к координатору.
+     */
+    static SocketChannel connect(String address) throws IOException {
+        if (address.startsWith("tcp:")) {
+            return SocketChannel.open(tcpAddress(address));
+        }
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.connect(UnixDomainSocketAddress.of(Path.of(address)));
+        return channel;
+    }
+
+    private static SocketAddress tcpAddress(String address) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address.substring(4)));
+    }
+
+    static DataInputStream input(SocketChannel channel) {
+        return new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+    }
+
+    static DataOutputStream output(SocketChannel channel) {
+        return new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+    }
+}
@@ -0,0 +1,200 @@
+package distributed;
+
+import model.Island;
+import model.Location;
+import model.PopulationIndex;
+import model.animals.Animal;
+import simulation.Simulation;
+import utils.Scenario;
+import utils.Settings;
+import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Рабочий процесс распределенного острова: симулирует свою полосу строк и обменивается
+ * с координатором мигрантами и краевыми строками.
+ *
+ * День рабочего:
+ * 1. DAY - прогоняет день своей полосы. Животные, которые решили уйти за полосу, остаются на месте
+ *    и попадают в эмигранты (Island.drainEmigrants).
+ * 2. REPORT - отправляет численность, растения, эмигрантов и краевые строки полосы.
+ * 3. ARRIVALS - принимает иммигрантов (если в целевой клетке есть место) и строки гало соседей:
+ *    растения гало видит поиск еды, животные гало - индекс численности (охота хищников).
+ * 4. ACCEPTS - отвечает, каких иммигрантов принял.
+ * 5. CONFIRMS - удаляет из своих локаций эмигрантов, которых приняли соседи. Остальные остаются
+ *    на месте, как животное, которому не хватило места в соседней клетке.
+ *
+ * Запуск: java distributed.Worker <номер> <рабочих> <адрес координатора>
+ */
+public class Worker {
+    private static final AnimalConfig[] SPECIES = AnimalConfig.values();
+
+    private final Island island;
+    private final Simulation simulation;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final int width;
+    private final int halo;
+    private final Map<Integer, int[]> haloCounts = new HashMap<>(); // Животные гало, учтенные в индексе (строка -> counts)
+    private List<Island.Emigrant> emigrants = new ArrayList<>(); // Эмигранты текущего дня в порядке отчета
+
+    private Worker(int id, int workers, Settings settings, SocketChannel channel) throws IOException {
+        int[] strip = Protocol.strip(id, workers, settings);
+        this.width = settings.width;
+        this.halo = Protocol.haloRows(settings);
+        this.in = Protocol.input(channel);
+        this.out = Protocol.output(channel);
+        out.writeByte(Protocol.HELLO);
+        Protocol.writeVarInt(out, id);
+        Protocol.writeVarInt(out, strip[0]);
+        Protocol.writeVarInt(out, strip[1]);
+        out.flush();
+
+        this.island = new Island(settings, strip[0], strip[1]);
+        this.simulation = new Simulation(island);
+        simulation.setConsoleOutput(false);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int id = Integer.parseInt(args[0]);
+        int workers = Integer.parseInt(args[1]);
+        String address = args.length > 2 ? args[2] : SimulationSettings.DISTRIBUTED_ADDRESS;
+        try (SocketChannel channel = Protocol.connect(address)) {
+            new Worker(id, workers, Scenario.selected(), channel).run();
+        }
+    }
+
+    // Цикл обработки сообщений координатора до STOP
+    private void run() throws IOException {
+        try {
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case Protocol.DAY -> day();
+                    case Protocol.ARRIVALS -> arrivals();
+                    case Protocol.CONFIRMS -> confirms();
+                    case Protocol.STOP -> {
+                        return;
+                    }
+                    default -> throw new IOException("Неожиданное сообщение " + type);
+                }
+            }
+        } finally {
+            simulation.stopSimulation();
+        }
+    }
+
+    // Прогоняет день и отправляет отчет
+    private void day() throws IOException {
+        Protocol.readVarInt(in); // Номер дня (рабочие идут в ногу с координатором)
+        simulation.runDays(1);
+
+        // Эмигрант, которого после решения уйти съели или который успел уйти сам, больше не мигрирует
+        emigrants = new ArrayList<>();
+        for (Island.Emigrant emigrant : island.drainEmigrants()) {
+            Animal animal = emigrant.animal();
+            if (animal.isAlive() && animal.getLocation() == emigrant.from()) emigrants.add(emigrant);
+        }
+
+        out.writeByte(Protocol.REPORT);
+        int[] population = new int[SPECIES.length];
+        island.getStatistics().copyPopulation(population);
+        for (int count : population) Protocol.writeVarInt(out, count);
+        Protocol.writeVarLong(out, island.getStatistics().getTotalPlants());
+
+        Protocol.writeVarInt(out, emigrants.size());
+        for (Island.Emigrant emigrant : emigrants) {
+            Protocol.writeVarInt(out, emigrant.target());
+            out.writeByte(emigrant.animal().getConfig().ordinal());
+            out.writeFloat((float) emigrant.animal().getSatiety());
+            out.writeLong(emigrant.animal().getGenome());
+        }
+
+        // Краевые строки: сверху и снизу полосы (в узкой полосе строки могут совпадать - отправляем один раз)
+        int from = island.getRowFrom(), to = island.getRowTo();
+        List<Integer> rows = new ArrayList<>();
+        for (int y = from; y < Math.min(to, from + halo); y++) rows.add(y);
+        for (int y = Math.max(from + halo, to - halo); y < to; y++) rows.add(y);
+        Protocol.writeVarInt(out, rows.size());
+        for (int y : rows) edgeRow(y).write(out);
+        out.flush();
+    }
+
+    // Читает строку своей полосы: растения и количество животных каждого вида по клеткам
+    private Protocol.Row edgeRow(int y) {
+        int[] plants = new int[width];
+        int[] counts = new int[width * SPECIES.length];
+        int implicitPlants = island.defaultPlantCount();
+        for (int x = 0; x < width; x++) {
+            Location location = island.findLocation(x, y);
+            if (location == null) {
+                plants[x] = implicitPlants;
+                continue;
+            }
+            plants[x] = location.getPlantCount();
+            for (Animal animal : location.getAnimals()) {
+                counts[x * SPECIES.length + animal.getConfig().ordinal()]++;
+            }
+        }
+        return new Protocol.Row(y, plants, counts);
+    }
+
+    // Принимает иммигрантов и строки гало, отвечает маской принятых
+    private void arrivals() throws IOException {
+        int immigrants = Protocol.readVarInt(in);
+        boolean[] accepted = new boolean[immigrants];
+        for (int i = 0; i < immigrants; i++) {
+            int target = Protocol.readVarInt(in);
+            AnimalConfig config = SPECIES[in.readUnsignedByte()];
+            float satiety = in.readFloat();
+            long genome = in.readLong();
+            Animal animal = island.getSettings().species(config).createAnimal();
+            animal.setSatiety(satiety);
+            animal.setGenome(genome);
+            if (island.getLocation(target).addAnimal(animal)) {
+                island.getStatistics().recordImmigration(animal);
+                accepted[i] = true;
+            }
+        }
+
+        int rows = Protocol.readVarInt(in);
+        PopulationIndex index = island.getPopulationIndex();
+        for (int i = 0; i < rows; i++) {
+            Protocol.Row row = Protocol.Row.read(in, width, SPECIES.length);
+            island.setHaloRow(row.row, row.plants);
+            if (index != null) {
+                // Индекс хранит животных гало как разность с прошлым днем
+                int[] previous = haloCounts.put(row.row, row.counts);
+                for (int c = 0; c < row.counts.length; c++) {
+                    int delta = row.counts[c] - (previous == null ? 0 : previous[c]);
+                    if (delta != 0) index.add(SPECIES[c % SPECIES.length], c / SPECIES.length, row.row, delta);
+                }
+            }
+        }
+
+        out.writeByte(Protocol.ACCEPTS);
+        Protocol.writeBits(out, accepted);
+        out.flush();
+    }
+
+    // Удаляет из своих локаций эмигрантов, которых приняли соседи
+    private void confirms() throws IOException {
+        boolean[] confirmed = Protocol.readBits(in);
+        for (int i = 0; i < confirmed.length; i++) {
+            if (!confirmed[i]) continue;
+            Island.Emigrant emigrant = emigrants.get(i);
+            emigrant.from().removeAnimal(emigrant.animal());
+            island.getStatistics().recordEmigration(emigrant.animal());
+        }
+        emigrants = new ArrayList<>();
+    }
+}
@@ -0,0 +1,20 @@
+package enums;
+
+/**
+ * Тип поведения вида: какой из двух final-классов животных его моделирует.
+ * Что именно ест вид, задают вероятности поедания в настройках (Settings.Species.eatingChance).
+ */
+public enum AnimalKind {
+    /**
+     * Хищник (model.animals.Predator): ест животных из списка добычи вида
+     * и идет туда, где добычи больше.
+     */
+    PREDATOR,
+
+    /**
+     * Травоядное (model.animals.Herbivore): ест растения и идет туда, где растений больше.
+     * Если у вида есть добыча (утка, мышь и кабан едят гусениц), он ест её вместо растений
+     * и ищет её, как хищник.
+     */
+    HERBIVORE
+}
@@ -0,0 +1,37 @@
+package enums;
+
+/**
+ * Фазы дня симуляции в порядке выполнения. Длительность каждой фазы записывается событием
+ * Java Flight Recorder (statistics.FlightEvents), чтобы долгий день можно было разложить по фазам.
+ */
+public enum DayPhase {
+    /**
+     * Рост растений, таблица плотности растений и пересчет бюджета памяти.
+     */
+    PLANTS,
+
+    /**
+     * Действия животных: задачи по чанкам (FORK_JOIN) или акторы регионов (ACTORS).
+     */
+    ANIMALS,
+
+    /**
+     * Уборка после дня: неявные клетки, пул животных и сброс журнала событий.
+     */
+    CLEANUP,
+
+    /**
+     * Статистика дня: история по дням и распознавание установившегося режима.
+     */
+    STATISTICS,
+
+    /**
+     * Снимок дня для перемотки назад (IslandHistory).
+     */
+    HISTORY,
+
+    /**
+     * Публикация изменений дня подписчикам.
+     */
+    PUBLISH
+}
@@ -30,6 +30,9 @@ public enum Direction {
      */
     RIGHT(1, 0);
 
+    // Кэш значений перечисления: values() при каждом вызове создает новую копию массива
+    private static final Direction[] VALUES = values();
+
     // Фиксированные изменения координат для направления
     private final int dx; // Дельта по оси X
     private final int dy; // Дельта по оси Y
@@ -59,4 +62,13 @@ public enum Direction {
     public int getDy() {
         return dy;
     }
-}
\ No newline at end of file
+
+    /**
+     * Возвращает все направления без копирования массива.
+     * Массив общий - изменять его нельзя.
+     * @return Массив направлений в порядке объявления
+     */
+    public static Direction[] valuesCached() {
+        return VALUES;
+    }
+}
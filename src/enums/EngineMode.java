@@ -0,0 +1,19 @@
+package enums;
+
+/**
+ * Перечисление, определяющее способ параллельной обработки животных за день.
+ */
+public enum EngineMode {
+    /**
+     * Общий пул потоков: задачи по чанкам или частям острова (LoadBalancer), любая задача
+     * может изменить любую локацию, поэтому локации потокобезопасны.
+     */
+    FORK_JOIN,
+
+    /**
+     * Акторы (ActorEngine): каждым регионом острова владеет один актор в своем (по возможности
+     * виртуальном) потоке. Локации региона меняет только его владелец, а животные, уходящие
+     * в чужой регион, передаются владельцу сообщениями.
+     */
+    ACTORS
+}
@@ -0,0 +1,40 @@
+package enums;
+
+/**
+ * Перечисление типов событий, которые попадают в бинарный журнал событий (EventLog).
+ * Код события записывается в журнал одним байтом, поэтому порядок констант
+ * менять нельзя - иначе старые журналы будут прочитаны неправильно.
+ */
+public enum EventType {
+    /**
+     * Рождение потомка (размножение в Herbivore/Predator).
+     */
+    BIRTH,
+
+    /**
+     * Смерть от хищника (животное было съедено).
+     */
+    PREDATION,
+
+    /**
+     * Смерть от голода (сытость опустилась до нуля).
+     */
+    STARVATION,
+
+    /**
+     * Перемещение животного в другую локацию.
+     */
+    MIGRATION;
+
+    // Кэш значений, чтобы не создавать новый массив при каждом вызове values()
+    private static final EventType[] VALUES = values();
+
+    /**
+     * Возвращает тип события по его коду из журнала.
+     * @param code Код события (ordinal)
+     * @return Тип события
+     */
+    public static EventType fromCode(int code) {
+        return VALUES[code];
+    }
+}
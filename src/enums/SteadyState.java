@@ -0,0 +1,21 @@
+package enums;
+
+/**
+ * Установившийся режим численности видов, который распознает statistics.SteadyStateDetector.
+ */
+public enum SteadyState {
+    /**
+     * Все животные вымерли: дальше на острове только растут растения.
+     */
+    EXTINCTION,
+
+    /**
+     * Неподвижная точка: численность каждого вида в окне наблюдения почти не меняется.
+     */
+    FIXED_POINT,
+
+    /**
+     * Цикл: численность видов повторяется с общим периодом (например, колебания хищник-жертва).
+     */
+    CYCLE
+}
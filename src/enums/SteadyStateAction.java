@@ -0,0 +1,27 @@
+package enums;
+
+/**
+ * Что делает симуляция, когда распознан установившийся режим (SteadyState).
+ */
+public enum SteadyStateAction {
+    /**
+     * Ничего: режим только сообщается (Simulation.getSteadyState и строка в консоли). Так работают
+     * по умолчанию Main и ансамбль, а также бенчмарки и процессы распределенного острова, которым
+     * нужны ровно заданные дни.
+     */
+    NONE,
+
+    /**
+     * Остановить прогон: новые дни не начинаются, ожидающие завершения (Simulation.awaitCompletion)
+     * освобождаются сразу.
+     */
+    STOP,
+
+    /**
+     * Перемотка: модель больше не считается, а каждый следующий день статистики повторяет день,
+     * отстоящий на период режима назад. Клетки острова остаются в состоянии дня распознавания,
+     * а номер дня острова и снимки истории идут дальше вместе со счетчиком дней симуляции.
+     * После вымирания дни и так дешевые (растут только растения), поэтому они считаются как обычно.
+     */
+    FAST_FORWARD
+}
@@ -0,0 +1,39 @@
+package enums;
+
+/**
+ * Нагрузочные профили сценариев для бенчмарков (см. benchmark.ScenarioGenerator).
+ */
+public enum StressProfile {
+    /**
+     * Маленький остров, на котором заселение заполняет клетки каждым видом почти до maxPerCell:
+     * предельная плотность, самые длинные списки животных в клетке.
+     */
+    MAX_DENSITY("max-density"),
+
+    /**
+     * Хищники на половине емкости клеток среди обычного количества травоядных:
+     * нагрузка на охоту и поиск добычи.
+     */
+    PREDATOR_HEAVY("predator-heavy"),
+
+    /**
+     * Остров 4000x4000 с редкими животными: почти все клетки пустые и не создаются,
+     * нагрузка на разреженное хранение и перемещения между чанками.
+     */
+    SPARSE_WORLD("sparse-4000"),
+
+    /**
+     * Только гусеницы, каждая клетка заполнена до maxPerCell: огромное количество
+     * неподвижных животных одного вида.
+     */
+    CATERPILLAR_SWARM("caterpillar-swarm");
+
+    /**
+     * Имя файла сценария (без расширения).
+     */
+    public final String fileName;
+
+    StressProfile(String fileName) {
+        this.fileName = fileName;
+    }
+}
@@ -0,0 +1,33 @@
+package enums;
+
+/**
+ * Перечисление, определяющее поведение острова на краях при перемещении животных.
+ */
+public enum Topology {
+    /**
+     * Ограниченный остров: животное, дошедшее до края, останавливается на крайней клетке.
+     * Пример для ширины 10: x = 8, шаг +3 → x = 9
+     */
+    BOUNDED,
+
+    /**
+     * Тор: края острова "склеены", животное, ушедшее за правый край, появляется слева
+     * (и аналогично по вертикали). Животные не скапливаются у краев.
+     * Пример для ширины 10: x = 8, шаг +3 → x = 1
+     */
+    TORUS;
+
+    /**
+     * Вычисляет новую координату по одной оси.
+     * @param coord Текущая координата (0 .. size-1)
+     * @param delta Смещение (может быть отрицательным)
+     * @param size Размер острова по этой оси
+     * @return Новая координата в пределах 0 .. size-1
+     */
+    public int resolve(int coord, int delta, int size) {
+        return switch (this) {
+            case BOUNDED -> Math.max(0, Math.min(coord + delta, size - 1));
+            case TORUS -> Math.floorMod(coord + delta, size);
+        };
+    }
+}
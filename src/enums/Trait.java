@@ -0,0 +1,22 @@
+package enums;
+
+/**
+ * Наследуемый признак животного. Значение признака - ген в геноме животного (model.animals.Genome),
+ * которое умножает соответствующий параметр вида. Порядок констант задает место гена в геноме.
+ */
+public enum Trait {
+    /**
+     * Скорость: множитель максимальной скорости вида (клеток за ход).
+     */
+    SPEED,
+
+    /**
+     * Плодовитость: множитель шанса размножения вида.
+     */
+    REPRODUCTION,
+
+    /**
+     * Охота: множитель вероятностей поедания добычи.
+     */
+    HUNTING
+}
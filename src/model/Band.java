@@ -0,0 +1,102 @@
+package model;
+
+import enums.Direction;
+import enums.Topology;
+
+/**
+ * Полоса клеток, в которую животное может дойти за один ход в заданном направлении:
+ * глубиной radius клеток перед животным и шириной 2 * radius + 1.
+ * На ограниченном острове полоса обрезается краем, на торе - продолжается с другой стороны
+ * (прямоугольник, вышедший за край, делится не более чем на четыре части).
+ *
+ * Используется таблицами, которые умеют быстро считать сумму по прямоугольнику
+ * (PlantDensityMap, PopulationIndex).
+ */
+final class Band {
+
+    /**
+     * Источник сумм по прямоугольнику, лежащему внутри острова (границы включительно).
+     */
+    @FunctionalInterface
+    interface RectangleSum {
+        long sum(int x0, int y0, int x1, int y1);
+    }
+
+    private Band() {}
+
+    /**
+     * Сумма значений в полосе.
+     */
+    static long sum(RectangleSum source, int width, int height, Topology topology,
+                    int x, int y, Direction direction, int radius) {
+        int x0 = x0(x, direction, radius), x1 = x1(x, direction, radius);
+        int y0 = y0(y, direction, radius), y1 = y1(y, direction, radius);
+        if (topology == Topology.TORUS) return wrappedSum(source, width, height, x0, y0, x1, y1);
+        x0 = Math.max(x0, 0);
+        y0 = Math.max(y0, 0);
+        x1 = Math.min(x1, width - 1);
+        y1 = Math.min(y1, height - 1);
+        return x0 > x1 || y0 > y1 ? 0 : source.sum(x0, y0, x1, y1);
+    }
+
+    /**
+     * Количество клеток в полосе (0, если животное стоит у края ограниченного острова).
+     */
+    static long area(int width, int height, Topology topology, int x, int y, Direction direction, int radius) {
+        int x0 = x0(x, direction, radius), x1 = x1(x, direction, radius);
+        int y0 = y0(y, direction, radius), y1 = y1(y, direction, radius);
+        if (topology == Topology.TORUS) {
+            return (long) Math.min(x1 - x0 + 1, width) * Math.min(y1 - y0 + 1, height);
+        }
+        long w = Math.min(x1, width - 1) - Math.max(x0, 0) + 1;
+        long h = Math.min(y1, height - 1) - Math.max(y0, 0) + 1;
+        return w <= 0 || h <= 0 ? 0 : w * h;
+    }
+
+    // Границы полосы до обрезки краем острова
+    private static int x0(int x, Direction direction, int radius) {
+        return direction.getDx() == 0 ? x - radius : direction.getDx() > 0 ? x + 1 : x - radius;
+    }
+
+    private static int x1(int x, Direction direction, int radius) {
+        return direction.getDx() == 0 ? x + radius : direction.getDx() > 0 ? x + radius : x - 1;
+    }
+
+    private static int y0(int y, Direction direction, int radius) {
+        return direction.getDy() == 0 ? y - radius : direction.getDy() > 0 ? y + 1 : y - radius;
+    }
+
+    private static int y1(int y, Direction direction, int radius) {
+        return direction.getDy() == 0 ? y + radius : direction.getDy() > 0 ? y + radius : y - 1;
+    }
+
+    /**
+     * Сумма по прямоугольнику на торе: прямоугольник, вышедший за край, делится на части.
+     */
+    private static long wrappedSum(RectangleSum source, int width, int height, int x0, int y0, int x1, int y1) {
+        if (x1 - x0 + 1 >= width) {
+            x0 = 0;
+            x1 = width - 1;
+        }
+        if (y1 - y0 + 1 >= height) {
+            y0 = 0;
+            y1 = height - 1;
+        }
+        int ax0 = Math.floorMod(x0, width), ax1 = Math.floorMod(x1, width);
+        int ay0 = Math.floorMod(y0, height), ay1 = Math.floorMod(y1, height);
+        if (ax0 <= ax1 && ay0 <= ay1) return source.sum(ax0, ay0, ax1, ay1); // Прямоугольник не пересекает край
+        // По каждой оси прямоугольник - либо один отрезок, либо два (конец и начало острова)
+        boolean splitX = ax0 > ax1, splitY = ay0 > ay1;
+        long total = 0;
+        for (int i = 0; i < (splitX ? 2 : 1); i++) {
+            int sx0 = i == 0 ? ax0 : 0;
+            int sx1 = splitX && i == 0 ? width - 1 : ax1;
+            for (int j = 0; j < (splitY ? 2 : 1); j++) {
+                int sy0 = j == 0 ? ay0 : 0;
+                int sy1 = splitY && j == 0 ? height - 1 : ay1;
+                total += source.sum(sx0, sy0, sx1, sy1);
+            }
+        }
+        return total;
+    }
+}
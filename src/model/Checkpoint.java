@@ -0,0 +1,143 @@
+package model;
+
+import model.IslandSnapshot.ChunkState;
+import utils.Settings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Файл контрольной точки: снимок острова (IslandSnapshot) на конец дня, из которого остров
+ * можно восстановить (restore) и продолжить симуляцию с этого дня.
+ *
+ * Формат файла (little-endian):
+ * - заголовок HEADER_SIZE байт: магическое число, версия, ширина, высота, сторона чанка, день,
+ *   растения неявной клетки, число видов, число записанных чанков;
+ * - численность видов: int[число видов];
+ * - записанные чанки (только с материализованными клетками) по возрастанию индекса:
+ *   int индекс чанка, int количество животных, затем колонки в том же порядке, что в слоте
+ *   ChunkStore: int растения[клеток чанка] (-1 - неявная клетка), byte вид[n], short клетка[n],
+ *   float сытость[n], long геном[n].
+ */
+public final class Checkpoint {
+    // Магическое число в начале файла ("ISLCP001")
+    static final long MAGIC = 0x31303050434C5349L;
+    // Версия формата файла
+    static final int VERSION = 2;
+    // Размер заголовка файла в байтах
+    static final int HEADER_SIZE = 64;
+    // Порядок байтов в файле
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Записывает снимок в файл контрольной точки (файл перезаписывается).
+     */
+    public static void write(IslandSnapshot snapshot, Path file) {
+        AnimalConfig[] species = AnimalConfig.values();
+        int cells = snapshot.getChunkSize() * snapshot.getChunkSize();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + species.length * Integer.BYTES).order(ORDER);
+            header.putLong(MAGIC).putInt(VERSION)
+                    .putInt(snapshot.getWidth()).putInt(snapshot.getHeight()).putInt(snapshot.getChunkSize())
+                    .putInt(snapshot.getDay()).putInt(snapshot.getImplicitPlants())
+                    .putInt(species.length).putInt(snapshot.getStoredChunkCount());
+            header.position(HEADER_SIZE);
+            for (AnimalConfig config : species) header.putInt(snapshot.getPopulation(config));
+            writeFully(channel, header.flip());
+
+            for (int c = 0; c < snapshot.getChunkCount(); c++) {
+                ChunkState state = snapshot.chunk(c);
+                if (state == null) continue;
+                int animals = state.animalCount();
+                ByteBuffer chunk = ByteBuffer.allocate(2 * Integer.BYTES + cells * Integer.BYTES
+                        + animals * (Byte.BYTES + Short.BYTES + Float.BYTES + Long.BYTES)).order(ORDER);
+                chunk.putInt(c).putInt(animals);
+                for (int[] row : state.plantRows) {
+                    for (int plants : row) chunk.putInt(plants);
+                }
+                chunk.put(state.species);
+                for (short cell : state.cells) chunk.putShort(cell);
+                for (float satiety : state.satiety) chunk.putFloat(satiety);
+                for (int a = 0; a < animals; a++) chunk.putLong(state.genome(a));
+                writeFully(channel, chunk.flip());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать контрольную точку " + file, e);
+        }
+    }
+
+    /**
+     * Читает снимок из файла контрольной точки.
+     */
+    public static IslandSnapshot read(Path file) {
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ORDER);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать контрольную точку " + file, e);
+        }
+        if (buffer.remaining() < HEADER_SIZE || buffer.getLong() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException("Файл " + file + " не является контрольной точкой острова");
+        }
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        int chunkSize = buffer.getInt();
+        int day = buffer.getInt();
+        int implicitPlants = buffer.getInt();
+        int speciesCount = buffer.getInt();
+        int storedChunks = buffer.getInt();
+        if (speciesCount != AnimalConfig.values().length) {
+            throw new IllegalArgumentException("Контрольная точка записана для " + speciesCount
+                    + " видов, а в настройках их " + AnimalConfig.values().length);
+        }
+        buffer.position(HEADER_SIZE);
+        int[] population = new int[speciesCount];
+        for (int i = 0; i < speciesCount; i++) population[i] = buffer.getInt();
+
+        int chunkCount = ((width + chunkSize - 1) / chunkSize) * ((height + chunkSize - 1) / chunkSize);
+        ChunkState[][] pages = new ChunkState[(chunkCount + IslandSnapshot.PAGE_CHUNKS - 1) / IslandSnapshot.PAGE_CHUNKS][];
+        for (int n = 0; n < storedChunks; n++) {
+            int c = buffer.getInt();
+            int animals = buffer.getInt();
+            int[][] plants = new int[chunkSize][chunkSize];
+            for (int[] row : plants) {
+                for (int x = 0; x < chunkSize; x++) row[x] = buffer.getInt();
+            }
+            byte[] species = new byte[animals];
+            short[] cellOf = new short[animals];
+            float[] satiety = new float[animals];
+            buffer.get(species);
+            for (int a = 0; a < animals; a++) cellOf[a] = buffer.getShort();
+            for (int a = 0; a < animals; a++) satiety[a] = buffer.getFloat();
+            long[] genomes = new long[animals];
+            for (int a = 0; a < animals; a++) genomes[a] = buffer.getLong();
+            ChunkState[] page = pages[c / IslandSnapshot.PAGE_CHUNKS];
+            if (page == null) page = pages[c / IslandSnapshot.PAGE_CHUNKS] = new ChunkState[IslandSnapshot.PAGE_CHUNKS];
+            page[c % IslandSnapshot.PAGE_CHUNKS] = new ChunkState(plants, species, cellOf, satiety, genomes);
+        }
+        return new IslandSnapshot(day, width, height, chunkSize, implicitPlants, population, pages);
+    }
+
+    /**
+     * Восстанавливает остров из контрольной точки. Симуляция этого острова продолжится со дня снимка.
+     * @param settings Параметры модели (размеры должны совпадать с контрольной точкой)
+     */
+    public static Island restore(Path file, Settings settings) {
+        return new Island(settings, read(file));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+}
@@ -0,0 +1,248 @@
+package model;
+
+import utils.Settings;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Чанк - квадратный участок острова размером CHUNK_SIZE x CHUNK_SIZE клеток.
+ *
+ * Чанк создается только тогда, когда в нем появляется хотя бы одна "материализованная" локация
+ * (клетка, в которой есть животные или количество растений отличается от значения по умолчанию).
+ * Остальные клетки чанка хранятся неявно: в массиве вместо них null.
+ *
+ * Для каждой клетки чанк хранит два бита:
+ * - active: клетку нужно обрабатывать каждый день (в ней есть животные или растения еще не
+ *   достигли MAX_PLANTS_PER_CELL). Пустые насыщенные клетки "засыпают" и не посещаются,
+ *   пока в них не придет животное или кто-то не съест растения;
+ * - changed: состояние клетки изменилось с момента последнего чтения изменений
+ *   (для отрисовки и снимков, которым нужны только изменившиеся клетки).
+ * Биты выставляются самими локациями при добавлении животного, поедании и росте растений.
+ */
+public class Chunk {
+    // Координаты чанка в сетке чанков (не в клетках!)
+    public final int chunkX, chunkY;
+
+    // Локации чанка в порядке строк: индекс = localY * size + localX. null - клетка хранится неявно
+    private final AtomicReferenceArray<Location> cells;
+
+    // Сторона чанка в клетках
+    private final int size;
+
+    // Биты активных клеток (по одному биту на клетку)
+    private final AtomicLongArray active;
+
+    // Биты изменившихся клеток (по одному биту на клетку)
+    private final AtomicLongArray changed;
+
+    // Остров, которому принадлежит чанк
+    final Island island;
+
+    // Индекс численности видов острова, который обновляют локации чанка (null - индекс выключен)
+    final PopulationIndex population;
+
+    // Параметры модели острова (рост растений в локациях чанка)
+    final Settings settings;
+
+    // Количество материализованных локаций в чанке
+    private final AtomicInteger materialized = new AtomicInteger();
+
+    // Чанк изменился с последнего снимка истории (IslandHistory). Пишется из потоков дня только при
+    // переходе false -> true, читается и сбрасывается между днями - после завершения задач дня
+    private boolean modified = true;
+
+    // Момент последнего обращения к чанку (логические часы острова) - по нему выбираются чанки для выгрузки
+    private volatile long lastTouched;
+
+    // Конструктор чанка
+    public Chunk(int chunkX, int chunkY, int size, Island island) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.size = size;
+        this.island = island;
+        this.population = island.getPopulationIndex();
+        this.settings = island.getSettings();
+        this.cells = new AtomicReferenceArray<>(size * size);
+        this.active = new AtomicLongArray((size * size + 63) / 64);
+        this.changed = new AtomicLongArray((size * size + 63) / 64);
+    }
+
+    /**
+     * Возвращает локацию по локальному индексу клетки внутри чанка.
+     * @return Локация или null, если клетка хранится неявно
+     */
+    public Location get(int localIndex) {
+        return cells.get(localIndex);
+    }
+
+    /**
+     * Атомарно сохраняет новую локацию, если клетка еще не была материализована.
+     * @return Локация, которая в итоге хранится в клетке (новая или созданная другим потоком)
+     */
+    Location putIfAbsent(int localIndex, Location location) {
+        // Привязываем локацию до публикации, чтобы другие потоки сразу видели её чанк
+        location.attach(this, localIndex);
+        if (cells.compareAndSet(localIndex, null, location)) {
+            materialized.incrementAndGet();
+            setBit(active, localIndex); // Новая клетка активна, пока не "заснет"
+            markModified();
+            return location;
+        }
+        return cells.get(localIndex);
+    }
+
+    /**
+     * Удаляет локацию из чанка - клетка снова хранится неявно.
+     * Вызывается только между днями, когда животные не перемещаются.
+     */
+    void release(int localIndex) {
+        if (cells.getAndSet(localIndex, null) != null) materialized.decrementAndGet();
+        clearBit(active, localIndex);
+        markModified();
+    }
+
+    /**
+     * Отмечает клетку как активную и изменившуюся.
+     * Вызывается локацией при добавлении животного и поедании растений (из любых потоков).
+     */
+    void markActive(int localIndex) {
+        setBit(active, localIndex);
+        setBit(changed, localIndex);
+        markModified();
+    }
+
+    /**
+     * Отмечает клетку как изменившуюся.
+     */
+    void markChanged(int localIndex) {
+        setBit(changed, localIndex);
+        markModified();
+    }
+
+    private void markModified() {
+        if (!modified) modified = true; // Без записи в уже отмеченный чанк - не гоняем строку кэша между потоками
+    }
+
+    /**
+     * Возвращает и сбрасывает признак изменения чанка с прошлого вызова (для снимков IslandHistory).
+     * Вызывается только между днями.
+     */
+    boolean takeModified() {
+        boolean result = modified;
+        modified = false;
+        return result;
+    }
+
+    /**
+     * Снимает с клетки признак активности ("усыпляет" её). Вызывается только между днями.
+     */
+    void clearActive(int localIndex) {
+        clearBit(active, localIndex);
+    }
+
+    /**
+     * Снимает с клетки признак изменения.
+     */
+    void clearChanged(int localIndex) {
+        clearBit(changed, localIndex);
+    }
+
+    /**
+     * Снимает признак изменения со всех клеток чанка (по слову на 64 клетки). Вызывается только между днями.
+     */
+    void clearAllChanged() {
+        for (int word = 0; word < changed.length(); word++) {
+            if (changed.get(word) != 0) changed.set(word, 0);
+        }
+    }
+
+    /**
+     * Ищет следующую активную клетку.
+     * @param fromIndex Локальный индекс, с которого начинается поиск
+     * @return Локальный индекс активной клетки или -1, если таких больше нет
+     */
+    public int nextActive(int fromIndex) {
+        return nextBit(active, fromIndex);
+    }
+
+    /**
+     * Ищет следующую изменившуюся клетку.
+     * @param fromIndex Локальный индекс, с которого начинается поиск
+     * @return Локальный индекс изменившейся клетки или -1, если таких больше нет
+     */
+    public int nextChanged(int fromIndex) {
+        return nextBit(changed, fromIndex);
+    }
+
+    /**
+     * @return Количество материализованных локаций в чанке
+     */
+    public int getMaterializedCount() {
+        return materialized.get();
+    }
+
+    /**
+     * Отмечает обращение к чанку.
+     * @param time Значение логических часов острова
+     */
+    void touch(long time) {
+        lastTouched = time;
+    }
+
+    /**
+     * @return Момент последнего обращения к чанку
+     */
+    public long getLastTouched() {
+        return lastTouched;
+    }
+
+    /**
+     * @return Количество клеток в чанке
+     */
+    public int capacity() {
+        return size * size;
+    }
+
+    /**
+     * @return true, если в чанке не осталось ни одной материализованной локации
+     */
+    public boolean isEmpty() {
+        return materialized.get() == 0;
+    }
+
+    // Атомарно выставляет бит (без записи, если бит уже выставлен - это самый частый случай)
+    private static void setBit(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) return;
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    // Атомарно сбрасывает бит
+    private static void clearBit(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) == 0) return;
+        } while (!bits.compareAndSet(word, current, current & ~mask));
+    }
+
+    // Индекс следующего выставленного бита, начиная с fromIndex, или -1
+    private static int nextBit(AtomicLongArray bits, int fromIndex) {
+        int word = fromIndex >>> 6;
+        if (word >= bits.length()) return -1;
+        long current = bits.get(word) & (-1L << fromIndex);
+        while (current == 0) {
+            if (++word == bits.length()) return -1;
+            current = bits.get(word);
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(current);
+    }
+}
@@ -0,0 +1,301 @@
+package model;
+
+import model.animals.Animal;
+import utils.Settings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Хранилище выгруженных чанков в файле, отображенном в память (memory-mapped).
+ *
+ * Для каждого чанка в файле зарезервирован слот фиксированного размера. Данные внутри слота
+ * разложены по колонкам:
+ * [0]  int количество животных
+ * [4]  int зарезервировано
+ * [8]  int растения[клеток чанка]   (-1 - клетка хранится неявно, растения по умолчанию)
+ * далее byte вид[ANIMALS_PER_CHUNK], short клетка[ANIMALS_PER_CHUNK], float сытость[ANIMALS_PER_CHUNK],
+ *       long геном[ANIMALS_PER_CHUNK]
+ *
+ * Слоты лежат в файле в порядке индексов чанков, поэтому обход чанков по возрастанию индекса
+ * (так делает Simulation) читает файл последовательно. Если в чанке больше животных, чем
+ * помещается в слот, чанк нельзя выгрузить - он остается в памяти.
+ *
+ * Все методы вызываются под блокировкой острова (Island синхронизирует подгрузку и выгрузку).
+ */
+public class ChunkStore implements AutoCloseable {
+    // Размер заголовка слота в байтах
+    private static final int SLOT_HEADER = 8;
+    // Значение растений для клетки, которая хранится неявно
+    private static final int IMPLICIT_CELL = -1;
+
+    private final FileChannel channel; // Канал файла хранилища
+    private final MappedByteBuffer[] segments; // Отображенные в память сегменты файла (создаются лениво)
+    private final int slotsPerSegment; // Сколько слотов помещается в один сегмент
+    private final int chunkCount; // Количество чанков (слотов) в файле
+    private final int cellsPerChunk; // Клеток в чанке
+    private final int animalCapacity; // Сколько животных помещается в слот
+    private final int slotBytes; // Размер слота в байтах
+    private final BitSet stored; // Какие чанки сейчас лежат в файле
+    private final Settings settings; // Параметры модели острова
+
+    // Метрики подкачки
+    private long pageIns; // Сколько раз чанк загружался из файла
+    private long pageOuts; // Сколько раз чанк выгружался в файл
+    private long rejectedPageOuts; // Сколько раз чанк не удалось выгрузить (слишком много животных)
+
+    /**
+     * Создает (перезаписывает) файл хранилища.
+     * @param file Путь к файлу
+     * @param chunkCount Количество чанков острова
+     * @param cellsPerChunk Количество клеток в чанке
+     * @param animalCapacity Сколько животных помещается в слот одного чанка
+     * @param settings Параметры модели острова (рост растений выгруженных чанков)
+     */
+    public ChunkStore(Path file, int chunkCount, int cellsPerChunk, int animalCapacity, Settings settings) {
+        this.settings = settings;
+        this.chunkCount = chunkCount;
+        this.cellsPerChunk = cellsPerChunk;
+        this.animalCapacity = animalCapacity;
+        this.slotBytes = SLOT_HEADER + cellsPerChunk * Integer.BYTES
+                + animalCapacity * (Byte.BYTES + Short.BYTES + Float.BYTES + Long.BYTES);
+        this.slotsPerSegment = Math.max(1, Integer.MAX_VALUE / slotBytes);
+        this.segments = new MappedByteBuffer[(chunkCount + slotsPerSegment - 1) / slotsPerSegment];
+        this.stored = new BitSet(chunkCount);
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть файл чанков " + file, e);
+        }
+    }
+
+    /**
+     * @return true, если чанк с этим индексом выгружен в файл
+     */
+    public boolean isStored(int chunkIndex) {
+        return stored.get(chunkIndex);
+    }
+
+    /**
+     * Выгружает чанк в файл. Мертвые животные не сохраняются.
+     * @param chunkIndex Индекс чанка
+     * @param chunk Чанк
+     * @return true, если чанк выгружен; false, если животных больше, чем помещается в слот
+     */
+    public boolean pageOut(int chunkIndex, Chunk chunk) {
+        int animals = 0;
+        for (int i = 0; i < cellsPerChunk; i++) {
+            Location location = chunk.get(i);
+            if (location != null) animals += location.getAnimals().size();
+        }
+        if (animals > animalCapacity) {
+            rejectedPageOuts++;
+            return false;
+        }
+
+        MappedByteBuffer segment = segment(chunkIndex);
+        int base = slotOffset(chunkIndex);
+        int speciesColumn = base + SLOT_HEADER + cellsPerChunk * Integer.BYTES;
+        int cellColumn = speciesColumn + animalCapacity * Byte.BYTES;
+        int satietyColumn = cellColumn + animalCapacity * Short.BYTES;
+        int genomeColumn = satietyColumn + animalCapacity * Float.BYTES;
+
+        int written = 0;
+        for (int i = 0; i < cellsPerChunk; i++) {
+            Location location = chunk.get(i);
+            segment.putInt(base + SLOT_HEADER + i * Integer.BYTES,
+                    location == null ? IMPLICIT_CELL : location.getPlantCount());
+            if (location == null) continue;
+            for (Animal animal : location.getAnimals()) {
+                if (!animal.isAlive()) continue;
+                segment.put(speciesColumn + written, (byte) animal.getConfig().ordinal());
+                segment.putShort(cellColumn + written * Short.BYTES, (short) i);
+                segment.putFloat(satietyColumn + written * Float.BYTES, (float) animal.getSatiety());
+                segment.putLong(genomeColumn + written * Long.BYTES, animal.getGenome());
+                written++;
+            }
+        }
+        segment.putInt(base, written);
+        stored.set(chunkIndex);
+        pageOuts++;
+        return true;
+    }
+
+    /**
+     * Загружает чанк из файла, восстанавливая локации и животных.
+     * @param chunkIndex Индекс чанка
+     * @param chunk Пустой чанк, в который загружаются данные
+     * @param island Остров (нужен для координат клеток)
+     */
+    public void pageIn(int chunkIndex, Chunk chunk, Island island) {
+        MappedByteBuffer segment = segment(chunkIndex);
+        int base = slotOffset(chunkIndex);
+        int chunkSize = island.getChunkSize();
+        int originX = chunk.chunkX * chunkSize;
+        int originY = chunk.chunkY * chunkSize;
+
+        for (int i = 0; i < cellsPerChunk; i++) {
+            int plants = segment.getInt(base + SLOT_HEADER + i * Integer.BYTES);
+            if (plants == IMPLICIT_CELL) continue;
+            chunk.putIfAbsent(i, island.newLocation(originX + i % chunkSize, originY + i / chunkSize, plants));
+        }
+
+        AnimalConfig[] species = AnimalConfig.values();
+        int speciesColumn = base + SLOT_HEADER + cellsPerChunk * Integer.BYTES;
+        int cellColumn = speciesColumn + animalCapacity * Byte.BYTES;
+        int satietyColumn = cellColumn + animalCapacity * Short.BYTES;
+        int genomeColumn = satietyColumn + animalCapacity * Float.BYTES;
+        int count = segment.getInt(base);
+        for (int a = 0; a < count; a++) {
+            Animal animal = settings.species(species[segment.get(speciesColumn + a)]).createAnimal();
+            animal.setSatiety(segment.getFloat(satietyColumn + a * Float.BYTES));
+            animal.setGenome(segment.getLong(genomeColumn + a * Long.BYTES));
+            int cell = segment.getShort(cellColumn + a * Short.BYTES);
+            Location location = chunk.get(cell);
+            if (location == null) {
+                // Клетка с животными всегда материализована, но на всякий случай создаем её
+                location = chunk.putIfAbsent(cell, island.newLocation(originX + cell % chunkSize,
+                        originY + cell / chunkSize, island.defaultPlantCount()));
+            }
+            location.restoreAnimal(animal); // Животное уже учтено в статистике и индексе - повторно не записываем
+        }
+        stored.clear(chunkIndex);
+        pageIns++;
+    }
+
+    /**
+     * Выращивает растения в выгруженном чанке прямо в файле (колонка растений слота),
+     * не загружая чанк в память.
+     * @param chunkIndex Индекс выгруженного чанка
+     * @return Сумма растений в материализованных клетках чанка и их количество: {сумма, клеток}
+     */
+    public long[] growPlants(int chunkIndex) {
+        MappedByteBuffer segment = segment(chunkIndex);
+        int column = slotOffset(chunkIndex) + SLOT_HEADER;
+        long sum = 0;
+        long cells = 0;
+        for (int i = 0; i < cellsPerChunk; i++) {
+            int offset = column + i * Integer.BYTES;
+            int plants = segment.getInt(offset);
+            if (plants == IMPLICIT_CELL) continue;
+            plants = Math.max(plants,
+                    Math.min(settings.maxPlantsPerCell, plants + settings.plantGrowthPerDay));
+            segment.putInt(offset, plants);
+            sum += plants;
+            cells++;
+        }
+        return new long[]{sum, cells};
+    }
+
+    /**
+     * Передает растения материализованных клеток выгруженного чанка, не загружая его в память.
+     * @param chunkIndex Индекс выгруженного чанка
+     * @param originX Координата X левого верхнего угла чанка
+     * @param originY Координата Y левого верхнего угла чанка
+     * @param chunkSize Сторона чанка в клетках
+     * @param action Получатель (x, y, растения)
+     */
+    public void forEachPlantCell(int chunkIndex, int originX, int originY, int chunkSize, Island.PlantCellConsumer action) {
+        MappedByteBuffer segment = segment(chunkIndex);
+        int column = slotOffset(chunkIndex) + SLOT_HEADER;
+        for (int i = 0; i < cellsPerChunk; i++) {
+            int plants = segment.getInt(column + i * Integer.BYTES);
+            if (plants != IMPLICIT_CELL) action.accept(originX + i % chunkSize, originY + i / chunkSize, plants);
+        }
+    }
+
+    /**
+     * @return Количество животных в выгруженном чанке
+     */
+    public int getAnimalCount(int chunkIndex) {
+        return segment(chunkIndex).getInt(slotOffset(chunkIndex));
+    }
+
+    /**
+     * Освобождает слот выгруженного чанка, в котором не осталось ничего, кроме растений по умолчанию.
+     * @param chunkIndex Индекс выгруженного чанка
+     * @param defaultPlants Количество растений в неявной клетке
+     * @return true, если слот освобожден (чанк снова хранится неявно)
+     */
+    public boolean releaseIfDefault(int chunkIndex, int defaultPlants) {
+        MappedByteBuffer segment = segment(chunkIndex);
+        int base = slotOffset(chunkIndex);
+        if (segment.getInt(base) != 0) return false; // В чанке есть животные
+        for (int i = 0; i < cellsPerChunk; i++) {
+            int plants = segment.getInt(base + SLOT_HEADER + i * Integer.BYTES);
+            if (plants != IMPLICIT_CELL && plants != defaultPlants) return false;
+        }
+        stored.clear(chunkIndex);
+        return true;
+    }
+
+    /**
+     * @return Индекс следующего выгруженного чанка начиная с fromIndex или -1
+     */
+    public int nextStored(int fromIndex) {
+        return stored.nextSetBit(fromIndex);
+    }
+
+    /**
+     * @return Количество выгруженных чанков
+     */
+    public int storedCount() {
+        return stored.cardinality();
+    }
+
+    public long getPageIns() {
+        return pageIns;
+    }
+
+    public long getPageOuts() {
+        return pageOuts;
+    }
+
+    public long getRejectedPageOuts() {
+        return rejectedPageOuts;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Ошибка при закрытии файла чанков: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Смещение слота внутри его сегмента.
+     */
+    private int slotOffset(int chunkIndex) {
+        return (chunkIndex % slotsPerSegment) * slotBytes;
+    }
+
+    /**
+     * Возвращает сегмент файла, в котором лежит слот чанка, отображая его в память при первом обращении.
+     */
+    private MappedByteBuffer segment(int chunkIndex) {
+        int index = chunkIndex / slotsPerSegment;
+        MappedByteBuffer segment = segments[index];
+        if (segment == null) {
+            try {
+                long start = (long) index * slotsPerSegment * slotBytes;
+                int slots = Math.min(slotsPerSegment, chunkCount - index * slotsPerSegment); // Последний сегмент короче
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, start, (long) slots * slotBytes);
+                segment.order(ByteOrder.LITTLE_ENDIAN);
+                segments[index] = segment;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось отобразить файл чанков в память", e);
+            }
+        }
+        return segment;
+    }
+}
@@ -1,53 +1,209 @@
 package model; // Указываем, что класс принадлежит пакету model
 
+import enums.Direction;
+import enums.Topology;
+import model.animals.Animal;
+import model.animals.AnimalPool;
+import statistics.MemoryBudget;
+import statistics.Statistics;
+import utils.Randomizer;
+import utils.Settings;
 import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
- *  Класс Island представляет собой остров, на котором расположены локации и животные
+ *  Класс Island представляет собой остров, на котором расположены локации и животные.
+ *
+ *  Остров хранится разреженно: он разбит на чанки CHUNK_SIZE x CHUNK_SIZE клеток, и объект
+ *  Location создается только для клеток, в которых есть животные или количество растений
+ *  отличается от значения по умолчанию. Все остальные клетки хранятся неявно - их количество
+ *  растений одинаково и вычисляется по формуле defaultPlantCount(). Поэтому память растет
+ *  вместе с количеством занятых клеток, а не с площадью острова.
+ *
+ *  Если включена подкачка чанков (CHUNK_PAGING_ENABLED), в памяти держится не больше
+ *  MAX_RESIDENT_CHUNKS чанков, а остальные выгружаются в файл ChunkStore и загружаются обратно
+ *  при первом обращении.
+ *
+ *  Каждая клетка адресуется одним целым числом - плоским индексом index = y * width + x.
+ *  Перемещения вычисляются по предвычисленной таблице MovementTable с учетом топологии
+ *  острова (TOPOLOGY): ограниченные края или тор.
+ *
+ *  Ежедневная работа пропорциональна количеству активных клеток (с животными или с
+ *  ненасыщенными растениями): насыщенные пустые клетки "спят" и не посещаются, пока их
+ *  не коснется животное. Изменившиеся клетки можно получить через drainChangedCells().
+ *
+ *  Остров может владеть только полосой строк [rowFrom, rowTo) - так его делят между процессами
+ *  (пакет distributed). Животные заселяются только в эту полосу, животное, которое уходит за её
+ *  пределы, не перемещается, а попадает в список эмигрантов (drainEmigrants), а растения соседних
+ *  полос (гало) задаются через setHaloRow - их видит поиск еды.
  */
 public class Island {
     private final int width; // Ширина острова (количество локаций по оси X)
     private final int height; // Высота острова (количество локаций по оси Y)
-    private final Location[][] locations; // Двумерный массив для хранения локаций на острове
+    private final int chunkSize; // Сторона чанка в клетках
+    private final int chunksX; // Количество чанков по оси X
+    private final int chunksY; // Количество чанков по оси Y
+    private final AtomicReferenceArray<Chunk> chunks; // Чанки острова (null - в чанке нет материализованных клеток)
+    private volatile int day = 0; // Количество дней роста растений (нужно для неявных клеток)
+    private final ChunkStore chunkStore; // Файл выгруженных чанков (null, если подкачка выключена)
+    private final Object pagingLock = new Object(); // Блокировка создания, загрузки и выгрузки чанков
+    private int residentChunks = 0; // Количество чанков в памяти (изменяется под pagingLock)
+    private final AtomicLong touchCounter = new AtomicLong(); // Логические часы обращений к чанкам (для выбора чанков на выгрузку)
+    private final Topology topology; // Поведение острова на краях
+    private final MovementTable movementTable; // Предвычисленные перемещения по направлению и числу шагов
+    private int[] pendingChanged = new int[64]; // Изменившиеся клетки выгруженных и удаленных чанков (под pagingLock)
+    private int pendingChangedCount = 0; // Количество клеток в pendingChanged
+    private boolean saturatedSweepDone = false; // Проверены ли "спящие" клетки, когда неявные клетки тоже насытились
+    private final PlantDensityMap plantDensity; // Префиксные суммы растений для поиска еды (null, если поиск выключен)
+    private final PopulationIndex population; // Численность видов по областям (null, если индекс выключен)
+    private final Settings settings; // Параметры модели острова
+    private final Statistics statistics = new Statistics(); // Статистика острова
+    private final AnimalPool animalPool = new AnimalPool(); // Объекты погибших животных острова для рождений
+    private final MemoryBudget memoryBudget = new MemoryBudget(); // Ограничение рождений по памяти
+    private final int rowFrom, rowTo; // Строки, которыми владеет остров: [rowFrom, rowTo)
+    private final ConcurrentLinkedQueue<Emigrant> emigrants = new ConcurrentLinkedQueue<>(); // Уходящие за полосу животные
+    private final Map<Integer, int[]> haloPlants = new HashMap<>(); // Растения строк соседних полос (строка -> растения по x)
+
+    /**
+     * Животное, которое за день решило уйти за пределы полосы острова.
+     * Оно остается в старой локации, пока владелец целевой клетки его не примет.
+     * @param animal Животное
+     * @param from Локация, из которой животное уходит
+     * @param target Плоский индекс целевой клетки
+     */
+    public record Emigrant(Animal animal, Location from, int target) {}
+
+    /**
+     * Получатель растений клетки: координаты и количество растений.
+     */
+    @FunctionalInterface
+    public interface PlantCellConsumer {
+        void accept(int x, int y, int plants);
+    }
 
     // Конструктор класса Island
     public Island() {
-        // Инициализируем ширину и высоту острова из SimulationSettings
-        this.width = SimulationSettings.ISLAND_WIDTH;
-        this.height = SimulationSettings.ISLAND_HEIGHT;
+        this(Settings.DEFAULT);
+    }
 
-        // Создаем двумерный массив для хранения локаций
-        this.locations = new Location[width][height];
+    /**
+     * Создает остров с собственными параметрами модели.
+     */
+    public Island(Settings settings) {
+        this(settings, 0, settings.height);
+    }
 
-        initializeLocations(); // Вызываем метод для инициализации локаций
-        spawnInitialAnimals(); // Вызываем метод для спавна/создания начальных животных
+    /**
+     * Создает остров с собственными параметрами модели, который владеет только полосой строк [rowFrom, rowTo).
+     * Границы полосы должны совпадать с границами строк чанков.
+     */
+    public Island(Settings settings, int rowFrom, int rowTo) {
+        this(settings, rowFrom, rowTo, null);
     }
 
     /**
-     * Метод для инициализации всех локаций на острове
+     * Восстанавливает остров из снимка (IslandHistory, Checkpoint) вместо начального заселения.
+     * Размеры острова в настройках должны совпадать с размерами снимка.
      */
-    private void initializeLocations() {
-        // Проходим по всем координатам острова
-        for (int x = 0; x < width; x++) { // Цикл по ширине
-            for (int y = 0; y < height; y++) { // Цикл по высоте
-                // Создаем новую локацию и сохраняем её в массив
-                locations[x][y] = new Location(x, y);
-            }
+    public Island(Settings settings, IslandSnapshot snapshot) {
+        this(settings, 0, settings.height, snapshot);
+    }
+
+    private Island(Settings settings, int rowFrom, int rowTo, IslandSnapshot snapshot) {
+        // Инициализируем ширину и высоту острова из параметров модели
+        this.settings = settings;
+        this.width = settings.width;
+        this.height = settings.height;
+        if (rowFrom < 0 || rowTo > height || rowFrom >= rowTo
+                || rowFrom % SimulationSettings.CHUNK_SIZE != 0
+                || (rowTo % SimulationSettings.CHUNK_SIZE != 0 && rowTo != height)) {
+            throw new IllegalArgumentException("Полоса [" + rowFrom + ", " + rowTo + ") не совпадает со строками чанков");
+        }
+        this.rowFrom = rowFrom;
+        this.rowTo = rowTo;
+
+        // Создаем сетку чанков. Сами чанки и локации создаются лениво
+        this.chunkSize = SimulationSettings.CHUNK_SIZE;
+        this.chunksX = (width + chunkSize - 1) / chunkSize;
+        this.chunksY = (height + chunkSize - 1) / chunkSize;
+        this.chunks = new AtomicReferenceArray<>(chunksX * chunksY);
+        this.chunkStore = SimulationSettings.CHUNK_PAGING_ENABLED
+                ? new ChunkStore(Path.of(SimulationSettings.CHUNK_STORE_FILE), chunksX * chunksY,
+                        chunkSize * chunkSize, SimulationSettings.CHUNK_STORE_ANIMALS_PER_CHUNK, settings)
+                : null;
+
+        // Предвычисляем перемещения для всех направлений и скоростей
+        this.topology = SimulationSettings.TOPOLOGY;
+        int maxSpeed = 0;
+        for (AnimalConfig config : AnimalConfig.values()) {
+            maxSpeed = Math.max(maxSpeed, settings.species(config).speedLimit); // С учетом гена скорости
         }
+        this.movementTable = new MovementTable(width, height, maxSpeed, topology);
+        this.plantDensity = SimulationSettings.FOOD_SEEKING_ENABLED
+                ? new PlantDensityMap(width, height, topology)
+                : null;
+        // Индекс нужен до заселения: его обновляет каждое добавленное животное
+        this.population = SimulationSettings.POPULATION_INDEX_ENABLED
+                ? new PopulationIndex(width, height, SimulationSettings.POPULATION_INDEX_BLOCK, topology)
+                : null;
+
+        if (snapshot != null) {
+            restore(snapshot);
+        } else {
+            // Параллельно заселяем остров начальными животными (размещение определяется зерном из настроек)
+            new IslandInitializer(this, settings.randomSeed).spawnInitialAnimals();
+        }
+        evictColdChunks(0); // Если чанков в памяти больше лимита, лишние сразу выгружаем в файл
     }
 
     /**
-     * Метод для спавна начальных животных в случайных локациях
+     * Восстанавливает клетки и животных из снимка. Животные учитываются в статистике как
+     * начальное заселение (вместе с геномами); если в клетке для вида меньше места, чем в снимке, лишние не появляются.
      */
-    private void spawnInitialAnimals() {
-        // Проходим по всем конфигурациям животных, определенным в настройках
-        for (SimulationSettings.AnimalConfig config : SimulationSettings.AnimalConfig.values()) {
-            // Спавним указанное количество животных для каждого типа
-            for (int i = 0; i < config.getInitialCount(); i++) {
-                // Получаем случайную локацию
-                Location loc = getRandomLocation();
-                // Создаем животное и добавляем его в эту случайную локацию
-                loc.addAnimal(config.createAnimal());
+    private void restore(IslandSnapshot snapshot) {
+        if (snapshot.getWidth() != width || snapshot.getHeight() != height || snapshot.getChunkSize() != chunkSize) {
+            throw new IllegalArgumentException("Снимок острова " + snapshot.getWidth() + "x" + snapshot.getHeight()
+                    + " (чанк " + snapshot.getChunkSize() + ") не подходит к острову " + width + "x" + height
+                    + " (чанк " + chunkSize + ")");
+        }
+        day = snapshot.getDay();
+        AnimalConfig[] species = AnimalConfig.values();
+        for (int c = 0; c < chunks.length(); c++) {
+            IslandSnapshot.ChunkState state = snapshot.chunk(c);
+            if (state == null) continue;
+            Chunk chunk = getOrCreateChunk(c);
+            int originX = chunk.chunkX * chunkSize;
+            int originY = chunk.chunkY * chunkSize;
+            for (int i = 0; i < chunk.capacity(); i++) {
+                int plants = state.plants(i);
+                if (plants == IslandSnapshot.IMPLICIT_CELL) continue;
+                chunk.putIfAbsent(i, newLocation(originX + i % chunkSize, originY + i / chunkSize, plants));
+            }
+            for (int a = 0; a < state.animalCount(); a++) {
+                int cell = state.cells[a];
+                Location location = chunk.get(cell);
+                if (location == null) {
+                    location = chunk.putIfAbsent(cell, newLocation(originX + cell % chunkSize,
+                            originY + cell / chunkSize, defaultPlantCount()));
+                }
+                AnimalConfig config = species[state.species[a]];
+                Animal animal = settings.species(config).createAnimal();
+                animal.setSatiety(state.satiety[a]);
+                animal.setGenome(state.genome(a));
+                if (location.addAnimal(animal)) statistics.recordSpawn(animal);
             }
         }
     }
@@ -57,23 +213,591 @@ public class Island {
      */
     public Location getRandomLocation() {
         // Генерируем случайные координаты в пределах ширины и высоты острова
-        int x = (int) (Math.random() * width); // Случайная координата по оси X
-        int y = (int) (Math.random() * height); // Случайная координата по оси Y
-        return locations[x][y]; // Возвращаем случайную локацию
+        int x = Randomizer.nextInt(width); // Случайная координата по оси X
+        int y = Randomizer.nextInt(height); // Случайная координата по оси Y
+        return getLocation(x, y); // Возвращаем случайную локацию
     }
 
     /**
-     * Метод для получения локации по заданным координатам
+     * Метод для получения локации по заданным координатам.
+     * Если клетка хранится неявно, для нее создается (материализуется) объект Location.
      */
     public Location getLocation(int x, int y) {
         // Проверяем, находятся ли координаты в допустимых пределах
         if (x >= 0 && x < width && y >= 0 && y < height) {
-            // Если координаты валидны, возвращаем соответствующую локацию
-            return locations[x][y];
+            // Если координаты валидны, возвращаем соответствующую локацию (создавая её при необходимости)
+            return materialize(x, y);
         }
         return null; // Если координаты выходят за пределы, возвращаем null
     }
 
+    /**
+     * Возвращает локацию по плоскому индексу клетки, создавая её при необходимости.
+     * Индекс должен быть получен от острова (cellIndex, step, neighbour) - границы не проверяются.
+     * @param cellIndex Плоский индекс клетки (y * width + x)
+     */
+    public Location getLocation(int cellIndex) {
+        return materialize(cellIndex % width, cellIndex / width);
+    }
+
+    /**
+     * @return Плоский индекс клетки с координатами (x, y)
+     */
+    public int cellIndex(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Вычисляет клетку, в которую придет животное из локации from.
+     * Края острова обрабатываются согласно топологии, поэтому результат всегда внутри острова.
+     * @param from Текущая локация
+     * @param direction Направление движения
+     * @param steps Число шагов (не больше максимальной скорости среди видов)
+     * @return Плоский индекс целевой клетки
+     */
+    public int step(Location from, Direction direction, int steps) {
+        return movementTable.step(from.x, from.y, direction, steps);
+    }
+
+    /**
+     * @return Плоский индекс соседней клетки в заданном направлении
+     */
+    public int neighbour(Location from, Direction direction) {
+        return movementTable.neighbour(from.x, from.y, direction);
+    }
+
+    /**
+     * Создает объект Location для клетки острова (с плоским индексом).
+     * Не сохраняет его в чанке - это делает вызывающий код.
+     */
+    Location newLocation(int x, int y, int plants) {
+        return new Location(x, y, cellIndex(x, y), plants, day);
+    }
+
+    /**
+     * Возвращает локацию по координатам внутри острова, материализуя её при необходимости.
+     */
+    private Location materialize(int x, int y) {
+        Chunk chunk = getOrCreateChunk(x / chunkSize, y / chunkSize);
+        int localIndex = (y % chunkSize) * chunkSize + (x % chunkSize);
+        Location location = chunk.get(localIndex);
+        if (location == null) {
+            location = chunk.putIfAbsent(localIndex, newLocation(x, y, defaultPlantCount()));
+        }
+        return location;
+    }
+
+    /**
+     * Возвращает локацию, только если она уже материализована. Новых объектов не создает.
+     * Используется для чтения состояния острова (например, при отрисовке).
+     * @return Локация или null, если клетка хранится неявно или координаты вне острова
+     */
+    public Location findLocation(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return null;
+        Chunk chunk = loadChunk((y / chunkSize) * chunksX + x / chunkSize); // Выгруженный чанк подгружается
+        return chunk == null ? null : chunk.get((y % chunkSize) * chunkSize + (x % chunkSize));
+    }
+
+    /**
+     * Количество растений в клетке, которая хранится неявно (в ней не было животных,
+     * и её растения никто не ел). Все такие клетки растут одинаково: начальное количество
+     * плюс ежедневный прирост, но не больше максимума растений на клетке (Settings).
+     */
+    public int defaultPlantCount() {
+        long plants = settings.plantGrowthPerDay / 2 + (long) settings.plantGrowthPerDay * day;
+        return (int) Math.min(settings.maxPlantsPerCell, plants);
+    }
+
+    /**
+     * Переводит остров на следующий день без расчета (перемотка установившегося режима): клетки
+     * не меняются, растет только номер дня - вместе со счетчиком дней симуляции. Неявные клетки
+     * к дню распознавания обычно уже достигли максимума растений; если нет, они растут по формуле,
+     * как и без перемотки.
+     */
+    public void skipDay() {
+        day++;
+    }
+
+    /**
+     * Выращивает растения на всем острове (начало нового дня).
+     * В материализованных клетках растения растут как обычно, в неявных - по формуле.
+     * @return Общее количество растений на острове
+     */
+    public long growPlants() {
+        day++;
+        long[] materializedPlants = new long[2]; // [0] - сумма растений, [1] - количество материализованных клеток
+        boolean defaultSaturated = defaultPlantCount() == settings.maxPlantsPerCell;
+        for (int c = 0; c < chunks.length(); c++) {
+            Chunk chunk = chunks.get(c);
+            if (chunk == null) continue;
+            // Обходим только активные клетки. Остальные материализованные клетки "спят" насыщенными
+            int activeCells = 0;
+            for (int i = chunk.nextActive(0); i >= 0; i = chunk.nextActive(i + 1)) {
+                Location location = chunk.get(i);
+                if (location == null) {
+                    chunk.clearActive(i);
+                    continue;
+                }
+                if (location.growPlants(day)) chunk.markChanged(i);
+                if (location.trySleep()) {
+                    // Клетка проснется, когда в нее придет животное или кто-то поест. Если она уже
+                    // совпадает с неявной, оставляем её активной - вечером она вернется к неявному хранению
+                    if (!defaultSaturated) chunk.clearActive(i);
+                    continue;
+                }
+                materializedPlants[0] += location.getPlantCount();
+                activeCells++;
+            }
+            int sleepingCells = chunk.getMaterializedCount() - activeCells;
+            materializedPlants[0] += (long) sleepingCells * settings.maxPlantsPerCell;
+            materializedPlants[1] += chunk.getMaterializedCount();
+        }
+        // Выгруженные чанки растут прямо в файле, без загрузки в память.
+        // Если выгруженный чанк снова совпал с состоянием по умолчанию, его слот освобождается
+        if (chunkStore != null) {
+            int defaultPlants = defaultPlantCount();
+            for (int c = chunkStore.nextStored(0); c >= 0; c = chunkStore.nextStored(c + 1)) {
+                long[] stored = chunkStore.growPlants(c);
+                if (chunkStore.releaseIfDefault(c, defaultPlants)) continue;
+                materializedPlants[0] += stored[0];
+                materializedPlants[1] += stored[1];
+            }
+        }
+        long implicitCells = (long) width * (rowTo - rowFrom) - materializedPlants[1];
+        return materializedPlants[0] + implicitCells * defaultPlantCount();
+    }
+
+    /**
+     * Перестраивает таблицу плотности растений (после роста растений, до действий животных).
+     * Ничего не делает, если поиск еды выключен.
+     */
+    public void rebuildPlantDensity() {
+        if (plantDensity != null) plantDensity.rebuild(this);
+    }
+
+    /**
+     * @return Таблица плотности растений на начало дня или null, если поиск еды выключен
+     */
+    public PlantDensityMap getPlantDensity() {
+        return plantDensity;
+    }
+
+    /**
+     * @return Индекс численности видов по областям острова или null, если индекс выключен
+     */
+    public PopulationIndex getPopulationIndex() {
+        return population;
+    }
+
+    /**
+     * Передает растения всех материализованных клеток - в памяти и выгруженных в файл.
+     * Неявные клетки не передаются: в них defaultPlantCount() растений.
+     * Вызывается между днями.
+     * @param action Получатель (x, y, растения)
+     */
+    void forEachPlantCell(PlantCellConsumer action) {
+        forEachLocation(location -> action.accept(location.x, location.y, location.getPlantCount()));
+        if (chunkStore != null) {
+            for (int c = chunkStore.nextStored(0); c >= 0; c = chunkStore.nextStored(c + 1)) {
+                chunkStore.forEachPlantCell(c, (c % chunksX) * chunkSize, (c / chunksX) * chunkSize, chunkSize, action);
+            }
+        }
+        for (Map.Entry<Integer, int[]> row : haloPlants.entrySet()) {
+            int[] plants = row.getValue();
+            for (int x = 0; x < width; x++) {
+                action.accept(x, row.getKey(), plants[x]);
+            }
+        }
+    }
+
+    /**
+     * @return Параметры модели острова
+     */
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * @return Статистика острова
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return Пул объектов животных острова
+     */
+    public AnimalPool getAnimalPool() {
+        return animalPool;
+    }
+
+    /**
+     * @return Бюджет памяти острова
+     */
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @return true, если клетка лежит в полосе строк, которой владеет остров
+     */
+    public boolean owns(int cellIndex) {
+        int row = cellIndex / width;
+        return row >= rowFrom && row < rowTo;
+    }
+
+    /**
+     * @return Первая строка полосы острова
+     */
+    public int getRowFrom() {
+        return rowFrom;
+    }
+
+    /**
+     * @return Строка за последней строкой полосы острова
+     */
+    public int getRowTo() {
+        return rowTo;
+    }
+
+    /**
+     * Записывает животное, которое уходит за пределы полосы острова (вызывается из Animal.moveTo).
+     * Может вызываться из нескольких потоков.
+     */
+    public void emigrate(Animal animal, Location from, int target) {
+        emigrants.add(new Emigrant(animal, from, target));
+    }
+
+    /**
+     * Забирает всех эмигрантов дня. Вызывается между днями.
+     * @return Эмигранты в порядке записи
+     */
+    public List<Emigrant> drainEmigrants() {
+        List<Emigrant> result = new ArrayList<>(emigrants.size());
+        for (Emigrant emigrant; (emigrant = emigrants.poll()) != null; ) {
+            result.add(emigrant);
+        }
+        return result;
+    }
+
+    /**
+     * Задает растения строки соседней полосы (гало). Таблица плотности растений учтет их
+     * при следующей перестройке, поэтому травоядные у края полосы видят еду соседей.
+     * @param row Номер строки вне полосы острова
+     * @param plants Растения по x (массив длиной ширина острова, сохраняется без копирования)
+     */
+    public void setHaloRow(int row, int[] plants) {
+        haloPlants.put(row, plants);
+    }
+
+    /**
+     * Возвращает материализованные клетки, которые снова совпадают с состоянием по умолчанию
+     * (нет животных, растений столько же, сколько в неявной клетке), к неявному хранению.
+     * Пустые чанки удаляются целиком. Вызывается между днями, когда животные не перемещаются.
+     * @return Количество освобожденных локаций
+     */
+    public int releaseDefaultCells() {
+        int released = 0;
+        int defaultPlants = defaultPlantCount();
+        // Обычно проверяются только активные клетки: "спящая" клетка насыщена, а неявные клетки
+        // насыщаются не раньше нее. Один раз, когда неявные клетки тоже насытились, проверяем все
+        boolean fullSweep = !saturatedSweepDone && defaultPlants == settings.maxPlantsPerCell;
+        saturatedSweepDone |= fullSweep;
+        for (int c = 0; c < chunks.length(); c++) {
+            Chunk chunk = chunks.get(c);
+            if (chunk == null) continue;
+            for (int i = fullSweep ? 0 : chunk.nextActive(0); i >= 0 && i < chunk.capacity();
+                 i = fullSweep ? i + 1 : chunk.nextActive(i + 1)) {
+                Location location = chunk.get(i);
+                if (location != null && !location.hasAnimals() && location.getPlantCount() == defaultPlants) {
+                    chunk.release(i);
+                    released++;
+                }
+            }
+            if (chunk.isEmpty()) {
+                synchronized (pagingLock) {
+                    keepChangedCells(chunk);
+                    chunks.set(c, null);
+                    residentChunks--;
+                }
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Передает плоские индексы клеток, изменившихся с прошлого вызова (или clearChangedCells),
+     * и сбрасывает признаки изменения.
+     * Неявные клетки не передаются: их растения одинаковы и равны defaultPlantCount().
+     * Клетки выгруженных или удаленных чанков тоже передаются (их изменения запоминаются заранее).
+     * Вызывается между днями - например, для отрисовки или снимка только изменившихся клеток.
+     * @param action Получатель индексов клеток (y * width + x)
+     * @return Количество изменившихся клеток
+     */
+    public int drainChangedCells(IntConsumer action) {
+        int count = 0;
+        synchronized (pagingLock) {
+            for (int i = 0; i < pendingChangedCount; i++) {
+                action.accept(pendingChanged[i]);
+            }
+            count += pendingChangedCount;
+            pendingChangedCount = 0;
+        }
+        for (int c = 0; c < chunks.length(); c++) {
+            Chunk chunk = chunks.get(c);
+            if (chunk == null) continue;
+            for (int i = chunk.nextChanged(0); i >= 0; i = chunk.nextChanged(i + 1)) {
+                chunk.clearChanged(i);
+                action.accept(chunkCellIndex(chunk, i));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Сбрасывает признаки изменения всех клеток без их обхода (по слову битов на 64 клетки).
+     * Обходит все чанки в памяти, поэтому вызывается редко - например, перед первым днем,
+     * изменения которого кому-то нужны. Вызывается между днями.
+     */
+    public void clearChangedCells() {
+        discardPendingChangedCells();
+        for (int c = 0; c < chunks.length(); c++) {
+            Chunk chunk = chunks.get(c);
+            if (chunk != null) chunk.clearAllChanged();
+        }
+    }
+
+    /**
+     * Забывает изменившиеся клетки выгруженных и удаленных чанков (за O(1)), чтобы их список
+     * не рос, пока изменения никто не забирает. Признаки изменения чанков в памяти остаются:
+     * их размер постоянный. Вызывается между днями.
+     */
+    public void discardPendingChangedCells() {
+        synchronized (pagingLock) {
+            pendingChangedCount = 0;
+        }
+    }
+
+    /**
+     * Запоминает изменившиеся клетки чанка, который удаляется из памяти. Вызывается под pagingLock.
+     */
+    private void keepChangedCells(Chunk chunk) {
+        for (int i = chunk.nextChanged(0); i >= 0; i = chunk.nextChanged(i + 1)) {
+            if (pendingChangedCount == pendingChanged.length) {
+                pendingChanged = Arrays.copyOf(pendingChanged, pendingChanged.length * 2);
+            }
+            pendingChanged[pendingChangedCount++] = chunkCellIndex(chunk, i);
+        }
+    }
+
+    /**
+     * @return Плоский индекс клетки чанка по её локальному индексу
+     */
+    private int chunkCellIndex(Chunk chunk, int localIndex) {
+        return cellIndex(chunk.chunkX * chunkSize + localIndex % chunkSize,
+                chunk.chunkY * chunkSize + localIndex / chunkSize);
+    }
+
+    /**
+     * Возвращает чанк по индексу, загружая его из файла, если он был выгружен.
+     * Новых чанков не создает.
+     * @param chunkIndex Индекс чанка (chunkY * chunksX + chunkX)
+     * @return Чанк или null, если в чанке нет материализованных клеток
+     */
+    public Chunk loadChunk(int chunkIndex) {
+        Chunk chunk = chunks.get(chunkIndex);
+        if (chunk == null && chunkStore != null && chunkStore.isStored(chunkIndex)) {
+            synchronized (pagingLock) {
+                chunk = chunks.get(chunkIndex);
+                if (chunk == null && chunkStore.isStored(chunkIndex)) {
+                    chunk = pageIn(chunkIndex);
+                }
+            }
+        }
+        if (chunk != null) chunk.touch(touchCounter.incrementAndGet());
+        return chunk;
+    }
+
+    /**
+     * Возвращает чанк для обработки животных: выгруженный чанк загружается, только если в нем
+     * есть животные (растения выгруженных чанков растут прямо в файле).
+     * @param chunkIndex Индекс чанка
+     * @return Чанк или null, если обрабатывать в нем нечего
+     */
+    public Chunk loadActiveChunk(int chunkIndex) {
+        if (chunks.get(chunkIndex) == null && chunkStore != null && chunkStore.isStored(chunkIndex)) {
+            synchronized (pagingLock) {
+                if (chunks.get(chunkIndex) == null && chunkStore.isStored(chunkIndex)
+                        && chunkStore.getAnimalCount(chunkIndex) == 0) {
+                    return null;
+                }
+            }
+        }
+        return loadChunk(chunkIndex);
+    }
+
+    /**
+     * Выгружает в файл чанки сверх лимита MAX_RESIDENT_CHUNKS.
+     * Сначала выгружаются уже обработанные сегодня чанки (индекс меньше sweepPosition) в порядке
+     * давности обработки, затем - самые дальние впереди. Так ближайшие по обходу чанки остаются в памяти.
+     * Вызывается только между пачками задач, когда животные не перемещаются.
+     * @param sweepPosition Индекс чанка, с которого продолжится обход
+     */
+    public void evictColdChunks(int sweepPosition) {
+        if (chunkStore == null) return;
+        synchronized (pagingLock) {
+            int excess = residentChunks - SimulationSettings.MAX_RESIDENT_CHUNKS;
+            if (excess <= 0) return;
+
+            // Кандидаты позади обхода сортируются по времени последнего обращения
+            List<Integer> behind = new ArrayList<>();
+            for (int c = 0; c < sweepPosition && c < chunks.length(); c++) {
+                if (chunks.get(c) != null) behind.add(c);
+            }
+            behind.sort(Comparator.comparingLong(c -> chunks.get(c).getLastTouched()));
+            for (int c : behind) {
+                if (excess <= 0) return;
+                if (pageOut(c)) excess--;
+            }
+            // Затем чанки впереди обхода, начиная с самых дальних
+            for (int c = chunks.length() - 1; c >= sweepPosition && excess > 0; c--) {
+                if (chunks.get(c) != null && pageOut(c)) excess--;
+            }
+        }
+    }
+
+    /**
+     * @return Метрики подкачки чанков одной строкой (пустая строка, если подкачка выключена)
+     */
+    public String getChunkResidencyMetrics() {
+        if (chunkStore == null) return "";
+        synchronized (pagingLock) {
+            return String.format("Чанков в памяти: %d, в файле: %d, загрузок: %d, выгрузок: %d, невыгружаемых: %d",
+                    residentChunks, chunkStore.storedCount(), chunkStore.getPageIns(),
+                    chunkStore.getPageOuts(), chunkStore.getRejectedPageOuts());
+        }
+    }
+
+    /**
+     * Закрывает файл выгруженных чанков.
+     */
+    public void close() {
+        if (chunkStore != null) chunkStore.close();
+    }
+
+    /**
+     * Загружает чанк из файла. Вызывается под pagingLock.
+     */
+    private Chunk pageIn(int chunkIndex) {
+        Chunk chunk = new Chunk(chunkIndex % chunksX, chunkIndex / chunksX, chunkSize, this);
+        chunkStore.pageIn(chunkIndex, chunk, this);
+        chunks.set(chunkIndex, chunk);
+        residentChunks++;
+        return chunk;
+    }
+
+    /**
+     * Выгружает чанк в файл. Вызывается под pagingLock.
+     * @return true, если чанк выгружен
+     */
+    private boolean pageOut(int chunkIndex) {
+        Chunk chunk = chunks.get(chunkIndex);
+        if (!chunkStore.pageOut(chunkIndex, chunk)) return false;
+        keepChangedCells(chunk);
+        chunks.set(chunkIndex, null);
+        residentChunks--;
+        return true;
+    }
+
+    /**
+     * Выполняет действие для каждой материализованной локации острова (чанк за чанком).
+     * @param action Действие над локацией
+     */
+    public void forEachLocation(Consumer<Location> action) {
+        for (int c = 0; c < chunks.length(); c++) {
+            Chunk chunk = chunks.get(c);
+            if (chunk == null) continue;
+            for (int i = 0; i < chunk.capacity(); i++) {
+                Location location = chunk.get(i);
+                if (location != null) action.accept(location);
+            }
+        }
+    }
+
+    /**
+     * @return Список всех материализованных локаций острова
+     */
+    public List<Location> getLocations() {
+        List<Location> result = new ArrayList<>();
+        forEachLocation(result::add);
+        return result;
+    }
+
+    /**
+     * @return Количество материализованных локаций (для оценки занимаемой памяти)
+     */
+    public int getMaterializedCount() {
+        int count = 0;
+        for (int c = 0; c < chunks.length(); c++) {
+            Chunk chunk = chunks.get(c);
+            if (chunk != null) count += chunk.getMaterializedCount();
+        }
+        return count;
+    }
+
+    /**
+     * Возвращает чанк по его координатам в сетке чанков, создавая его при необходимости.
+     */
+    private Chunk getOrCreateChunk(int chunkX, int chunkY) {
+        return getOrCreateChunk(chunkY * chunksX + chunkX);
+    }
+
+    /**
+     * Возвращает чанк по его индексу, создавая его или загружая из файла при необходимости.
+     */
+    Chunk getOrCreateChunk(int index) {
+        int chunkX = index % chunksX;
+        int chunkY = index / chunksX;
+        Chunk chunk = chunks.get(index);
+        if (chunk == null) {
+            synchronized (pagingLock) {
+                chunk = chunks.get(index);
+                if (chunk == null) {
+                    if (chunkStore != null && chunkStore.isStored(index)) {
+                        chunk = pageIn(index); // Чанк был выгружен - загружаем его из файла
+                    } else {
+                        chunk = new Chunk(chunkX, chunkY, chunkSize, this);
+                        chunks.set(index, chunk);
+                        residentChunks++;
+                    }
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * @return Общее количество чанков острова (включая пустые и выгруженные)
+     */
+    public int getChunkCount() {
+        return chunks.length();
+    }
+
+    /**
+     * @return Количество чанков по оси X
+     */
+    public int getChunksX() {
+        return chunksX;
+    }
+
+    /**
+     * @return Сторона чанка в клетках
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
     public int getWidth() {
         return width;
     }
@@ -82,7 +806,17 @@ public class Island {
         return height;
     }
 
-    public Location[][] getLocations() {
-        return locations;
+    /**
+     * @return Поведение острова на краях
+     */
+    public Topology getTopology() {
+        return topology;
+    }
+
+    /**
+     * @return Сколько дней прошло с начала роста растений
+     */
+    public int getDay() {
+        return day;
     }
-}
\ No newline at end of file
+}
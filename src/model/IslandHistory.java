@@ -0,0 +1,172 @@
+package model;
+
+import model.IslandSnapshot.ChunkState;
+import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
+
+/**
+ * История последних дней острова для "перемотки назад": кольцо из capacity снимков IslandSnapshot.
+ *
+ * Снимки разделяют неизменившиеся части (структурное разделение): чанк снимается заново,
+ * только если в нем есть активные клетки (животные, растущие растения) или он изменился
+ * с прошлого снимка (Chunk.takeModified); иначе в новый снимок попадает вчерашнее состояние
+ * того же чанка. Страница снимка без новых состояний тоже берется вчерашняя целиком.
+ * В снятом заново чанке неизменившиеся строки растений тоже общие со вчерашними: сытость
+ * животных меняется каждый день, поэтому заселенный чанк снимается всегда, но его растения -
+ * самая большая часть состояния - копируются только в тех строках, где их съели или они выросли.
+ * Неявные клетки и пустые чанки не хранятся вовсе.
+ *
+ * capture вызывается симуляцией между днями; чтение (get) возможно из любого потока.
+ * Подкачка чанков (CHUNK_PAGING_ENABLED) не поддерживается: выгруженные чанки пришлось бы
+ * подгружать ради снимка.
+ */
+public class IslandHistory {
+    private final Island island; // Остров, историю которого храним
+    private final IslandSnapshot[] ring; // Кольцо снимков: снимок дня d лежит в ring[d % длина]
+    private IslandSnapshot latest; // Последний снимок (от него берутся неизменившиеся чанки)
+
+    // Метрики разделения
+    private long copiedChunks; // Сколько состояний чанков снято заново
+    private long sharedChunks; // Сколько состояний чанков взято из предыдущего снимка
+    private long plantRows; // Сколько строк растений в снятых заново чанках
+    private long sharedPlantRows; // Сколько из них взято из предыдущего снимка
+
+    /**
+     * @param island Остров
+     * @param capacity Сколько последних дней хранить
+     */
+    public IslandHistory(Island island, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Количество дней истории должно быть положительным");
+        if (SimulationSettings.CHUNK_PAGING_ENABLED) {
+            throw new IllegalStateException("История дней не поддерживает подкачку чанков");
+        }
+        this.island = island;
+        this.ring = new IslandSnapshot[capacity];
+    }
+
+    /**
+     * Снимает состояние острова на конец дня. Вызывается между днями, когда животные не двигаются.
+     * @param day Номер завершившегося дня
+     * @return Снимок дня
+     */
+    public IslandSnapshot capture(int day) {
+        int chunkCount = island.getChunkCount();
+        int pageCount = (chunkCount + IslandSnapshot.PAGE_CHUNKS - 1) / IslandSnapshot.PAGE_CHUNKS;
+        ChunkState[][] pages = new ChunkState[pageCount][];
+        long copied = 0, shared = 0, rows = 0, sharedRows = 0;
+        for (int p = 0; p < pageCount; p++) {
+            ChunkState[] previous = latest == null ? null : latest.pages[p];
+            ChunkState[] page = previous; // Копия страницы создается при первом отличии
+            int first = p * IslandSnapshot.PAGE_CHUNKS;
+            int last = Math.min(chunkCount, first + IslandSnapshot.PAGE_CHUNKS);
+            for (int c = first; c < last; c++) {
+                Chunk chunk = island.loadChunk(c);
+                ChunkState before = previous == null ? null : previous[c - first];
+                ChunkState state;
+                boolean modified = chunk != null && chunk.takeModified(); // Флаг сбрасывается всегда
+                if (chunk == null) {
+                    state = null;
+                } else if (before != null && !modified && chunk.nextActive(0) < 0) {
+                    state = before; // Спящий неизменившийся чанк - берем вчерашнее состояние
+                    shared++;
+                } else {
+                    state = ChunkState.of(chunk, before);
+                    copied++;
+                    if (state != null) {
+                        rows += state.plantRows.length;
+                        for (int r = 0; r < state.plantRows.length && before != null; r++) {
+                            if (state.plantRows[r] == before.plantRows[r]) sharedRows++;
+                        }
+                    }
+                }
+                if (state != before) {
+                    if (page == previous) {
+                        page = previous == null ? new ChunkState[IslandSnapshot.PAGE_CHUNKS] : previous.clone();
+                    }
+                    page[c - first] = state;
+                }
+            }
+            pages[p] = page;
+        }
+
+        int[] population = new int[AnimalConfig.values().length];
+        island.getStatistics().copyPopulation(population);
+        IslandSnapshot snapshot = new IslandSnapshot(day, island.getWidth(), island.getHeight(),
+                island.getChunkSize(), island.defaultPlantCount(), population, pages);
+        synchronized (this) {
+            ring[Math.floorMod(day, ring.length)] = snapshot;
+            latest = snapshot;
+            copiedChunks += copied;
+            sharedChunks += shared;
+            plantRows += rows;
+            sharedPlantRows += sharedRows;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Записывает под новым днем последний снимок без обхода чанков - для перемотки установившегося
+     * режима, когда модель не считается и клетки острова не меняются. Все чанки общие с последним снимком.
+     * @param day Номер завершившегося дня
+     * @return Снимок дня или null, если снимков еще нет
+     */
+    public IslandSnapshot repeatLatest(int day) {
+        int[] population = new int[AnimalConfig.values().length];
+        island.getStatistics().copyPopulation(population);
+        synchronized (this) {
+            if (latest == null) return null;
+            IslandSnapshot snapshot = new IslandSnapshot(day, island.getWidth(), island.getHeight(),
+                    island.getChunkSize(), island.defaultPlantCount(), population, latest.pages);
+            ring[Math.floorMod(day, ring.length)] = snapshot;
+            latest = snapshot;
+            sharedChunks += island.getChunkCount();
+            return snapshot;
+        }
+    }
+
+    /**
+     * Возвращает снимок любого из хранимых дней.
+     * @param day Номер дня
+     * @return Снимок или null, если день еще не наступил или уже вытеснен из истории
+     */
+    public synchronized IslandSnapshot get(int day) {
+        IslandSnapshot snapshot = ring[Math.floorMod(day, ring.length)];
+        return snapshot != null && snapshot.getDay() == day ? snapshot : null;
+    }
+
+    /**
+     * @return Последний снятый снимок или null, если снимков еще нет
+     */
+    public synchronized IslandSnapshot latest() {
+        return latest;
+    }
+
+    /**
+     * @return Самый ранний хранимый день (-1, если снимков еще нет)
+     */
+    public synchronized int getFirstDay() {
+        if (latest == null) return -1;
+        int first = latest.getDay();
+        while (get(first - 1) != null) first--;
+        return first;
+    }
+
+    /**
+     * @return Сколько дней хранится в истории
+     */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * @return Метрики истории: хранимые дни и доля состояний чанков, разделенных с предыдущим днем
+     */
+    public synchronized String getMetrics() {
+        long total = copiedChunks + sharedChunks;
+        return String.format("История: дни %d..%d из %d, чанков снято заново: %d, разделено целиком: %d (%.1f%%), "
+                        + "строк растений общих с предыдущим днем: %.1f%%",
+                getFirstDay(), latest == null ? -1 : latest.getDay(), ring.length,
+                copiedChunks, sharedChunks, total == 0 ? 0.0 : 100.0 * sharedChunks / total,
+                plantRows == 0 ? 0.0 : 100.0 * sharedPlantRows / plantRows);
+    }
+}
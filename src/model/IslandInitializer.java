@@ -0,0 +1,126 @@
+package model;
+
+import model.animals.Animal;
+import utils.Settings;
+import utils.Randomizer;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Быстрое параллельное заселение острова начальными животными.
+ *
+ * Алгоритм:
+ * 1. Для каждого вида количество животных распределяется по чанкам мультиномиальной выборкой
+ *    (вес чанка - число его клеток; крайние чанки могут быть меньше остальных).
+ * 2. Чанки заселяются параллельно: каждый чанк за один проход размещает животных всех видов
+ *    в случайные клетки внутри себя. У каждого чанка свой генератор SplittableRandom, зерно
+ *    которого зависит только от общего seed и индекса чанка, поэтому результат не зависит от того,
+ *    какой поток обработал чанк.
+ * 3. Статистика обновляется одной операцией на вид и чанк, а не на каждое животное.
+ *
+ * Если остров владеет только полосой строк, заселяются только её чанки. Распределение по чанкам
+ * при этом то же, что и для целого острова, поэтому полосы разных процессов вместе дают то же
+ * начальное заселение, что и один процесс.
+ */
+class IslandInitializer {
+    // Шаг, которым "разносятся" зерна соседних чанков (дробная часть золотого сечения)
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private final Island island; // Заселяемый остров
+    private final long seed; // Общее зерно генератора
+
+    IslandInitializer(Island island, long seed) {
+        this.island = island;
+        this.seed = seed;
+    }
+
+    /**
+     * Заселяет остров начальными животными всех видов.
+     */
+    void spawnInitialAnimals() {
+        AnimalConfig[] species = AnimalConfig.values();
+        int chunkCount = island.getChunkCount();
+
+        // Вес чанка - количество его клеток
+        double[] weights = new double[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            weights[c] = chunkWidth(c) * chunkHeight(c);
+        }
+
+        // Распределяем животных каждого вида по чанкам
+        SplittableRandom random = new SplittableRandom(seed);
+        Settings settings = island.getSettings();
+        int[][] counts = new int[species.length][];
+        for (AnimalConfig config : species) {
+            counts[config.ordinal()] = Randomizer.multinomial(random, settings.species(config).initialCount, weights);
+        }
+
+        // Заселяем чанки параллельно
+        AtomicIntegerArray placed = new AtomicIntegerArray(species.length);
+        int chunkSize = island.getChunkSize();
+        int firstChunk = island.getRowFrom() / chunkSize * island.getChunksX();
+        int lastChunk = Math.min(chunkCount, (island.getRowTo() + chunkSize - 1) / chunkSize * island.getChunksX());
+        IntStream.range(firstChunk, lastChunk).parallel().forEach(c -> populateChunk(c, species, counts, placed));
+
+        for (AnimalConfig config : species) {
+            // Начальные животные учитываются в статистике как рождения
+            island.getStatistics().recordSpawn(config, placed.get(config.ordinal()));
+        }
+    }
+
+    /**
+     * Размещает в чанке животных всех видов.
+     * Если клетка уже заполнена животными этого вида (maxPerCell), животное не появляется.
+     */
+    private void populateChunk(int chunkIndex, AnimalConfig[] species, int[][] counts, AtomicIntegerArray placed) {
+        SplittableRandom random = new SplittableRandom(seed + SEED_STEP * (chunkIndex + 1));
+        int chunkSize = island.getChunkSize();
+        int width = chunkWidth(chunkIndex);
+        int cells = width * chunkHeight(chunkIndex);
+        int originX = (chunkIndex % island.getChunksX()) * chunkSize;
+        int originY = (chunkIndex / island.getChunksX()) * chunkSize;
+        Chunk chunk = null;
+
+        for (AnimalConfig config : species) {
+            int count = counts[config.ordinal()][chunkIndex];
+            if (count == 0) continue;
+            Settings.Species parameters = island.getSettings().species(config);
+            if (chunk == null) chunk = island.getOrCreateChunk(chunkIndex);
+
+            int added = 0;
+            for (int i = 0; i < count; i++) {
+                int cell = random.nextInt(cells);
+                int localX = cell % width;
+                int localY = cell / width;
+                int localIndex = localY * chunkSize + localX;
+                Location location = chunk.get(localIndex);
+                if (location == null) {
+                    location = chunk.putIfAbsent(localIndex,
+                            island.newLocation(originX + localX, originY + localY, island.defaultPlantCount()));
+                }
+                Animal animal = parameters.createAnimal();
+                if (location.addAnimal(animal)) added++;
+            }
+            placed.addAndGet(config.ordinal(), added);
+        }
+    }
+
+    /**
+     * Ширина чанка в клетках (крайний правый чанк может быть уже).
+     */
+    private int chunkWidth(int chunkIndex) {
+        int size = island.getChunkSize();
+        return Math.min(size, island.getWidth() - (chunkIndex % island.getChunksX()) * size);
+    }
+
+    /**
+     * Высота чанка в клетках (крайний нижний чанк может быть ниже).
+     */
+    private int chunkHeight(int chunkIndex) {
+        int size = island.getChunkSize();
+        return Math.min(size, island.getHeight() - (chunkIndex / island.getChunksX()) * size);
+    }
+}
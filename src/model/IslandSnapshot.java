@@ -0,0 +1,260 @@
+package model;
+
+import model.animals.Animal;
+import model.animals.Genome;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемый снимок острова на конец дня: растения всех клеток и все живые животные
+ * (вид, клетка, сытость, геном). Снимки создает IslandHistory, читает и пишет Checkpoint.
+ *
+ * Снимок хранится постранично: страница - PAGE_CHUNKS состояний чанков (ChunkState), null -
+ * в чанке нет материализованных клеток. Состояния чанков и целые страницы, которые не менялись
+ * со вчерашнего дня, - это те же объекты, что и во вчерашнем снимке. Поэтому K хранимых дней
+ * занимают память одного снимка плюс изменившиеся за эти дни чанки, а не K полных копий острова.
+ */
+public final class IslandSnapshot {
+    // Чанков на странице снимка (страница копируется целиком, если изменился хотя бы один её чанк)
+    static final int PAGE_CHUNKS = 64;
+    // Растения клетки, которая хранится неявно (как в ChunkStore)
+    static final int IMPLICIT_CELL = -1;
+
+    private final int day; // День острова, на конец которого сделан снимок
+    private final int width, height; // Размеры острова
+    private final int chunkSize; // Сторона чанка в клетках
+    private final int chunksX; // Количество чанков по оси X
+    private final int chunkCount; // Общее количество чанков
+    private final int implicitPlants; // Растения в неявных клетках
+    private final int[] population; // Численность видов (индекс - AnimalConfig.ordinal)
+    final ChunkState[][] pages; // Страницы состояний чанков (null - страница без материализованных клеток)
+
+    IslandSnapshot(int day, int width, int height, int chunkSize, int implicitPlants,
+                   int[] population, ChunkState[][] pages) {
+        this.day = day;
+        this.width = width;
+        this.height = height;
+        this.chunkSize = chunkSize;
+        this.chunksX = (width + chunkSize - 1) / chunkSize;
+        this.chunkCount = chunksX * ((height + chunkSize - 1) / chunkSize);
+        this.implicitPlants = implicitPlants;
+        this.population = population;
+        this.pages = pages;
+    }
+
+    /**
+     * Состояние одного чанка. Колонки те же, что в слоте ChunkStore: растения по клеткам
+     * (IMPLICIT_CELL - неявная клетка), затем вид, локальная клетка, сытость и геном каждого животного.
+     * Колонка геномов не хранится (null), если все геномы чанка нейтральные - без мутаций снимок не растет.
+     * Растения хранятся по строкам чанка: неизменившаяся строка - тот же массив, что вчера.
+     * Животные упорядочены по клетке - животные одной клетки ищутся двоичным поиском.
+     */
+    static final class ChunkState {
+        final int[][] plantRows; // Растения по строкам чанка: plantRows[localY][localX]
+        final byte[] species; // Вид животного (AnimalConfig.ordinal)
+        final short[] cells; // Локальная клетка животного (по возрастанию)
+        final float[] satiety; // Сытость животного
+        final long[] genomes; // Геном животного (null - все нейтральные)
+
+        ChunkState(int[][] plantRows, byte[] species, short[] cells, float[] satiety, long[] genomes) {
+            this.plantRows = plantRows;
+            this.species = species;
+            this.cells = cells;
+            this.satiety = satiety;
+            this.genomes = genomes;
+        }
+
+        int animalCount() {
+            return species.length;
+        }
+
+        /**
+         * @return Геном животного
+         */
+        long genome(int animal) {
+            return genomes == null ? Genome.NEUTRAL : genomes[animal];
+        }
+
+        /**
+         * @return Растения локальной клетки чанка (IMPLICIT_CELL - неявная клетка)
+         */
+        int plants(int localIndex) {
+            int size = plantRows.length;
+            return plantRows[localIndex / size][localIndex % size];
+        }
+
+        /**
+         * Снимает состояние чанка острова. Мертвые животные не сохраняются.
+         * Строки растений, совпавшие со строками previous, не копируются - берутся те же:
+         * сытость животных меняется каждый день, а растения - только в клетках, где ели.
+         * @param previous Вчерашнее состояние того же чанка или null
+         * @return Состояние или null, если в чанке нет материализованных клеток
+         */
+        static ChunkState of(Chunk chunk, ChunkState previous) {
+            if (chunk.isEmpty()) return null;
+            int capacity = chunk.capacity();
+            int size = (int) Math.sqrt(capacity);
+            int[] plants = new int[capacity];
+            byte[] species = new byte[16];
+            short[] cells = new short[16];
+            float[] satiety = new float[16];
+            long[] genomes = null; // Создается при первом ненейтральном геноме
+            int count = 0;
+            for (int i = 0; i < capacity; i++) {
+                Location location = chunk.get(i);
+                if (location == null) {
+                    plants[i] = IMPLICIT_CELL;
+                    continue;
+                }
+                plants[i] = location.getPlantCount();
+                if (!location.hasAnimals()) continue;
+                for (Animal animal : location.getAnimals()) {
+                    if (!animal.isAlive()) continue;
+                    if (count == species.length) {
+                        species = Arrays.copyOf(species, count * 2);
+                        cells = Arrays.copyOf(cells, count * 2);
+                        satiety = Arrays.copyOf(satiety, count * 2);
+                        if (genomes != null) genomes = Arrays.copyOf(genomes, count * 2);
+                    }
+                    species[count] = (byte) animal.getConfig().ordinal();
+                    cells[count] = (short) i;
+                    satiety[count] = (float) animal.getSatiety();
+                    if (genomes == null && animal.getGenome() != Genome.NEUTRAL) {
+                        genomes = new long[species.length];
+                        Arrays.fill(genomes, 0, count, Genome.NEUTRAL);
+                    }
+                    if (genomes != null) genomes[count] = animal.getGenome();
+                    count++;
+                }
+            }
+            int[][] rows = new int[size][];
+            for (int r = 0; r < size; r++) {
+                int[] row = Arrays.copyOfRange(plants, r * size, (r + 1) * size);
+                boolean same = previous != null && Arrays.equals(row, previous.plantRows[r]);
+                rows[r] = same ? previous.plantRows[r] : row;
+            }
+            return new ChunkState(rows, Arrays.copyOf(species, count), Arrays.copyOf(cells, count),
+                    Arrays.copyOf(satiety, count), genomes == null ? null : Arrays.copyOf(genomes, count));
+        }
+    }
+
+    /**
+     * @return Состояние чанка или null, если в нем нет материализованных клеток
+     */
+    ChunkState chunk(int chunkIndex) {
+        ChunkState[] page = pages[chunkIndex / PAGE_CHUNKS];
+        return page == null ? null : page[chunkIndex % PAGE_CHUNKS];
+    }
+
+    /**
+     * @return День острова, на конец которого сделан снимок
+     */
+    public int getDay() {
+        return day;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Сторона чанка в клетках
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return Общее количество чанков острова
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * @return Количество растений в клетках, которые хранятся неявно
+     */
+    public int getImplicitPlants() {
+        return implicitPlants;
+    }
+
+    /**
+     * @return Численность вида на конец дня
+     */
+    public int getPopulation(AnimalConfig species) {
+        return population[species.ordinal()];
+    }
+
+    /**
+     * @return Количество растений в клетке
+     */
+    public int getPlants(int x, int y) {
+        ChunkState state = chunk(chunkIndex(x, y));
+        int plants = state == null ? IMPLICIT_CELL : state.plants(localIndex(x, y));
+        return plants == IMPLICIT_CELL ? implicitPlants : plants;
+    }
+
+    /**
+     * @return Количество животных всех видов в клетке
+     */
+    public int countAnimals(int x, int y) {
+        return countAnimals(x, y, null);
+    }
+
+    /**
+     * @param species Вид (null - все виды)
+     * @return Количество животных вида в клетке
+     */
+    public int countAnimals(int x, int y, AnimalConfig species) {
+        ChunkState state = chunk(chunkIndex(x, y));
+        if (state == null) return 0;
+        short cell = (short) localIndex(x, y);
+        int from = lowerBound(state.cells, cell);
+        int count = 0;
+        for (int a = from; a < state.cells.length && state.cells[a] == cell; a++) {
+            if (species == null || state.species[a] == species.ordinal()) count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return Количество чанков с материализованными клетками
+     */
+    public int getStoredChunkCount() {
+        int count = 0;
+        for (ChunkState[] page : pages) {
+            if (page == null) continue;
+            for (ChunkState state : page) {
+                if (state != null) count++;
+            }
+        }
+        return count;
+    }
+
+    private int chunkIndex(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Клетка (" + x + ", " + y + ") вне острова " + width + "x" + height);
+        }
+        return (y / chunkSize) * chunksX + x / chunkSize;
+    }
+
+    private int localIndex(int x, int y) {
+        return (y % chunkSize) * chunkSize + (x % chunkSize);
+    }
+
+    // Первый индекс, в котором cells[i] >= cell (массив упорядочен по возрастанию)
+    private static int lowerBound(short[] cells, short cell) {
+        int low = 0, high = cells.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cells[middle] < cell) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+}
@@ -1,16 +1,17 @@
 package model; // Указываем, что класс принадлежит пакету model
 
 import model.animals.Animal;
-import statistics.Statistics;
-import utils.SimulationSettings;
+import utils.Settings;
+import utils.SimulationSettings.AnimalConfig;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -20,74 +21,134 @@ public class Location {
     // Координаты локации на острове
     public final int x, y;
 
-    // Потокобезопасная карта, которая хранит животных по их типам (классам)
-    // Ключ - это класс животного, значение - очередь животных этого типа
-    private final ConcurrentHashMap<Class<? extends Animal>, BlockingQueue<Animal>> animals = new ConcurrentHashMap<>();
+    // Плоский индекс клетки на острове: index = y * width + x
+    public final int index;
 
-    // Очередь для хранения растений в данной локации
-    // Ограничение на максимальное количество растений задается в настройках симуляции
-    private final BlockingQueue<Plant> plants = new LinkedBlockingQueue<>(SimulationSettings.MAX_PLANTS_PER_CELL);
+    // Потокобезопасная карта, которая хранит животных по их видам
+    // Ключ - это вид животного, значение - очередь животных этого вида
+    private final ConcurrentHashMap<AnimalConfig, BlockingQueue<Animal>> animals = new ConcurrentHashMap<>();
 
-    // Конструктор класса, принимающий координаты x и y локации
-    public Location(int x, int y) {
+    // Количество растений в данной локации. Растения одинаковые, поэтому хранить их объектами не нужно -
+    // достаточно счетчика. Ограничение на максимальное количество растений задается в настройках симуляции
+    private final AtomicInteger plants;
+
+    // День, по который растения уже выращены (SATURATED - клетка "спит" насыщенной)
+    private int grownDay;
+
+    // Чанк, в котором хранится локация, и индекс клетки внутри него (для битов активности)
+    private Chunk owner;
+    private int localIndex;
+
+    // Признак "спящей" клетки: растений MAX_PLANTS_PER_CELL, рост пропускается
+    private static final int SATURATED = Integer.MAX_VALUE;
+
+    /**
+     * Конструктор класса, принимающий координаты x и y локации, её плоский индекс и начальное количество растений.
+     * @param grownDay День острова, по который выращены initialPlants
+     */
+    public Location(int x, int y, int index, int initialPlants, int grownDay) {
         this.x = x; // Инициализация координаты x
         this.y = y; // Инициализация координаты y
-        initializePlants(); // Инициализация растений в локации
+        this.index = index; // Инициализация плоского индекса
+        this.plants = new AtomicInteger(initialPlants); // Инициализация растений в локации
+        this.grownDay = grownDay;
     }
 
     /**
-     * Метод для инициализации растений в данной локации
+     * Привязывает локацию к чанку, в котором она сохранена.
      */
-    private void initializePlants() {
-        // Устанавливаем начальное количество растений в локации, равное половине от ежедневного прироста
-        int initialPlants = SimulationSettings.PLANT_GROWTH_PER_DAY / 2;
+    void attach(Chunk owner, int localIndex) {
+        this.localIndex = localIndex;
+        this.owner = owner;
+    }
 
-        // Добавляем начальные растения в очередь
-        for (int i = 0; i < initialPlants; i++) {
-            plants.add(new Plant()); // Создаем новое растение и добавляем его в очередь
-        }
+    /**
+     * @return Остров, которому принадлежит локация (null, если локация еще не сохранена в чанке)
+     */
+    public Island getIsland() {
+        Chunk chunk = owner;
+        return chunk == null ? null : chunk.island;
     }
 
     /**
-     * Метод для добавления животного в локацию
+     * Отмечает клетку как активную и изменившуюся (в ней что-то произошло).
      */
-    public void addAnimal(Animal animal) {
-        Class<? extends Animal> type = animal.getClass(); // Получаем класс (тип) добавляемого животного
-
-        try {
-            // Получаем максимальное количество животных данного типа, которое может находиться в одной локации
-            int max = SimulationSettings.AnimalConfig.valueOf(type.getSimpleName().toUpperCase()).maxPerCell;
-
-            // Используем compute для получения или создания очереди для данного типа животных
-            BlockingQueue<Animal> queue = animals.compute(type, (k, existingQueue) -> {
-                // Если очередь отсутствует, создаем новую с максимальным размером
-                if (existingQueue == null) {
-                    return new LinkedBlockingQueue<>(max);
-                }
-                // Если очередь уже существует, возвращаем её
-                return existingQueue;
-            });
-
-            // Проверяем, есть ли место в очереди для нового животного
-            if (queue.remainingCapacity() > 0) {
-                queue.offer(animal); // Добавляем животное в очередь
-                Statistics.recordBirth(animal); // Записываем событие рождения животного в статистику
-            }
-        } catch (IllegalArgumentException e) {
-            // Обработка случая, если тип животного неизвестен (например, не определен в конфигурации)
-            System.err.println("Неизвестный тип животного: " + type.getSimpleName());
+    private void touch() {
+        Chunk chunk = owner;
+        if (chunk != null) chunk.markActive(localIndex);
+    }
+
+    /**
+     * Метод для добавления животного в локацию.
+     * Если место для этого вида есть, животное попадает в локацию и запоминает её как текущую.
+     * @return true, если животное добавлено, false - если локация переполнена
+     */
+    public boolean addAnimal(Animal animal) {
+        return offer(animal, true);
+    }
+
+    /**
+     * Возвращает в локацию животное загруженного из файла чанка.
+     * Такое животное уже учтено в индексе численности (выгрузка его не меняет), поэтому индекс не обновляется.
+     */
+    boolean restoreAnimal(Animal animal) {
+        return offer(animal, false);
+    }
+
+    /**
+     * Помещает животное в очередь его вида.
+     * @param indexed true - учесть животное в индексе численности острова
+     */
+    private boolean offer(Animal animal, boolean indexed) {
+        AnimalConfig type = animal.getConfig(); // Получаем вид добавляемого животного
+
+        // Быстрый путь: очередь для этого вида уже есть (обычный случай), карта читается без блокировок
+        BlockingQueue<Animal> queue = animals.get(type);
+        if (queue == null) {
+            // Максимальное количество животных данного вида на клетке берем из параметров вида животного
+            int max = animal.getSpecies().maxPerCell;
+            // Если очередь отсутствует, создаем новую с максимальным размером
+            queue = animals.computeIfAbsent(type, k -> new LinkedBlockingQueue<>(max));
         }
+
+        // Добавляем животное, если в очереди есть место (offer не блокирует и вернет false при переполнении)
+        if (queue.offer(animal)) {
+            animal.setLocation(this); // Животное теперь находится в этой локации
+            touch(); // Клетка с животными обрабатывается каждый день
+            if (indexed) updatePopulation(animal, 1);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Проверяет, есть ли в локации место для еще одного животного этого вида.
+     * Позволяет не создавать потомка, которого все равно некуда поместить.
+     */
+    public boolean hasRoomFor(Animal animal) {
+        BlockingQueue<Animal> queue = animals.get(animal.getConfig());
+        return queue == null || queue.remainingCapacity() > 0;
     }
 
     // Метод для удаления животного из локации
     public void removeAnimal(Animal animal) {
-        Class<? extends Animal> type = animal.getClass(); // Получаем класс (тип) животного
-        // Используем computeIfPresent для удаления животного из очереди
-        animals.computeIfPresent(type, (k, queue) -> {
-            queue.remove(animal); // Удаляем животное из очереди
-            // Если очередь пустая после удаления, возвращаем null, чтобы удалить её из карты
-            return queue.isEmpty() ? null : queue;
-        });
+        AnimalConfig type = animal.getConfig(); // Получаем вид животного
+        BlockingQueue<Animal> queue = animals.get(type);
+        // Животное уже ушло из локации (например, погибло раньше) - индекс повторно не уменьшаем
+        if (queue == null || !queue.remove(animal)) return;
+        updatePopulation(animal, -1);
+        // Если очередь опустела, удаляем её из карты (computeIfPresent - атомарно с добавлением в эту очередь)
+        animals.computeIfPresent(type, (k, q) -> q.isEmpty() ? null : q);
+        Chunk chunk = owner;
+        if (chunk != null) chunk.markChanged(localIndex);
+    }
+
+    /**
+     * Изменяет количество животных вида в индексе численности острова (если индекс включен).
+     */
+    private void updatePopulation(Animal animal, int delta) {
+        Chunk chunk = owner;
+        if (chunk != null && chunk.population != null) chunk.population.add(animal.getConfig(), x, y, delta);
     }
 
     // Метод для получения списка всех животных в данной локации
@@ -98,81 +159,118 @@ public class Location {
                 .collect(Collectors.toList()); // Собираем поток в список и возвращаем
     }
 
-    // Метод для получения списка животных определенного типа
-    public <T extends Animal> List<T> getAnimalsByType(Class<T> type) {
-        // Получаем очередь животных указанного типа, если она существует, иначе создаем пустую очередь
-        return animals.getOrDefault(type, new LinkedBlockingQueue<>()).stream() // Получаем очередь по типу
-                .map(type::cast) // Приводим животных к указанному типу
-                .collect(Collectors.toList()); // Собираем в список и возвращаем
+    // Метод для получения списка животных определенного вида
+    public List<Animal> getAnimals(AnimalConfig species) {
+        // Получаем очередь животных указанного вида, если она существует
+        BlockingQueue<Animal> queue = animals.get(species);
+        return queue == null ? List.of() : new ArrayList<>(queue); // Копия: очередь может меняться другими потоками
+    }
+
+    /**
+     * Возвращает количество животных указанного вида без копирования очереди в список.
+     */
+    public int countAnimals(AnimalConfig species) {
+        BlockingQueue<Animal> queue = animals.get(species);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Возвращает общее количество животных в локации без копирования очередей.
+     */
+    public int getAnimalCount() {
+        int count = 0;
+        for (BlockingQueue<Animal> queue : animals.values()) {
+            count += queue.size();
+        }
+        return count;
     }
 
     // Метод для потребления растений животными
     public double eatPlants(double amount) {
         // Определяем максимальное количество растений, которое можно съесть
         int maxToEat = (int) (amount / Plant.WEIGHT);
-        // Определяем фактическое количество съеденных растений, беря минимальное из maxToEat и текущего количества растений
-        int eaten = Math.min(maxToEat, plants.size()); // Минимум между запрашиваемым и доступным количеством
-        eaten = Math.max(0, eaten); // Гарантируем, что количество не будет отрицательным
+        if (maxToEat <= 0) return 0;
+
+        // Атомарно уменьшаем счетчик растений: несколько животных могут есть одновременно
+        int available, eaten;
+        do {
+            available = plants.get();
+            // Фактическое количество съеденных растений - минимум между запрашиваемым и доступным количеством
+            eaten = Math.min(maxToEat, available);
+        } while (eaten > 0 && !plants.compareAndSet(available, available - eaten));
+        if (eaten > 0) touch(); // Растения снова будут расти - клетка "просыпается"
 
-        // Удаляем съеденные растения из очереди
-        for (int i = 0; i < eaten; i++) {
-            plants.poll(); // Удаляем и возвращаем растение из очереди
-        }
         // Возвращаем общий вес съеденных растений
         return eaten * Plant.WEIGHT; // Возвращаем вес съеденных растений
     }
 
-    // Метод для роста растений в данной локации
-    public void growPlants() {
-        // Определяем количество новых растений, которое может вырасти в локации
-        int newPlants = Math.min(
-                SimulationSettings.PLANT_GROWTH_PER_DAY, // Максимальное количество, которое может вырасти за день
-                SimulationSettings.MAX_PLANTS_PER_CELL - plants.size() // Оставшееся место для новых растений
-        );
-        newPlants = Math.max(0, newPlants); // Гарантируем, что количество не будет отрицательным
+    /**
+     * Выращивает растения по указанный день включительно.
+     * Прирост за все пропущенные дни считается сразу по формуле:
+     * min(максимум растений, растения + прирост * дней) - по параметрам острова (Settings).
+     * "Спящая" клетка была насыщенной и после пробуждения растет как за один день.
+     * Вызывается только между днями.
+     * @param day Текущий день острова
+     * @return true, если количество растений изменилось
+     */
+    boolean growPlants(int day) {
+        int days = grownDay == SATURATED ? 1 : day - grownDay;
+        grownDay = day;
+        if (days <= 0) return false;
+        // Добавляем прирост, но не больше максимального количества растений на клетке
+        Settings settings = owner.settings;
+        long growth = (long) settings.plantGrowthPerDay * days;
+        int max = settings.maxPlantsPerCell;
+        int before = plants.getAndUpdate(current -> (int) Math.max(current, Math.min(max, current + growth)));
+        return plants.get() != before;
+    }
 
-        // Добавляем новые растения в очередь
-        for (int i = 0; i < newPlants; i++) {
-            plants.add(new Plant()); // Создаем новое растение и добавляем его в очередь
-        }
+    /**
+     * "Усыпляет" насыщенную клетку без животных: до следующего касания рост не считается.
+     * @return true, если клетка может спать (нет животных, растения насыщены)
+     */
+    boolean trySleep() {
+        if (hasAnimals() || plants.get() < owner.settings.maxPlantsPerCell) return false;
+        grownDay = SATURATED;
+        return true;
     }
 
-    // Метод для получения информации о доминирующем животном в данной локации
-    public String getDominantAnimalInfo() {
-        if (animals.isEmpty()) return ""; // Если в локации нет животных, возвращаем пустую строку
-
-        // Собираем статистику по всем животным
-        Map<Class<? extends Animal>, Long> animalCounts = new HashMap<>(); // Карта для хранения количества животных по типам
-        for (BlockingQueue<Animal> queue : animals.values()) { // Проходим по всем очередям животных
-            Class<? extends Animal> type = queue.peek().getClass(); // Получаем тип (класс) первого животного в очереди
-            long count = queue.size(); // Определяем количество животных данного типа
-            animalCounts.put(type, animalCounts.getOrDefault(type, 0L) + count); // Обновляем счетчик для данного типа
-        }
+    /**
+     * @return true, если в локации есть хотя бы одно животное
+     */
+    public boolean hasAnimals() {
+        return !animals.isEmpty();
+    }
 
-        // Находим вид с максимальным количеством
-        Map.Entry<Class<? extends Animal>, Long> dominant = null; // Переменная для хранения доминирующего животного
-        for (Map.Entry<Class<? extends Animal>, Long> entry : animalCounts.entrySet()) { // Проходим по всем типам животных
-            // Если это первое животное или текущее больше, обновляем доминирующее животное
-            if (dominant == null || entry.getValue() > dominant.getValue()) {
-                dominant = entry; // Обновляем доминирующее животное
+    /**
+     * Возвращает вид, которого в локации больше всего.
+     * @return Доминирующий вид или null, если животных нет
+     */
+    public AnimalConfig getDominantSpecies() {
+        AnimalConfig dominant = null; // Доминирующий вид
+        int dominantCount = 0;
+        for (Map.Entry<AnimalConfig, BlockingQueue<Animal>> entry : animals.entrySet()) { // Проходим по всем видам животных
+            int count = entry.getValue().size(); // Определяем количество животных данного вида
+            // Если это первый вид или животных больше, обновляем доминирующий вид
+            if (dominant == null || count > dominantCount) {
+                dominant = entry.getKey();
+                dominantCount = count;
             }
         }
+        return dominant;
+    }
 
-        // Если доминирующее животное найдено, возвращаем его количество и эмодзи
-        if (dominant != null) {
-            try {
-                String emoji = dominant.getKey().getDeclaredConstructor().newInstance().getEmoji(); // Получаем эмодзи для доминирующего животного
-                return dominant.getValue() + emoji; // Возвращаем строку с количеством и эмодзи
-            } catch (Exception e) {
-                return dominant.getValue() + "?"; // Если произошла ошибка, возвращаем количество с вопросительным знаком
-            }
-        }
-        return ""; // Если ничего не найдено, возвращаем пустую строку
+    // Метод для получения информации о доминирующем животном в данной локации
+    public String getDominantAnimalInfo() {
+        AnimalConfig dominant = getDominantSpecies(); // Очереди и так разделены по видам
+        if (dominant == null) return ""; // Если в локации нет животных, возвращаем пустую строку
+        // Возвращаем количество и эмодзи доминирующего вида
+        return countAnimals(dominant) + dominant.emoji;
     }
 
     // Метод для получения количества растений в данной локации
     public int getPlantCount() {
-        return plants.size(); // Возвращаем текущее количество растений
+        return plants.get(); // Возвращаем текущее количество растений
     }
 
     // Переопределяем метод toString для удобного вывода информации о локации
@@ -189,14 +287,15 @@ public class Location {
 }
 
 /**
- * private final ConcurrentHashMap<Class<? extends Animal>, BlockingQueue<Animal>> animals:
+ * private final ConcurrentHashMap<AnimalConfig, BlockingQueue<Animal>> animals:
  *
- * Это потокобезопасная карта, которая хранит животных, сгруппированных по их типам (классам).
- * Ключом является класс животного, а значением — очередь животных этого типа. Это позволяет эффективно управлять разными видами животных в одной локации.
- * private final BlockingQueue<Plant> plants:
+ * Это потокобезопасная карта, которая хранит животных, сгруппированных по их видам.
+ * Ключом является вид животного (AnimalConfig), а значением — очередь животных этого вида. Это позволяет эффективно управлять разными видами животных в одной локации.
+ * private final AtomicInteger plants:
  *
- * Это очередь, используемая для хранения растений в данной локации. Она имеет ограничение на максимальное количество растений, заданное в настройках симуляции.
- * Использование LinkedBlockingQueue обеспечивает безопасный доступ к растениям из нескольких потоков.
+ * Это счетчик растений в данной локации. Все растения одинаковые (вес Plant.WEIGHT), поэтому вместо очереди объектов
+ * хранится только их количество - это экономит память на больших островах. AtomicInteger обеспечивает безопасное
+ * поедание растений из нескольких потоков без блокировок.
  * BlockingQueue:
  *
  * BlockingQueue предоставляет встроенную потокобезопасность для операций добавления, удаления и проверки наличия элементов. Это означает, что несколько потоков могут безопасно взаимодействовать с очередью без необходимости в дополнительных механизмах синхронизации.
@@ -0,0 +1,79 @@
+package model;
+
+import enums.Direction;
+import enums.Topology;
+
+/**
+ * Предвычисленные таблицы перемещения по острову.
+ *
+ * Для каждой оси хранится таблица "координата + смещение → новая координата", уже учитывающая
+ * топологию острова (ограниченные края или тор). Для каждой пары (направление, число шагов)
+ * заранее вычислено смещение строки в этих таблицах. Поэтому перемещение сводится к двум чтениям
+ * из массивов и не содержит ветвлений на проверку границ.
+ *
+ * Результат - плоский индекс клетки: index = y * width + x.
+ */
+public final class MovementTable {
+    private final int width; // Ширина острова
+    private final int maxSteps; // Максимальное число шагов за ход (максимальная скорость среди видов)
+    private final int[] xTable; // Новая X: xTable[(delta + maxSteps) * width + x]
+    private final int[] yTable; // Новая Y: yTable[(delta + maxSteps) * height + y]
+    private final int[] xRowOffset; // Смещение строки xTable для [направление * (maxSteps + 1) + шаги]
+    private final int[] yRowOffset; // Смещение строки yTable для [направление * (maxSteps + 1) + шаги]
+
+    /**
+     * Строит таблицы для острова заданного размера.
+     * @param width Ширина острова
+     * @param height Высота острова
+     * @param maxSteps Максимальное число шагов за ход
+     * @param topology Поведение на краях острова
+     */
+    public MovementTable(int width, int height, int maxSteps, Topology topology) {
+        this.width = width;
+        this.maxSteps = maxSteps;
+        int deltas = 2 * maxSteps + 1; // Смещения от -maxSteps до +maxSteps
+
+        this.xTable = new int[deltas * width];
+        this.yTable = new int[deltas * height];
+        for (int d = 0; d < deltas; d++) {
+            for (int x = 0; x < width; x++) {
+                xTable[d * width + x] = topology.resolve(x, d - maxSteps, width);
+            }
+            for (int y = 0; y < height; y++) {
+                yTable[d * height + y] = topology.resolve(y, d - maxSteps, height);
+            }
+        }
+
+        Direction[] directions = Direction.valuesCached();
+        this.xRowOffset = new int[directions.length * (maxSteps + 1)];
+        this.yRowOffset = new int[directions.length * (maxSteps + 1)];
+        for (Direction direction : directions) {
+            for (int steps = 0; steps <= maxSteps; steps++) {
+                int key = direction.ordinal() * (maxSteps + 1) + steps;
+                xRowOffset[key] = (direction.getDx() * steps + maxSteps) * width;
+                yRowOffset[key] = (direction.getDy() * steps + maxSteps) * height;
+            }
+        }
+    }
+
+    /**
+     * Вычисляет клетку, в которую придет животное.
+     * @param x Текущая координата X
+     * @param y Текущая координата Y
+     * @param direction Направление движения
+     * @param steps Число шагов (от 0 до maxSteps)
+     * @return Плоский индекс целевой клетки
+     */
+    public int step(int x, int y, Direction direction, int steps) {
+        int key = direction.ordinal() * (maxSteps + 1) + steps;
+        return yTable[yRowOffset[key] + y] * width + xTable[xRowOffset[key] + x];
+    }
+
+    /**
+     * Соседняя клетка в заданном направлении (один шаг).
+     * @return Плоский индекс соседней клетки
+     */
+    public int neighbour(int x, int y, Direction direction) {
+        return step(x, y, direction, 1);
+    }
+}
@@ -0,0 +1,97 @@
+package model;
+
+import enums.Direction;
+import enums.Topology;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Таблица префиксных сумм (summed-area table) растений острова.
+ *
+ * sums[(y + 1) * (width + 1) + (x + 1)] - сумма растений в прямоугольнике от (0, 0) до (x, y)
+ * включительно. Сумма растений в любом прямоугольнике считается за O(1) - четыре чтения из массива.
+ * Поэтому травоядное может сравнить количество еды в каждом направлении в пределах своей скорости,
+ * не просматривая клетки.
+ *
+ * Таблица перестраивается один раз в день (после роста растений) и параллельно: сначала
+ * префиксные суммы по строкам, затем по столбцам (полосами столбцов, чтобы проход шел по памяти
+ * последовательно). В течение дня таблица не меняется - животные видят растения на начало дня.
+ *
+ * Память: 8 байт на клетку острова.
+ */
+public class PlantDensityMap {
+    // Ширина полосы столбцов, которую обрабатывает одна задача при суммировании по столбцам
+    private static final int COLUMN_STRIP = 256;
+
+    private final int width; // Ширина острова
+    private final int height; // Высота острова
+    private final int stride; // Длина строки таблицы (width + 1)
+    private final Topology topology; // Поведение острова на краях (для областей за краем)
+    private final long[] sums; // Префиксные суммы, строка 0 и столбец 0 - нули
+    private final Band.RectangleSum rectangleSum = this::sum; // Один объект на таблицу, а не на каждый запрос
+
+    public PlantDensityMap(int width, int height, Topology topology) {
+        this.width = width;
+        this.height = height;
+        this.stride = width + 1;
+        this.topology = topology;
+        this.sums = new long[stride * (height + 1)];
+    }
+
+    /**
+     * Перестраивает таблицу по текущему состоянию острова.
+     * Вызывается между днями, когда животные не действуют.
+     * @param island Остров
+     */
+    void rebuild(Island island) {
+        // 1. Неявные клетки: растений одинаковое количество
+        int defaultPlants = island.defaultPlantCount();
+        IntStream.range(0, height).parallel().forEach(y ->
+                Arrays.fill(sums, (y + 1) * stride + 1, (y + 2) * stride, defaultPlants));
+
+        // 2. Материализованные клетки (в памяти и выгруженные в файл)
+        island.forEachPlantCell((x, y, plants) -> sums[(y + 1) * stride + x + 1] = plants);
+
+        // 3. Префиксные суммы по строкам
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int row = (y + 1) * stride;
+            for (int x = 2; x <= width; x++) {
+                sums[row + x] += sums[row + x - 1];
+            }
+        });
+
+        // 4. Префиксные суммы по столбцам: каждая задача идет сверху вниз по своей полосе столбцов
+        int strips = (width + COLUMN_STRIP - 1) / COLUMN_STRIP;
+        IntStream.range(0, strips).parallel().forEach(strip -> {
+            int from = 1 + strip * COLUMN_STRIP;
+            int to = Math.min(width, from + COLUMN_STRIP - 1);
+            for (int y = 2; y <= height; y++) {
+                int row = y * stride;
+                int previous = row - stride;
+                for (int x = from; x <= to; x++) {
+                    sums[row + x] += sums[previous + x];
+                }
+            }
+        });
+    }
+
+    /**
+     * Сумма растений в прямоугольнике внутри острова (границы включительно, x0 <= x1, y0 <= y1).
+     */
+    public long sum(int x0, int y0, int x1, int y1) {
+        return sums[(y1 + 1) * stride + x1 + 1] - sums[y0 * stride + x1 + 1]
+                - sums[(y1 + 1) * stride + x0] + sums[y0 * stride + x0];
+    }
+
+    /**
+     * Средняя плотность растений в области, куда животное может дойти в заданном направлении
+     * (полоса Band глубиной radius клеток).
+     * @return Среднее количество растений на клетку области (0, если область пуста - животное у края)
+     */
+    public double density(int x, int y, Direction direction, int radius) {
+        long area = Band.area(width, height, topology, x, y, direction, radius);
+        if (area == 0) return 0;
+        return (double) Band.sum(rectangleSum, width, height, topology, x, y, direction, radius) / area;
+    }
+}
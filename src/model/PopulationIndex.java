@@ -0,0 +1,159 @@
+package model;
+
+import enums.Direction;
+import enums.Topology;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Индекс численности видов по областям острова: для каждого вида - двумерное дерево Фенвика
+ * (AtomicIntegerArray) количества животных.
+ *
+ * Индекс обновляется при каждом добавлении и удалении животного в локации (Location.addAnimal,
+ * removeAnimal), поэтому вопросы "сколько волков в этом прямоугольнике" и "где больше всего уток"
+ * решаются за O(log² n) без обхода клеток и копирования списков.
+ *
+ * Для экономии памяти узлом дерева может быть не клетка, а блок POPULATION_INDEX_BLOCK x
+ * POPULATION_INDEX_BLOCK клеток (4 байта на вид и блок). Тогда прямоугольник запроса
+ * расширяется до границ блоков.
+ *
+ * Выгруженные в файл чанки остаются в индексе: животные там по-прежнему живут, а при загрузке
+ * чанка обратно повторно не учитываются.
+ */
+public class PopulationIndex {
+    private final int width; // Ширина острова в клетках
+    private final int height; // Высота острова в клетках
+    private final int block; // Сторона блока (узла дерева) в клетках
+    private final int blocksX; // Количество блоков по оси X
+    private final int blocksY; // Количество блоков по оси Y
+    private final Topology topology; // Поведение острова на краях (для полос у края)
+    private final Tree[] trees; // Дерево Фенвика каждого вида (индекс - AnimalConfig.ordinal)
+
+    /**
+     * Область острова и количество животных в ней.
+     */
+    public record Region(int x0, int y0, int x1, int y1, int count) {}
+
+    /**
+     * Дерево Фенвика одного вида. Узлы нумеруются с 1: tree[i * (blocksY + 1) + j].
+     */
+    private final class Tree implements Band.RectangleSum {
+        private final AtomicIntegerArray tree = new AtomicIntegerArray((blocksX + 1) * (blocksY + 1));
+
+        void add(int bx, int by, int delta) {
+            for (int i = bx + 1; i <= blocksX; i += i & -i) {
+                for (int j = by + 1; j <= blocksY; j += j & -j) {
+                    tree.addAndGet(i * (blocksY + 1) + j, delta);
+                }
+            }
+        }
+
+        // Количество животных в блоках [0, bx) x [0, by)
+        int prefix(int bx, int by) {
+            int sum = 0;
+            for (int i = bx; i > 0; i -= i & -i) {
+                for (int j = by; j > 0; j -= j & -j) {
+                    sum += tree.get(i * (blocksY + 1) + j);
+                }
+            }
+            return sum;
+        }
+
+        // Количество животных в прямоугольнике клеток (расширенном до границ блоков)
+        @Override
+        public long sum(int x0, int y0, int x1, int y1) {
+            int bx0 = x0 / block, by0 = y0 / block;
+            int bx1 = x1 / block + 1, by1 = y1 / block + 1;
+            return prefix(bx1, by1) - prefix(bx0, by1) - prefix(bx1, by0) + prefix(bx0, by0);
+        }
+    }
+
+    /**
+     * @param width Ширина острова
+     * @param height Высота острова
+     * @param block Сторона блока в клетках (1 - точный индекс)
+     * @param topology Поведение острова на краях
+     */
+    public PopulationIndex(int width, int height, int block, Topology topology) {
+        this.width = width;
+        this.height = height;
+        this.block = block;
+        this.blocksX = (width + block - 1) / block;
+        this.blocksY = (height + block - 1) / block;
+        this.topology = topology;
+        this.trees = new Tree[AnimalConfig.values().length];
+        for (int i = 0; i < trees.length; i++) {
+            trees[i] = new Tree();
+        }
+    }
+
+    /**
+     * Изменяет количество животных вида в клетке.
+     * @param delta +1 - животное пришло или родилось, -1 - ушло или погибло
+     */
+    public void add(AnimalConfig species, int x, int y, int delta) {
+        trees[species.ordinal()].add(x / block, y / block, delta);
+    }
+
+    /**
+     * @return Количество животных вида в прямоугольнике клеток (границы включительно, внутри острова)
+     */
+    public int count(AnimalConfig species, int x0, int y0, int x1, int y1) {
+        return (int) trees[species.ordinal()].sum(x0, y0, x1, y1);
+    }
+
+    /**
+     * @return Количество животных вида на всем острове
+     */
+    public int total(AnimalConfig species) {
+        return trees[species.ordinal()].prefix(blocksX, blocksY);
+    }
+
+    /**
+     * @return Количество животных вида в полосе, куда животное может дойти в заданном направлении (см. Band)
+     */
+    public long countInBand(AnimalConfig species, int x, int y, Direction direction, int radius) {
+        return Band.sum(trees[species.ordinal()], width, height, topology, x, y, direction, radius);
+    }
+
+    /**
+     * Ищет область с наибольшим количеством животных вида: начиная со всего острова, область
+     * делится на четыре четверти, и поиск продолжается в самой населенной, пока сторона
+     * области больше size. Это жадный поиск за O(log n) шагов по O(log² n): скопление на границе
+     * четвертей может быть найдено не полностью.
+     * @param size Желаемая сторона области в клетках
+     * @return Найденная область и количество животных в ней
+     */
+    public Region densestRegion(AnimalConfig species, int size) {
+        Tree tree = trees[species.ordinal()];
+        int x0 = 0, y0 = 0, x1 = width - 1, y1 = height - 1;
+        int limit = Math.max(size, block);
+        while (x1 - x0 + 1 > limit || y1 - y0 + 1 > limit) {
+            // Делим только по тем осям, где область еще больше нужного размера
+            int midX = x1 - x0 + 1 > limit ? (x0 + x1) / 2 : x1;
+            int midY = y1 - y0 + 1 > limit ? (y0 + y1) / 2 : y1;
+            int bestX0 = x0, bestY0 = y0, bestX1 = midX, bestY1 = midY;
+            long best = -1;
+            for (int qx = 0; qx < (midX < x1 ? 2 : 1); qx++) {
+                for (int qy = 0; qy < (midY < y1 ? 2 : 1); qy++) {
+                    int cx0 = qx == 0 ? x0 : midX + 1, cx1 = qx == 0 ? midX : x1;
+                    int cy0 = qy == 0 ? y0 : midY + 1, cy1 = qy == 0 ? midY : y1;
+                    long count = tree.sum(cx0, cy0, cx1, cy1);
+                    if (count > best) {
+                        best = count;
+                        bestX0 = cx0;
+                        bestY0 = cy0;
+                        bestX1 = cx1;
+                        bestY1 = cy1;
+                    }
+                }
+            }
+            x0 = bestX0;
+            y0 = bestY0;
+            x1 = bestX1;
+            y1 = bestY1;
+        }
+        return new Region(x0, y0, x1, y1, (int) tree.sum(x0, y0, x1, y1));
+    }
+}
@@ -1,13 +1,19 @@
 package model.animals;
 
 import enums.Direction;
+import enums.EventType;
+import enums.Trait;
 import model.Island;
 import model.Location;
+import model.PopulationIndex;
+import statistics.EventLog;
 import statistics.Statistics;
 import utils.Randomizer;
-import utils.SimulationSettings;
+import utils.Settings;
 import utils.SimulationSettings.AnimalConfig;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Абстрактный базовый класс для всех животных в симуляции.
  * Определяет общее поведение и свойства всех животных:
@@ -16,19 +22,20 @@ import utils.SimulationSettings.AnimalConfig;
  * - Размножение
  * - Смерть от голода или хищников
  *
- * Класс является абстрактным - конкретные реализации должны
- * реализовать абстрактные методы для видового поведения.
+ * Класс является абстрактным - у него две final-реализации, Predator и Herbivore.
+ * Виды различаются только данными (параметры вида в Settings.Species), а не классами.
  */
 public abstract class Animal {
     /**
-     * Конфигурация животного, содержащая:
+     * Параметры вида животного в настройках его острова (Settings.Species):
      * - Вес
      * - Максимальное количество на клетке
      * - Скорость передвижения
      * - Потребность в пище
      * - Шанс размножения
+     * - Вероятности поедания других видов
      */
-    protected final AnimalConfig config;
+    protected Settings.Species species;
 
     /**
      * Текущая локация (клетка), где находится животное.
@@ -49,15 +56,50 @@ public abstract class Animal {
      */
     protected boolean isAlive = true;
 
+    /**
+     * Геном: наследуемые множители параметров вида (см. Genome).
+     * У начальных животных нейтральный, у потомка - геном родителя с мутацией.
+     */
+    protected long genome = Genome.NEUTRAL;
+
+    /**
+     * Номер последнего дня, в котором животное уже действовало.
+     * Не дает обработать животное дважды за день, если оно перешло в еще не обработанный чанк.
+     */
+    private int lastActedDay = 0;
+
+    /**
+     * Поколение объекта: увеличивается каждый раз, когда объект берется из пула AnimalPool
+     * для нового животного. Позволяет распознать устаревшую ссылку на погибшее животное.
+     */
+    private int generation = 0;
+
     /**
      * Конструктор животного.
      *
-     * @param config Конфигурация с параметрами животного
+     * Параметры вида берутся из настроек по умолчанию (Settings.DEFAULT). Животное острова
+     * с другими настройками создается через Settings.Species.createAnimal.
+     *
+     * @param config Вид животного
      */
     public Animal(AnimalConfig config) {
-        this.config = config;
+        this.species = Settings.DEFAULT.species(config);
         // Устанавливаем начальную сытость как процент от дневной нормы
-        this.satiety = config.foodNeeded * SimulationSettings.INITIAL_SATIETY_PERCENT;
+        this.satiety = species.initialSatiety;
+    }
+
+    /**
+     * Задает параметры вида из настроек острова и сбрасывает сытость к начальной.
+     * Вызывается до того, как животное попадает на остров.
+     *
+     * @param species Параметры того же вида в настройках острова
+     */
+    public void setSpecies(Settings.Species species) {
+        if (species.config != this.species.config) {
+            throw new IllegalArgumentException("Параметры вида " + species.config + " не подходят для " + this.species.config);
+        }
+        this.species = species;
+        this.satiety = species.initialSatiety;
     }
 
     /**
@@ -70,13 +112,18 @@ public abstract class Animal {
             isAlive = false;
             if (location != null) {
                 location.removeAnimal(this);
+                Statistics statistics = location.getIsland().getStatistics();
                 if (satiety <= 0) {
                     // Регистрация смерти от голода
-                    Statistics.recordDeathByHunger(this);
+                    statistics.recordDeathByHunger(this);
+                    EventLog.recordDeath(this, location, EventType.STARVATION);
                 } else {
                     // Регистрация смерти от хищника
-                    Statistics.recordDeathByPredation(this);
+                    statistics.recordDeathByPredation(this);
+                    EventLog.recordDeath(this, location, EventType.PREDATION);
                 }
+                // Объект можно будет использовать повторно после конца дня
+                location.getIsland().getAnimalPool().release(this);
             }
         }
     }
@@ -88,74 +135,178 @@ public abstract class Animal {
      * @param island Ссылка на остров для доступа к локациям
      */
     public void move(Island island) {
+        int target = chooseTarget(island);
+        if (target >= 0) moveTo(island, target);
+    }
+
+    /**
+     * Выбирает клетку, в которую животное пойдет, но не перемещает его.
+     * Движок акторов (ActorEngine) сам решает, как доставить животное в чужой регион.
+     *
+     * @param island Ссылка на остров
+     * @return Плоский индекс целевой клетки или -1, если животное сегодня остается на месте
+     */
+    public int chooseTarget(Island island) {
         // Проверка условий для движения:
         // - Животное живо
         // - Локация существует
+        // - Вид вообще умеет двигаться (у гусеницы maxSpeed = 0)
         // - Случайное число меньше 0.7 (70% шанс движения)
-        if (!isAlive || location == null || Randomizer.nextDouble() > 0.7) return;
-
-        // Выбираем случайное направление из enum Direction
-        Direction direction = Randomizer.randomEnum(Direction.class);
-        // Определяем количество шагов (от 1 до maxSpeed)
-        int steps = Randomizer.nextInt(1, config.maxSpeed + 1);
-
-        // Рассчитываем новые координаты с проверкой границ острова
-        /**
-         * Базовые компоненты:
-         * location.x - текущая координата X животного
-         * location.y - текущая координата Y животного
-         * direction.getDx() - смещение по X для выбранного направления
-         * direction.getDy() - смещение по Y для выбранного направления
-         * steps - количество шагов (от 1 до maxSpeed)
-         * island.getWidth() - общее количество ячеек по горизонтали
-         * island.getHeight() - общее количество ячеек по вертикали
-         *
-         * 2. Вычисление потенциальных координат:
-         * location.x + direction.getDx() * steps
-         * direction.getDx() * steps:
-         * Если направление EAST → dx = +1 → движение вправо
-         * Если WEST → dx = -1 → движение влево
-         * NORTH/SOUTH → dx = 0 (движение только по Y)
-         * Умножение на steps: за один ход животное может пройти несколько ячеек
-         *
-         * 3. Ограничение границами острова (Math.min):
-         * Math.min(..., island.getWidth() - 1)
-         * island.getWidth() - 1:
-         * Если остров имеет 10 столбцов (width=10), максимальный индекс X=9 (т.к. отсчет с 0)
-         * Math.min(a, b) выбирает меньшее значение:
-         * Гарантирует, что X не превысит правую границу
-
-         * 4. Защита от отрицательных значений (Math.max):
-         * Math.max(0, ...)
-         * Гарантирует, что координата не станет меньше 0
-         * Защита от выхода за левую границу или верхнюю границу (для Y)
-         */
-        int newX = Math.max(0, Math.min(location.x + direction.getDx() * steps, island.getWidth() - 1));
-        int newY = Math.max(0, Math.min(location.y + direction.getDy() * steps, island.getHeight() - 1));
+        if (!isAlive || location == null || species.maxSpeed == 0 || Randomizer.nextDouble() > 0.7) return -1;
+
+        // Выбираем направление (по умолчанию случайное, подклассы могут искать еду)
+        Direction direction = chooseDirection(island);
+        // Определяем количество шагов (от 1 до скорости животного)
+        int steps = Randomizer.nextInt(1, speed() + 1);
 
+        // Целевая клетка берется из предвычисленной таблицы острова. Края обрабатываются
+        // согласно топологии (TOPOLOGY): BOUNDED - животное останавливается у края,
+        // TORUS - выходит с противоположной стороны острова
+        int target = island.step(location, direction, steps);
+        return target != location.index ? target : -1;
+    }
+
+    /**
+     * Перемещает животное в указанную клетку. Если она переполнена, животное остается на месте.
+     *
+     * @param island Ссылка на остров для доступа к локациям
+     * @param target Плоский индекс целевой клетки (см. chooseTarget)
+     */
+    public void moveTo(Island island, int target) {
+        // Клетка принадлежит другому процессу (распределенный остров) - животное остается на месте,
+        // пока владелец клетки его не примет
+        if (!island.owns(target)) {
+            island.emigrate(this, location, target);
+            return;
+        }
         // Получаем новую локацию и проверяем ее
-        Location newLocation = island.getLocation(newX, newY);
-        if (newLocation != null && newLocation != location) {
-            // Удаляем из старой локации
-            location.removeAnimal(this);
-            // Добавляем в новую
-            newLocation.addAnimal(this);
-            // Обновляем ссылку на текущую локацию
-            location = newLocation;
+        Location newLocation = island.getLocation(target);
+        if (newLocation != location) {
+            Location oldLocation = location;
+            // Добавляем в новую локацию (ссылка на текущую локацию обновится внутри addAnimal).
+            // Если новая локация переполнена, животное остается на месте
+            if (newLocation.addAnimal(this)) {
+                // Удаляем из старой локации
+                oldLocation.removeAnimal(this);
+                // Записываем перемещение в журнал событий
+                EventLog.recordMove(this, oldLocation, newLocation);
+            }
         }
     }
 
+    /**
+     * Выбирает направление движения. По умолчанию - случайное.
+     *
+     * @param island Остров, по которому движется животное
+     * @return Направление движения
+     */
+    protected Direction chooseDirection(Island island) {
+        // Кэшированный массив - без копирования values()
+        Direction[] directions = Direction.valuesCached();
+        return directions[Randomizer.nextInt(directions.length)];
+    }
+
+    /**
+     * Выбирает направление, в котором в пределах скорости животного больше всего добычи:
+     * для каждого направления складываются количества добычи каждого вида в полосе
+     * (по индексу численности PopulationIndex), умноженные на вероятность её поймать.
+     * Из равных направлений выбирается случайное.
+     *
+     * @return Направление охоты или null, если индекс выключен или добычи поблизости нет
+     */
+    protected Direction huntDirection(Island island) {
+        PopulationIndex population = island.getPopulationIndex();
+        AnimalConfig[] prey = species.prey();
+        if (population == null || prey.length == 0) return null;
+
+        Direction[] directions = Direction.valuesCached();
+        int start = Randomizer.nextInt(directions.length); // Случайный порядок просмотра - случайный выбор среди равных
+        Direction best = null;
+        long bestScore = 0;
+        int speed = speed();
+        for (int i = 0; i < directions.length; i++) {
+            Direction direction = directions[(start + i) % directions.length];
+            long score = 0;
+            for (AnimalConfig target : prey) {
+                score += species.eatingChance(target)
+                        * population.countInBand(target, location.x, location.y, direction, speed);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = direction;
+            }
+        }
+        return best;
+    }
+
     /**
      * Уменьшает сытость животного на дневную норму.
      * Если сытость достигает 0 или ниже, вызывает смерть животного.
      */
     public void decreaseSatiety() {
         // Уменьшаем сытость на процент от дневной нормы
-        satiety -= config.foodNeeded * SimulationSettings.DAILY_SATIETY_LOSS;
+        satiety -= species.dailySatietyLoss;
         // Проверяем, не умерло ли животное от голода
         if (satiety <= 0) die();
     }
 
+    /**
+     * Отмечает, что животное действует в указанный день.
+     *
+     * @param day Номер текущего дня
+     * @return true, если животное сегодня еще не действовало
+     */
+    public boolean tryAct(int day) {
+        if (lastActedDay == day) return false;
+        lastActedDay = day;
+        return true;
+    }
+
+    /**
+     * Сбрасывает погибшее животное в состояние новорожденного (при повторном использовании из пула).
+     */
+    void reset() {
+        generation++;
+        location = null;
+        isAlive = true;
+        lastActedDay = 0;
+        satiety = species.initialSatiety;
+        genome = Genome.NEUTRAL;
+    }
+
+    /**
+     * Создает потомка: берет объект из пула или создает новый.
+     * Потомок наследует геном с мутацией (вероятность и шаг - из параметров вида).
+     */
+    public Animal createOffspring() {
+        // Потомок живет по настройкам острова родителя; объект - из пула этого острова
+        Animal offspring = location != null ? location.getIsland().getAnimalPool().obtain(species) : species.createAnimal();
+        offspring.genome = Genome.mutate(genome, species.mutationRate, species.mutationStep, ThreadLocalRandom.current());
+        return offspring;
+    }
+
+    /**
+     * @return Скорость животного: максимум клеток за ход с учетом гена скорости
+     *         (не больше предела вида - по нему построены таблицы перемещений острова)
+     */
+    protected int speed() {
+        return Math.min(Genome.speed(species.maxSpeed, genome), species.speedLimit);
+    }
+
+    /**
+     * @return Шанс размножения животного, % (с учетом гена плодовитости)
+     */
+    protected double reproductionPercent() {
+        return species.reproductionChance * 100 * Genome.factor(genome, Trait.REPRODUCTION);
+    }
+
+    /**
+     * @return Вероятность съесть животное вида prey, % (с учетом гена охоты)
+     */
+    protected double eatingPercent(AnimalConfig prey) {
+        return species.eatingChance(prey) * Genome.factor(genome, Trait.HUNTING);
+    }
+
     /**
      * Абстрактный метод питания - должен быть реализован в подклассах.
      *
@@ -171,11 +322,11 @@ public abstract class Animal {
     public abstract void reproduce(Location location);
 
     /**
-     * Абстрактный метод получения emoji-представления животного.
+     * Возвращает emoji-представление животного (из конфигурации вида).
      *
      * @return Строка с emoji для данного вида животного
      */
-    public abstract String getEmoji();
+    public String getEmoji() { return species.config.emoji; }
 
     // ========== ГЕТТЕРЫ ==========
 
@@ -186,12 +337,61 @@ public abstract class Animal {
      */
     public boolean isAlive() { return isAlive; }
 
+    /**
+     * Возвращает поколение объекта (см. AnimalPool).
+     *
+     * @return Номер повторного использования объекта
+     */
+    public int getGeneration() { return generation; }
+
     /**
      * Возвращает вес животного.
      *
      * @return Вес животного в килограммах
      */
-    public double getWeight() { return config.weight; }
+    public double getWeight() { return species.weight; }
+
+    /**
+     * Возвращает конфигурацию вида животного.
+     *
+     * @return Конфигурация из SimulationSettings.AnimalConfig
+     */
+    public AnimalConfig getConfig() { return species.config; }
+
+    /**
+     * Возвращает параметры вида в настройках острова животного.
+     *
+     * @return Параметры вида
+     */
+    public Settings.Species getSpecies() { return species; }
+
+    /**
+     * Возвращает геном животного.
+     *
+     * @return Упакованные гены признаков (см. Genome)
+     */
+    public long getGenome() { return genome; }
+
+    /**
+     * Устанавливает геном (используется при загрузке животного из файла и приеме с другого узла).
+     *
+     * @param genome Упакованные гены признаков
+     */
+    public void setGenome(long genome) { this.genome = genome; }
+
+    /**
+     * Возвращает текущий уровень сытости животного.
+     *
+     * @return Сытость в килограммах пищи
+     */
+    public double getSatiety() { return satiety; }
+
+    /**
+     * Устанавливает уровень сытости (используется при загрузке животного из файла).
+     *
+     * @param satiety Сытость в килограммах пищи
+     */
+    public void setSatiety(double satiety) { this.satiety = satiety; }
 
     /**
      * Возвращает текущую локацию животного.
@@ -200,6 +400,14 @@ public abstract class Animal {
      */
     public Location getLocation() { return location; }
 
+    /**
+     * Устанавливает текущую локацию животного.
+     * Вызывается из Location.addAnimal, когда животное попадает на клетку.
+     *
+     * @param location Новая локация животного
+     */
+    public void setLocation(Location location) { this.location = location; }
+
     /**
      * Возвращает строковое представление животного.
      * Формат: "emoji(уровень_сытости)"
@@ -0,0 +1,145 @@
+package model.animals;
+
+import utils.Settings;
+import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пул объектов животных: погибшие животные сбрасываются и используются повторно для рождений.
+ * Это снижает количество выделений памяти и нагрузку на сборщик мусора у быстро размножающихся
+ * видов (гусеница, мышь).
+ *
+ * Пул у каждого острова свой (Island.getAnimalPool): конец дня одного острова не трогает
+ * животных другого, поэтому несколько симуляций в одной JVM работают независимо.
+ * Внутри пула у каждого потока свой "осколок" (per-thread), а в нем - свои списки по видам,
+ * поэтому обращения к пулу во время дня не требуют синхронизации.
+ *
+ * Погибшее животное попадает в пул не сразу, а только в конце дня (endDay): до этого на него
+ * еще могут ссылаться задачи дня и списки добычи других животных. Каждое повторное использование
+ * увеличивает поколение (generation) объекта, поэтому устаревшую ссылку можно распознать,
+ * сравнив сохраненное поколение с текущим.
+ */
+public class AnimalPool {
+    private static final int SPECIES_COUNT = AnimalConfig.values().length;
+
+    // Все осколки пула (по одному на поток, который хоть раз обращался к пулу)
+    private final ConcurrentLinkedQueue<Shard> shards = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Shard> localShard = ThreadLocal.withInitial(() -> {
+        Shard shard = new Shard();
+        shards.add(shard);
+        return shard;
+    });
+
+    private volatile boolean enabled = SimulationSettings.ANIMAL_POOL_ENABLED;
+    private final AtomicLong reused = new AtomicLong(); // Рождений из пула (всего)
+    private final AtomicLong allocated = new AtomicLong(); // Рождений с созданием нового объекта (всего)
+
+    /**
+     * Осколок пула одного потока.
+     */
+    private static final class Shard {
+        // Погибшие за текущий день животные по видам (станут доступны после endDay)
+        final List<List<Animal>> dead = new ArrayList<>(SPECIES_COUNT);
+        // Свободные животные по видам, готовые к повторному использованию
+        final List<ArrayDeque<Animal>> free = new ArrayList<>(SPECIES_COUNT);
+
+        Shard() {
+            for (int i = 0; i < SPECIES_COUNT; i++) {
+                dead.add(new ArrayList<>());
+                free.add(new ArrayDeque<>());
+            }
+        }
+    }
+
+    /**
+     * Берет животное вида из пула текущего потока.
+     * @return Сброшенное животное (живое, без локации) или null, если пул вида пуст
+     */
+    Animal acquire(AnimalConfig config) {
+        if (!enabled) return null;
+        Animal animal = localShard.get().free.get(config.ordinal()).pollLast();
+        if (animal == null) {
+            allocated.incrementAndGet();
+            return null;
+        }
+        animal.reset();
+        reused.incrementAndGet();
+        return animal;
+    }
+
+    /**
+     * Берет животное вида из пула текущего потока или создает новое.
+     * @param species Параметры вида в настройках острова
+     * @return Новорожденное животное без локации
+     */
+    public Animal obtain(Settings.Species species) {
+        Animal animal = acquire(species.config);
+        if (animal == null) animal = species.config.createAnimal();
+        animal.setSpecies(species); // Животное живет по настройкам своего острова
+        return animal;
+    }
+
+    /**
+     * Откладывает погибшее животное до конца дня.
+     */
+    void release(Animal animal) {
+        if (!enabled) return;
+        localShard.get().dead.get(animal.getConfig().ordinal()).add(animal);
+    }
+
+    /**
+     * Переносит погибших за день животных в списки свободных. Вызывается между днями,
+     * когда ни одна задача животных не выполняется (после invokeAll все записи потоков видны).
+     */
+    public void endDay() {
+        int max = SimulationSettings.ANIMAL_POOL_MAX_PER_SPECIES;
+        for (Shard shard : shards) {
+            for (int i = 0; i < SPECIES_COUNT; i++) {
+                List<Animal> dead = shard.dead.get(i);
+                ArrayDeque<Animal> free = shard.free.get(i);
+                for (Animal animal : dead) {
+                    // Животное могло остаться в очереди локации, если погибло во время перемещения
+                    if (animal.location != null) animal.location.removeAnimal(animal);
+                    if (free.size() < max) free.addLast(animal);
+                }
+                dead.clear();
+            }
+        }
+    }
+
+    /**
+     * Включает или выключает пул (например, для сравнения в бенчмарке). При выключении пул очищается.
+     * Вызывается между днями.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            for (Shard shard : shards) {
+                for (int i = 0; i < SPECIES_COUNT; i++) {
+                    shard.dead.get(i).clear();
+                    shard.free.get(i).clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Количество рождений, для которых объект взят из пула
+     */
+    public long getReused() {
+        return reused.get();
+    }
+
+    /**
+     * @return Количество рождений, для которых пришлось создать новый объект
+     */
+    public long getAllocated() {
+        return allocated.get();
+    }
+}
@@ -0,0 +1,108 @@
+package model.animals;
+
+import enums.Trait;
+import utils.SimulationSettings;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Упакованный геном животного: гены признаков (Trait) лежат в одном long по GENE_BITS бит.
+ * Отдельный объект признаков у каждого животного удвоил бы память, а long - это 8 байт в Animal
+ * (в нем помещается до 64 / GENE_BITS признаков).
+ *
+ * Ген - целое от 0 до GENE_MASK. NEUTRAL_GENE (середина) - множитель 1, крайние значения -
+ * множители 1 ± TRAIT_RANGE. Множитель читается из таблицы по значению гена: сдвиг, маска
+ * и обращение к массиву, без ветвлений. Множитель нейтрального гена - ровно 1, поэтому
+ * животные с нейтральным геномом ведут себя в точности как без генома.
+ *
+ * Геном наследуется потомком с мутацией (mutate): каждый ген с вероятностью mutationRate
+ * сдвигается на случайную величину до ±mutationStep.
+ */
+public final class Genome {
+    // Бит на один ген
+    public static final int GENE_BITS = 8;
+    // Маска гена (наибольшее значение)
+    public static final int GENE_MASK = (1 << GENE_BITS) - 1;
+    // Ген с множителем 1
+    public static final int NEUTRAL_GENE = 1 << (GENE_BITS - 1);
+    // Геном, все признаки которого нейтральны (геном начальных животных)
+    public static final long NEUTRAL;
+
+    private static final Trait[] TRAITS = Trait.values();
+    // Множитель параметра вида по значению гена
+    private static final float[] FACTORS = new float[GENE_MASK + 1];
+
+    static {
+        for (int gene = 0; gene <= GENE_MASK; gene++) {
+            FACTORS[gene] = (float) factorOf(gene);
+        }
+        long neutral = 0;
+        for (Trait trait : TRAITS) neutral |= (long) NEUTRAL_GENE << shift(trait);
+        NEUTRAL = neutral;
+    }
+
+    private Genome() {}
+
+    /**
+     * @return Значение гена признака (0..GENE_MASK)
+     */
+    public static int gene(long genome, Trait trait) {
+        return (int) (genome >>> shift(trait)) & GENE_MASK;
+    }
+
+    /**
+     * @return Множитель параметра вида для признака (1 - нейтральный ген)
+     */
+    public static float factor(long genome, Trait trait) {
+        return FACTORS[gene(genome, trait)];
+    }
+
+    /**
+     * @param meanGene Значение гена (может быть дробным - например, среднее по виду)
+     * @return Множитель для этого значения гена
+     */
+    public static double factorOf(double meanGene) {
+        return 1 + (meanGene - NEUTRAL_GENE) / NEUTRAL_GENE * SimulationSettings.TRAIT_RANGE;
+    }
+
+    /**
+     * Скорость животного: скорость вида с множителем гена, округленная. Вид, который умеет
+     * двигаться, не становится неподвижным (не меньше 1), неподвижный (гусеница) не начинает двигаться.
+     * @param baseSpeed Максимальная скорость вида
+     */
+    public static int speed(int baseSpeed, long genome) {
+        int speed = (int) (baseSpeed * factor(genome, Trait.SPEED) + 0.5f);
+        return Math.max(Math.min(baseSpeed, 1), speed);
+    }
+
+    /**
+     * @param baseSpeed Максимальная скорость вида
+     * @return Наибольшая скорость, которую может дать ген (по ней строятся таблицы перемещений и гало)
+     */
+    public static int maxSpeed(int baseSpeed) {
+        return speed(baseSpeed, -1L); // Все гены максимальны
+    }
+
+    /**
+     * Геном потомка: копия генома родителя, каждый ген которой с вероятностью rate сдвигается
+     * на случайную величину от -step до step (в пределах 0..GENE_MASK).
+     * @param rate Вероятность мутации гена (0 - потомок получает геном родителя без изменений)
+     * @param step Наибольший сдвиг гена при мутации
+     */
+    public static long mutate(long genome, double rate, int step, RandomGenerator random) {
+        if (rate <= 0 || step <= 0) return genome;
+        for (Trait trait : TRAITS) {
+            if (random.nextDouble() >= rate) continue;
+            int shift = shift(trait);
+            int gene = (int) (genome >>> shift) & GENE_MASK;
+            gene = Math.max(0, Math.min(GENE_MASK, gene + random.nextInt(-step, step + 1)));
+            genome = genome & ~((long) GENE_MASK << shift) | (long) gene << shift;
+        }
+        return genome;
+    }
+
+    // Позиция гена признака в геноме
+    private static int shift(Trait trait) {
+        return trait.ordinal() * GENE_BITS;
+    }
+}
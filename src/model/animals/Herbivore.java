@@ -1,22 +1,31 @@
 package model.animals;
 
+import enums.Direction;
+import model.Island;
 import model.Location;
-import model.animals.herbivores.Caterpillar;
-import statistics.Statistics;
+import model.PlantDensityMap;
+import statistics.EventLog;
+import statistics.MemoryBudget;
 import utils.Randomizer;
-import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Абстрактный класс Herbivore представляет собой травоядное животное в симуляции
+ * Класс Herbivore представляет собой травоядное животное в симуляции.
+ *
+ * Один класс для всех травоядных: вид - это только данные в параметрах вида (Settings.Species).
+ * Травоядное с добычей (ненулевыми вероятностями поедания, как у утки, мыши и кабана с гусеницами)
+ * ест добычу вместо растений. Класс final, поэтому вызовы его методов в циклах по видам
+ * (SpeciesBatch) не виртуальные.
  */
-public abstract class Herbivore extends Animal {
+public final class Herbivore extends Animal {
 
     /**
-     * Конструктор класса Herbivore, принимает конфигурацию животного
+     * Конструктор класса Herbivore, принимает конфигурацию вида (тип HERBIVORE)
      */
-    public Herbivore(SimulationSettings.AnimalConfig config) {
+    public Herbivore(AnimalConfig config) {
         super(config); // Вызываем конструктор родительского класса Animal с конфигурацией
     }
 
@@ -26,21 +35,52 @@ public abstract class Herbivore extends Animal {
      */
     @Override
     public void eat(Location location) {
-        // Проверяем, является ли это травоядное животным, которое может есть гусениц
-        if (this instanceof CaterpillarEater) {
-            tryEatCaterpillar(location); // Пробуем есть гусеницу
+        // Проверяем, есть ли у вида добыча (например, гусеницы у утки)
+        if (species.prey().length > 0) {
+            tryEatPrey(location); // Пробуем съесть добычу, растения такие виды не едят
             return;
         }
-        // Если не удалось поесть гусеницу, пробуем поесть растения
+        // Остальные травоядные едят растения
         eatPlants(location);
     }
 
+    /**
+     * Выбирает направление, в котором в пределах скорости животного больше всего растений
+     * (средняя плотность по таблице PlantDensityMap, O(1) на направление).
+     * Из равных направлений выбирается случайное. Виды с добычей растения не едят,
+     * поэтому ищут добычу по индексу численности. Если искать нечего, животное двигается случайно.
+     */
+    @Override
+    protected Direction chooseDirection(Island island) {
+        if (species.prey().length > 0) {
+            Direction direction = huntDirection(island);
+            return direction != null ? direction : super.chooseDirection(island);
+        }
+        PlantDensityMap plants = island.getPlantDensity();
+        if (plants == null) return super.chooseDirection(island);
+
+        Direction[] directions = Direction.valuesCached();
+        int start = Randomizer.nextInt(directions.length); // Случайный порядок просмотра - случайный выбор среди равных
+        Direction best = directions[start];
+        double bestDensity = -1;
+        int speed = speed();
+        for (int i = 0; i < directions.length; i++) {
+            Direction direction = directions[(start + i) % directions.length];
+            double density = plants.density(location.x, location.y, direction, speed);
+            if (density > bestDensity) {
+                bestDensity = density;
+                best = direction;
+            }
+        }
+        return best;
+    }
+
     /**
      * Метод для поедания растений в указанной локации
      */
     protected boolean eatPlants(Location location) {
         // Рассчитываем, сколько пищи нужно травоядному
-        double needed = config.foodNeeded - satiety; // Определяем недостаток пищи (потребность - сытость)
+        double needed = species.foodNeeded - satiety; // Определяем недостаток пищи (потребность - сытость)
 
         // Если сытости достаточно (needed <= 0), возвращаем false
         if (needed <= 0) return false;
@@ -52,30 +92,27 @@ public abstract class Herbivore extends Animal {
     }
 
     /**
-     * Метод для попытки поедания гусеницы в указанной локации
+     * Метод для попытки поедания добычи (например, гусеницы) в указанной локации
      */
-    protected boolean tryEatCaterpillar(Location location) {
-        // Проверяем, является ли это травоядное животное экземпляром CaterpillarEater
-        if (!(this instanceof CaterpillarEater eater)) return false; // Если нет, возвращаем false
-
-        // Получаем вероятность успешного поедания гусеницы
-        int chance = eater.getCaterpillarEatingChance();
-        // Получаем список гусениц в локации
-        List<Caterpillar> caterpillars = location.getAnimalsByType(Caterpillar.class);
+    private boolean tryEatPrey(Location location) {
+        // Получаем список животных-добычи в локации
+        List<Animal> preyList = new ArrayList<>();
+        for (AnimalConfig prey : species.prey()) {
+            preyList.addAll(location.getAnimals(prey));
+        }
 
-        // Если гусениц нет, возвращаем false
-        if (caterpillars.isEmpty()) return false;
+        // Если добычи нет, возвращаем false
+        if (preyList.isEmpty()) return false;
 
-        // Проверяем, удалось ли травоядному поймать гусеницу на основе случайной вероятности
+        // Выбираем случайную добычу из списка
+        Animal prey = Randomizer.randomItem(preyList);
+        // Проверяем, удалось ли травоядному поймать её (вероятность - из параметров вида в настройках острова и гена охоты)
         // Это не является требованием в проекте я дописала его опционально
-        if (Randomizer.getProbability(chance)) {
-            // Если да, выбираем случайную гусеницу из списка
-            Caterpillar caterpillar = Randomizer.randomItem(caterpillars);
-            // Рассчитываем количество питательных веществ, которое травоядное получит от гусеницы
-            double nutrition = Math.min(caterpillar.getWeight(), config.foodNeeded - satiety); // Минимум между весом гусеницы и тем, что нужно для сытости
+        if (Randomizer.getProbability(eatingPercent(prey.getConfig()))) {
+            // Рассчитываем количество питательных веществ, которое травоядное получит от добычи
+            double nutrition = Math.min(prey.getWeight(), species.foodNeeded - satiety); // Минимум между весом добычи и тем, что нужно для сытости
             satiety += nutrition; // Увеличиваем уровень сытости травоядного
-            caterpillar.die(); // Уничтожаем гусеницу
-            Statistics.recordDeathByPredation(caterpillar); // Записываем факт убийства гусеницы в статистику
+            prey.die(); // Уничтожаем добычу (die() сам записывает смерть от хищника в статистику)
             return true; // Возвращаем true, указывая на успешное поедание
         }
         return false; // Возвращаем false, если поедание не удалось
@@ -87,20 +124,24 @@ public abstract class Herbivore extends Animal {
      */
     @Override
     public void reproduce(Location location) {
-        // Получаем список особей того же вида в данной локации
-        List<? extends Herbivore> sameSpecies = location.getAnimalsByType(this.getClass()); // Получаем всех травоядных того же типа
+        // Получаем количество особей того же вида в данной локации (без копирования списка)
+        int sameSpecies = location.countAnimals(species.config);
         // Проверяем, достаточно ли особей для размножения и вероятность успешного размножения
         // Если животных больше двух одного вида пробуем размножаться
-        if (sameSpecies.size() >= 2 && Randomizer.getProbability(config.reproductionChance * 100)) {
-            // Если условия выполнены, создаем потомка
-            Animal offspring = createOffspring(); // Метод должен быть реализован в подклассах
-            location.addAnimal(offspring); // Добавляем потомка в локацию (в эту же локацию)
-            Statistics.recordBirth(offspring); // Записываем факт рождения в статистику
+        // Шанс размножения снижается, если память близка к бюджету (MemoryBudget)
+        MemoryBudget budget = location.getIsland().getMemoryBudget();
+        if (sameSpecies >= 2
+                && Randomizer.getProbability(reproductionPercent() * budget.getReproductionFactor())
+                && location.hasRoomFor(this) && budget.tryReserveBirth()) {
+            // Если условия выполнены и место есть (в клетке и в бюджете памяти), создаем потомка
+            Animal offspring = createOffspring(); // Объект из пула или новый, геном - от родителя
+            // Добавляем потомка в локацию (в эту же локацию). Если место успели занять, потомок не появляется
+            if (location.addAnimal(offspring)) {
+                location.getIsland().getStatistics().recordBirth(offspring); // Записываем факт рождения в статистику
+                EventLog.recordBirth(offspring, location); // И в журнал событий
+            } else {
+                budget.releaseBirth();
+            }
         }
     }
-
-    /**
-     * Абстрактный метод для создания потомка, который должен быть реализован подклассами
-     */
-    protected abstract Animal createOffspring();
 }
\ No newline at end of file
@@ -1,18 +1,26 @@
 package model.animals; // Указываем, что класс принадлежит пакету model.animals
 
+import enums.Direction;
+import model.Island;
 import model.Location;
-import statistics.Statistics;
+import statistics.EventLog;
+import statistics.MemoryBudget;
 import utils.Randomizer;
-import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Абстрактный класс Predator представляет собой хищное животное в симуляции
+ * Класс Predator представляет собой хищное животное в симуляции.
+ *
+ * Один класс для всех хищников: вид (волк, удав, лиса, медведь, орел) - это только данные
+ * в параметрах вида (Settings.Species), а список добычи - виды с ненулевой вероятностью поедания.
+ * Класс final, поэтому вызовы его методов в циклах по видам (SpeciesBatch) не виртуальные.
  */
-public abstract class Predator extends Animal {
-    // Конструктор класса Predator, принимающий конфигурацию животного
-    public Predator(SimulationSettings.AnimalConfig config) {
+public final class Predator extends Animal {
+    // Конструктор класса Predator, принимающий конфигурацию вида (тип PREDATOR)
+    public Predator(AnimalConfig config) {
         super(config); // Вызываем конструктор родительского класса Animal с конфигурацией
     }
 
@@ -32,26 +40,44 @@ public abstract class Predator extends Animal {
         // Используем Randomizer для выбора случайной жертвы
         Animal prey = Randomizer.randomItem(preyList);
 
-        // Получаем вероятность поедания для выбранной жертвы
-        int chance = getEatingProbability(prey);
+        // Получаем вероятность поедания для выбранной жертвы (из параметров вида в настройках острова и гена охоты)
+        double chance = eatingPercent(prey.getConfig());
 
         // Проверяем, удалось ли хищнику поймать жертву на основе случайной вероятности
         if (Randomizer.getProbability(chance)) {
             // Рассчитываем количество питательных веществ, которое хищник получит от жертвы
-            double nutrition = Math.min(prey.getWeight(), config.foodNeeded - satiety);
+            double nutrition = Math.min(prey.getWeight(), species.foodNeeded - satiety);
             // Обновляем уровень сытости хищника
             satiety += nutrition;
-            prey.die(); // Уничтожаем жертву, вызывая метод die()
-            // Записываем факт убийства жертвы в статистику
-            Statistics.recordDeathByPredation(prey);
+            prey.die(); // Уничтожаем жертву, вызывая метод die() (он же записывает смерть от хищника в статистику)
         }
     }
 
-    // Абстрактный метод, который должен быть реализован подклассами для получения списка потенциальной пищи
-    protected abstract List<Animal> getPotentialFood(Location location);
+    /**
+     * Хищник идет туда, где больше добычи (по индексу численности), а если добычи рядом нет - случайно.
+     */
+    @Override
+    protected Direction chooseDirection(Island island) {
+        Direction direction = huntDirection(island);
+        return direction != null ? direction : super.chooseDirection(island);
+    }
 
-    // Абстрактный метод для получения вероятности успешного поедания жертвы
-    protected abstract int getEatingProbability(Animal prey);
+    /**
+     * Собирает живых животных в локации, которых этот вид может съесть (species.prey()).
+     * Читаются только очереди видов добычи, а не все животные локации.
+     *
+     * @param location текущая локация хищника
+     * @return список доступных для атаки животных
+     */
+    private List<Animal> getPotentialFood(Location location) {
+        List<Animal> food = new ArrayList<>();
+        for (AnimalConfig prey : species.prey()) {
+            for (Animal animal : location.getAnimals(prey)) {
+                if (animal.isAlive()) food.add(animal); // Исключаем уже мертвых животных
+            }
+        }
+        return food;
+    }
 
     /**
      * Метод для размножения хищника в указанной локации
@@ -59,20 +85,25 @@ public abstract class Predator extends Animal {
      */
     @Override
     public void reproduce(Location location) {
-        // Получаем список особей того же вида в данной локации
-        List<? extends Predator> sameSpecies = location.getAnimalsByType(this.getClass());
+        // Получаем количество особей того же вида в данной локации (без копирования списка)
+        int sameSpecies = location.countAnimals(species.config);
 
         // Проверяем, достаточно ли особей для размножения и вероятность успешного размножения
-        if (sameSpecies.size() >= 2 && Randomizer.getProbability(config.reproductionChance * 100)) {
-            // Создаем потомка
-            Animal offspring = createOffspring();
-            // Добавляем потомка в локацию
-            location.addAnimal(offspring);
-            // Записываем факт рождения в статистику
-            Statistics.recordBirth(offspring);
+        // Шанс размножения снижается, если память близка к бюджету (MemoryBudget)
+        MemoryBudget budget = location.getIsland().getMemoryBudget();
+        if (sameSpecies >= 2
+                && Randomizer.getProbability(reproductionPercent() * budget.getReproductionFactor())
+                && location.hasRoomFor(this) && budget.tryReserveBirth()) {
+            // Создаем потомка, только если для него есть место в клетке и в бюджете памяти
+            Animal offspring = createOffspring(); // Объект из пула или новый, геном - от родителя
+            // Добавляем потомка в локацию. Если место успели занять, потомок не появляется
+            if (location.addAnimal(offspring)) {
+                // Записываем факт рождения в статистику и в журнал событий
+                location.getIsland().getStatistics().recordBirth(offspring);
+                EventLog.recordBirth(offspring, location);
+            } else {
+                budget.releaseBirth();
+            }
         }
     }
-
-    // Абстрактный метод для создания потомка, который должен быть реализован подклассами
-    protected abstract Animal createOffspring();
 }
\ No newline at end of file
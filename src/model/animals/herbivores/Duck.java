@@ -1,108 +0,0 @@
-package model.animals.herbivores;
-
-import model.animals.Animal;
-import model.animals.CaterpillarEater;
-import model.animals.Herbivore;
-import utils.SimulationSettings;
-
-/**
- * Класс, реализующий поведение утки в симуляции.
- * Утка является:
- * - Травоядным животным (наследует от Herbivore)
- * - Потребителем гусениц (реализует CaterpillarEater)
- *
- * Особенности поведения:
- * - Может питаться растениями (как все травоядные)
- * - Может охотиться на гусениц с определенной вероятностью
- * - Способна размножаться
- * - Имеет уникальное emoji-представление
- */
-public class Duck extends Herbivore implements CaterpillarEater {
-
-    /**
-     * Конструктор класса Duck.
-     * Инициализирует утку с предустановленными параметрами из конфигурации.
-     * Использует параметры AnimalConfig.DUCK, которые содержат:
-     * - Вес: 1 кг
-     * - Макс. на клетке: 200
-     * - Скорость: 4 клетки/ход
-     * - Потребность в пище: 0.15 кг/день
-     * - Шанс размножения: 45%
-     */
-    public Duck() {
-        // Вызов родительского конструктора с конфигурацией для утки
-        super(SimulationSettings.AnimalConfig.DUCK);
-    }
-
-    /**
-     * Возвращает вероятность успешного поедания гусеницы.
-     * Реализация метода из интерфейса CaterpillarEater.
-     *
-     * @return Вероятность в процентах (от 0 до 100)
-     * <p>
-     * Для утки установлена вероятность 90% (см. SimulationSettings.EatingChance.DUCK_CATERPILLAR)
-     */
-    @Override
-    public int getCaterpillarEatingChance() {
-        return SimulationSettings.EatingChance.DUCK_CATERPILLAR;
-    }
-
-    /**
-     * Создает новую особь утки (потомство).
-     * Используется при размножении животных.
-     *
-     * @return Новый экземпляр класса Duck
-     * <p>
-     * Метод вызывается родительским классом Herbivore,
-     * когда выполняются условия для размножения:
-     * - На клетке есть как минимум две утки
-     * - Срабатывает вероятность размножения (45%)
-     */
-    @Override
-    protected Animal createOffspring() {
-        // Создаем новую утку с теми же параметрами
-        return new Duck();
-    }
-
-    /**
-     * Возвращает emoji-представление утки.
-     * Используется для визуализации в интерфейсе.
-     *
-     * @return Строка с emoji-символом утки (🦆)
-     * <p>
-     * Каждый вид животного имеет уникальный emoji,
-     * что позволяет легко идентифицировать его на карте
-     */
-    @Override
-    public String getEmoji() {
-        return "🦆";
-    }
-}
-
-/**
- * Метод питания утки (неявно унаследованный от Herbivore).
- * Утка может:
- * 1. Пытаться съесть гусеницу (с вероятностью DUCK_CATERPILLAR)
- * 2. Если не получилось - есть растения
- *
- * Логика реализована в родительском классе Herbivore,
- * которая использует getCaterpillarEatingChance()
- */
-
-/**
- * Метод размножения утки (неявно унаследованный от Herbivore).
- * При выполнении условий:
- * 1. Создается потомок через createOffspring()
- * 2. Добавляется на текущую клетку
- *
- * Логика реализована в родительском классе Herbivore
- */
-
-/**
- * Метод перемещения утки (неявно унаследованный от Animal).
- * Утка может перемещаться:
- * - До 4 клеток за ход (maxSpeed = 4)
- * - С вероятностью 70% каждый ход
- *
- * Логика реализована в базовом классе Animal
- */
\ No newline at end of file
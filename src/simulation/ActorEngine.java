@@ -0,0 +1,337 @@
+package simulation;
+
+import model.Chunk;
+import model.Island;
+import model.Location;
+import model.animals.Animal;
+import statistics.EventLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Движок "актор на регион".
+ *
+ * Остров делится на регионы - горизонтальные полосы из целых строк чанков. Каждым регионом владеет
+ * один актор в своем потоке: только он обрабатывает животных региона и меняет его локации.
+ * Животное, которое уходит в чужой регион, не добавляется в чужую локацию напрямую: актор копит
+ * такие перемещения пачками (Batch) и отправляет их в почтовый ящик владельца - ограниченную очередь.
+ *
+ * День проходит в три фазы, границы фаз согласует Phaser (участники - акторы и поток симуляции):
+ * 1. Действия: акторы обрабатывают своих животных и отправляют уходящих соседям. Уходящее животное
+ *    пока остается в старой локации - её место не занимает никто другой.
+ * 2. Доставка: акторы размещают пришедших животных в своих локациях и отвечают отправителю
+ *    подтверждениями (тоже пачками). Переполненная клетка не принимает животное - как и в обычном
+ *    движке, оно остается на месте.
+ * 3. Подтверждения: отправители убирают принятых животных из старых локаций.
+ *
+ * Почтовый ящик ограничен: если он полон, отправитель не ждет молча, а разбирает свой собственный
+ * ящик (откладывая сообщения до следующей фазы). Поэтому акторы, которые пишут друг другу, не могут
+ * заблокировать друг друга.
+ *
+ * Потоки акторов - виртуальные, если JVM их поддерживает (Java 21+, Executors.newVirtualThreadPerTaskExecutor
+ * ищется через отражение), иначе - обычные потоки, по одному на актор.
+ */
+final class ActorEngine {
+    private static final int PHASES_PER_DAY = 4; // Начало дня + три фазы
+
+    private final Island island; // Остров
+    private final RegionActor[] actors; // Акторы регионов
+    private final int[] chunkOwner; // Номер актора-владельца для каждого чанка
+    private final int cellsPerChunkRow; // Количество клеток в одной строке чанков (ширина острова * сторона чанка)
+    private final int batchSize; // Количество перемещений в одной пачке
+    private final Phaser phaser; // Границы фаз дня
+    private final ExecutorService threads; // Потоки акторов
+    private final boolean virtualThreads; // Используются ли виртуальные потоки
+    private volatile int day; // Текущий день
+    private volatile boolean stopping = false; // Акторы должны завершиться
+    private final AtomicLong messages = new AtomicLong(); // Отправлено пачек за все время
+    private final AtomicLong crossings = new AtomicLong(); // Перешло животных между регионами за все время
+
+    /**
+     * Пачка перемещений между регионами: животные, их старые локации и целевые клетки.
+     * Подтверждение - пачка того же вида, в которой targets не используются.
+     */
+    private static final class Batch {
+        final boolean confirmation; // false - животные идут к получателю, true - получатель их принял
+        final Animal[] animals;
+        final Location[] from;
+        final int[] targets;
+        final int[] generations; // Поколения объектов при отправке (см. AnimalPool)
+        int size = 0;
+
+        Batch(boolean confirmation, int capacity) {
+            this.confirmation = confirmation;
+            this.animals = new Animal[capacity];
+            this.from = new Location[capacity];
+            this.targets = new int[capacity];
+            this.generations = new int[capacity];
+        }
+
+        /**
+         * @return true, если пачка заполнена
+         */
+        boolean add(Animal animal, Location location, int target) {
+            animals[size] = animal;
+            from[size] = location;
+            targets[size] = target;
+            generations[size] = animal.getGeneration();
+            return ++size == animals.length;
+        }
+    }
+
+    /**
+     * @param island Остров
+     * @param regions Желаемое количество регионов (не больше количества строк чанков)
+     * @param mailboxCapacity Вместимость почтового ящика актора в пачках
+     * @param batchSize Количество перемещений в одной пачке
+     */
+    ActorEngine(Island island, int regions, int mailboxCapacity, int batchSize) {
+        this.island = island;
+        this.batchSize = batchSize;
+        int chunksX = island.getChunksX();
+        int chunksY = island.getChunkCount() / chunksX;
+        int count = Math.max(1, Math.min(regions, chunksY));
+        this.cellsPerChunkRow = island.getWidth() * island.getChunkSize();
+
+        // Регион - полоса строк чанков; полосы примерно одинаковой высоты
+        this.chunkOwner = new int[island.getChunkCount()];
+        List<List<Integer>> owned = new ArrayList<>();
+        for (int a = 0; a < count; a++) owned.add(new ArrayList<>());
+        for (int c = 0; c < chunkOwner.length; c++) {
+            int owner = (c / chunksX) * count / chunksY;
+            chunkOwner[c] = owner;
+            owned.get(owner).add(c);
+        }
+
+        this.actors = new RegionActor[count];
+        for (int a = 0; a < count; a++) {
+            actors[a] = new RegionActor(a, owned.get(a).stream().mapToInt(Integer::intValue).toArray(), mailboxCapacity);
+        }
+
+        this.phaser = new Phaser(count + 1); // Акторы + поток симуляции
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.threads = virtual != null ? virtual : Executors.newFixedThreadPool(count);
+        for (RegionActor actor : actors) {
+            threads.execute(actor);
+        }
+    }
+
+    /**
+     * Создает исполнитель с виртуальным потоком на задачу, если JVM это умеет (Java 21+).
+     * @return Исполнитель или null на Java 17
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Проводит один день: запускает акторов и ждет окончания всех фаз.
+     * @param currentDay Номер дня
+     */
+    void runDay(int currentDay) {
+        day = currentDay;
+        for (int phase = 0; phase < PHASES_PER_DAY; phase++) {
+            phaser.arriveAndAwaitAdvance();
+        }
+    }
+
+    /**
+     * Останавливает акторов и их потоки.
+     */
+    void close() {
+        stopping = true;
+        phaser.arriveAndDeregister(); // Акторы проходят начало дня, видят stopping и завершаются
+        threads.shutdown();
+        try {
+            threads.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Сводка: количество регионов, тип потоков, перемещения между регионами и пачки сообщений
+     */
+    String getMetrics() {
+        return String.format("Акторы: %d регионов, потоки: %s, переходов между регионами: %d, пачек сообщений: %d",
+                actors.length, virtualThreads ? "виртуальные" : "платформенные", crossings.get(), messages.get());
+    }
+
+    /**
+     * @return Номер актора, которому принадлежит клетка
+     */
+    private int ownerOf(int cellIndex) {
+        // Строка чанков клетки = cellIndex / (ширина * сторона чанка); регион зависит только от строки
+        int chunkRow = cellIndex / cellsPerChunkRow;
+        return chunkOwner[chunkRow * island.getChunksX()];
+    }
+
+    /**
+     * Актор региона: владеет чанками своей полосы и почтовым ящиком.
+     */
+    private final class RegionActor implements Runnable {
+        private final int id; // Номер актора
+        private final int[] chunks; // Индексы чанков региона
+        private final BlockingQueue<Batch> mailbox; // Входящие пачки (ограниченная очередь)
+        private final List<Batch> deferred = new ArrayList<>(); // Пачки, разобранные из ящика раньше своей фазы
+
+        RegionActor(int id, int[] chunks, int mailboxCapacity) {
+            this.id = id;
+            this.chunks = chunks;
+            this.mailbox = new ArrayBlockingQueue<>(mailboxCapacity);
+        }
+
+        @Override
+        public void run() {
+            Batch[] out = new Batch[actors.length]; // Незаполненная исходящая пачка для каждого актора
+            while (true) {
+                phaser.arriveAndAwaitAdvance(); // Начало дня
+                if (stopping) {
+                    phaser.arriveAndDeregister();
+                    return;
+                }
+                act(out);
+                phaser.arriveAndAwaitAdvance();
+                deliver(out);
+                phaser.arriveAndAwaitAdvance();
+                confirm();
+                phaser.arriveAndAwaitAdvance();
+            }
+        }
+
+        /**
+         * Фаза 1: обрабатывает животных региона. Уходящие в чужой регион копятся в исходящих пачках.
+         */
+        private void act(Batch[] out) {
+            int currentDay = day;
+            for (int chunkIndex : chunks) {
+                Chunk chunk = island.loadActiveChunk(chunkIndex);
+                if (chunk == null) continue;
+                // Клетки с животными всегда активны, поэтому "спящие" клетки можно не просматривать
+                for (int i = chunk.nextActive(0); i >= 0; i = chunk.nextActive(i + 1)) {
+                    Location location = chunk.get(i);
+                    if (location == null || !location.hasAnimals()) continue;
+                    for (Animal animal : location.getAnimals()) {
+                        try {
+                            if (animal.isAlive() && animal.tryAct(currentDay)) actOne(animal, location, out);
+                        } catch (RuntimeException e) {
+                            // Как и в пуле потоков, ошибка одного животного не останавливает остальных
+                        }
+                    }
+                }
+            }
+            flush(out);
+        }
+
+        private void actOne(Animal animal, Location location, Batch[] out) {
+            animal.eat(location);
+            animal.reproduce(location);
+            int target = animal.chooseTarget(island);
+            if (target >= 0) {
+                int owner = ownerOf(target);
+                if (owner == id || !island.owns(target)) {
+                    animal.moveTo(island, target); // Своя клетка (или клетка другого процесса) - перемещаем сразу
+                } else {
+                    if (out[owner] == null) out[owner] = new Batch(false, batchSize);
+                    if (out[owner].add(animal, animal.getLocation(), target)) {
+                        send(owner, out[owner]);
+                        out[owner] = null;
+                    }
+                }
+            }
+            animal.decreaseSatiety();
+        }
+
+        /**
+         * Фаза 2: размещает пришедших животных и отправляет подтверждения.
+         */
+        private void deliver(Batch[] out) {
+            List<Batch> incoming = takeAll();
+            for (Batch batch : incoming) {
+                if (batch.confirmation) {
+                    deferred.add(batch); // Подтверждения обрабатываются в следующей фазе
+                    continue;
+                }
+                for (int i = 0; i < batch.size; i++) {
+                    Animal animal = batch.animals[i];
+                    // Животное могли съесть или оно умерло от голода после отправки
+                    if (!animal.isAlive() || animal.getGeneration() != batch.generations[i]) continue;
+                    Location target = island.getLocation(batch.targets[i]);
+                    if (!target.addAnimal(animal)) continue; // Клетка переполнена - животное остается на месте
+                    int origin = ownerOf(batch.from[i].index);
+                    if (out[origin] == null) out[origin] = new Batch(true, batchSize);
+                    if (out[origin].add(animal, batch.from[i], batch.targets[i])) {
+                        send(origin, out[origin]);
+                        out[origin] = null;
+                    }
+                }
+            }
+            flush(out);
+        }
+
+        /**
+         * Фаза 3: убирает принятых соседями животных из старых локаций.
+         */
+        private void confirm() {
+            for (Batch batch : takeAll()) {
+                for (int i = 0; i < batch.size; i++) {
+                    Animal animal = batch.animals[i];
+                    Location from = batch.from[i];
+                    from.removeAnimal(animal);
+                    EventLog.recordMove(animal, from, animal.getLocation());
+                }
+                crossings.addAndGet(batch.size);
+            }
+        }
+
+        /**
+         * Отправляет все незаполненные исходящие пачки.
+         */
+        private void flush(Batch[] out) {
+            for (int a = 0; a < out.length; a++) {
+                if (out[a] != null && out[a].size > 0) send(a, out[a]);
+                out[a] = null;
+            }
+        }
+
+        /**
+         * Кладет пачку в ящик получателя. Пока ящик полон, разбирает свой ящик, чтобы отправители,
+         * которые ждут этого актора, тоже могли продолжить.
+         */
+        private void send(int receiver, Batch batch) {
+            BlockingQueue<Batch> target = actors[receiver].mailbox;
+            try {
+                while (!target.offer(batch, 1, TimeUnit.MILLISECONDS)) {
+                    mailbox.drainTo(deferred);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            messages.incrementAndGet();
+        }
+
+        /**
+         * @return Все отложенные и пришедшие пачки (ящик и список отложенных очищаются)
+         */
+        private List<Batch> takeAll() {
+            List<Batch> all = new ArrayList<>(deferred);
+            deferred.clear();
+            mailbox.drainTo(all);
+            return all;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package simulation;
+
+import utils.SimulationSettings.AnimalConfig;
+
+/**
+ * Изменения острова за один или несколько дней - событие издателя DayDeltaPublisher.
+ *
+ * Если подписчик не успевает, дни, которые он еще не запросил, сливаются в одно событие:
+ * для изменившихся клеток остается последнее состояние, рождения и смерти суммируются,
+ * численность и растения - на последний день. Массивы не копируются - их нельзя изменять.
+ *
+ * @param firstDay Первый день, вошедший в событие
+ * @param lastDay Последний день, вошедший в событие
+ * @param cells Плоские индексы изменившихся клеток (y * width + x)
+ * @param cellPlants Растения в клетке на конец lastDay (параллельно cells)
+ * @param cellAnimals Животных в клетке на конец lastDay (параллельно cells)
+ * @param cellDominant Доминирующий вид клетки (AnimalConfig.ordinal, -1 - животных нет; параллельно cells)
+ * @param implicitPlants Растения в клетках, которые не хранятся явно (Island.defaultPlantCount)
+ * @param population Численность по видам на конец lastDay (индекс - AnimalConfig.ordinal)
+ * @param births Рождения по видам за все дни события
+ * @param deathsByHunger Смерти от голода по видам за все дни события
+ * @param deathsByPredation Смерти от хищников по видам за все дни события
+ * @param plants Растений на острове на конец lastDay
+ */
+public record DayDelta(int firstDay, int lastDay,
+                       int[] cells, int[] cellPlants, int[] cellAnimals, byte[] cellDominant, int implicitPlants,
+                       int[] population, int[] births, int[] deathsByHunger, int[] deathsByPredation, long plants) {
+    /**
+     * @return Количество дней, слитых в это событие (1, если подписчик успевает)
+     */
+    public int days() {
+        return lastDay - firstDay + 1;
+    }
+
+    public int population(AnimalConfig species) {
+        return population[species.ordinal()];
+    }
+
+    public int births(AnimalConfig species) {
+        return births[species.ordinal()];
+    }
+
+    public int deaths(AnimalConfig species) {
+        return deathsByHunger[species.ordinal()] + deathsByPredation[species.ordinal()];
+    }
+}
@@ -0,0 +1,391 @@
+package simulation;
+
+import model.Island;
+import model.Location;
+import statistics.TimeSeriesRecorder;
+import statistics.TimeSeriesRecorder.Metric;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Издатель изменений острова по дням (java.util.concurrent.Flow) - для встраивания симуляции
+ * в другие сервисы вместо печати в консоль.
+ *
+ * В конце каждого дня поток симуляции один раз забирает изменившиеся клетки острова
+ * (Island.drainChangedCells - обходятся только биты изменений, неизменившиеся клетки не читаются
+ * и ничего не выделяют) и статистику дня, и добавляет их в накопитель каждого подписчика.
+ * Доставка идет на исполнителе (по умолчанию общий ForkJoinPool), у каждого подписчика - по одному
+ * событию за раз и только в пределах запрошенного (request) количества.
+ *
+ * Медленный подписчик никогда не задерживает день: пока у него нет спроса или он еще обрабатывает
+ * прошлое событие, новые дни сливаются в его накопителе в одно событие (DayDelta.days() > 1).
+ * Память накопителя ограничена количеством изменившихся клеток, а не количеством дней.
+ */
+public class DayDeltaPublisher implements Flow.Publisher<DayDelta>, AutoCloseable {
+    private static final int SPECIES_COUNT = AnimalConfig.values().length;
+    private static final AnimalConfig[] SPECIES = AnimalConfig.values();
+
+    private final Executor executor; // Исполнитель доставки событий
+    private final CopyOnWriteArrayList<DeltaSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed = false;
+    private boolean stale = false; // Признаки изменения клеток копились без подписчиков (поток симуляции)
+
+    // Снимок последнего дня (заполняется в потоке симуляции, буферы используются повторно)
+    private int[] dayCells = new int[64];
+    private int[] dayPlants = new int[64];
+    private int[] dayAnimals = new int[64];
+    private byte[] dayDominant = new byte[64];
+    private int dayCellCount = 0;
+    private final int[] population = new int[SPECIES_COUNT];
+    private final int[] births = new int[SPECIES_COUNT];
+    private final int[] deathsByHunger = new int[SPECIES_COUNT];
+    private final int[] deathsByPredation = new int[SPECIES_COUNT];
+
+    public DayDeltaPublisher() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor Исполнитель, в котором вызываются методы подписчиков
+     */
+    public DayDeltaPublisher(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super DayDelta> subscriber) {
+        Objects.requireNonNull(subscriber);
+        DeltaSubscription subscription = new DeltaSubscription(subscriber);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+        if (closed) subscription.complete(); // Подписка после остановки симуляции сразу завершается
+    }
+
+    /**
+     * @return Количество активных подписчиков
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Готовит остров к новому дню: если изменения копились без подписчиков, а подписчик появился,
+     * сбрасывает их один раз, чтобы первое событие содержало только изменения после подписки.
+     * Вызывается из потока симуляции в начале дня.
+     */
+    void beginDay(Island island) {
+        if (stale && !subscriptions.isEmpty()) {
+            island.clearChangedCells();
+            stale = false;
+        }
+    }
+
+    /**
+     * Публикует изменения дня. Вызывается из потока симуляции в конце дня, когда все задачи
+     * дня завершены и статистика дня записана в историю.
+     */
+    void publishDay(int day, Island island, TimeSeriesRecorder timeSeries) {
+        if (subscriptions.isEmpty()) {
+            // Без подписчиков ни клетки, ни признаки изменения не обходятся. Признаки копятся (их размер
+            // постоянный) и сбрасываются один раз в beginDay первого дня с подписчиком
+            island.discardPendingChangedCells();
+            stale = true;
+            return;
+        }
+
+        int implicitPlants = island.defaultPlantCount();
+        int width = island.getWidth();
+        dayCellCount = 0;
+        island.drainChangedCells(cell -> captureCell(island.findLocation(cell % width, cell / width), cell, implicitPlants));
+
+        long dayIndex = timeSeries.getDays() - 1;
+        for (AnimalConfig species : SPECIES) {
+            int s = species.ordinal();
+            population[s] = timeSeries.get(dayIndex, species, Metric.POPULATION);
+            births[s] = timeSeries.get(dayIndex, species, Metric.BIRTHS);
+            deathsByHunger[s] = timeSeries.get(dayIndex, species, Metric.DEATHS_BY_HUNGER);
+            deathsByPredation[s] = timeSeries.get(dayIndex, species, Metric.DEATHS_BY_PREDATION);
+        }
+        long plants = timeSeries.getPlants(dayIndex);
+
+        for (DeltaSubscription subscription : subscriptions) {
+            subscription.offer(day, implicitPlants, plants);
+        }
+    }
+
+    // Запоминает состояние изменившейся клетки в снимке дня
+    private void captureCell(Location location, int cell, int implicitPlants) {
+        if (dayCellCount == dayCells.length) {
+            int capacity = dayCells.length * 2;
+            dayCells = Arrays.copyOf(dayCells, capacity);
+            dayPlants = Arrays.copyOf(dayPlants, capacity);
+            dayAnimals = Arrays.copyOf(dayAnimals, capacity);
+            dayDominant = Arrays.copyOf(dayDominant, capacity);
+        }
+        int i = dayCellCount++;
+        dayCells[i] = cell;
+        if (location == null) {
+            // Клетка снова хранится неявно: растения по формуле, животных нет
+            dayPlants[i] = implicitPlants;
+            dayAnimals[i] = 0;
+            dayDominant[i] = -1;
+        } else {
+            AnimalConfig dominant = location.getDominantSpecies();
+            dayPlants[i] = location.getPlantCount();
+            dayAnimals[i] = location.getAnimalCount();
+            dayDominant[i] = (byte) (dominant == null ? -1 : dominant.ordinal());
+        }
+    }
+
+    /**
+     * Завершает всех подписчиков: каждый получит накопленные изменения (когда запросит) и onComplete.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (DeltaSubscription subscription : subscriptions) subscription.complete();
+    }
+
+    /**
+     * Подписка: спрос, накопитель недоставленных дней и последовательная доставка.
+     * Поля под блокировкой объекта подписки; методы подписчика вызываются вне блокировки.
+     */
+    private final class DeltaSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super DayDelta> subscriber;
+        private final Accumulator pending = new Accumulator(); // Недоставленные дни
+        private long demand = 0; // Запрошено и еще не доставлено
+        private boolean scheduled = false; // Задача доставки уже поставлена в исполнитель
+        private boolean cancelled = false;
+        private boolean completing = false; // После накопленного - onComplete
+        private Throwable error; // Нарушение протокола подписчиком (request(n <= 0))
+
+        DeltaSubscription(Flow.Subscriber<? super DayDelta> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        // Добавляет день в накопитель (поток симуляции)
+        void offer(int day, int implicitPlants, long plants) {
+            boolean schedule;
+            synchronized (this) {
+                if (cancelled || completing) return;
+                pending.add(day, dayCells, dayPlants, dayAnimals, dayDominant, dayCellCount, implicitPlants,
+                        population, births, deathsByHunger, deathsByPredation, plants);
+                schedule = demand > 0 && !scheduled; // Без спроса доставлять нечего - дни просто сливаются
+                if (schedule) scheduled = true;
+            }
+            if (schedule) executor.execute(this);
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (cancelled) return;
+                if (n <= 0) {
+                    error = new IllegalArgumentException("Запрошено неположительное количество событий: " + n);
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n; // Без переполнения
+                }
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                pending.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        void complete() {
+            synchronized (this) {
+                completing = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            boolean schedule;
+            synchronized (this) {
+                schedule = !scheduled && !cancelled;
+                if (schedule) scheduled = true;
+            }
+            if (schedule) executor.execute(this);
+        }
+
+        // Доставка: по одному событию, пока есть спрос и накопленные дни
+        @Override
+        public void run() {
+            while (true) {
+                DayDelta next = null;
+                Throwable failure = null;
+                boolean done = false;
+                synchronized (this) {
+                    if (cancelled) {
+                        scheduled = false;
+                        return;
+                    }
+                    if (error != null) {
+                        failure = error;
+                        cancelled = true;
+                    } else if (demand > 0 && !pending.isEmpty()) {
+                        next = pending.drain();
+                        demand--;
+                    } else if (completing && pending.isEmpty()) {
+                        done = true;
+                        cancelled = true;
+                    } else {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                if (failure != null || done) {
+                    subscriptions.remove(this);
+                    if (failure != null) subscriber.onError(failure);
+                    else subscriber.onComplete();
+                    return;
+                }
+                try {
+                    subscriber.onNext(next);
+                } catch (Throwable t) {
+                    // Подписчик не должен бросать исключения - отменяем его подписку
+                    cancel();
+                    subscriber.onError(t);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Накопитель недоставленных дней одного подписчика. Клетка, изменившаяся в нескольких днях,
+     * хранится один раз (последнее состояние), поэтому размер ограничен количеством изменившихся клеток.
+     */
+    private static final class Accumulator {
+        private int firstDay = 0; // 0 - накопитель пуст
+        private int lastDay;
+        private int[] cells = new int[16];
+        private int[] cellPlants = new int[16];
+        private int[] cellAnimals = new int[16];
+        private byte[] cellDominant = new byte[16];
+        private int count = 0;
+        private final CellSlots slots = new CellSlots(); // Клетка -> позиция в массивах
+        private int implicitPlants;
+        private final int[] population = new int[SPECIES_COUNT];
+        private final int[] births = new int[SPECIES_COUNT];
+        private final int[] deathsByHunger = new int[SPECIES_COUNT];
+        private final int[] deathsByPredation = new int[SPECIES_COUNT];
+        private long plants;
+
+        boolean isEmpty() {
+            return firstDay == 0;
+        }
+
+        void add(int day, int[] dayCells, int[] dayPlants, int[] dayAnimals, byte[] dayDominant, int dayCount,
+                 int implicitPlants, int[] population, int[] births, int[] deathsByHunger, int[] deathsByPredation,
+                 long plants) {
+            if (firstDay == 0) firstDay = day;
+            lastDay = day;
+            for (int i = 0; i < dayCount; i++) {
+                int slot = slots.get(dayCells[i]);
+                if (slot < 0) {
+                    slot = count++;
+                    if (slot == cells.length) grow();
+                    cells[slot] = dayCells[i];
+                    slots.put(dayCells[i], slot);
+                }
+                cellPlants[slot] = dayPlants[i];
+                cellAnimals[slot] = dayAnimals[i];
+                cellDominant[slot] = dayDominant[i];
+            }
+            this.implicitPlants = implicitPlants;
+            System.arraycopy(population, 0, this.population, 0, SPECIES_COUNT);
+            for (int s = 0; s < SPECIES_COUNT; s++) {
+                this.births[s] += births[s];
+                this.deathsByHunger[s] += deathsByHunger[s];
+                this.deathsByPredation[s] += deathsByPredation[s];
+            }
+            this.plants = plants;
+        }
+
+        private void grow() {
+            int capacity = cells.length * 2;
+            cells = Arrays.copyOf(cells, capacity);
+            cellPlants = Arrays.copyOf(cellPlants, capacity);
+            cellAnimals = Arrays.copyOf(cellAnimals, capacity);
+            cellDominant = Arrays.copyOf(cellDominant, capacity);
+        }
+
+        // Собирает событие из накопленного и очищает накопитель
+        DayDelta drain() {
+            DayDelta delta = new DayDelta(firstDay, lastDay,
+                    Arrays.copyOf(cells, count), Arrays.copyOf(cellPlants, count),
+                    Arrays.copyOf(cellAnimals, count), Arrays.copyOf(cellDominant, count), implicitPlants,
+                    population.clone(), births.clone(), deathsByHunger.clone(), deathsByPredation.clone(), plants);
+            clear();
+            return delta;
+        }
+
+        void clear() {
+            firstDay = 0;
+            count = 0;
+            slots.clear();
+            Arrays.fill(births, 0);
+            Arrays.fill(deathsByHunger, 0);
+            Arrays.fill(deathsByPredation, 0);
+        }
+    }
+
+    /**
+     * Открытая адресация "клетка -> позиция" без упаковки чисел в объекты.
+     */
+    private static final class CellSlots {
+        private int[] keys = new int[32]; // Индекс клетки + 1 (0 - пустой слот)
+        private int[] values = new int[32];
+        private int size = 0;
+
+        int get(int cell) {
+            int mask = keys.length - 1;
+            for (int i = mix(cell) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == cell + 1) return values[i];
+            }
+            return -1;
+        }
+
+        void put(int cell, int value) {
+            if ((size + 1) * 2 > keys.length) rehash();
+            int mask = keys.length - 1;
+            int i = mix(cell) & mask;
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = cell + 1;
+            values[i] = value;
+            size++;
+        }
+
+        private void rehash() {
+            int[] oldKeys = keys, oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) put(oldKeys[i] - 1, oldValues[i]);
+            }
+        }
+
+        void clear() {
+            if (size > 0) Arrays.fill(keys, 0);
+            size = 0;
+        }
+
+        private static int mix(int cell) {
+            return cell * 0x9E3779B9 >>> 7; // Соседние клетки - в разные слоты
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package simulation;
+
+import enums.EngineMode;
+import model.Island;
+import statistics.Statistics;
+import statistics.SteadyStateDetector;
+import utils.Scenario;
+import utils.Settings;
+import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Ансамбль независимых прогонов: сотни островов с разными параметрами (Settings) на одном
+ * общем пуле потоков с перехватом задач.
+ *
+ * Каждый прогон - одна задача пула: остров с собственными настройками и статистикой и симуляция
+ * в режиме inline (задачи дня выполняются в потоке прогона). Параллельны острова, а не животные
+ * одного острова, поэтому потоки не ждут друг друга на границах дней, а у прогонов нет общих
+ * изменяемых данных. Общие для JVM механизмы, которые стали бы точками конкуренции, на время
+ * работы ансамбля, у прогонов тоже свои: пул объектов животных и бюджет памяти - у острова
+ * (бюджет ансамбль выключает, размер прогонов и так ограничен заранее), а журнал событий прогон
+ * не закрывает.
+ *
+ * Результаты прогонов сводятся в таблицу по меткам: прогоны с одной меткой (одни параметры,
+ * разные зерна) дают среднее и разброс. Зерно (Settings.randomSeed) задает только начальное
+ * размещение животных: ход дней использует ThreadLocalRandom, поэтому повтор прогона с тем же
+ * зерном дает другую траекторию, и разброс по метке включает и разброс самой динамики.
+ */
+public class EnsembleRunner implements AutoCloseable {
+    private static final AnimalConfig[] SPECIES = AnimalConfig.values();
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Один прогон ансамбля.
+     * @param label Метка для сводной таблицы (прогоны с одной меткой усредняются)
+     * @param settings Параметры модели
+     */
+    public record Run(String label, Settings settings) {}
+
+    /**
+     * Итог одного прогона на последний день.
+     * @param days Сколько дней прожито (меньше заданного, если прогон остановлен установившимся режимом)
+     * @param population Численность по видам (индекс - AnimalConfig.ordinal)
+     * @param steadyState Распознанный установившийся режим или null
+     * @param nanos Время прогона, нс
+     */
+    public record Result(String label, long seed, int days, int[] population, long plants,
+                         int births, int deathsByHunger, int deathsByPredation,
+                         SteadyStateDetector.Detection steadyState, long nanos) {
+        /**
+         * @return Всего животных
+         */
+        public int totalAnimals() {
+            int total = 0;
+            for (int count : population) total += count;
+            return total;
+        }
+
+        /**
+         * @return Количество вымерших видов (из тех, что были на острове в начале)
+         */
+        public int extinctSpecies(Settings settings) {
+            int extinct = 0;
+            for (AnimalConfig config : SPECIES) {
+                if (settings.species(config).initialCount > 0 && population[config.ordinal()] == 0) extinct++;
+            }
+            return extinct;
+        }
+    }
+
+    /**
+     * @param parallelism Количество потоков пула (0 - по количеству процессоров)
+     */
+    public EnsembleRunner(int parallelism) {
+        if (SimulationSettings.CHUNK_PAGING_ENABLED) {
+            // У всех островов был бы один файл подкачки
+            throw new IllegalStateException("Ансамбль не работает с подкачкой чанков (CHUNK_PAGING_ENABLED)");
+        }
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Выполняет все прогоны и дожидается их завершения.
+     * @param runs Прогоны
+     * @param days Количество дней каждого прогона
+     * @return Результаты в порядке прогонов
+     */
+    public List<Result> run(List<Run> runs, int days) {
+        List<Callable<Result>> tasks = new ArrayList<>(runs.size());
+        for (Run run : runs) {
+            tasks.add(() -> runOne(run, days));
+        }
+        List<Result> results = new ArrayList<>(runs.size());
+        for (Future<Result> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Ансамбль прерван", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Прогон ансамбля завершился с ошибкой", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    // Один прогон: остров, симуляция в потоке задачи, итоговая статистика
+    private static Result runOne(Run run, int days) {
+        long start = System.nanoTime();
+        Island island = new Island(run.settings());
+        island.getMemoryBudget().setEnabled(false);
+        Simulation simulation = new Simulation(island, true);
+        simulation.setConsoleOutput(false);
+        simulation.setEngineMode(EngineMode.FORK_JOIN); // Акторы - это свои потоки, а прогон должен остаться одной задачей
+        // С STEADY_STATE_ACTION = STOP вымерший или установившийся прогон не занимает поток до конца: освобождает его другим
+        simulation.setSteadyStateAction(SimulationSettings.STEADY_STATE_ACTION);
+        int lived;
+        try {
+            lived = simulation.runDays(days);
+        } finally {
+            simulation.stopSimulation();
+        }
+        Statistics statistics = island.getStatistics();
+        int[] population = new int[SPECIES.length];
+        statistics.copyPopulation(population);
+        return new Result(run.label(), run.settings().randomSeed, lived, population, statistics.getTotalPlants(),
+                statistics.getTotalBirths(), statistics.getTotalDeathsByHunger(), statistics.getTotalDeathsByPredation(),
+                simulation.getSteadyState(), System.nanoTime() - start);
+    }
+
+    /**
+     * Сводная таблица: для каждой метки - количество прогонов, среднее и стандартное отклонение
+     * численности, средняя численность каждого вида и доля прогонов, в которых вид вымер.
+     * @param runs Прогоны (для начальных количеств видов)
+     * @param results Результаты в порядке прогонов
+     */
+    public static String summarize(List<Run> runs, List<Result> results) {
+        Map<String, List<Integer>> byLabel = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            byLabel.computeIfAbsent(results.get(i).label(), k -> new ArrayList<>()).add(i);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %5s %16s %12s %9s %6s %8s", "Параметры", "Прог.", "Животных (σ)", "Растений", "Вымерло", "Дней", "мс/прог"));
+        for (AnimalConfig config : SPECIES) sb.append(String.format(" %9s", config.name()));
+        sb.append('\n');
+
+        for (Map.Entry<String, List<Integer>> entry : byLabel.entrySet()) {
+            List<Integer> indices = entry.getValue();
+            int n = indices.size();
+            double sum = 0, sumSquares = 0, plants = 0, extinct = 0, days = 0, millis = 0;
+            double[] species = new double[SPECIES.length];
+            int[] extinctRuns = new int[SPECIES.length];
+            for (int i : indices) {
+                Result result = results.get(i);
+                Settings settings = runs.get(i).settings();
+                int total = result.totalAnimals();
+                sum += total;
+                sumSquares += (double) total * total;
+                plants += result.plants();
+                extinct += result.extinctSpecies(settings);
+                days += result.days();
+                millis += result.nanos() / 1e6;
+                for (AnimalConfig config : SPECIES) {
+                    int count = result.population()[config.ordinal()];
+                    species[config.ordinal()] += count;
+                    if (count == 0 && settings.species(config).initialCount > 0) extinctRuns[config.ordinal()]++;
+                }
+            }
+            double mean = sum / n;
+            double sd = Math.sqrt(Math.max(0, sumSquares / n - mean * mean));
+            sb.append(String.format("%-28s %5d %9.0f (%4.0f) %12.0f %9.1f %6.0f %8.0f",
+                    entry.getKey(), n, mean, sd, plants / n, extinct / n, days / n, millis / n));
+            for (AnimalConfig config : SPECIES) {
+                int s = config.ordinal();
+                // Средняя численность и, если вид вымирал, доля таких прогонов
+                String cell = extinctRuns[s] == 0
+                        ? String.format("%.0f", species[s] / n)
+                        : String.format("%.0f†%d%%", species[s] / n, extinctRuns[s] * 100 / n);
+                sb.append(String.format(" %9s", cell));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Останавливает пул.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Пример перебора параметров: шанс размножения волка x вероятность, с которой волк ловит кролика,
+     * по ENSEMBLE_SEEDS зерен на каждую комбинацию. Остальные параметры - из сценария (-Dscenario=файл).
+     * Запуск: java simulation.EnsembleRunner [дней] [зерен]
+     */
+    public static void main(String[] args) {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : SimulationSettings.ENSEMBLE_DAYS;
+        int seeds = args.length > 1 ? Integer.parseInt(args[1]) : SimulationSettings.ENSEMBLE_SEEDS;
+
+        Settings base = Scenario.selected();
+        List<Run> runs = new ArrayList<>();
+        for (double reproduction : new double[] {0.2, 0.3, 0.4}) {
+            for (int rabbitChance : new int[] {40, 60, 80}) {
+                String label = String.format("волк: размн. %.1f, кролик %d%%", reproduction, rabbitChance);
+                for (int seed = 0; seed < seeds; seed++) {
+                    Settings settings = base.toBuilder()
+                            .reproductionChance(AnimalConfig.WOLF, reproduction)
+                            .eatingChance(AnimalConfig.WOLF, AnimalConfig.RABBIT, rabbitChance)
+                            .randomSeed(base.randomSeed + seed)
+                            .build();
+                    runs.add(new Run(label, settings));
+                }
+            }
+        }
+
+        try (EnsembleRunner runner = new EnsembleRunner(SimulationSettings.ENSEMBLE_PARALLELISM)) {
+            long start = System.nanoTime();
+            List<Result> results = runner.run(runs, days);
+            System.out.println(summarize(runs, results));
+            System.out.printf("Прогонов: %d по %d дней за %.1f с (потоков: %d)%n",
+                    runs.size(), days, (System.nanoTime() - start) / 1e9, runner.pool.getParallelism());
+        }
+    }
+}
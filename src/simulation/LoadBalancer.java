@@ -0,0 +1,235 @@
+package simulation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Разбиение чанков острова между потоками по измеренной стоимости.
+ *
+ * Животные распределены по острову неравномерно: в одних клетках maxPerCell, большая часть пуста.
+ * Поэтому равные по площади участки требуют очень разного времени, и часть потоков простаивает.
+ * Здесь для каждого чанка хранится время его обработки в пересчете на одно животное
+ * (экспоненциальное сглаживание по дням), и перед каждым днем чанки делятся на части с примерно равной суммарной стоимостью -
+ * рекурсивной бисекцией с весами: набор чанков режется поперек длинной стороны своего
+ * прямоугольника так, чтобы веса половин относились как количество частей в них.
+ * Части получаются компактными (почти прямоугольными), поэтому поток работает с соседними чанками.
+ *
+ * Время измеряется как процессорное время потока (если JVM его поддерживает): паузы сборщика
+ * мусора и вытеснение потока не попадают в стоимость чанка, на который они пришлись.
+ * Чанк, который еще не измерялся, получает среднюю стоимость измеренных.
+ * В режиме без измерений (measured = false) все чанки весят одинаково - это статическое
+ * разбиение по площади, с которым удобно сравнивать.
+ *
+ * Методы вызываются потоком симуляции; recordChunk - из рабочих потоков, но каждый чанк
+ * принадлежит одной части, а invokeAll гарантирует видимость записей после завершения задач.
+ */
+final class LoadBalancer {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private final int chunksX; // Ширина сетки чанков
+    private final int parts; // Количество частей (обычно - количество потоков)
+    private final double smoothing; // Вес нового измерения в сглаженной стоимости (0..1]
+    private final double[] cost; // Сглаженное время чанка на одно животное, нс (0 - не измерялся)
+    private final int[] animals; // Животных в чанке на момент разбиения
+    private volatile boolean measured = true; // Делить по измеренной стоимости (false - по площади)
+
+    private final long[] partBusy; // Время работы каждой части за последний день (см. now), нс
+    private long wallNanos; // Время параллельной обработки за последний день, нс
+    private long dayBusyTotal; // Сумма времени работы частей за последний день, нс
+    private double imbalance; // Дисбаланс последнего дня: max / среднее - 1
+    private double imbalanceSum; // Сумма дисбалансов по дням (для среднего)
+    private int days; // Количество учтенных дней
+
+    /**
+     * @param chunkCount Количество чанков острова
+     * @param chunksX Ширина сетки чанков
+     * @param parts Количество частей
+     * @param smoothing Вес нового измерения в сглаженной стоимости
+     */
+    LoadBalancer(int chunkCount, int chunksX, int parts, double smoothing) {
+        this.chunksX = chunksX;
+        this.parts = parts;
+        this.smoothing = smoothing;
+        this.cost = new double[chunkCount];
+        this.animals = new int[chunkCount];
+        this.partBusy = new long[parts];
+    }
+
+    /**
+     * Включает или выключает разбиение по измеренной стоимости.
+     * @param measured false - все чанки весят одинаково (статическое разбиение по площади)
+     */
+    void setMeasured(boolean measured) {
+        this.measured = measured;
+    }
+
+    /**
+     * Делит чанки на части с примерно равной стоимостью.
+     * Стоимость чанка = измеренное время на одно животное этого чанка * животных в нем сейчас:
+     * так разбиение сразу учитывает, что за ночь животные разошлись или размножились.
+     * @param chunks Индексы чанков (порядок не важен, массив переупорядочивается)
+     * @param animals Количество животных в каждом чанке (по индексу чанка)
+     * @param count Количество чанков в массиве
+     * @return Для каждой части - индексы её чанков (части могут быть пустыми, если чанков меньше, чем частей)
+     */
+    int[][] partition(int[] chunks, int[] animals, int count) {
+        double[] weights = new double[cost.length];
+        double known = 0;
+        int knownCount = 0;
+        for (int i = 0; i < count; i++) {
+            int c = chunks[i];
+            this.animals[c] = animals[c];
+            if (cost[c] > 0) {
+                known += cost[c];
+                knownCount++;
+            }
+        }
+        double fallback = knownCount > 0 ? known / knownCount : 1;
+        for (int i = 0; i < count; i++) {
+            int c = chunks[i];
+            weights[c] = !measured ? 1 : (cost[c] > 0 ? cost[c] : fallback) * Math.max(1, animals[c]);
+        }
+
+        int[][] result = new int[parts][];
+        bisect(chunks, 0, count, 0, parts, weights, result);
+        return result;
+    }
+
+    /**
+     * Рекурсивно делит чанки chunks[from, to) на partCount частей, начиная с части firstPart.
+     */
+    private void bisect(int[] chunks, int from, int to, int firstPart, int partCount, double[] weights, int[][] result) {
+        if (partCount == 1) {
+            result[firstPart] = Arrays.copyOfRange(chunks, from, to);
+            return;
+        }
+        int leftParts = partCount / 2;
+        if (to - from <= 1) {
+            // Делить нечего: единственный чанк (если есть) достается первой части
+            for (int p = 0; p < partCount; p++) {
+                result[firstPart + p] = p == 0 ? Arrays.copyOfRange(chunks, from, to) : new int[0];
+            }
+            return;
+        }
+
+        // Режем поперек длинной стороны прямоугольника, который занимают чанки
+        int minX = Integer.MAX_VALUE, maxX = -1, minY = Integer.MAX_VALUE, maxY = -1;
+        for (int i = from; i < to; i++) {
+            int x = chunks[i] % chunksX, y = chunks[i] / chunksX;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        boolean alongX = maxX - minX >= maxY - minY;
+        sortByCoordinate(chunks, from, to, alongX);
+
+        // Точка разреза: вес левой половины ближе всего к её доле от общего веса
+        double total = 0;
+        for (int i = from; i < to; i++) total += weights[chunks[i]];
+        double target = total * leftParts / partCount;
+        double left = 0;
+        int cut = from;
+        while (cut < to - 1 && left + weights[chunks[cut]] / 2 < target) {
+            left += weights[chunks[cut]];
+            cut++;
+        }
+        if (cut == from) cut = from + 1; // Каждой половине хотя бы один чанк
+
+        bisect(chunks, from, cut, firstPart, leftParts, weights, result);
+        bisect(chunks, cut, to, firstPart + leftParts, partCount - leftParts, weights, result);
+    }
+
+    // Сортирует чанки по координате вдоль оси разреза (и по другой координате при равенстве)
+    private void sortByCoordinate(int[] chunks, int from, int to, boolean alongX) {
+        long[] keys = new long[to - from];
+        for (int i = from; i < to; i++) {
+            int c = chunks[i];
+            long primary = alongX ? c % chunksX : c / chunksX;
+            keys[i - from] = (primary << 32) | c; // Индекс чанка растет по строкам - он же второй ключ
+        }
+        Arrays.sort(keys);
+        for (int i = from; i < to; i++) {
+            chunks[i] = (int) keys[i - from];
+        }
+    }
+
+    /**
+     * @return Текущее время для замеров: процессорное время потока или, если оно не поддерживается, System.nanoTime, нс
+     */
+    static long now() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Учитывает время обработки чанка за день.
+     */
+    void recordChunk(int chunkIndex, long nanos) {
+        double perAnimal = (double) nanos / Math.max(1, animals[chunkIndex]);
+        double previous = cost[chunkIndex];
+        cost[chunkIndex] = previous == 0 ? perAnimal : previous + smoothing * (perAnimal - previous);
+    }
+
+    /**
+     * Добавляет время работы частей одного окна чанков к итогам дня.
+     * @param busy Время работы каждой части, нс
+     * @param wall Время параллельной обработки окна, нс
+     */
+    void recordWindow(long[] busy, long wall) {
+        for (int p = 0; p < parts; p++) partBusy[p] += busy[p];
+        wallNanos += wall;
+    }
+
+    /**
+     * Подводит итоги дня: дисбаланс = максимальное время части / среднее - 1.
+     */
+    void endDay() {
+        long max = 0, total = 0;
+        for (long busy : partBusy) {
+            max = Math.max(max, busy);
+            total += busy;
+        }
+        imbalance = total == 0 ? 0 : (double) max * parts / total - 1;
+        dayBusyTotal = total;
+        imbalanceSum += imbalance;
+        days++;
+    }
+
+    /**
+     * Сбрасывает счетчики дня перед его началом.
+     */
+    void beginDay() {
+        Arrays.fill(partBusy, 0);
+        wallNanos = 0;
+    }
+
+    /**
+     * @return Дисбаланс последнего дня: 0 - части работали одинаково, 0.1 - самая долгая на 10% дольше средней
+     */
+    double getImbalance() {
+        return imbalance;
+    }
+
+    /**
+     * @return Средний дисбаланс по всем дням
+     */
+    double getAverageImbalance() {
+        return days == 0 ? 0 : imbalanceSum / days;
+    }
+
+    /**
+     * @return Сводка последнего дня: загрузка каждой части (доля времени параллельной обработки) и дисбаланс
+     */
+    String getMetrics() {
+        StringBuilder sb = new StringBuilder("Загрузка потоков:");
+        for (int p = 0; p < parts; p++) {
+            sb.append(String.format(" %.0f%%", wallNanos == 0 ? 0.0 : partBusy[p] * 100.0 / wallNanos));
+        }
+        sb.append(String.format(", работа: %.1f мс, дисбаланс: %.1f%% (средний %.1f%%), разбиение: %s",
+                dayBusyTotal / 1e6, imbalance * 100, getAverageImbalance() * 100,
+                measured ? "по стоимости" : "по площади"));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,292 @@
+package simulation;
+
+import enums.Trait;
+import model.Chunk;
+import model.Island;
+import model.Location;
+import model.Plant;
+import model.animals.Animal;
+import statistics.EventLog;
+import statistics.MemoryBudget;
+import statistics.Statistics;
+import utils.Randomizer;
+import utils.Settings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Гибридный движок: насыщенный чанк считается агрегатно (среднее поле), а не по животным.
+ *
+ * В заполненных до предела клетках расчет каждого животного почти ничего не добавляет: клетки
+ * одинаковы, рождения упираются в maxPerCell, а стоит такой день дороже всего острова. Поэтому
+ * перед каждым днем для чанка считается заполненность - средняя по животным доля maxPerCell
+ * их вида, занятая в чанке. Выше MEAN_FIELD_ENTER_FILL чанк переходит на среднее поле, ниже
+ * MEAN_FIELD_EXIT_FILL возвращается к животным (разрыв порогов не дает ему переключаться каждый день).
+ *
+ * День чанка на среднем поле - одна задача. Вероятности за день считаются по численности видов
+ * в чанке так, как если бы животные были равномерно распределены по его клеткам:
+ * - хищник (любой вид с добычей) находит в клетке добычу с вероятностью 1 - exp(-плотность добычи),
+ *   выбирает вид пропорционально его численности и ловит с вероятностью из матрицы поедания;
+ * - травоядные делят растения чанка: доля сытых - растения / дневная потребность (не больше 1);
+ *   вид с нормой меньше одного растения (Plant.WEIGHT) растений не съедает, как и в Location.eatPlants;
+ * - голодное животное умирает за столько дней, на сколько ему хватает начальной сытости;
+ * - рождение - шанс размножения вида, если в клетке есть пара и есть место (maxPerCell);
+ *   размножаются и животные, погибающие в этот день, - как и в Animal, где голод наступает в конце хода.
+ * Наследуемые признаки (Genome) входят средними по виду множителями: охоты - в вероятность поймать
+ * добычу, плодовитости - в шанс размножения. Потомок получает геном случайного животного своей клетки
+ * с мутацией (Animal.createOffspring), поэтому эволюция на среднем поле не останавливается.
+ * Затем в каждой клетке число смертей и рождений вида разыгрывается биномиально от её численности,
+ * и животные действительно умирают и рождаются - статистика, журнал событий, индекс численности,
+ * изменения дня и снимки истории видят обычные смерти и рождения.
+ *
+ * Упрощения: животные чанка на среднем поле не перемещаются (пришедшие из соседних чанков
+ * остаются), а сытость выживших не меняется. Ошибку относительно полного расчета показывает
+ * benchmark.MeanFieldBenchmark. Используется только в режиме FORK_JOIN.
+ *
+ * task вызывается из рабочих потоков (runBalanced), но каждый чанк принадлежит одной части,
+ * поэтому режим чанка пишет один поток, а invokeAll делает записи видимыми к следующему дню.
+ */
+final class MeanField {
+    private static final AnimalConfig[] SPECIES = AnimalConfig.values();
+
+    private final Island island;
+    private final double enterFill; // Заполненность перехода на среднее поле
+    private final double exitFill; // Заполненность возврата к животным
+    private final boolean[] aggregated; // Чанк считается на среднем поле (индекс - номер чанка)
+
+    // Метрики (за все дни)
+    private final LongAdder entered = new LongAdder(); // Переходов на среднее поле
+    private final LongAdder left = new LongAdder(); // Возвратов к животным
+    private final LongAdder animalDays = new LongAdder(); // Животных-дней во всех чанках
+    private final LongAdder aggregatedAnimalDays = new LongAdder(); // Из них - на среднем поле
+
+    /**
+     * @param island Остров
+     * @param enterFill Заполненность перехода на среднее поле (0..1)
+     * @param exitFill Заполненность возврата к животным (меньше enterFill)
+     */
+    MeanField(Island island, double enterFill, double exitFill) {
+        if (exitFill > enterFill) {
+            throw new IllegalArgumentException("Порог возврата " + exitFill + " выше порога перехода " + enterFill);
+        }
+        this.island = island;
+        this.enterFill = enterFill;
+        this.exitFill = exitFill;
+        this.aggregated = new boolean[island.getChunkCount()];
+    }
+
+    /**
+     * Решает, как считать чанк сегодня.
+     * @return Задача дня чанка на среднем поле или null - животные чанка обрабатываются как обычно
+     */
+    Callable<Void> task(Chunk chunk) {
+        Settings settings = island.getSettings();
+        int[] counts = new int[SPECIES.length];
+        // Клетки с животными всегда активны, поэтому "спящие" клетки можно не просматривать
+        for (int i = chunk.nextActive(0); i >= 0; i = chunk.nextActive(i + 1)) {
+            Location location = chunk.get(i);
+            if (location == null || !location.hasAnimals()) continue;
+            for (AnimalConfig config : SPECIES) {
+                counts[config.ordinal()] += location.countAnimals(config);
+            }
+        }
+        int cells = cellsOf(chunk);
+        long animals = 0;
+        double fill = 0;
+        for (AnimalConfig config : SPECIES) {
+            int count = counts[config.ordinal()];
+            animals += count;
+            // Каждое животное "видит" заполненность своего вида: count / (клеток * maxPerCell)
+            fill += (double) count * count / ((double) cells * settings.species(config).maxPerCell);
+        }
+        fill = animals == 0 ? 0 : fill / animals;
+
+        int index = chunk.chunkY * island.getChunksX() + chunk.chunkX;
+        boolean on = aggregated[index];
+        if (!on && fill >= enterFill) {
+            on = true;
+            entered.increment();
+        } else if (on && fill < exitFill) {
+            on = false;
+            left.increment();
+        }
+        aggregated[index] = on;
+        animalDays.add(animals);
+        if (!on) return null;
+        aggregatedAnimalDays.add(animals);
+        return () -> {
+            advance(chunk, counts, cells);
+            return null;
+        };
+    }
+
+    /**
+     * Один день чанка на среднем поле.
+     * @param counts Численность видов в чанке
+     * @param cells Количество клеток чанка на острове
+     */
+    private void advance(Chunk chunk, int[] counts, int cells) {
+        Settings settings = island.getSettings();
+        Statistics statistics = island.getStatistics();
+        int n = SPECIES.length;
+
+        // Хищничество по матрице поедания: вероятность вида погибнуть и добыча хищника за день, кг
+        double[] predation = new double[n];
+        double[] food = new double[n];
+        for (AnimalConfig config : SPECIES) {
+            int p = config.ordinal();
+            Settings.Species predator = settings.species(config);
+            if (counts[p] == 0 || predator.prey().length == 0) continue;
+            long preyCount = 0;
+            for (AnimalConfig prey : predator.prey()) preyCount += counts[prey.ordinal()];
+            if (preyCount == 0) continue;
+            // Вероятность найти в своей клетке хоть одну добычу (распределение Пуассона)
+            double encounter = 1 - Math.exp(-(double) preyCount / cells);
+            double hunting = statistics.getMeanFactor(config, Trait.HUNTING);
+            for (AnimalConfig prey : predator.prey()) {
+                int q = prey.ordinal();
+                if (counts[q] == 0) continue;
+                double kills = counts[p] * encounter * counts[q] / preyCount * predator.eatingChance(prey) * hunting / 100.0;
+                predation[q] += kills / counts[q];
+                food[p] += kills * Math.min(settings.species(prey).weight, predator.foodNeeded);
+            }
+        }
+
+        // Растения чанка делятся между травоядными пропорционально потребности
+        long plants = 0;
+        for (int i = chunk.nextActive(0); i >= 0; i = chunk.nextActive(i + 1)) {
+            Location location = chunk.get(i);
+            if (location != null) plants += location.getPlantCount();
+        }
+        double demand = 0;
+        for (AnimalConfig config : SPECIES) {
+            Settings.Species species = settings.species(config);
+            if (eatsPlants(species)) demand += counts[config.ordinal()] * species.dailySatietyLoss;
+        }
+        double available = plants * Plant.WEIGHT;
+        double plantFed = demand == 0 ? 1 : Math.min(1, available / demand);
+        double eatenShare = available == 0 ? 0 : Math.min(1, demand / available);
+
+        // Вероятности смерти от голода и рождения за день
+        double[] hunger = new double[n];
+        double[] birth = new double[n];
+        for (AnimalConfig config : SPECIES) {
+            int s = config.ordinal();
+            Settings.Species species = settings.species(config);
+            predation[s] = Math.min(1, predation[s]);
+            birth[s] = species.reproductionChance * statistics.getMeanFactor(config, Trait.REPRODUCTION)
+                    * island.getMemoryBudget().getReproductionFactor();
+            if (species.dailySatietyLoss <= 0 || counts[s] == 0) continue; // Вид без потребности в еде не голодает
+            double fed;
+            if (species.prey().length > 0) {
+                fed = Math.min(1, food[s] / (counts[s] * species.dailySatietyLoss));
+            } else {
+                fed = eatsPlants(species) ? plantFed : 0;
+            }
+            // Голодное животное живет, пока не кончится начальная сытость
+            hunger[s] = (1 - fed) / Math.ceil(species.initialSatiety / species.dailySatietyLoss);
+        }
+
+        // Разыгрываем смерти, рождения и съеденные растения по клеткам
+        RandomGenerator random = ThreadLocalRandom.current();
+        for (int i = chunk.nextActive(0); i >= 0; i = chunk.nextActive(i + 1)) {
+            Location location = chunk.get(i);
+            if (location == null) continue;
+            if (eatenShare > 0 && location.getPlantCount() > 0) {
+                double share = location.getPlantCount() * eatenShare;
+                int eaten = (int) share;
+                if (random.nextDouble() < share - eaten) eaten++; // Дробная часть - с её вероятностью
+                location.eatPlants(eaten * Plant.WEIGHT);
+            }
+            if (!location.hasAnimals()) continue;
+            for (AnimalConfig config : SPECIES) {
+                int s = config.ordinal();
+                int count = location.countAnimals(config);
+                if (count == 0) continue;
+                int killed = Randomizer.binomial(random, count, predation[s]);
+                int starved = Randomizer.binomial(random, count - killed, hunger[s]);
+                List<Animal> animals = location.getAnimals(config); // Копия очереди - её можно переставлять
+                int deaths = Math.min(killed + starved, animals.size());
+                for (int a = 0; a < deaths; a++) {
+                    // Погибшие - случайные животные клетки (частичное перемешивание), а не первые в очереди
+                    Collections.swap(animals, a, a + random.nextInt(animals.size() - a));
+                    Animal animal = animals.get(a);
+                    if (a >= killed) animal.setSatiety(0); // Причину смерти die определяет по сытости
+                    animal.die();
+                }
+                // Животное размножается до того, как в конце хода погибает от голода, поэтому
+                // рождения разыгрываются от численности до смертей, а место - то, что осталось после них
+                if (count < 2) continue; // Нет пары
+                Settings.Species species = settings.species(config);
+                int room = species.maxPerCell - location.countAnimals(config);
+                int born = Math.min(Randomizer.binomial(random, count, birth[s]), room);
+                for (int b = 0; b < born; b++) {
+                    // У каждого потомка свой случайный родитель из численности до смертей (погибший объект
+                    // вернется в пул только после конца дня), иначе все потомки клетки несли бы один геном
+                    Animal parent = animals.get(random.nextInt(animals.size()));
+                    if (!spawn(location, parent, statistics)) break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Помещает новорожденного в клетку.
+     * @param parent Животное, от которого потомок наследует геном
+     * @return false, если места нет (в клетке или в бюджете памяти)
+     */
+    private static boolean spawn(Location location, Animal parent, Statistics statistics) {
+        MemoryBudget budget = location.getIsland().getMemoryBudget();
+        if (!budget.tryReserveBirth()) return false;
+        Animal offspring = parent.createOffspring();
+        if (!location.addAnimal(offspring)) {
+            budget.releaseBirth();
+            return false;
+        }
+        statistics.recordBirth(offspring);
+        EventLog.recordBirth(offspring, location);
+        return true;
+    }
+
+    // Вид ест растения и может съесть хотя бы одно (Location.eatPlants отдает только целые растения)
+    private static boolean eatsPlants(Settings.Species species) {
+        return species.prey().length == 0 && species.dailySatietyLoss > 0 && species.foodNeeded >= Plant.WEIGHT;
+    }
+
+    /**
+     * @return Количество клеток чанка, лежащих на острове (крайние чанки бывают неполными)
+     */
+    private int cellsOf(Chunk chunk) {
+        int size = island.getChunkSize();
+        int width = Math.min(size, island.getWidth() - chunk.chunkX * size);
+        int height = Math.min(size, island.getHeight() - chunk.chunkY * size);
+        return Math.max(1, width * height);
+    }
+
+    /**
+     * @return Доля животных-дней, посчитанных на среднем поле (0..1)
+     */
+    double getAggregatedShare() {
+        long total = animalDays.sum();
+        return total == 0 ? 0 : (double) aggregatedAnimalDays.sum() / total;
+    }
+
+    /**
+     * @return Сводка: чанки на среднем поле, переходы и доля животных-дней на среднем поле
+     */
+    String getMetrics() {
+        int current = 0;
+        for (boolean on : aggregated) {
+            if (on) current++;
+        }
+        return String.format("Среднее поле: чанков %d из %d, переходов на среднее поле: %d, обратно: %d, "
+                        + "животных-дней на среднем поле: %.1f%%",
+                current, aggregated.length, entered.sum(), left.sum(), getAggregatedShare() * 100);
+    }
+}
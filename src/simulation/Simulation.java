@@ -1,10 +1,21 @@
 package simulation;
 
+import enums.DayPhase;
+import enums.EngineMode;
+import enums.SteadyState;
+import enums.SteadyStateAction;
+import model.Chunk;
 import model.Island;
+import model.IslandHistory;
 import model.Location;
 import model.animals.Animal;
+import statistics.EventLog;
+import statistics.FlightEvents;
 import statistics.Statistics;
+import statistics.SteadyStateDetector;
+import statistics.TimeSeriesRecorder;
 import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
 import view.IslandRenderer;
 
 import java.util.ArrayList;
@@ -17,23 +28,72 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class Simulation {
     private final Island island; // Поле для хранения ссылки на остров, на котором происходит симуляция
-    // Создаю планировщик, который будет выполнять задачи по расписанию с 3 потоками
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(3);
+    // Создаю планировщик, который будет выполнять задачи по расписанию с 3 потоками (null в режиме inline)
+    private final ScheduledExecutorService scheduler;
+    // Выполнять задачи дня в вызывающем потоке (прогоны ансамбля: параллельны острова, а не животные одного острова)
+    private final boolean inline;
     // Создаю пул потоков для выполнения задач, связанных с животными, с использованием механизма "воровства задачи"
-    // Вы можете использовать любой другой пул потоков
-    private final ExecutorService animalsExecutor = Executors.newWorkStealingPool();
+    // Вы можете использовать любой другой пул потоков (null в режиме inline)
+    private final ExecutorService animalsExecutor;
     private volatile boolean isRunning = false; // Флаг, указывающий, запущена ли симуляция (volatile для обеспечения видимости изменений в многопоточной среде)
-    private final AtomicInteger dayCounter = new AtomicInteger(0); // Атомарный счетчик для отслеживания количества дней симуляции
+    private final AtomicInteger dayCounter; // Атомарный счетчик для отслеживания количества дней симуляции
+    private volatile boolean consoleOutput = true; // Печатать ли дни, статистику и карту в консоль
+    private volatile boolean speciesBatching = SimulationSettings.SPECIES_BATCHING_ENABLED; // Обрабатывать животных пачками одного вида
+    private final TimeSeriesRecorder timeSeries; // История статистики по дням
+    private final int[] population = new int[SimulationSettings.AnimalConfig.values().length]; // Буфер численности видов
+    private final LoadBalancer loadBalancer; // Разбиение чанков между потоками по стоимости (null - задачи по чанкам)
+    private volatile MeanField meanField; // Агрегатный расчет насыщенных чанков (null - все чанки по животным)
+    private volatile EngineMode engineMode = SimulationSettings.ENGINE_MODE; // Способ обработки животных
+    private ActorEngine actorEngine; // Акторы регионов (создаются при первом дне в режиме ACTORS)
+    private final DayDeltaPublisher deltas = new DayDeltaPublisher(); // Изменения по дням для подписчиков
+    private volatile IslandHistory history; // Снимки последних дней (null - история выключена)
+    private final SteadyStateDetector steadyState = SteadyStateDetector.fromSettings(); // Вымирание, неподвижная точка, цикл
+    private volatile SteadyStateAction steadyStateAction = SteadyStateAction.NONE; // Реакция на установившийся режим
+    private volatile SteadyStateDetector.Detection fastForward; // Режим, который перематывается (null - дни считаются)
+    private volatile boolean stopRequested = false; // Прогон остановлен установившимся режимом
+    private final CountDownLatch completion = new CountDownLatch(1); // Освобождается при остановке прогона
 
     // Конструктор класса, принимающий в качестве параметра остров
     public Simulation(Island island) {
+        this(island, false);
+    }
+
+    /**
+     * Создает симуляцию острова.
+     * @param inline true - задачи дня выполняются в вызывающем потоке, без пула потоков, балансировки
+     *               и файла истории статистики. Так много островов делят один общий пул
+     *               (см. EnsembleRunner): каждый остров - одна задача пула. Такая симуляция
+     *               идет только через runDays и не закрывает общий журнал событий (EventLog)
+     */
+    public Simulation(Island island, boolean inline) {
         this.island = island; // Инициализируем поле island переданным значением
+        this.inline = inline;
+        // Прогону inline свои потоки не нужны: сотни прогонов ансамбля иначе создали бы сотни пулов
+        this.scheduler = inline ? null : Executors.newScheduledThreadPool(3);
+        this.animalsExecutor = inline ? null : Executors.newWorkStealingPool();
+        // Остров, восстановленный из контрольной точки, продолжает со своего дня
+        this.dayCounter = new AtomicInteger(island.getDay());
+        if (SimulationSettings.HISTORY_DAYS > 0) {
+            this.history = new IslandHistory(island, SimulationSettings.HISTORY_DAYS);
+        }
+        // История одного прогона из многих хранится только в памяти - файл у всех прогонов был бы общий
+        this.timeSeries = inline
+                ? new TimeSeriesRecorder(SimulationSettings.TIME_SERIES_BLOCK_DAYS)
+                : TimeSeriesRecorder.fromSettings();
+        int parts = SimulationSettings.LOAD_BALANCING_PARTS > 0
+                ? SimulationSettings.LOAD_BALANCING_PARTS
+                : Runtime.getRuntime().availableProcessors();
+        this.loadBalancer = SimulationSettings.LOAD_BALANCING_ENABLED && !inline
+                ? new LoadBalancer(island.getChunkCount(), island.getChunksX(), parts, SimulationSettings.LOAD_COST_SMOOTHING)
+                : null;
+        setMeanField(SimulationSettings.MEAN_FIELD_ENABLED);
     }
 
     // Метод для запуска симуляции
     public void startSimulation() {
         // Проверяем, запущена ли уже симуляция
         if (isRunning) return; // Если симуляция уже запущена, выходим из метода
+        if (inline) throw new IllegalStateException("Симуляция inline выполняется только через runDays");
         isRunning = true; // Устанавливаем флаг, указывающий на то, что симуляция запущена
 
         // Запускаем планировщик для выполнения метода processDay с заданным интервалом
@@ -47,65 +107,506 @@ public class Simulation {
 
     // Метод для обработки одного дня симуляции
     private void processDay() {
+        if (fastForward != null) {
+            fastForwardDay(dayCounter.incrementAndGet());
+            return;
+        }
         // Увеличиваем счетчик дней и получаем текущее значение
         int currentDay = dayCounter.incrementAndGet();
-        System.out.println("\n=== Day " + currentDay + " ==="); // Выводим номер текущего дня в консоль
-
-        // Сначала обновляем рост растений на острове
-        int totalPlants = 0; // Переменная для хранения общего количества растений на острове
-        // Проходим по всем локациям на острове
-        for (Location[] row : island.getLocations()) { // Для каждой строки локаций на острове
-            for (Location location : row) { // Для каждой локации в строке
-                location.growPlants(); // Вызываем метод для роста растений в текущей локации
-                totalPlants += location.getPlantCount(); // Добавляем количество растений в этой локации к общему счетчику
-            }
+        if (consoleOutput) {
+            System.out.println("\n=== Day " + currentDay + " ==="); // Выводим номер текущего дня в консоль
         }
-        Statistics.updatePlants(totalPlants); // Обновляем статистику по количеству растений на острове
+        // День и его фазы - события Java Flight Recorder (записываются, только если запись идет)
+        FlightEvents.DayEvent dayEvent = FlightEvents.beginDay(currentDay);
+        FlightEvents.PhaseEvent phase = FlightEvents.nextPhase(null, currentDay, DayPhase.PLANTS);
+
+        // Первый день с подписчиками начинается без изменений, накопленных, пока подписчиков не было
+        deltas.beginDay(island);
+        // Сначала обновляем рост растений на острове и получаем общее количество растений
+        long totalPlants = island.growPlants();
+        Statistics statistics = island.getStatistics();
+        statistics.updatePlants(totalPlants); // Обновляем статистику по количеству растений на острове
+        island.rebuildPlantDensity(); // Таблица плотности растений для поиска еды травоядными
+
+        // Пересчитываем оценку памяти: при приближении к бюджету рождения замедляются или приостанавливаются
+        statistics.copyPopulation(population);
+        island.getMemoryBudget().beginDay(population, island.getMaterializedCount());
 
         // Затем обрабатываем действия животных
+        phase = FlightEvents.nextPhase(phase, currentDay, DayPhase.ANIMALS);
+        if (engineMode == EngineMode.ACTORS) {
+            actorEngine().runDay(currentDay);
+            island.evictColdChunks(island.getChunkCount()); // Все чанки обработаны - выгружаем лишние
+        } else {
+            runForkJoinDay(currentDay);
+        }
+
+        // Клетки, которые снова стали "пустыми по умолчанию", возвращаем к неявному хранению
+        phase = FlightEvents.nextPhase(phase, currentDay, DayPhase.CLEANUP);
+        island.releaseDefaultCells();
+        // Погибшие за день животные становятся доступны для повторного использования
+        island.getAnimalPool().endDay();
+        // Все задачи дня завершены - сбрасываем буферы журнала событий в файл одной пачкой.
+        // Прогон inline сбрасывает только свой буфер: в буферы других потоков пишут соседние прогоны
+        if (inline) EventLog.flushCurrentThread(); else EventLog.flushAll();
+        // Записываем статистику дня в историю
+        phase = FlightEvents.nextPhase(phase, currentDay, DayPhase.STATISTICS);
+        timeSeries.recordDay(statistics);
+        // Проверяем, не пришла ли численность к установившемуся режиму (O(видов) за день)
+        statistics.copyPopulation(population);
+        SteadyStateDetector.Detection detection = steadyState.observe(currentDay, population);
+        if (detection != null) onSteadyState(detection);
+        // Снимок дня для перемотки назад (неизменившиеся чанки разделяются с предыдущим днем)
+        IslandHistory days = history;
+        if (days != null) {
+            phase = FlightEvents.nextPhase(phase, currentDay, DayPhase.HISTORY);
+            days.capture(currentDay);
+        }
+        // Отдаем изменения дня подписчикам (медленным - слитыми с последующими днями, день их не ждет)
+        phase = FlightEvents.nextPhase(phase, currentDay, DayPhase.PUBLISH);
+        deltas.publishDay(currentDay, island, timeSeries);
+        FlightEvents.nextPhase(phase, currentDay, null);
+        long animals = 0;
+        for (int count : population) animals += count;
+        FlightEvents.endDay(dayEvent, animals, statistics.getTotalPlants());
+
+        if (!consoleOutput) return; // В тихом режиме (бенчмарки) ничего не печатаем
+
+        // Печатаем статистику через заданные интервалы
+        if (currentDay % SimulationSettings.STATISTICS_PRINT_INTERVAL_DAYS == 0) {
+            statistics.printStatistics(); // Печатаем общую статистику
+            System.out.println(island.getMemoryBudget().getMetrics()); // Метрики бюджета памяти
+            if (engineMode == EngineMode.ACTORS) {
+                System.out.println(actorEngine.getMetrics()); // Сообщения между акторами
+            } else if (loadBalancer != null) {
+                System.out.println(loadBalancer.getMetrics()); // Загрузка потоков
+            }
+            if (meanField != null) {
+                System.out.println(meanField.getMetrics()); // Чанки на среднем поле
+            }
+            if (SimulationSettings.CHUNK_PAGING_ENABLED) {
+                System.out.println(island.getChunkResidencyMetrics()); // И метрики подкачки чанков
+            }
+            if (history != null) {
+                System.out.println(history.getMetrics()); // Хранимые дни и разделение снимков
+            }
+        }
+        // Рендерим остров через заданные интервалы
+        if (currentDay % SimulationSettings.ISLAND_PRINT_INTERVAL_DAYS == 0) {
+            IslandRenderer.render(island); // Отрисовываем текущее состояние острова
+        }
+    }
+
+    /**
+     * Обрабатывает животных за день в общем пуле потоков.
+     * @param currentDay Номер текущего дня
+     */
+    private void runForkJoinDay(int currentDay) {
+        // Чанки обходятся по возрастанию индекса - в том же порядке они лежат в файле подкачки,
+        // поэтому загрузка выгруженных чанков идет последовательно.
+        // При включенной подкачке чанки обрабатываются окнами, и после каждого окна лишние чанки выгружаются
+        int window = SimulationSettings.CHUNK_PAGING_ENABLED
+                ? Math.max(1, SimulationSettings.MAX_RESIDENT_CHUNKS / 2)
+                : Integer.MAX_VALUE;
         List<Callable<Void>> tasks = new ArrayList<>(); // Создаем список задач для выполнения в пуле потоков
-        // Проходим по всем локациям на острове
-        for (Location[] row : island.getLocations()) {
-            for (Location location : row) { // Для каждой локации в строке
-                // Для каждого животного в локации создаем задачу
-                for (Animal animal : location.getAnimals()) {
-                    // Добавляем задачу в список
-                    tasks.add(() -> { // Лямбда-выражение для создания Callable задачи
-                        if (animal.isAlive()) { // Проверяем, живо ли животное
-                            animal.eat(location); // Животное пытается поесть в текущей локации
-                            animal.reproduce(location); // Животное пытается размножиться в текущей локации
-                            animal.move(island); // Животное перемещается по острову
-                            animal.decreaseSatiety(); // Уменьшаем уровень сытости животного
-                        }
-                        return null; // Возвращаем null, так как Callable<Void> не возвращает значение
-                    });
+        Chunk[] windowChunks = loadBalancer != null ? new Chunk[Math.min(window, island.getChunkCount())] : null;
+        if (loadBalancer != null) loadBalancer.beginDay();
+        int chunksInWindow = 0;
+        for (int c = 0; c < island.getChunkCount(); c++) {
+            Chunk chunk = island.loadActiveChunk(c); // Выгруженный чанк с животными загружается из файла
+            if (chunk == null) continue; // В чанке нет материализованных клеток, значит нет и животных
+            if (loadBalancer != null) {
+                windowChunks[chunksInWindow] = chunk; // Чанки окна делятся между потоками в runBalanced
+            } else {
+                addChunkTasks(chunk, currentDay, tasks);
+            }
+            if (++chunksInWindow == window) {
+                if (loadBalancer != null) runBalanced(windowChunks, chunksInWindow, currentDay);
+                runTasks(tasks);
+                island.evictColdChunks(c + 1);
+                chunksInWindow = 0;
+            }
+        }
+        if (loadBalancer != null) {
+            runBalanced(windowChunks, chunksInWindow, currentDay);
+            loadBalancer.endDay();
+        }
+        runTasks(tasks);
+    }
+
+    /**
+     * @return Движок акторов (создается при первом обращении)
+     */
+    private ActorEngine actorEngine() {
+        if (actorEngine == null) {
+            int regions = SimulationSettings.ACTOR_REGIONS > 0
+                    ? SimulationSettings.ACTOR_REGIONS
+                    : Runtime.getRuntime().availableProcessors();
+            actorEngine = new ActorEngine(island, regions,
+                    SimulationSettings.ACTOR_MAILBOX_CAPACITY, SimulationSettings.ACTOR_BATCH_SIZE);
+        }
+        return actorEngine;
+    }
+
+    /**
+     * Создает задачи для всех животных чанка.
+     * @param chunk Чанк
+     * @param currentDay Номер текущего дня
+     * @param tasks Список, в который добавляются задачи
+     */
+    private void addChunkTasks(Chunk chunk, int currentDay, List<Callable<Void>> tasks) {
+        MeanField field = meanField;
+        if (field != null) {
+            Callable<Void> aggregate = field.task(chunk); // Насыщенный чанк - одна агрегатная задача
+            if (aggregate != null) {
+                tasks.add(aggregate);
+                return;
+            }
+        }
+        if (speciesBatching) {
+            addChunkBatches(chunk, currentDay, tasks);
+            return;
+        }
+        // Клетки с животными всегда активны, поэтому "спящие" клетки можно не просматривать
+        for (int i = chunk.nextActive(0); i >= 0; i = chunk.nextActive(i + 1)) {
+            Location location = chunk.get(i);
+            if (location == null || !location.hasAnimals()) continue;
+            // Для каждого животного в локации создаем задачу
+            for (Animal animal : location.getAnimals()) {
+                int generation = animal.getGeneration(); // Поколение объекта на момент создания задачи (см. AnimalPool)
+                // Добавляем задачу в список
+                tasks.add(() -> { // Лямбда-выражение для создания Callable задачи
+                    // Проверяем, что объект не был переиспользован, животное живо и не действовало ли оно уже сегодня в другом чанке
+                    if (animal.getGeneration() == generation && animal.isAlive() && animal.tryAct(currentDay)) {
+                        animal.eat(location); // Животное пытается поесть в текущей локации
+                        animal.reproduce(location); // Животное пытается размножиться в текущей локации
+                        animal.move(island); // Животное перемещается по острову
+                        animal.decreaseSatiety(); // Уменьшаем уровень сытости животного
+                    }
+                    return null; // Возвращаем null, так как Callable<Void> не возвращает значение
+                });
+            }
+        }
+    }
+
+    /**
+     * Создает задачи для животных чанка, сгруппированных по видам (см. SpeciesBatch).
+     * Заполненная пачка сразу становится задачей, остальные добавляются в конце чанка в порядке видов.
+     * @param chunk Чанк
+     * @param currentDay Номер текущего дня
+     * @param tasks Список, в который добавляются задачи
+     */
+    private void addChunkBatches(Chunk chunk, int currentDay, List<Callable<Void>> tasks) {
+        AnimalConfig[] species = AnimalConfig.values();
+        SpeciesBatch[] batches = new SpeciesBatch[species.length];
+        for (int i = chunk.nextActive(0); i >= 0; i = chunk.nextActive(i + 1)) {
+            Location location = chunk.get(i);
+            if (location == null || !location.hasAnimals()) continue;
+            for (Animal animal : location.getAnimals()) {
+                int s = animal.getConfig().ordinal();
+                if (batches[s] == null) {
+                    batches[s] = new SpeciesBatch(species[s], island, currentDay, SimulationSettings.SPECIES_BATCH_SIZE);
+                }
+                if (batches[s].add(animal, location)) {
+                    tasks.add(batches[s]); // Пачка заполнена - отдаем её в пул
+                    batches[s] = null;
                 }
             }
         }
+        for (SpeciesBatch batch : batches) {
+            if (batch != null && !batch.isEmpty()) tasks.add(batch);
+        }
+    }
+
+    /**
+     * Обрабатывает животных чанков окна: чанки делятся на части равной стоимости (LoadBalancer),
+     * каждая часть - одна задача пула. Часть обрабатывает свои чанки по очереди и замеряет время
+     * каждого чанка - по этим замерам строится разбиение следующего дня.
+     * @param chunks Чанки окна
+     * @param count Количество чанков
+     * @param currentDay Номер текущего дня
+     */
+    private void runBalanced(Chunk[] chunks, int count, int currentDay) {
+        if (count == 0) return;
+        int chunksX = island.getChunksX();
+        Chunk[] byIndex = new Chunk[island.getChunkCount()];
+        int[] animals = new int[island.getChunkCount()];
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            Chunk chunk = chunks[i];
+            indices[i] = chunk.chunkY * chunksX + chunk.chunkX;
+            byIndex[indices[i]] = chunk;
+            // Клетки с животными всегда активны, поэтому "спящие" клетки можно не просматривать
+            for (int c = chunk.nextActive(0); c >= 0; c = chunk.nextActive(c + 1)) {
+                Location location = chunk.get(c);
+                if (location != null) animals[indices[i]] += location.getAnimalCount();
+            }
+        }
+        int[][] parts = loadBalancer.partition(indices, animals, count);
+
+        long[] busy = new long[parts.length];
+        List<Callable<Void>> partTasks = new ArrayList<>(parts.length);
+        for (int p = 0; p < parts.length; p++) {
+            int part = p;
+            if (parts[part].length == 0) continue;
+            partTasks.add(() -> {
+                long partStart = LoadBalancer.now();
+                List<Callable<Void>> chunkTasks = new ArrayList<>();
+                for (int chunkIndex : parts[part]) {
+                    long chunkStart = LoadBalancer.now();
+                    addChunkTasks(byIndex[chunkIndex], currentDay, chunkTasks);
+                    for (Callable<Void> task : chunkTasks) {
+                        try {
+                            task.call();
+                        } catch (Exception e) {
+                            // Как и в invokeAll, ошибка одной задачи не останавливает остальные
+                        }
+                    }
+                    chunkTasks.clear();
+                    loadBalancer.recordChunk(chunkIndex, LoadBalancer.now() - chunkStart);
+                }
+                busy[part] = LoadBalancer.now() - partStart;
+                return null;
+            });
+        }
+        long start = System.nanoTime();
+        runTasks(partTasks);
+        loadBalancer.recordWindow(busy, System.nanoTime() - start);
+    }
 
+    /**
+     * Выполняет задачи в пуле потоков, дожидается их завершения и очищает список.
+     * @param tasks Список задач
+     */
+    private void runTasks(List<Callable<Void>> tasks) {
+        if (tasks.isEmpty()) return;
+        if (inline) {
+            for (Callable<Void> task : tasks) {
+                try {
+                    task.call();
+                } catch (Exception e) {
+                    // Как и в invokeAll, ошибка одной задачи не останавливает остальные
+                }
+            }
+            tasks.clear();
+            return;
+        }
         // Пытаемся выполнить все задачи в пуле потоков
         try {
             animalsExecutor.invokeAll(tasks); // Выполняем все задачи из списка
         } catch (InterruptedException e) { // Обработка исключения, если поток был прерван
             Thread.currentThread().interrupt(); // Восстанавливаем состояние прерывания
         }
+        tasks.clear();
+    }
 
-        // Печатаем статистику через заданные интервалы
-        if (currentDay % SimulationSettings.STATISTICS_PRINT_INTERVAL_DAYS == 0) {
-            Statistics.printStatistics(); // Печатаем общую статистику
+    /**
+     * Реагирует на распознанный установившийся режим согласно steadyStateAction.
+     */
+    private void onSteadyState(SteadyStateDetector.Detection detection) {
+        SteadyStateAction action = steadyStateAction;
+        if (action == SteadyStateAction.FAST_FORWARD && detection.state() == SteadyState.EXTINCTION) {
+            action = SteadyStateAction.NONE; // Дни без животных и так дешевые - считаем их как обычно
         }
-        // Рендерим остров через заданные интервалы
-        if (currentDay % SimulationSettings.ISLAND_PRINT_INTERVAL_DAYS == 0) {
-            IslandRenderer.render(island); // Отрисовываем текущее состояние острова
+        if (consoleOutput) {
+            System.out.println("Установившийся режим на день " + detection.day() + ": " + detection.state()
+                    + (detection.state() == SteadyState.CYCLE ? " (период " + detection.period() + " дн.)" : "")
+                    + (action == SteadyStateAction.STOP ? " - прогон останавливается"
+                    : action == SteadyStateAction.FAST_FORWARD ? " - дальше перемотка" : ""));
+        }
+        switch (action) {
+            case STOP -> {
+                stopRequested = true;
+                if (scheduler != null) scheduler.shutdown(); // Новые дни не начинаются; текущий день дорабатывает
+                completion.countDown();
+            }
+            case FAST_FORWARD -> fastForward = detection;
+            case NONE -> { }
+        }
+    }
+
+    /**
+     * День перемотки: модель не считается, статистика дня повторяет день на период раньше.
+     * Клетки острова остаются в состоянии дня распознавания, но номер дня острова (Island.getDay)
+     * и история снимков идут вместе с getDay(). Подписчики получают день без изменившихся клеток.
+     */
+    private void fastForwardDay(int currentDay) {
+        island.skipDay();
+        timeSeries.repeatDay(timeSeries.getDays() - fastForward.period());
+        IslandHistory days = history;
+        if (days != null) days.repeatLatest(currentDay); // Снимок дня распознавания под номером этого дня
+        deltas.publishDay(currentDay, island, timeSeries);
+    }
+
+    /**
+     * Синхронно прогоняет указанное количество дней без планировщика.
+     * Используется для бенчмарков и прогонов без консоли.
+     * @param days Количество дней
+     * @return Сколько дней прожито: меньше days, если прогон остановлен установившимся режимом
+     */
+    public int runDays(int days) {
+        for (int i = 0; i < days; i++) {
+            if (stopRequested) return i;
+            processDay();
         }
+        return days;
+    }
+
+    /**
+     * Ждет завершения прогона: остановки по установившемуся режиму (STOP) или stopSimulation.
+     * @return true, если прогон завершился до истечения времени ожидания
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        return completion.await(timeout, unit);
+    }
+
+    /**
+     * Задает реакцию на установившийся режим (по умолчанию NONE - только распознавание).
+     */
+    public void setSteadyStateAction(SteadyStateAction steadyStateAction) {
+        this.steadyStateAction = steadyStateAction;
+    }
+
+    /**
+     * @return Распознанный установившийся режим или null, если численность еще не установилась
+     */
+    public SteadyStateDetector.Detection getSteadyState() {
+        return steadyState.getDetection();
+    }
+
+    /**
+     * Включает или выключает вывод дней, статистики и карты в консоль.
+     * @param consoleOutput false - тихий режим (для бенчмарков)
+     */
+    public void setConsoleOutput(boolean consoleOutput) {
+        this.consoleOutput = consoleOutput;
+    }
+
+    /**
+     * Включает или выключает обработку животных пачками одного вида.
+     * @param speciesBatching false - отдельная задача на каждое животное (для сравнения в бенчмарке)
+     */
+    public void setSpeciesBatching(boolean speciesBatching) {
+        this.speciesBatching = speciesBatching;
+    }
+
+    /**
+     * Включает или выключает агрегатный расчет насыщенных чанков (MeanField). Вызывается между днями;
+     * при выключении все чанки возвращаются к расчету по животным.
+     * @param enabled false - все чанки по животным (полный расчет для сравнения в бенчмарке)
+     */
+    public void setMeanField(boolean enabled) {
+        this.meanField = enabled
+                ? new MeanField(island, SimulationSettings.MEAN_FIELD_ENTER_FILL, SimulationSettings.MEAN_FIELD_EXIT_FILL)
+                : null;
+    }
+
+    /**
+     * @return Сводка среднего поля (чанки, переходы, доля животных-дней) или пустая строка, если оно выключено
+     */
+    public String getMeanFieldMetrics() {
+        MeanField field = meanField;
+        return field != null ? field.getMetrics() : "";
+    }
+
+    /**
+     * Выбирает способ обработки животных (для сравнения движков в бенчмарке).
+     * @param engineMode FORK_JOIN - общий пул потоков, ACTORS - актор на регион
+     */
+    public void setEngineMode(EngineMode engineMode) {
+        this.engineMode = engineMode;
+    }
+
+    /**
+     * Включает или выключает разбиение чанков между потоками по измеренной стоимости.
+     * Ничего не делает, если балансировка выключена в настройках (LOAD_BALANCING_ENABLED).
+     * @param measured false - статическое разбиение по площади (для сравнения в бенчмарке)
+     */
+    public void setCostBalancing(boolean measured) {
+        if (loadBalancer != null) loadBalancer.setMeasured(measured);
+    }
+
+    /**
+     * @return Дисбаланс потоков за последний день (0.1 - самая долгая часть на 10% дольше средней)
+     *         или 0, если балансировка выключена
+     */
+    public double getLoadImbalance() {
+        return loadBalancer != null ? loadBalancer.getImbalance() : 0;
+    }
+
+    /**
+     * @return Сводка загрузки потоков за последний день (в режиме ACTORS - сводка сообщений между акторами)
+     *         или пустая строка, если балансировка выключена
+     */
+    public String getLoadMetrics() {
+        if (engineMode == EngineMode.ACTORS && actorEngine != null) return actorEngine.getMetrics();
+        return loadBalancer != null ? loadBalancer.getMetrics() : "";
+    }
+
+    /**
+     * @return История статистики по дням
+     */
+    public TimeSeriesRecorder getTimeSeries() {
+        return timeSeries;
+    }
+
+    /**
+     * Издатель изменений по дням: изменившиеся клетки, численность, рождения и смерти по видам.
+     * Для встраивания симуляции в другие сервисы; завершается (onComplete) в stopSimulation.
+     * @return Издатель событий DayDelta
+     */
+    public Flow.Publisher<DayDelta> getDeltaPublisher() {
+        return deltas;
+    }
+
+    /**
+     * Включает историю последних дней (или меняет её глубину - прежние снимки при этом теряются).
+     * Вызывается до запуска симуляции или между днями.
+     * @param days Сколько последних дней хранить (0 - выключить историю)
+     */
+    public void setHistoryDays(int days) {
+        this.history = days > 0 ? new IslandHistory(island, days) : null;
+    }
+
+    /**
+     * Снимки последних дней: любой хранимый день можно прочитать или записать в контрольную точку.
+     * @return История или null, если она выключена (HISTORY_DAYS = 0)
+     */
+    public IslandHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * @return Количество прожитых дней симуляции
+     */
+    public int getDay() {
+        return dayCounter.get();
     }
 
     // Метод для остановки симуляции
     public void stopSimulation() {
         isRunning = false; // Устанавливаем флаг, указывающий на то, что симуляция остановлена
-        scheduler.shutdownNow(); // Останавливаем планировщик, чтобы больше не выполнять задачи
-        animalsExecutor.shutdownNow(); // Останавливаем пул потоков для животных, чтобы завершить выполнение всех задач
-        System.out.println("\nИтоговое количество дней: " + dayCounter.get()); // Выводим итоговое количество прожитых дней в симуляции
+        if (!inline) {
+            scheduler.shutdownNow(); // Останавливаем планировщик, чтобы больше не выполнять задачи
+            animalsExecutor.shutdownNow(); // Останавливаем пул потоков для животных, чтобы завершить выполнение всех задач
+            try {
+                // Ждем, пока рабочие потоки закончат текущие задачи, чтобы безопасно закрыть журнал событий
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+                animalsExecutor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Восстанавливаем состояние прерывания
+            }
+        }
+        if (actorEngine != null) actorEngine.close(); // Останавливаем акторов регионов
+        // Журнал событий общий для JVM: прогон inline - один из многих, и закрыть журнал за всех он не может
+        if (!inline) EventLog.close(); // Сбрасываем оставшиеся события и закрываем файл журнала
+        timeSeries.close(); // Дописываем неполный блок истории статистики в файл
+        island.close(); // Закрываем файл подкачки чанков
+        deltas.close(); // Подписчики получат накопленные изменения и onComplete
+        completion.countDown(); // Освобождаем ожидающих завершения
+        if (consoleOutput) {
+            System.out.println("\nИтоговое количество дней: " + dayCounter.get()); // Выводим итоговое количество прожитых дней в симуляции
+        }
     }
 
 }
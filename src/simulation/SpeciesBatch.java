@@ -0,0 +1,105 @@
+package simulation;
+
+import model.Island;
+import model.Location;
+import model.animals.Animal;
+import model.animals.Herbivore;
+import model.animals.Predator;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Пачка животных одного вида из одного чанка - задача для пула потоков.
+ *
+ * Виды различаются данными, а классов животных всего два (Predator и Herbivore), оба final.
+ * Для каждого класса здесь свой цикл в отдельном методе: в нем переменная имеет конкретный
+ * final-класс, и каждый вызов привязывается к одной реализации. Небольшие методы встраиваются,
+ * большие вызываются напрямую, без виртуальной диспетчеризации.
+ *
+ * Проверить можно так:
+ * java -XX:+UnlockDiagnosticVMOptions -XX:+PrintCompilation -XX:+PrintInlining benchmark.BatchingBenchmark 30 10 batched
+ * В выводе C2 (уровень 4) для simulation.SpeciesBatch::runHerbivores видно "Herbivore::eat ... inline (hot)",
+ * а большие методы (reproduce, move) помечены "already compiled into a big method" - это прямой вызов.
+ * В режиме mixed в лямбде Simulation::lambda$addChunkTasks те же вызовы помечены "virtual call".
+ */
+final class SpeciesBatch implements Callable<Void> {
+    private final AnimalConfig species; // Вид животных пачки
+    private final Island island; // Остров (для перемещения)
+    private final int day; // Номер текущего дня
+    private final Animal[] animals; // Животные пачки
+    private final Location[] locations; // Локации животных на момент создания пачки
+    private final int[] generations; // Поколения объектов на момент создания пачки (см. AnimalPool)
+    private int size = 0; // Количество животных в пачке
+
+    SpeciesBatch(AnimalConfig species, Island island, int day, int capacity) {
+        this.species = species;
+        this.island = island;
+        this.day = day;
+        this.animals = new Animal[capacity];
+        this.locations = new Location[capacity];
+        this.generations = new int[capacity];
+    }
+
+    /**
+     * Добавляет животное в пачку.
+     * @return true, если пачка заполнена
+     */
+    boolean add(Animal animal, Location location) {
+        animals[size] = animal;
+        locations[size] = location;
+        generations[size] = animal.getGeneration();
+        return ++size == animals.length;
+    }
+
+    /**
+     * @return true, если в пачке нет животных
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Обрабатывает всех животных пачки: питание, размножение, перемещение, потеря сытости.
+     */
+    @Override
+    public Void call() {
+        switch (species.kind) {
+            case PREDATOR -> runPredators();
+            case HERBIVORE -> runHerbivores();
+        }
+        return null;
+    }
+
+    // Циклы по типам. Каждый цикл - отдельный метод: JIT компилирует его отдельно,
+    // со своим бюджетом встраивания и своими профилями типов в местах вызова
+    private void runPredators() {
+        for (int i = 0; i < size; i++) {
+            if (!ready(i)) continue;
+            Predator animal = (Predator) animals[i];
+            animal.eat(locations[i]);
+            animal.reproduce(locations[i]);
+            animal.move(island);
+            animal.decreaseSatiety();
+        }
+    }
+
+    private void runHerbivores() {
+        for (int i = 0; i < size; i++) {
+            if (!ready(i)) continue;
+            Herbivore animal = (Herbivore) animals[i];
+            animal.eat(locations[i]);
+            animal.reproduce(locations[i]);
+            animal.move(island);
+            animal.decreaseSatiety();
+        }
+    }
+
+    /**
+     * Проверяет, что объект не был переиспользован, животное живо и еще не действовало сегодня в другом чанке.
+     */
+    private boolean ready(int i) {
+        Animal animal = animals[i];
+        return animal.getGeneration() == generations[i] && animal.isAlive() && animal.tryAct(day);
+    }
+}
@@ -0,0 +1,260 @@
+package statistics;
+
+import enums.EventType;
+import model.Location;
+import model.animals.Animal;
+import utils.SimulationSettings;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Журнал событий симуляции (рождения, смерти, перемещения) в бинарном формате только-на-дозапись.
+ *
+ * Как устроена запись:
+ * - Каждый поток пишет события в свой собственный direct ByteBuffer (без блокировок и без
+ *   разделяемого состояния), поэтому горячий путь - это несколько putInt/put в локальный буфер.
+ * - Когда буфер потока заполняется, он целиком (пачкой) сбрасывается в файл через FileChannel.
+ *   Это единственное место с синхронизацией, и оно срабатывает раз в несколько тысяч событий.
+ * - В конце каждого дня Simulation вызывает flushAll(): к этому моменту все задачи дня завершены,
+ *   поэтому буферы рабочих потоков можно безопасно сбросить из потока планировщика. Буферы
+ *   завершившихся потоков (акторы, пулы прошедших прогонов) при этом снимаются с учета и отдаются
+ *   новым потокам, поэтому число буферов не растет с числом когда-либо писавших потоков.
+ * - Прогон ансамбля (Simulation в режиме inline) идет в одном потоке рядом с другими прогонами,
+ *   поэтому сбрасывает только буфер своего потока (flushCurrentThread): flushAll сбросил бы
+ *   и буферы, в которые прямо сейчас пишут другие прогоны.
+ * - День события берется у острова, на котором оно случилось (Island.getDay), а не из общего
+ *   поля: одновременные прогоны в одной JVM помечают события своими днями.
+ * - Когда файл превышает EVENT_LOG_MAX_FILE_BYTES, журнал переключается на следующий файл
+ *   (events-00000.bin, events-00001.bin, ...).
+ *
+ * Формат файла: заголовок HEADER_SIZE байт (магическое число + размер записи),
+ * затем записи фиксированной длины RECORD_SIZE байт (little-endian):
+ * [0]  int  день
+ * [4]  byte тип события (EventType.ordinal)
+ * [5]  byte вид животного (AnimalConfig.ordinal)
+ * [6]  short зарезервировано
+ * [8]  int  x, [12] int y     - где произошло событие (для перемещения - откуда)
+ * [16] int  toX, [20] int toY - куда переместилось животное (для остальных событий равны x, y)
+ *
+ * Прочитать журнал можно утилитой EventLogReader.
+ *
+ * Те же события передаются в Java Flight Recorder (FlightEvents) - независимо от того, открыт ли журнал.
+ */
+public final class EventLog {
+    // Магическое число в начале каждого файла журнала ("ISLEVT01")
+    static final long MAGIC = 0x31305456454C5349L;
+    // Размер заголовка файла: магическое число (8) + размер записи (4) + зарезервировано (4)
+    static final int HEADER_SIZE = 16;
+    // Размер одной записи о событии в байтах
+    static final int RECORD_SIZE = 24;
+    // Порядок байтов в журнале
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    // Включен ли журнал (volatile - флаг читается из всех рабочих потоков)
+    private static volatile boolean enabled = false;
+    // Папка, в которую пишутся файлы журнала
+    private static Path directory;
+    // Канал текущего файла журнала
+    private static FileChannel channel;
+    // Номер текущего файла журнала (для ротации)
+    private static int fileIndex;
+    // Сколько байт уже записано в текущий файл
+    private static long fileBytes;
+
+    // Буфер текущего потока. Создается лениво при первом событии в потоке
+    private static final ThreadLocal<ByteBuffer> LOCAL_BUFFER = ThreadLocal.withInitial(EventLog::registerBuffer);
+    // Буферы потоков, писавших события, - нужны для flushAll() в конце дня
+    private static final Queue<ThreadBuffer> ALL_BUFFERS = new ConcurrentLinkedQueue<>();
+    // Пустые буферы завершившихся потоков - их получают новые потоки
+    private static final Queue<ByteBuffer> FREE_BUFFERS = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Буфер и поток, который в него пишет.
+     */
+    private record ThreadBuffer(Thread owner, ByteBuffer buffer) {}
+
+    /**
+     * Приватный конструктор для запрета создания экземпляров класса.
+     * Все методы класса статические.
+     */
+    private EventLog() {}
+
+    /**
+     * Открывает журнал в указанной папке и включает запись событий.
+     * @param dir Папка для файлов журнала (создается, если не существует)
+     */
+    public static synchronized void open(Path dir) {
+        if (enabled) return; // Журнал уже открыт
+        try {
+            Files.createDirectories(dir);
+            directory = dir;
+            fileIndex = 0;
+            openNextFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал событий в " + dir, e);
+        }
+        enabled = true;
+    }
+
+    /**
+     * Сбрасывает все буферы и закрывает журнал. После закрытия события не записываются.
+     * Как и flushAll, вызывается, когда ни один прогон не пишет события.
+     */
+    public static synchronized void close() {
+        if (!enabled) return;
+        enabled = false;
+        flushAll();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Ошибка при закрытии журнала событий: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    /**
+     * @return true, если журнал открыт и события записываются
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // Метод для записи рождения животного
+    public static void recordBirth(Animal animal, Location location) {
+        if (location == null) return;
+        int day = location.getIsland().getDay();
+        FlightEvents.recordBirth(animal, location, day);
+        if (!enabled) return;
+        append(EventType.BIRTH, animal, day, location.x, location.y, location.x, location.y);
+    }
+
+    // Метод для записи смерти животного (тип события - PREDATION или STARVATION)
+    public static void recordDeath(Animal animal, Location location, EventType cause) {
+        if (location == null) return;
+        int day = location.getIsland().getDay();
+        FlightEvents.recordDeath(animal, location, cause, day);
+        if (!enabled) return;
+        append(cause, animal, day, location.x, location.y, location.x, location.y);
+    }
+
+    // Метод для записи перемещения животного из одной локации в другую
+    public static void recordMove(Animal animal, Location from, Location to) {
+        int day = from.getIsland().getDay();
+        FlightEvents.recordMove(animal, from, to, day);
+        if (!enabled) return;
+        append(EventType.MIGRATION, animal, day, from.x, from.y, to.x, to.y);
+    }
+
+    /**
+     * Записывает одно событие в буфер текущего потока.
+     * Если места в буфере нет, буфер сначала сбрасывается в файл.
+     */
+    private static void append(EventType type, Animal animal, int day, int x, int y, int toX, int toY) {
+        ByteBuffer buffer = LOCAL_BUFFER.get();
+        if (buffer.remaining() < RECORD_SIZE) {
+            flush(buffer);
+        }
+        // Запись - три long (порядок little-endian дает ту же раскладку, что и поля по отдельности):
+        // день, тип, вид и нулевой резерв; x и y; toX и toY
+        buffer.putLong(day & 0xFFFFFFFFL | (long) type.ordinal() << 32
+                        | (long) animal.getConfig().ordinal() << 40)
+                .putLong(x & 0xFFFFFFFFL | (long) y << 32)
+                .putLong(toX & 0xFFFFFFFFL | (long) toY << 32);
+    }
+
+    /**
+     * Сбрасывает буферы всех потоков в файл.
+     * Вызывать только тогда, когда рабочие потоки не пишут события (например, между днями).
+     */
+    public static void flushAll() {
+        for (Iterator<ThreadBuffer> i = ALL_BUFFERS.iterator(); i.hasNext(); ) {
+            ThreadBuffer entry = i.next();
+            flush(entry.buffer());
+            if (!entry.owner().isAlive()) {
+                // Поток завершился - буфер пуст и больше им не используется
+                i.remove();
+                FREE_BUFFERS.add(entry.buffer());
+            }
+        }
+    }
+
+    /**
+     * Сбрасывает в файл буфер только текущего потока. Безопасно вызывать, пока другие потоки
+     * пишут события: в этот буфер пишет только сам текущий поток.
+     */
+    public static void flushCurrentThread() {
+        if (!enabled) return;
+        flush(LOCAL_BUFFER.get());
+    }
+
+    /**
+     * Пачкой записывает содержимое буфера в текущий файл и очищает буфер.
+     * Синхронизация нужна только здесь: запись в канал и ротация файлов.
+     */
+    private static synchronized void flush(ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            if (channel != null && buffer.hasRemaining()) {
+                if (fileBytes + buffer.remaining() > SimulationSettings.EVENT_LOG_MAX_FILE_BYTES) {
+                    channel.close();
+                    openNextFile(); // Ротация: переходим к следующему файлу
+                }
+                while (buffer.hasRemaining()) {
+                    fileBytes += channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Ошибка записи журнала событий: " + e.getMessage());
+        } finally {
+            buffer.clear(); // Буфер снова пуст, даже если запись не удалась
+        }
+    }
+
+    /**
+     * Открывает следующий файл журнала и записывает в него заголовок.
+     */
+    private static void openNextFile() throws IOException {
+        Path file = directory.resolve(fileName(fileIndex++));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+        header.putLong(MAGIC).putInt(RECORD_SIZE).putInt(0).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        fileBytes = HEADER_SIZE;
+    }
+
+    /**
+     * Выдает новому потоку буфер (освободившийся или новый) и регистрирует его в общем списке.
+     */
+    private static ByteBuffer registerBuffer() {
+        ByteBuffer buffer = FREE_BUFFERS.poll();
+        if (buffer == null) {
+            // Размер буфера округляем вниз до целого числа записей
+            int capacity = SimulationSettings.EVENT_LOG_BUFFER_BYTES / RECORD_SIZE * RECORD_SIZE;
+            buffer = ByteBuffer.allocateDirect(capacity).order(ORDER);
+        }
+        ALL_BUFFERS.add(new ThreadBuffer(Thread.currentThread(), buffer));
+        return buffer;
+    }
+
+    /**
+     * Возвращает имя файла журнала по его номеру.
+     * @param index Номер файла
+     * @return Имя файла вида events-00000.bin
+     */
+    static String fileName(int index) {
+        return String.format("events-%05d.bin", index);
+    }
+}
@@ -0,0 +1,121 @@
+package statistics;
+
+import enums.EventType;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Утилита для чтения бинарного журнала событий, записанного EventLog.
+ * Файлы читаются по порядку (events-00000.bin, events-00001.bin, ...) потоково,
+ * большими блоками через FileChannel - весь журнал в память не загружается.
+ *
+ * Запуск из консоли:
+ * java statistics.EventLogReader <папка_журнала> [--summary]
+ * Без флага каждое событие печатается отдельной строкой,
+ * с флагом --summary печатается только количество событий по типам.
+ */
+public final class EventLogReader {
+    // Размер блока чтения (кратен размеру записи)
+    private static final int READ_BLOCK_BYTES = EventLog.RECORD_SIZE * 4096;
+
+    /**
+     * Одно событие из журнала.
+     */
+    public record Event(int day, EventType type, AnimalConfig species, int x, int y, int toX, int toY) {
+        @Override
+        public String toString() {
+            return type == EventType.MIGRATION
+                    ? String.format("day=%d %s %s (%d,%d)->(%d,%d)", day, type, species, x, y, toX, toY)
+                    : String.format("day=%d %s %s (%d,%d)", day, type, species, x, y);
+        }
+    }
+
+    /**
+     * Приватный конструктор для запрета создания экземпляров класса.
+     */
+    private EventLogReader() {}
+
+    /**
+     * Последовательно читает все файлы журнала из папки и передает каждое событие обработчику.
+     * @param dir Папка с файлами журнала
+     * @param consumer Обработчик событий
+     * @return Количество прочитанных событий
+     */
+    public static long forEach(Path dir, Consumer<Event> consumer) throws IOException {
+        long count = 0;
+        AnimalConfig[] species = AnimalConfig.values();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BLOCK_BYTES).order(EventLog.ORDER);
+
+        for (int index = 0; ; index++) {
+            Path file = dir.resolve(EventLog.fileName(index));
+            if (!Files.exists(file)) break; // Файлы журнала закончились
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                readHeader(channel, file);
+                buffer.clear();
+                while (channel.read(buffer) > 0 || buffer.position() > 0) {
+                    buffer.flip();
+                    // Разбираем все полные записи в блоке
+                    while (buffer.remaining() >= EventLog.RECORD_SIZE) {
+                        int day = buffer.getInt();
+                        EventType type = EventType.fromCode(buffer.get());
+                        AnimalConfig animal = species[buffer.get()];
+                        buffer.getShort(); // Зарезервированное поле
+                        consumer.accept(new Event(day, type, animal,
+                                buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt()));
+                        count++;
+                    }
+                    // Неполная запись (обрыв блока) переносится в начало буфера
+                    boolean partial = buffer.hasRemaining();
+                    buffer.compact();
+                    if (partial && channel.position() == channel.size()) break; // Обрезанный хвост файла
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Проверяет заголовок файла журнала.
+     */
+    private static void readHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(EventLog.HEADER_SIZE).order(EventLog.ORDER);
+        while (header.hasRemaining() && channel.read(header) > 0) {
+            // Читаем заголовок целиком
+        }
+        header.flip();
+        if (header.remaining() < EventLog.HEADER_SIZE || header.getLong() != EventLog.MAGIC
+                || header.getInt() != EventLog.RECORD_SIZE) {
+            throw new IOException("Файл не является журналом событий: " + file);
+        }
+    }
+
+    // Точка входа утилиты
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Использование: java statistics.EventLogReader <папка_журнала> [--summary]");
+            return;
+        }
+        Path dir = Paths.get(args[0]);
+        boolean summaryOnly = args.length > 1 && args[1].equals("--summary");
+
+        Map<EventType, Long> totals = new EnumMap<>(EventType.class);
+        long count = forEach(dir, event -> {
+            totals.merge(event.type(), 1L, Long::sum);
+            if (!summaryOnly) System.out.println(event);
+        });
+
+        System.out.println("\n=== Событий в журнале: " + count + " ===");
+        totals.forEach((type, n) -> System.out.println(type + ": " + n));
+    }
+}
@@ -0,0 +1,202 @@
+package statistics;
+
+import enums.DayPhase;
+import enums.EventType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import model.Location;
+import model.animals.Animal;
+import utils.SimulationSettings;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * События симуляции для Java Flight Recorder: день, фазы дня и выборочные события животных
+ * (рождение, смерть от хищника и от голода, перемещение). В JDK Mission Control они ложатся
+ * на одну шкалу времени со сборками мусора, блокировками и работой потоков, поэтому видно,
+ * в какой фазе какого дня случилась задержка и что происходило в это время.
+ *
+ * Запись: java -XX:StartFlightRecording=filename=island.jfr ... (события включены по умолчанию).
+ *
+ * Стоимость, когда запись не ведется: событие - неинструментированный класс, isEnabled
+ * возвращает false, а объект события JIT не создает (он не выходит из метода). Если
+ * JFR_EVENTS_ENABLED = false, вызовы вырезаются целиком. События животных случаются миллионы раз
+ * за день, поэтому при записи фиксируется лишь каждое JFR_ANIMAL_SAMPLE_RATE-е (случайная выборка),
+ * а поле sampleWeight говорит, сколько событий представляет записанное. День и фаза записываются,
+ * только если длились дольше порога (JFR_DAY_THRESHOLD, JFR_PHASE_THRESHOLD; переопределяется
+ * настройкой threshold записи).
+ *
+ * События животных передаются сюда из EventLog - в тех же местах, где пишется журнал событий.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {}
+
+    /**
+     * День симуляции целиком.
+     */
+    @Name("island.Day")
+    @Label("День")
+    @Category({"Island", "Day"})
+    @Description("Обработка одного дня симуляции")
+    @Threshold(SimulationSettings.JFR_DAY_THRESHOLD)
+    @StackTrace(false)
+    public static final class DayEvent extends Event {
+        @Label("День")
+        int day;
+
+        @Label("Животных")
+        long animals;
+
+        @Label("Растений")
+        long plants;
+    }
+
+    /**
+     * Одна фаза дня (DayPhase).
+     */
+    @Name("island.DayPhase")
+    @Label("Фаза дня")
+    @Category({"Island", "Day"})
+    @Description("Одна фаза обработки дня")
+    @Threshold(SimulationSettings.JFR_PHASE_THRESHOLD)
+    @StackTrace(false)
+    public static final class PhaseEvent extends Event {
+        @Label("День")
+        int day;
+
+        @Label("Фаза")
+        String phase;
+    }
+
+    /**
+     * Общие поля выборочных событий животных.
+     */
+    @Category({"Island", "Animals"})
+    @StackTrace(false)
+    abstract static class AnimalEvent extends Event {
+        @Label("День")
+        int day;
+
+        @Label("Вид")
+        String species;
+
+        @Label("X")
+        int x;
+
+        @Label("Y")
+        int y;
+
+        @Label("Вес выборки")
+        @Description("Сколько событий представляет это записанное (1 из JFR_ANIMAL_SAMPLE_RATE)")
+        int sampleWeight;
+    }
+
+    @Name("island.Birth")
+    @Label("Рождение")
+    static final class BirthEvent extends AnimalEvent {}
+
+    @Name("island.Predation")
+    @Label("Смерть от хищника")
+    static final class PredationEvent extends AnimalEvent {}
+
+    @Name("island.Starvation")
+    @Label("Смерть от голода")
+    static final class StarvationEvent extends AnimalEvent {}
+
+    @Name("island.Migration")
+    @Label("Перемещение")
+    static final class MigrationEvent extends AnimalEvent {
+        @Label("Куда X")
+        int toX;
+
+        @Label("Куда Y")
+        int toY;
+    }
+
+    /**
+     * Начинает событие дня. Завершается endDay.
+     */
+    public static DayEvent beginDay(int day) {
+        DayEvent event = new DayEvent();
+        event.day = day;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Завершает событие дня и записывает его, если день длился дольше порога.
+     * @param animals Животных на конец дня
+     * @param plants Растений на конец дня
+     */
+    public static void endDay(DayEvent event, long animals, long plants) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.animals = animals;
+        event.plants = plants;
+        event.commit();
+    }
+
+    /**
+     * Завершает текущую фазу дня (если она есть) и начинает следующую.
+     * @param current Событие текущей фазы или null
+     * @param next Следующая фаза или null, если фаз больше нет
+     * @return Событие следующей фазы или null
+     */
+    public static PhaseEvent nextPhase(PhaseEvent current, int day, DayPhase next) {
+        if (current != null) {
+            current.end();
+            if (current.shouldCommit()) current.commit();
+        }
+        if (next == null) return null;
+        PhaseEvent event = new PhaseEvent();
+        event.day = day;
+        event.phase = next.name();
+        event.begin();
+        return event;
+    }
+
+    // Рождение животного в локации
+    static void recordBirth(Animal animal, Location location, int day) {
+        if (!SimulationSettings.JFR_EVENTS_ENABLED) return;
+        BirthEvent event = new BirthEvent();
+        if (event.isEnabled() && sampled()) commit(event, animal, location, day);
+    }
+
+    // Смерть животного (cause - PREDATION или STARVATION)
+    static void recordDeath(Animal animal, Location location, EventType cause, int day) {
+        if (!SimulationSettings.JFR_EVENTS_ENABLED) return;
+        AnimalEvent event = cause == EventType.STARVATION ? new StarvationEvent() : new PredationEvent();
+        if (event.isEnabled() && sampled()) commit(event, animal, location, day);
+    }
+
+    // Перемещение животного из одной локации в другую
+    static void recordMove(Animal animal, Location from, Location to, int day) {
+        if (!SimulationSettings.JFR_EVENTS_ENABLED) return;
+        MigrationEvent event = new MigrationEvent();
+        if (!event.isEnabled() || !sampled()) return;
+        event.toX = to.x;
+        event.toY = to.y;
+        commit(event, animal, from, day);
+    }
+
+    // Событие попадает в выборку с вероятностью 1 / JFR_ANIMAL_SAMPLE_RATE
+    private static boolean sampled() {
+        return SimulationSettings.JFR_ANIMAL_SAMPLE_RATE <= 1
+                || ThreadLocalRandom.current().nextInt(SimulationSettings.JFR_ANIMAL_SAMPLE_RATE) == 0;
+    }
+
+    private static void commit(AnimalEvent event, Animal animal, Location location, int day) {
+        event.day = day;
+        event.species = animal.getConfig().name();
+        event.x = location.x;
+        event.y = location.y;
+        event.sampleWeight = Math.max(1, SimulationSettings.JFR_ANIMAL_SAMPLE_RATE);
+        event.commit();
+    }
+}
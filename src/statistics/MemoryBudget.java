@@ -0,0 +1,197 @@
+package statistics;
+
+import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Класс MemoryBudget оценивает память, занятую животными и клетками острова, и не дает
+ * популяции вырасти сверх бюджета (MEMORY_BUDGET_FRACTION от максимального размера кучи).
+ *
+ * Занятая память оценивается двумя способами, и берется большая из оценок:
+ * - по количеству объектов (животные и материализованные клетки);
+ * - по живым данным кучи после последней сборки мусора (MemoryPoolMXBean.getCollectionUsage).
+ *   Текущая занятость кучи не подходит: она включает еще не собранный мусор и "прыгает".
+ *
+ * Противодавление:
+ * - выше мягкого порога (MEMORY_SOFT_LIMIT_FRACTION) шанс размножения снижается линейно до нуля;
+ * - в начале дня вычисляется, сколько еще животных помещается в бюджет. Каждое рождение
+ *   резервирует место ДО создания потомка, и когда место кончилось, потомки не создаются;
+ * - при переходе через порог в консоль выводится предупреждение.
+ *
+ * Бюджет свой у каждого острова (Island.getMemoryBudget), поэтому одновременные прогоны не
+ * делят счетчик рождений и не переключают ограничения друг друга. Размер бюджета и живые данные
+ * кучи при этом общие для JVM. Ансамбль островов (EnsembleRunner) выключает бюджет своих
+ * островов через setEnabled: размер прогонов ансамбль и так ограничивает заранее.
+ */
+public class MemoryBudget {
+    // Оценка памяти одного животного: объект (заголовок, ссылки на конфиг и локацию, сытость, флаги),
+    // узел очереди LinkedBlockingQueue в локации и ежедневная задача животного в пуле потоков
+    public static final long ANIMAL_BYTES = 128;
+
+    // Оценка памяти одной материализованной клетки: Location, ConcurrentHashMap видов, счетчик растений
+    // и в среднем две очереди LinkedBlockingQueue (у каждой свои блокировки)
+    public static final long CELL_BYTES = 512;
+
+    // Состояния бюджета (для предупреждений только при смене состояния)
+    private static final int NORMAL = 0, THROTTLED = 1, EXHAUSTED = 2;
+
+    private static final long budgetBytes = (long) (Runtime.getRuntime().maxMemory() * SimulationSettings.MEMORY_BUDGET_FRACTION);
+    private static final long softLimitBytes = (long) (budgetBytes * SimulationSettings.MEMORY_SOFT_LIMIT_FRACTION);
+
+    private final AtomicLongArray speciesBytes = new AtomicLongArray(AnimalConfig.values().length); // Оценка по видам на начало дня
+    private final AtomicLong remainingBirths = new AtomicLong(Long.MAX_VALUE); // Сколько еще животных помещается в бюджет
+    private final AtomicLong deniedBirths = new AtomicLong(); // Отклоненные из-за бюджета рождения (всего)
+    private volatile long estimatedBytes = 0; // Оценка занятой памяти на начало дня
+    private volatile long cellBytes = 0; // Из них - клетки
+    private volatile long liveHeapBytes = 0; // Живые данные кучи после последней сборки мусора
+    private volatile double reproductionFactor = 1.0; // Множитель шанса размножения
+    private int state = NORMAL; // Текущее состояние бюджета (меняется только между днями)
+    private volatile boolean enabled = true; // Ограничивать ли рождения бюджетом
+
+    /**
+     * Пересчитывает оценку памяти в начале дня и обновляет ограничения на рождения.
+     * Вызывается между днями, когда животные не действуют.
+     * @param population Количество животных по видам (индекс - AnimalConfig.ordinal)
+     * @param cells Количество материализованных клеток острова
+     */
+    public synchronized void beginDay(int[] population, long cells) {
+        if (!enabled) return;
+        long animals = 0;
+        for (int i = 0; i < population.length; i++) {
+            speciesBytes.set(i, population[i] * ANIMAL_BYTES);
+            animals += population[i];
+        }
+        cellBytes = cells * CELL_BYTES;
+        estimatedBytes = animals * ANIMAL_BYTES + cellBytes;
+        liveHeapBytes = measureLiveHeap();
+        long used = Math.max(estimatedBytes, liveHeapBytes);
+
+        // Сколько потомков еще можно создать за день
+        remainingBirths.set(Math.max(0, (budgetBytes - used) / ANIMAL_BYTES));
+
+        // Выше мягкого порога шанс размножения уменьшается линейно до нуля на границе бюджета
+        double factor = used <= softLimitBytes ? 1.0
+                : Math.max(0.0, (double) (budgetBytes - used) / (budgetBytes - softLimitBytes));
+        reproductionFactor = factor;
+
+        int newState = used >= budgetBytes ? EXHAUSTED : factor < 1.0 ? THROTTLED : NORMAL;
+        if (newState != state) {
+            if (newState == EXHAUSTED) {
+                System.err.printf("Внимание: бюджет памяти исчерпан (%d МБ из %d МБ), рождения приостановлены%n",
+                        used >> 20, budgetBytes >> 20);
+            } else if (newState == THROTTLED) {
+                System.err.printf("Внимание: память близка к бюджету (%d МБ из %d МБ), размножение замедлено до %.0f%%%n",
+                        used >> 20, budgetBytes >> 20, factor * 100);
+            } else {
+                System.err.println("Память снова в пределах бюджета, размножение восстановлено");
+            }
+            state = newState;
+        }
+    }
+
+    /**
+     * @return Сумма живых данных всех областей кучи после их последней сборки мусора
+     */
+    private static long measureLiveHeap() {
+        long live = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) continue;
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (afterGc != null) live += afterGc.getUsed();
+        }
+        return live;
+    }
+
+    /**
+     * @return Множитель шанса размножения (1.0 - без ограничений, 0.0 - размножение остановлено)
+     */
+    public double getReproductionFactor() {
+        return reproductionFactor;
+    }
+
+    /**
+     * Резервирует место в бюджете под одного потомка. Вызывается ДО создания объекта потомка.
+     * @return true, если потомка можно создать
+     */
+    public boolean tryReserveBirth() {
+        if (!enabled) return true;
+        if (remainingBirths.getAndDecrement() > 0) return true;
+        remainingBirths.incrementAndGet(); // Не уходим в минус, чтобы release не "освобождал" чужое место
+        deniedBirths.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Возвращает зарезервированное место, если потомок так и не появился (например, клетка переполнилась).
+     */
+    public void releaseBirth() {
+        if (!enabled) return;
+        remainingBirths.incrementAndGet();
+    }
+
+    /**
+     * Включает или выключает ограничение рождений бюджетом памяти.
+     * При выключении шанс размножения больше не снижается, а рождения не резервируются.
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            reproductionFactor = 1.0;
+            remainingBirths.set(Long.MAX_VALUE);
+            state = NORMAL;
+        }
+    }
+
+    /**
+     * @return Оценка занятой памяти на начало дня в байтах
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * @return Живые данные кучи после последней сборки мусора в байтах
+     */
+    public long getLiveHeapBytes() {
+        return liveHeapBytes;
+    }
+
+    /**
+     * @return Бюджет памяти в байтах
+     */
+    public static long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * @return Оценка памяти животных вида на начало дня в байтах
+     */
+    public long getSpeciesBytes(AnimalConfig config) {
+        return speciesBytes.get(config.ordinal());
+    }
+
+    /**
+     * @return Количество рождений, отклоненных из-за бюджета памяти
+     */
+    public long getDeniedBirths() {
+        return deniedBirths.get();
+    }
+
+    /**
+     * @return Метрики бюджета памяти одной строкой
+     */
+    public String getMetrics() {
+        Runtime runtime = Runtime.getRuntime();
+        long heapUsed = runtime.totalMemory() - runtime.freeMemory();
+        return String.format("Память (оценка): %d МБ из %d МБ (клетки: %d МБ), живые данные после GC: %d МБ, куча: %d МБ, шанс размножения: %.0f%%, отклонено рождений: %d",
+                estimatedBytes >> 20, budgetBytes >> 20, cellBytes >> 20, liveHeapBytes >> 20, heapUsed >> 20,
+                reproductionFactor * 100, deniedBirths.get());
+    }
+}
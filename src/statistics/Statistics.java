@@ -1,80 +1,224 @@
 package statistics;
 
+import enums.Trait;
 import model.animals.Animal;
+import model.animals.Genome;
+import utils.SimulationSettings.AnimalConfig;
 
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
- * Класс Statistics предназначен для отслеживания статистики животных и растений в симуляции
+ * Класс Statistics предназначен для отслеживания статистики животных и растений в симуляции.
+ * У каждого острова свой экземпляр (Island.getStatistics), поэтому несколько симуляций
+ * в одной JVM не смешивают счетчики и не конкурируют за них.
+ *
+ * Распределение признаков (Genome) по видам ведется инкрементально: при рождении, смерти
+ * и переходе животного между узлами к суммам отклонений генов от нейтрального и их квадратов
+ * прибавляются гены животного. Среднее и разброс признака за день получаются из сумм за O(1)
+ * без обхода животных. Нейтральный геном суммы не меняет, поэтому без мутаций учет ничего не стоит.
  */
 public class Statistics {
-    // Потокобезопасная карта, которая будет хранить количество животных по их типам (классам)
-    private static final ConcurrentHashMap<Class<?>, AtomicInteger> animalCounts = new ConcurrentHashMap<>();
+    // Количество видов животных (размер всех массивов счетчиков по видам)
+    private static final int SPECIES_COUNT = AnimalConfig.values().length;
+    // Наследуемые признаки (размер распределения признаков на вид)
+    private static final Trait[] TRAITS = Trait.values();
+
+    // Потокобезопасный массив, который хранит текущее количество животных по видам (индекс - AnimalConfig.ordinal)
+    private final AtomicIntegerArray animalCounts = new AtomicIntegerArray(SPECIES_COUNT);
+
+    // Дневные счетчики по видам: обнуляются каждый день в snapshotDay()
+    private final AtomicIntegerArray dayBirths = new AtomicIntegerArray(SPECIES_COUNT); // Рождения за день
+    private final AtomicIntegerArray dayDeathsByHunger = new AtomicIntegerArray(SPECIES_COUNT); // Смерти от голода за день
+    private final AtomicIntegerArray dayDeathsByPredation = new AtomicIntegerArray(SPECIES_COUNT); // Смерти от хищников за день
 
     // Атомарные счетчики для хранения общего количества растений и различных типов смертей
-    private static final AtomicInteger totalPlants = new AtomicInteger(0); // Общее количество растений
-    private static final AtomicInteger totalDeathsByHunger = new AtomicInteger(0); // Счетчик смертей от голода
-    private static final AtomicInteger totalDeathsByPredation = new AtomicInteger(0); // Счетчик смертей от хищников
-    private static final AtomicInteger totalBirths = new AtomicInteger(0); // Счетчик общего числа рождений
+    private final AtomicLong totalPlants = new AtomicLong(0); // Общее количество растений (на больших островах не помещается в int)
+    private final AtomicInteger totalDeathsByHunger = new AtomicInteger(0); // Счетчик смертей от голода
+    private final AtomicInteger totalDeathsByPredation = new AtomicInteger(0); // Счетчик смертей от хищников
+    private final AtomicInteger totalBirths = new AtomicInteger(0); // Счетчик общего числа рождений
+
+    // Распределение признаков живых животных: [вид * признаков + признак]
+    private final AtomicLongArray geneSums = new AtomicLongArray(SPECIES_COUNT * TRAITS.length); // Сумма (ген - нейтральный)
+    private final AtomicLongArray geneSquares = new AtomicLongArray(SPECIES_COUNT * TRAITS.length); // Сумма (ген - нейтральный)²
 
     // Метод для записи рождения животного
-    public static void recordBirth(Animal animal) {
-        // Увеличиваем счетчик для данного типа животного в карте, если его еще нет
-        // computeIfAbsent: если ключ (тип животного) отсутствует, создается новый AtomicInteger со значением 0
-        animalCounts.computeIfAbsent(animal.getClass(), k -> new AtomicInteger(0)).incrementAndGet();
+    public void recordBirth(Animal animal) {
+        int species = animal.getConfig().ordinal(); // Индекс вида животного
+        animalCounts.incrementAndGet(species); // Увеличиваем количество животных данного вида
+        dayBirths.incrementAndGet(species); // Учитываем рождение в дневной статистике вида
+        addGenome(species, animal.getGenome(), 1); // И гены - в распределении признаков вида
         // Увеличиваем общий счетчик рождений на 1
         totalBirths.incrementAndGet();
     }
 
+    // Метод для записи животного, восстановленного из файла (не рождение за день, но с его геномом)
+    public void recordSpawn(Animal animal) {
+        int species = animal.getConfig().ordinal();
+        animalCounts.incrementAndGet(species);
+        dayBirths.incrementAndGet(species);
+        totalBirths.incrementAndGet();
+        addGenome(species, animal.getGenome(), 1);
+    }
+
+    // Метод для записи сразу нескольких рождений одного вида (начальное заселение острова, геном нейтральный)
+    public void recordSpawn(AnimalConfig config, int count) {
+        if (count <= 0) return;
+        animalCounts.addAndGet(config.ordinal(), count);
+        dayBirths.addAndGet(config.ordinal(), count);
+        totalBirths.addAndGet(count);
+    }
+
     // Метод для записи смерти животного от голода
-    public static void recordDeathByHunger(Animal animal) {
-        // Уменьшаем счетчик для данного типа животного, если он существует в карте
-        animalCounts.computeIfPresent(animal.getClass(), (k, v) -> {
-            v.decrementAndGet(); // Уменьшаем количество животных данного типа на 1
-            // Если счетчик становится меньше или равным нулю, удаляем его из карты
-            return v.get() <= 0 ? null : v;
-        });
+    public void recordDeathByHunger(Animal animal) {
+        int species = animal.getConfig().ordinal();
+        animalCounts.decrementAndGet(species); // Уменьшаем количество животных данного вида на 1
+        dayDeathsByHunger.incrementAndGet(species);
+        addGenome(species, animal.getGenome(), -1);
         // Увеличиваем общий счетчик смертей от голода на 1
         totalDeathsByHunger.incrementAndGet();
     }
 
     // Метод для записи смерти животного от хищничества
-    public static void recordDeathByPredation(Animal animal) {
-        // Аналогично, уменьшаем счетчик для данного типа животного
-        animalCounts.computeIfPresent(animal.getClass(), (k, v) -> {
-            v.decrementAndGet(); // Уменьшаем количество животных данного типа на 1
-            // Удаляем из карты, если счетчик становится нулевым
-            return v.get() <= 0 ? null : v;
-        });
+    public void recordDeathByPredation(Animal animal) {
+        int species = animal.getConfig().ordinal();
+        animalCounts.decrementAndGet(species); // Уменьшаем количество животных данного вида на 1
+        dayDeathsByPredation.incrementAndGet(species);
+        addGenome(species, animal.getGenome(), -1);
         // Увеличиваем общий счетчик смертей от хищников на 1
         totalDeathsByPredation.incrementAndGet();
     }
 
+    // Метод для записи животного, пришедшего из полосы острова другого процесса (не рождение)
+    public void recordImmigration(Animal animal) {
+        int species = animal.getConfig().ordinal();
+        animalCounts.incrementAndGet(species);
+        addGenome(species, animal.getGenome(), 1);
+    }
+
+    // Метод для записи животного, ушедшего в полосу острова другого процесса (не смерть)
+    public void recordEmigration(Animal animal) {
+        int species = animal.getConfig().ordinal();
+        animalCounts.decrementAndGet(species);
+        addGenome(species, animal.getGenome(), -1);
+    }
+
+    // Прибавляет (sign = 1) или вычитает (sign = -1) гены животного в распределении признаков вида
+    private void addGenome(int species, long genome, int sign) {
+        if (genome == Genome.NEUTRAL) return; // Все отклонения нулевые
+        int base = species * TRAITS.length;
+        for (Trait trait : TRAITS) {
+            long deviation = Genome.gene(genome, trait) - Genome.NEUTRAL_GENE;
+            if (deviation == 0) continue;
+            geneSums.addAndGet(base + trait.ordinal(), sign * deviation);
+            geneSquares.addAndGet(base + trait.ordinal(), sign * deviation * deviation);
+        }
+    }
+
+    /**
+     * @return Средний по живым животным вида множитель признака (1 - нейтральный, и если животных нет)
+     */
+    public double getMeanFactor(AnimalConfig config, Trait trait) {
+        int count = animalCounts.get(config.ordinal());
+        if (count <= 0) return 1;
+        double meanDeviation = (double) geneSums.get(config.ordinal() * TRAITS.length + trait.ordinal()) / count;
+        return Genome.factorOf(Genome.NEUTRAL_GENE + meanDeviation);
+    }
+
+    /**
+     * Копирует распределение признаков по видам: средний множитель и его стандартное отклонение,
+     * в тысячных долях (1000 - множитель 1). Вызывается в конце дня, когда все задачи завершены.
+     *
+     * @param means Средние множители, [вид][признак]
+     * @param spreads Стандартные отклонения множителей, [вид][признак]
+     */
+    public void copyTraits(int[][] means, int[][] spreads) {
+        // Множитель линеен по гену: одна единица гена - вот такая доля множителя
+        double factorPerGene = Genome.factorOf(Genome.NEUTRAL_GENE + 1) - 1;
+        for (int s = 0; s < SPECIES_COUNT; s++) {
+            int count = animalCounts.get(s);
+            for (Trait trait : TRAITS) {
+                int t = trait.ordinal();
+                if (count <= 0) {
+                    means[s][t] = 1000;
+                    spreads[s][t] = 0;
+                    continue;
+                }
+                double mean = (double) geneSums.get(s * TRAITS.length + t) / count;
+                double variance = Math.max(0, (double) geneSquares.get(s * TRAITS.length + t) / count - mean * mean);
+                means[s][t] = (int) Math.round(Genome.factorOf(Genome.NEUTRAL_GENE + mean) * 1000);
+                spreads[s][t] = (int) Math.round(Math.sqrt(variance) * factorPerGene * 1000);
+            }
+        }
+    }
+
+    // Метод для получения общего количества растений
+    public long getTotalPlants() {
+        return totalPlants.get();
+    }
+
+    // Метод для получения текущего количества животных по видам (индекс - AnimalConfig.ordinal)
+    public void copyPopulation(int[] population) {
+        for (int i = 0; i < SPECIES_COUNT; i++) {
+            population[i] = animalCounts.get(i);
+        }
+    }
+
     // Метод для обновления общего количества растений
-    public static void updatePlants(int count) {
+    public void updatePlants(long count) {
         // Устанавливаем новое значение общего количества растений, гарантируя, что оно не будет отрицательным
         // Math.max(0, count) обеспечивает, что значение не может быть меньше нуля
         totalPlants.set(Math.max(0, count));
     }
 
+    /**
+     * Копирует статистику прошедшего дня в переданные массивы (индекс - AnimalConfig.ordinal)
+     * и обнуляет дневные счетчики. Вызывается один раз в конце дня, когда все задачи завершены.
+     *
+     * @param population Текущее количество животных по видам
+     * @param births Рождения за день по видам
+     * @param deathsByHunger Смерти от голода за день по видам
+     * @param deathsByPredation Смерти от хищников за день по видам
+     * @return Общее количество растений на острове
+     */
+    public long snapshotDay(int[] population, int[] births, int[] deathsByHunger, int[] deathsByPredation) {
+        for (int i = 0; i < SPECIES_COUNT; i++) {
+            population[i] = animalCounts.get(i);
+            births[i] = dayBirths.getAndSet(i, 0);
+            deathsByHunger[i] = dayDeathsByHunger.getAndSet(i, 0);
+            deathsByPredation[i] = dayDeathsByPredation.getAndSet(i, 0);
+        }
+        return totalPlants.get();
+    }
+
+    // Метод для получения общего числа рождений (включая начальное заселение)
+    public int getTotalBirths() {
+        return totalBirths.get();
+    }
+
+    // Метод для получения общего числа смертей от голода
+    public int getTotalDeathsByHunger() {
+        return totalDeathsByHunger.get();
+    }
+
+    // Метод для получения общего числа смертей от хищников
+    public int getTotalDeathsByPredation() {
+        return totalDeathsByPredation.get();
+    }
+
     // Метод для вывода общей статистики на экран
-    public static void printStatistics() {
+    public void printStatistics() {
         System.out.println("\n=== Общая статистика ==="); // Заголовок статистики
 
-        // Проходим по всем типам животных и их количеству в карте
-        animalCounts.forEach((cls, count) -> {
-            try {
-                // Создаем экземпляр животного данного типа, чтобы получить его эмодзи
-                // Используем рефлексию для создания нового экземпляра
-                String emoji = ((Animal)cls.getDeclaredConstructor().newInstance()).getEmoji();
-                // Выводим тип животного (эмодзи) и его текущее количество
-                System.out.printf("%s: %d  ", emoji, count.get());
-            } catch (Exception e) {
-                // Если произошла ошибка при создании экземпляра, выводим имя класса и количество
-                System.out.printf("%s: %d  ", cls.getSimpleName(), count.get());
-            }
-        });
+        // Проходим по всем видам животных и выводим тех, кто еще жив
+        for (AnimalConfig config : AnimalConfig.values()) {
+            int count = animalCounts.get(config.ordinal());
+            if (count <= 0) continue;
+            // Выводим вид животного (эмодзи из конфигурации) и его текущее количество
+            System.out.printf("%s: %d  ", config.emoji, count);
+        }
 
         // Выводим статистику по растениям и смертям
         System.out.println("\nРастений: " + totalPlants.get()); // Общее количество растений
@@ -83,4 +227,4 @@ public class Statistics {
         System.out.println("Смертей от хищников: " + totalDeathsByPredation.get()); // Смерти от хищников
         System.out.println("========================"); // Разделитель
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,233 @@
+package statistics;
+
+import enums.SteadyState;
+import utils.SimulationSettings;
+
+import java.util.Arrays;
+
+/**
+ * Онлайн-распознавание установившегося режима по ежедневной численности видов:
+ * вымирание, неподвижная точка и цикл.
+ *
+ * Для каждого вида хранится скользящее окно последних window дней и поддерживаются суммы
+ * значений, квадратов и произведений x(t) * x(t - k) для каждого лага k = 1..maxPeriod.
+ * Суммы целочисленные (long) и обновляются при входе дня в окно и выходе из него, поэтому
+ * не накапливают ошибку округления. Работа за день - O(видов * maxPeriod), где maxPeriod -
+ * постоянная из настроек, т.е. O(видов); от длины окна она не зависит.
+ *
+ * - Вымирание: численность всех видов равна нулю (распознается сразу, это поглощающее состояние).
+ * - Неподвижная точка: у каждого вида стандартное отклонение в окне не больше
+ *   tolerance * среднее (не меньше tolerance * 1 для вымерших и редких видов).
+ * - Цикл: есть общий для всех изменяющихся видов лаг p, на котором автокорреляция в окне не меньше
+ *   correlation, а на каком-то меньшем лаге она была отрицательной. Провал отличает колебания
+ *   от плавного тренда - у тренда автокорреляция на малых лагах тоже высокая, но не меняет знак.
+ *   Берется наименьший такой лаг, уточненный до локального максимума (период, а не его кратное).
+ * Неподвижная точка и цикл подтверждаются, если держатся confirmDays дней подряд.
+ */
+public class SteadyStateDetector {
+    /**
+     * Распознанный режим.
+     * @param state Режим
+     * @param day День, в который режим подтвержден
+     * @param period Период в днях (1 - для вымирания и неподвижной точки)
+     */
+    public record Detection(SteadyState state, int day, int period) {}
+
+    private final int species; // Количество видов
+    private final int window; // Длина окна в днях
+    private final int maxPeriod; // Наибольший распознаваемый период
+    private final double tolerance; // Допустимое относительное отклонение для неподвижной точки
+    private final double correlation; // Порог автокорреляции для цикла
+    private final int confirmDays; // Сколько дней подряд режим должен держаться
+
+    private final int[][] values; // Окно: values[вид][слот], слот дня - кольцевой
+    private final long[] sums; // Сумма значений окна по видам
+    private final long[] squares; // Сумма квадратов окна по видам
+    private final long[][] lagSums; // lagSums[вид][k] - сумма x(t) * x(t - k) по парам внутри окна
+    private int count; // Сколько дней в окне
+    private int head; // Слот для следующего дня
+
+    // Рабочие массивы распознавания цикла (не создаются каждый день)
+    private final double[] minCorrelation; // Минимальная по изменяющимся видам автокорреляция лага
+    private final boolean[] cycleLag; // Лаг подходит как период для всех изменяющихся видов
+
+    private SteadyState candidate; // Режим, который сейчас подтверждается
+    private int candidatePeriod;
+    private int confirmed; // Сколько дней подряд он держится
+    private Detection detection; // Подтвержденный режим (после него наблюдение прекращается)
+
+    /**
+     * @param species Количество видов
+     * @param window Длина окна в днях (не меньше 3 * maxPeriod - в окне должно быть несколько периодов)
+     * @param maxPeriod Наибольший распознаваемый период в днях
+     * @param tolerance Допустимое относительное отклонение для неподвижной точки
+     * @param correlation Порог автокорреляции для цикла (0..1)
+     * @param confirmDays Сколько дней подряд режим должен держаться
+     */
+    public SteadyStateDetector(int species, int window, int maxPeriod, double tolerance, double correlation, int confirmDays) {
+        if (maxPeriod < 2 || window < 3 * maxPeriod) {
+            throw new IllegalArgumentException("Окно " + window + " дней слишком короткое для периода до " + maxPeriod + " дней");
+        }
+        this.species = species;
+        this.window = window;
+        this.maxPeriod = maxPeriod;
+        this.tolerance = tolerance;
+        this.correlation = correlation;
+        this.confirmDays = confirmDays;
+        this.values = new int[species][window];
+        this.sums = new long[species];
+        this.squares = new long[species];
+        this.lagSums = new long[species][maxPeriod + 1];
+        this.minCorrelation = new double[maxPeriod + 1];
+        this.cycleLag = new boolean[maxPeriod + 1];
+    }
+
+    /**
+     * @return Детектор с параметрами из настроек (STEADY_STATE_*)
+     */
+    public static SteadyStateDetector fromSettings() {
+        return new SteadyStateDetector(SimulationSettings.AnimalConfig.values().length,
+                SimulationSettings.STEADY_STATE_WINDOW_DAYS, SimulationSettings.STEADY_STATE_MAX_PERIOD,
+                SimulationSettings.STEADY_STATE_TOLERANCE, SimulationSettings.STEADY_STATE_CORRELATION,
+                SimulationSettings.STEADY_STATE_CONFIRM_DAYS);
+    }
+
+    /**
+     * Добавляет численность видов на конец дня.
+     * @param day Номер дня
+     * @param population Численность по видам (индекс - AnimalConfig.ordinal)
+     * @return Режим, если он подтвержден именно в этот день, иначе null
+     */
+    public Detection observe(int day, int[] population) {
+        if (detection != null) return null; // Режим уже распознан - дальше не наблюдаем
+
+        boolean extinct = true;
+        for (int s = 0; s < species; s++) {
+            add(s, population[s]);
+            if (population[s] != 0) extinct = false;
+        }
+        if (extinct) {
+            detection = new Detection(SteadyState.EXTINCTION, day, 1);
+            return detection;
+        }
+        if (count < window) return null; // Окно еще не заполнено
+
+        SteadyState state = null;
+        int period = 1;
+        if (isFixedPoint()) {
+            state = SteadyState.FIXED_POINT;
+        } else {
+            period = findCycle();
+            if (period > 0) state = SteadyState.CYCLE;
+        }
+
+        if (state == null) {
+            candidate = null;
+            confirmed = 0;
+            return null;
+        }
+        if (state == candidate && period == candidatePeriod) {
+            confirmed++;
+        } else {
+            candidate = state;
+            candidatePeriod = period;
+            confirmed = 1;
+        }
+        if (confirmed < confirmDays) return null;
+        detection = new Detection(state, day, period);
+        return detection;
+    }
+
+    /**
+     * @return Подтвержденный режим или null, если его пока нет
+     */
+    public Detection getDetection() {
+        return detection;
+    }
+
+    /**
+     * Добавляет значение в окно вида, вытесняя самое старое, и обновляет суммы.
+     */
+    private void add(int s, int x) {
+        int[] ring = values[s];
+        long[] lags = lagSums[s];
+        if (count == window) {
+            // Самое старое значение участвует в парах (старое, старое + k) - вычитаем их
+            long oldest = ring[head];
+            sums[s] -= oldest;
+            squares[s] -= oldest * oldest;
+            for (int k = 1; k <= maxPeriod; k++) {
+                lags[k] -= oldest * ring[(head + k) % window];
+            }
+        }
+        int filled = Math.min(count, window - 1); // Сколько значений окна осталось перед новым
+        for (int k = 1; k <= Math.min(maxPeriod, filled); k++) {
+            lags[k] += (long) x * ring[(head - k + window) % window];
+        }
+        ring[head] = x;
+        sums[s] += x;
+        squares[s] += (long) x * x;
+        if (s == species - 1) {
+            // Окно сдвигается один раз за день, после всех видов
+            head = (head + 1) % window;
+            if (count < window) count++;
+        }
+    }
+
+    /**
+     * @return true, если численность всех видов в окне почти постоянна
+     */
+    private boolean isFixedPoint() {
+        for (int s = 0; s < species; s++) {
+            if (!isSteady(s)) return false;
+        }
+        return true;
+    }
+
+    // Стандартное отклонение вида в окне не больше tolerance * среднее
+    private boolean isSteady(int s) {
+        double mean = (double) sums[s] / window;
+        double variance = (double) squares[s] / window - mean * mean;
+        double limit = tolerance * Math.max(mean, 1.0);
+        return variance <= limit * limit;
+    }
+
+    /**
+     * Ищет общий период изменяющихся видов.
+     * @return Период в днях или 0, если цикла нет
+     */
+    private int findCycle() {
+        Arrays.fill(cycleLag, true);
+        Arrays.fill(minCorrelation, 1.0);
+        boolean anyChanging = false;
+        for (int s = 0; s < species; s++) {
+            if (isSteady(s)) continue; // Почти постоянный вид совместим с любым периодом
+            anyChanging = true;
+            int[] ring = values[s];
+            double mean = (double) sums[s] / window;
+            double variance = (double) squares[s] / window - mean * mean;
+            long firstK = 0, lastK = 0; // Суммы k самых старых и k самых новых значений окна
+            boolean dipped = false; // Была ли автокорреляция отрицательной на меньшем лаге
+            for (int k = 1; k <= maxPeriod; k++) {
+                firstK += ring[(head + k - 1) % window];
+                lastK += ring[(head - k + window) % window];
+                int pairs = window - k;
+                // Ковариация пар (x(t), x(t - k)) относительно среднего окна
+                double covariance = (lagSums[s][k] - mean * ((sums[s] - firstK) + (sums[s] - lastK))
+                        + pairs * mean * mean) / pairs;
+                double r = covariance / variance;
+                if (r < minCorrelation[k]) minCorrelation[k] = r;
+                if (!dipped || r < correlation) cycleLag[k] = false;
+                if (r < 0) dipped = true;
+            }
+        }
+        if (!anyChanging) return 0;
+        for (int k = 2; k <= maxPeriod; k++) {
+            if (!cycleLag[k]) continue;
+            // Поднимаемся к локальному максимуму корреляции: соседний лаг может лишь перейти порог
+            while (k < maxPeriod && cycleLag[k + 1] && minCorrelation[k + 1] > minCorrelation[k]) k++;
+            return k;
+        }
+        return 0;
+    }
+}
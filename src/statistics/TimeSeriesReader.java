@@ -0,0 +1,122 @@
+package statistics;
+
+import statistics.TimeSeriesRecorder.Metric;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Читатель колоночного файла статистики, записанного TimeSeriesRecorder.
+ * Колонка одного вида читается из каждого блока одним непрерывным куском
+ * через отображение файла в память - текст не разбирается.
+ *
+ * Запуск из консоли:
+ * java statistics.TimeSeriesReader <файл> <ВИД> [МЕТРИКА]
+ * Например: java statistics.TimeSeriesReader stats.ts WOLF POPULATION
+ */
+public class TimeSeriesReader implements AutoCloseable {
+    private final FileChannel channel; // Канал файла статистики
+    private final int speciesCount; // Количество видов в файле
+    private final int blockDays; // Размер блока в днях
+    private final long days; // Количество записанных дней
+
+    /**
+     * Открывает файл статистики и проверяет заголовок.
+     * @param file Путь к файлу
+     */
+    public TimeSeriesReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TimeSeriesRecorder.HEADER_SIZE)
+                .order(TimeSeriesRecorder.ORDER);
+        if (header.getLong() != TimeSeriesRecorder.MAGIC || header.getInt() != TimeSeriesRecorder.VERSION) {
+            channel.close();
+            throw new IOException("Файл не является файлом статистики: " + file);
+        }
+        this.speciesCount = header.getInt();
+        if (header.getInt() != TimeSeriesRecorder.METRICS) {
+            channel.close();
+            throw new IOException("Неподдерживаемый набор метрик в файле: " + file);
+        }
+        this.blockDays = header.getInt();
+        this.days = header.getLong(TimeSeriesRecorder.DAYS_OFFSET);
+    }
+
+    /**
+     * @return Количество записанных дней
+     */
+    public long getDays() {
+        return days;
+    }
+
+    /**
+     * Читает историю одной метрики одного вида за все записанные дни.
+     * @param species Вид животного
+     * @param metric Метрика
+     * @return Массив значений по дням
+     */
+    public int[] readColumn(AnimalConfig species, Metric metric) throws IOException {
+        int[] result = new int[Math.toIntExact(days)];
+        int column = species.ordinal() * TimeSeriesRecorder.METRICS + metric.ordinal();
+        long columnOffset = (long) column * blockDays * Integer.BYTES; // Смещение колонки внутри блока
+        for (long start = 0; start < days; start += blockDays) {
+            int count = (int) Math.min(blockDays, days - start);
+            MappedByteBuffer buffer = mapBlockRange(start / blockDays, columnOffset, (long) count * Integer.BYTES);
+            buffer.asIntBuffer().get(result, (int) start, count);
+        }
+        return result;
+    }
+
+    /**
+     * Читает историю общего количества растений за все записанные дни.
+     * @return Массив значений по дням
+     */
+    public long[] readPlants() throws IOException {
+        long[] result = new long[Math.toIntExact(days)];
+        // Колонка растений лежит после всех int-колонок блока
+        long columnOffset = (long) speciesCount * TimeSeriesRecorder.METRICS * blockDays * Integer.BYTES;
+        for (long start = 0; start < days; start += blockDays) {
+            int count = (int) Math.min(blockDays, days - start);
+            MappedByteBuffer buffer = mapBlockRange(start / blockDays, columnOffset, (long) count * Long.BYTES);
+            buffer.asLongBuffer().get(result, (int) start, count);
+        }
+        return result;
+    }
+
+    /**
+     * Отображает в память участок блока.
+     */
+    private MappedByteBuffer mapBlockRange(long block, long offsetInBlock, long length) throws IOException {
+        long blockStart = TimeSeriesRecorder.HEADER_SIZE + block * TimeSeriesRecorder.blockBytes(speciesCount, blockDays);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, blockStart + offsetInBlock, length);
+        buffer.order(TimeSeriesRecorder.ORDER);
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Точка входа утилиты: печатает историю метрики вида по дням
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Использование: java statistics.TimeSeriesReader <файл> <ВИД> [МЕТРИКА]");
+            return;
+        }
+        AnimalConfig species = AnimalConfig.valueOf(args[1].toUpperCase());
+        Metric metric = args.length > 2 ? Metric.valueOf(args[2].toUpperCase()) : Metric.POPULATION;
+
+        try (TimeSeriesReader reader = new TimeSeriesReader(Path.of(args[0]))) {
+            int[] values = reader.readColumn(species, metric);
+            System.out.println("day," + species + "_" + metric);
+            for (int day = 0; day < values.length; day++) {
+                System.out.println((day + 1) + "," + values[day]);
+            }
+        }
+    }
+}
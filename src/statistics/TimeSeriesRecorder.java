@@ -0,0 +1,284 @@
+package statistics;
+
+import enums.Trait;
+import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Записывает статистику каждого дня в колоночном виде: для каждого вида - численность,
+ * рождения, смерти от голода и от хищников, распределение наследуемых признаков (среднее
+ * и разброс множителя каждого признака), плюс общее количество растений.
+ *
+ * В памяти данные хранятся в кольцевом буфере на BLOCK_DAYS дней, где каждая метрика - отдельный
+ * массив (колонка). Когда кольцо заполняется, блок целиком сбрасывается в файл через
+ * отображение в память (MappedByteBuffer), и кольцо начинает заполняться заново.
+ *
+ * Формат файла (little-endian):
+ * - заголовок HEADER_SIZE байт: магическое число, версия, число видов, число метрик на вид,
+ *   размер блока в днях, количество записанных дней;
+ * - далее блоки по BLOCK_DAYS дней. Внутри блока колонки лежат подряд: сначала
+ *   int-колонки (вид0.метрика0, вид0.метрика1, ..., видN.метрикаM), затем long-колонка растений.
+ *
+ * Благодаря такой раскладке история одной метрики одного вида читается непрерывными кусками
+ * по BLOCK_DAYS значений из каждого блока, без разбора текста (см. TimeSeriesReader).
+ */
+public class TimeSeriesRecorder implements AutoCloseable {
+    // Магическое число в начале файла ("ISLTS001")
+    static final long MAGIC = 0x313030535420534CL;
+    // Версия формата файла
+    static final int VERSION = 2;
+    // Размер заголовка файла в байтах
+    static final int HEADER_SIZE = 64;
+    // Смещение поля "количество записанных дней" в заголовке
+    static final int DAYS_OFFSET = 24;
+    // Порядок байтов в файле
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Метрики, которые записываются для каждого вида животных.
+     * Порядок констант определяет порядок колонок в файле.
+     */
+    public enum Metric {
+        POPULATION, // Численность вида на конец дня
+        BIRTHS, // Рождения за день
+        DEATHS_BY_HUNGER, // Смерти от голода за день
+        DEATHS_BY_PREDATION, // Смерти от хищников за день
+        // Средний множитель признака у живых животных вида, ‰ (1000 - нейтральный). Порядок - как в Trait
+        SPEED,
+        REPRODUCTION,
+        HUNTING,
+        // Стандартное отклонение множителя признака, ‰. Порядок - как в Trait
+        SPEED_SPREAD,
+        REPRODUCTION_SPREAD,
+        HUNTING_SPREAD
+    }
+
+    // Количество метрик на один вид
+    static final int METRICS = Metric.values().length;
+    // Количество признаков (средних и разбросов) и колонка первого из них
+    private static final int TRAITS = Trait.values().length;
+    private static final int TRAIT_MEANS = Metric.SPEED.ordinal();
+    private static final int TRAIT_SPREADS = Metric.SPEED_SPREAD.ordinal();
+
+    private final int speciesCount = AnimalConfig.values().length; // Количество видов
+    private final int blockDays; // Размер блока (и кольцевого буфера) в днях
+    private final int[][] columns; // Колонки кольцевого буфера: [вид * METRICS + метрика][слот дня]
+    private final long[] plants; // Колонка общего количества растений
+    private final FileChannel channel; // Канал файла, null если запись в файл выключена
+    private final MappedByteBuffer header; // Отображенный в память заголовок файла
+
+    private long days; // Сколько дней записано всего
+    private long spilledDays; // Сколько дней уже сброшено в файл
+
+    // Временные массивы для снимка дня (переиспользуются, чтобы не создавать мусор каждый день)
+    private final int[] population, births, deathsByHunger, deathsByPredation;
+    private final int[][] traitMeans, traitSpreads; // [вид][признак]
+
+    /**
+     * Создает рекордер, который хранит историю только в памяти (последние blockDays дней).
+     * @param blockDays Размер кольцевого буфера в днях
+     */
+    public TimeSeriesRecorder(int blockDays) {
+        this(blockDays, null);
+    }
+
+    /**
+     * Создает рекордер, который сбрасывает заполненные блоки в колоночный файл.
+     * @param blockDays Размер блока в днях
+     * @param file Путь к файлу или null, если история нужна только в памяти
+     */
+    public TimeSeriesRecorder(int blockDays, Path file) {
+        this.blockDays = blockDays;
+        this.columns = new int[speciesCount * METRICS][blockDays];
+        this.plants = new long[blockDays];
+        this.population = new int[speciesCount];
+        this.births = new int[speciesCount];
+        this.deathsByHunger = new int[speciesCount];
+        this.deathsByPredation = new int[speciesCount];
+        this.traitMeans = new int[speciesCount][TRAITS];
+        this.traitSpreads = new int[speciesCount][TRAITS];
+
+        if (file == null) {
+            this.channel = null;
+            this.header = null;
+            return;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(ORDER);
+            header.putLong(MAGIC).putInt(VERSION).putInt(speciesCount).putInt(METRICS).putInt(blockDays);
+            header.putLong(DAYS_OFFSET, 0L);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать файл статистики " + file, e);
+        }
+    }
+
+    /**
+     * Создает рекордер по настройкам из SimulationSettings.
+     * @return Рекордер с файлом или только в памяти, в зависимости от TIME_SERIES_FILE_ENABLED
+     */
+    public static TimeSeriesRecorder fromSettings() {
+        return new TimeSeriesRecorder(SimulationSettings.TIME_SERIES_BLOCK_DAYS,
+                SimulationSettings.TIME_SERIES_FILE_ENABLED ? Path.of(SimulationSettings.TIME_SERIES_FILE) : null);
+    }
+
+    /**
+     * Снимает статистику прошедшего дня из Statistics и записывает её в кольцевой буфер.
+     * Вызывается один раз в конце каждого дня.
+     * @param statistics Статистика острова
+     */
+    public synchronized void recordDay(Statistics statistics) {
+        long totalPlants = statistics.snapshotDay(population, births, deathsByHunger, deathsByPredation);
+        statistics.copyTraits(traitMeans, traitSpreads);
+        store(totalPlants);
+    }
+
+    /**
+     * Записывает новый день как копию уже записанного дня из кольцевого буфера
+     * (перемотка установившегося режима: день повторяет день, отстоящий на период назад).
+     * @param dayIndex Номер записанного дня, начиная с 0
+     */
+    public synchronized void repeatDay(long dayIndex) {
+        checkInMemory(dayIndex);
+        int source = (int) (dayIndex % blockDays);
+        for (int s = 0; s < speciesCount; s++) {
+            int base = s * METRICS;
+            population[s] = columns[base + Metric.POPULATION.ordinal()][source];
+            births[s] = columns[base + Metric.BIRTHS.ordinal()][source];
+            deathsByHunger[s] = columns[base + Metric.DEATHS_BY_HUNGER.ordinal()][source];
+            deathsByPredation[s] = columns[base + Metric.DEATHS_BY_PREDATION.ordinal()][source];
+            for (int t = 0; t < TRAITS; t++) {
+                traitMeans[s][t] = columns[base + TRAIT_MEANS + t][source];
+                traitSpreads[s][t] = columns[base + TRAIT_SPREADS + t][source];
+            }
+        }
+        store(plants[source]);
+    }
+
+    // Записывает день из временных массивов в кольцевой буфер
+    private void store(long totalPlants) {
+        int slot = (int) (days % blockDays); // Слот дня в кольцевом буфере
+        for (int s = 0; s < speciesCount; s++) {
+            int base = s * METRICS;
+            columns[base + Metric.POPULATION.ordinal()][slot] = population[s];
+            columns[base + Metric.BIRTHS.ordinal()][slot] = births[s];
+            columns[base + Metric.DEATHS_BY_HUNGER.ordinal()][slot] = deathsByHunger[s];
+            columns[base + Metric.DEATHS_BY_PREDATION.ordinal()][slot] = deathsByPredation[s];
+            for (int t = 0; t < TRAITS; t++) {
+                columns[base + TRAIT_MEANS + t][slot] = traitMeans[s][t];
+                columns[base + TRAIT_SPREADS + t][slot] = traitSpreads[s][t];
+            }
+        }
+        plants[slot] = totalPlants;
+        days++;
+
+        // Кольцо заполнено - сбрасываем блок в файл
+        if (slot == blockDays - 1) {
+            spill();
+        }
+    }
+
+    /**
+     * Возвращает значение метрики за указанный день, если день еще находится в кольцевом буфере.
+     * @param dayIndex Номер записанного дня, начиная с 0
+     * @param species Вид животного
+     * @param metric Метрика
+     * @return Значение метрики
+     * @throws IllegalArgumentException если день уже вытеснен из памяти (его можно прочитать из файла)
+     */
+    public synchronized int get(long dayIndex, AnimalConfig species, Metric metric) {
+        checkInMemory(dayIndex);
+        return columns[species.ordinal() * METRICS + metric.ordinal()][(int) (dayIndex % blockDays)];
+    }
+
+    /**
+     * Возвращает общее количество растений за указанный день из кольцевого буфера.
+     * @param dayIndex Номер записанного дня, начиная с 0
+     * @return Количество растений
+     */
+    public synchronized long getPlants(long dayIndex) {
+        checkInMemory(dayIndex);
+        return plants[(int) (dayIndex % blockDays)];
+    }
+
+    /**
+     * @return Количество записанных дней
+     */
+    public synchronized long getDays() {
+        return days;
+    }
+
+    /**
+     * Сбрасывает в файл текущий (возможно неполный) блок, чтобы данные были видны читателям.
+     */
+    public synchronized void flush() {
+        if (days > spilledDays) spill();
+    }
+
+    // Закрываем рекордер, дописывая неполный блок в файл
+    @Override
+    public synchronized void close() {
+        if (channel == null) return;
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Ошибка при закрытии файла статистики: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Проверяет, что день еще хранится в кольцевом буфере.
+     */
+    private void checkInMemory(long dayIndex) {
+        if (dayIndex < 0 || dayIndex >= days || dayIndex < days - blockDays) {
+            throw new IllegalArgumentException("День " + dayIndex + " отсутствует в памяти");
+        }
+    }
+
+    /**
+     * Записывает текущий блок кольцевого буфера в файл через отображение в память.
+     * Блок записывается целиком, даже если он заполнен частично: количество
+     * действительных дней хранится в заголовке.
+     */
+    private void spill() {
+        long block = (days - 1) / blockDays; // Номер блока, к которому относится последний день
+        if (channel != null) {
+            try {
+                long blockBytes = blockBytes(speciesCount, blockDays);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER_SIZE + block * blockBytes, blockBytes);
+                buffer.order(ORDER);
+                for (int[] column : columns) {
+                    buffer.asIntBuffer().put(column); // Колонка целиком одной операцией
+                    buffer.position(buffer.position() + column.length * Integer.BYTES);
+                }
+                buffer.asLongBuffer().put(plants);
+                header.putLong(DAYS_OFFSET, days); // Читатели видят только полностью записанные дни
+            } catch (IOException e) {
+                System.err.println("Ошибка записи файла статистики: " + e.getMessage());
+            }
+        }
+        spilledDays = days;
+    }
+
+    /**
+     * Размер одного блока в файле в байтах.
+     */
+    static long blockBytes(int speciesCount, int blockDays) {
+        return (long) blockDays * (speciesCount * METRICS * Integer.BYTES + Long.BYTES);
+    }
+}
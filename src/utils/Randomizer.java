@@ -2,6 +2,7 @@ package utils;
 
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 /**
  * Обычный Random:
  * При использовании в многопоточной среде один экземпляр Random может вызывать конкуренцию между потоками. Это приводит к:
@@ -10,6 +11,8 @@ import java.util.concurrent.ThreadLocalRandom;
  *
  * ThreadLocalRandom:
  * Каждый поток имеет собственный экземпляр генератора случайных чисел. Это полностью исключает конкуренцию, так как потоки не делят общий ресурс.
+ * Зерно у ThreadLocalRandom задать нельзя, поэтому Settings.randomSeed влияет только на начальное заселение
+ * (IslandInitializer передает свой SplittableRandom в multinomial), а ход дней от зерна не зависит.
  */
 
 /**
@@ -123,4 +126,67 @@ public final class Randomizer {
     public static double nextDouble() {
         return ThreadLocalRandom.current().nextDouble();
     }
-}
\ No newline at end of file
+
+    /**
+     * Генерирует случайное число успехов из n испытаний с вероятностью успеха p (биномиальное распределение).
+     * Для малого среднего используется точный метод через геометрические интервалы между успехами,
+     * для большого - нормальное приближение (погрешность несущественна при n*p >= 30).
+     *
+     * @param random Генератор случайных чисел (например, SplittableRandom с заданным seed)
+     * @param n Количество испытаний
+     * @param p Вероятность успеха (от 0.0 до 1.0)
+     * @return Количество успехов из диапазона [0, n]
+     */
+    public static int binomial(RandomGenerator random, int n, double p) {
+        if (n <= 0 || p <= 0) return 0;
+        if (p >= 1) return n;
+        // Симметрия: считаем неудачи, если вероятность успеха больше половины
+        if (p > 0.5) return n - binomial(random, n, 1 - p);
+
+        double mean = n * p;
+        if (mean < 30) {
+            // Пропускаем неудачи: длина серии до очередного успеха имеет геометрическое распределение
+            double logQ = Math.log1p(-p);
+            int successes = 0;
+            long position = 0;
+            while (true) {
+                position += (long) (Math.log(1 - random.nextDouble()) / logQ) + 1;
+                if (position > n) return successes;
+                successes++;
+            }
+        }
+        double value = mean + random.nextGaussian() * Math.sqrt(mean * (1 - p));
+        return (int) Math.max(0, Math.min(n, Math.round(value)));
+    }
+
+    /**
+     * Распределяет n объектов по корзинам с заданными весами (мультиномиальное распределение).
+     * Реализовано последовательными биномиальными выборками: каждая корзина получает
+     * биномиальную долю от еще не распределенных объектов.
+     *
+     * Пример:
+     * Randomizer.multinomial(random, 100, new double[]{1, 1, 2}) вернет, например, [24, 27, 49]
+     *
+     * @param random Генератор случайных чисел
+     * @param n Количество объектов
+     * @param weights Веса корзин (неотрицательные, сумма больше 0)
+     * @return Количество объектов в каждой корзине (сумма равна n)
+     */
+    public static int[] multinomial(RandomGenerator random, int n, double[] weights) {
+        int[] counts = new int[weights.length];
+        double remainingWeight = 0;
+        for (double weight : weights) remainingWeight += weight;
+
+        int remaining = n;
+        for (int i = 0; i < weights.length && remaining > 0; i++) {
+            // Последняя корзина забирает остаток целиком (защита от накопления ошибок округления)
+            double p = i == weights.length - 1 || remainingWeight <= 0
+                    ? 1.0
+                    : Math.min(1.0, weights[i] / remainingWeight);
+            counts[i] = binomial(random, remaining, p);
+            remaining -= counts[i];
+            remainingWeight -= weights[i];
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,175 @@
+package utils;
+
+import utils.SimulationSettings.AnimalConfig;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Файл сценария: параметры модели (Settings) в формате properties, загружаемые при запуске.
+ *
+ * Без сценария каждый эксперимент с размером острова или численностью видов требовал правки
+ * SimulationSettings и перекомпиляции. Сценарий задает только то, что отличается от настроек
+ * по умолчанию; отсутствующие ключи берутся из Settings.DEFAULT.
+ *
+ * Ключи:
+ * island.width, island.height      Размер острова
+ * seed                             Зерно начального заселения
+ * plants.growth, plants.max        Прирост растений за день и максимум растений в клетке
+ * satiety.initial, satiety.loss    Начальная сытость и потеря за день (доли дневной нормы)
+ * mutation.rate, mutation.step     Вероятность мутации гена потомка и наибольший сдвиг гена
+ * ВИД.weight, ВИД.maxPerCell, ВИД.maxSpeed, ВИД.foodNeeded, ВИД.reproductionChance, ВИД.initialCount
+ * eat.ХИЩНИК.ДОБЫЧА                Вероятность съесть, %
+ * (ВИД - имя из AnimalConfig, например WOLF.initialCount=100 или eat.WOLF.RABBIT=80)
+ *
+ * Запускаемые классы (Main, бенчмарки, ансамбль, распределенный остров) берут сценарий
+ * из системного свойства SCENARIO_PROPERTY: java -Dscenario=scenarios/max-density.properties ...
+ */
+public final class Scenario {
+    private static final AnimalConfig[] CONFIGS = AnimalConfig.values();
+
+    private Scenario() {}
+
+    /**
+     * @return Сценарий из файла, указанного в системном свойстве SCENARIO_PROPERTY,
+     *         или Settings.DEFAULT, если свойство не задано
+     */
+    public static Settings selected() {
+        String file = System.getProperty(SimulationSettings.SCENARIO_PROPERTY);
+        return file == null || file.isBlank() ? Settings.DEFAULT : load(Path.of(file));
+    }
+
+    /**
+     * Загружает сценарий поверх настроек по умолчанию.
+     * @throws UncheckedIOException Если файл не читается
+     * @throws IllegalArgumentException Если в файле неизвестный ключ или неверное значение
+     */
+    public static Settings load(Path file) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать сценарий " + file, e);
+        }
+        return apply(Settings.DEFAULT, properties);
+    }
+
+    /**
+     * Применяет значения сценария к базовым настройкам.
+     */
+    public static Settings apply(Settings base, Properties properties) {
+        Settings.Builder builder = base.toBuilder();
+        int width = base.width, height = base.height;
+        int growth = base.plantGrowthPerDay, maxPlants = base.maxPlantsPerCell;
+        double initialSatiety = base.initialSatietyPercent, satietyLoss = base.dailySatietyLoss;
+        double mutationRate = base.mutationRate;
+        int mutationStep = base.mutationStep;
+        double[][] species = new double[CONFIGS.length][];
+        for (AnimalConfig config : CONFIGS) {
+            Settings.Species s = base.species(config);
+            species[config.ordinal()] = new double[] {s.weight, s.maxPerCell, s.maxSpeed, s.foodNeeded, s.reproductionChance};
+        }
+
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            try {
+                switch (key) {
+                    case "island.width" -> width = Integer.parseInt(value);
+                    case "island.height" -> height = Integer.parseInt(value);
+                    case "seed" -> builder.randomSeed(Long.parseLong(value));
+                    case "plants.growth" -> growth = Integer.parseInt(value);
+                    case "plants.max" -> maxPlants = Integer.parseInt(value);
+                    case "satiety.initial" -> initialSatiety = Double.parseDouble(value);
+                    case "satiety.loss" -> satietyLoss = Double.parseDouble(value);
+                    case "mutation.rate" -> mutationRate = Double.parseDouble(value);
+                    case "mutation.step" -> mutationStep = Integer.parseInt(value);
+                    default -> {
+                        String[] parts = key.split("\\.");
+                        if (parts.length == 3 && parts[0].equals("eat")) {
+                            builder.eatingChance(AnimalConfig.valueOf(parts[1]), AnimalConfig.valueOf(parts[2]),
+                                    Integer.parseInt(value));
+                        } else if (parts.length == 2) {
+                            AnimalConfig config = AnimalConfig.valueOf(parts[0]);
+                            if (parts[1].equals("initialCount")) {
+                                builder.initialCount(config, Integer.parseInt(value));
+                            } else {
+                                species[config.ordinal()][speciesField(parts[1], key)] = Double.parseDouble(value);
+                            }
+                        } else {
+                            throw new IllegalArgumentException("Неизвестный ключ сценария: " + key);
+                        }
+                    }
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Неверное значение " + key + "=" + value, e);
+            }
+        }
+
+        builder.islandSize(width, height).plants(growth, maxPlants).satiety(initialSatiety, satietyLoss)
+                .mutation(mutationRate, mutationStep);
+        for (AnimalConfig config : CONFIGS) {
+            double[] s = species[config.ordinal()];
+            builder.species(config, s[0], (int) s[1], (int) s[2], s[3], s[4]);
+        }
+        return builder.build();
+    }
+
+    // Номер параметра вида в порядке Builder.species
+    private static int speciesField(String name, String key) {
+        return switch (name) {
+            case "weight" -> 0;
+            case "maxPerCell" -> 1;
+            case "maxSpeed" -> 2;
+            case "foodNeeded" -> 3;
+            case "reproductionChance" -> 4;
+            default -> throw new IllegalArgumentException("Неизвестный ключ сценария: " + key);
+        };
+    }
+
+    /**
+     * Записывает все параметры настроек в файл сценария (из вероятностей поедания - ненулевые
+     * и отличающиеся от значений по умолчанию).
+     * @param title Первая строка-комментарий файла
+     */
+    public static void save(Settings settings, String title, Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("# " + title + "\n\n");
+                out.write("island.width=" + settings.width + "\n");
+                out.write("island.height=" + settings.height + "\n");
+                out.write("seed=" + settings.randomSeed + "\n");
+                out.write("plants.growth=" + settings.plantGrowthPerDay + "\n");
+                out.write("plants.max=" + settings.maxPlantsPerCell + "\n");
+                out.write("satiety.initial=" + settings.initialSatietyPercent + "\n");
+                out.write("satiety.loss=" + settings.dailySatietyLoss + "\n");
+                out.write("mutation.rate=" + settings.mutationRate + "\n");
+                out.write("mutation.step=" + settings.mutationStep + "\n");
+                for (AnimalConfig config : CONFIGS) {
+                    Settings.Species s = settings.species(config);
+                    String name = config.name();
+                    out.write("\n" + name + ".weight=" + s.weight + "\n");
+                    out.write(name + ".maxPerCell=" + s.maxPerCell + "\n");
+                    out.write(name + ".maxSpeed=" + s.maxSpeed + "\n");
+                    out.write(name + ".foodNeeded=" + s.foodNeeded + "\n");
+                    out.write(name + ".reproductionChance=" + s.reproductionChance + "\n");
+                    out.write(name + ".initialCount=" + s.initialCount + "\n");
+                    for (AnimalConfig prey : CONFIGS) {
+                        int chance = s.eatingChance(prey);
+                        // Нулевая вероятность пишется, только если она отличается от значения по умолчанию
+                        if (chance > 0 || Settings.DEFAULT.species(config).eatingChance(prey) != chance) out.write("eat." + name + "." + prey.name() + "=" + chance + "\n");
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать сценарий " + file, e);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package utils;
+
+import model.animals.Animal;
+import model.animals.Genome;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемые параметры модели одного прогона симуляции: размер острова, зерно заселения,
+ * растения, сытость, параметры видов, вероятности поедания и мутации.
+ *
+ * SimulationSettings хранит константы времени компиляции, поэтому без этого класса в одной JVM
+ * можно было прогнать только одну модель. Остров получает свой экземпляр Settings, и все,
+ * что от него зависит (животные, клетки, статистика), читает параметры оттуда - так несколько
+ * островов с разными параметрами работают одновременно (см. simulation.EnsembleRunner).
+ * DEFAULT собран из SimulationSettings, новые наборы строятся от него через Builder.
+ *
+ * Параметры движка (размер чанка, подкачка, топология, потоки) остаются в SimulationSettings:
+ * они не меняют модель, только способ её расчета.
+ */
+public final class Settings {
+    private static final AnimalConfig[] CONFIGS = AnimalConfig.values();
+
+    /**
+     * Параметры из SimulationSettings.
+     */
+    public static final Settings DEFAULT = new Builder().build();
+
+    public final int width; // Ширина острова
+    public final int height; // Высота острова
+    public final long randomSeed; // Зерно начального заселения (ход дней от него не зависит)
+    public final int plantGrowthPerDay; // Прирост растений в клетке за день
+    public final int maxPlantsPerCell; // Максимум растений в клетке
+    public final double initialSatietyPercent; // Начальная сытость - доля дневной нормы
+    public final double dailySatietyLoss; // Потеря сытости за день - доля дневной нормы
+    public final double mutationRate; // Вероятность мутации гена потомка (0..1)
+    public final int mutationStep; // Наибольший сдвиг гена при мутации
+    private final Species[] species; // Параметры видов (индекс - AnimalConfig.ordinal)
+
+    /**
+     * Параметры одного вида в этом наборе настроек. Животное хранит ссылку на свой Species
+     * и читает параметры из него, а не из AnimalConfig.
+     */
+    public static final class Species {
+        public final AnimalConfig config; // Вид
+        public final double weight; // Вес, кг
+        public final int maxPerCell; // Максимум животных вида в клетке
+        public final int maxSpeed; // Максимум клеток за ход
+        public final int speedLimit; // Наибольшая скорость животного вида с учетом гена скорости
+        public final double foodNeeded; // Дневная потребность в еде, кг
+        public final double reproductionChance; // Шанс размножения (0..1)
+        public final int initialCount; // Начальное количество на острове
+        public final double initialSatiety; // Сытость новорожденного, кг
+        public final double dailySatietyLoss; // Потеря сытости за день, кг
+        public final double mutationRate; // Вероятность мутации гена потомка (0..1)
+        public final int mutationStep; // Наибольший сдвиг гена при мутации
+        private final int[] eatingChance; // Вероятность съесть вид, % (индекс - ordinal добычи)
+        private final AnimalConfig[] prey; // Виды, которых можно съесть (вероятность > 0)
+
+        private Species(AnimalConfig config, double[] values, int initialCount, double initialSatietyPercent,
+                        double dailySatietyLossPercent, int[] eatingChance, double mutationRate, int mutationStep) {
+            this.config = config;
+            this.weight = values[0];
+            this.maxPerCell = (int) values[1];
+            this.maxSpeed = (int) values[2];
+            this.foodNeeded = values[3];
+            this.reproductionChance = values[4];
+            this.initialCount = initialCount;
+            this.initialSatiety = foodNeeded * initialSatietyPercent;
+            this.dailySatietyLoss = foodNeeded * dailySatietyLossPercent;
+            this.eatingChance = eatingChance;
+            this.mutationRate = mutationRate;
+            this.mutationStep = mutationStep;
+            // Без мутаций геном всегда нейтральный, и скорость животного не превышает скорость вида
+            this.speedLimit = mutationRate > 0 ? Genome.maxSpeed(maxSpeed) : maxSpeed;
+            this.prey = Arrays.stream(CONFIGS).filter(p -> eatingChance[p.ordinal()] > 0).toArray(AnimalConfig[]::new);
+        }
+
+        /**
+         * @return Вероятность съесть животное вида prey, % (0 - не ест)
+         */
+        public int eatingChance(AnimalConfig prey) {
+            return eatingChance[prey.ordinal()];
+        }
+
+        /**
+         * @return Виды, которых этот вид может съесть (не копируется - не изменять)
+         */
+        public AnimalConfig[] prey() {
+            return prey;
+        }
+
+        /**
+         * Создает животное вида с параметрами этого набора настроек.
+         */
+        public Animal createAnimal() {
+            Animal animal = config.createAnimal();
+            animal.setSpecies(this);
+            return animal;
+        }
+    }
+
+    private Settings(Builder builder) {
+        this.width = builder.width;
+        this.height = builder.height;
+        this.randomSeed = builder.randomSeed;
+        this.plantGrowthPerDay = builder.plantGrowthPerDay;
+        this.maxPlantsPerCell = builder.maxPlantsPerCell;
+        this.initialSatietyPercent = builder.initialSatietyPercent;
+        this.dailySatietyLoss = builder.dailySatietyLoss;
+        this.mutationRate = builder.mutationRate;
+        this.mutationStep = builder.mutationStep;
+        this.species = new Species[CONFIGS.length];
+        for (AnimalConfig config : CONFIGS) {
+            int s = config.ordinal();
+            species[s] = new Species(config, builder.species[s].clone(), builder.initialCounts[s],
+                    builder.initialSatietyPercent, builder.dailySatietyLoss, builder.eatingChance[s].clone(),
+                    builder.mutationRate, builder.mutationStep);
+        }
+    }
+
+    /**
+     * @return Параметры вида в этом наборе настроек
+     */
+    public Species species(AnimalConfig config) {
+        return species[config.ordinal()];
+    }
+
+    /**
+     * @return Построитель, заполненный значениями этого набора (для вариаций вокруг него)
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.width = width;
+        builder.height = height;
+        builder.randomSeed = randomSeed;
+        builder.plantGrowthPerDay = plantGrowthPerDay;
+        builder.maxPlantsPerCell = maxPlantsPerCell;
+        builder.initialSatietyPercent = initialSatietyPercent;
+        builder.dailySatietyLoss = dailySatietyLoss;
+        builder.mutationRate = mutationRate;
+        builder.mutationStep = mutationStep;
+        for (Species s : species) {
+            int i = s.config.ordinal();
+            builder.species[i] = new double[] {s.weight, s.maxPerCell, s.maxSpeed, s.foodNeeded, s.reproductionChance};
+            builder.initialCounts[i] = s.initialCount;
+            builder.eatingChance[i] = s.eatingChance.clone();
+        }
+        return builder;
+    }
+
+    /**
+     * Построитель набора настроек. Начальные значения - из SimulationSettings.
+     */
+    public static final class Builder {
+        private int width = SimulationSettings.ISLAND_WIDTH;
+        private int height = SimulationSettings.ISLAND_HEIGHT;
+        private long randomSeed = SimulationSettings.RANDOM_SEED;
+        private int plantGrowthPerDay = SimulationSettings.PLANT_GROWTH_PER_DAY;
+        private int maxPlantsPerCell = SimulationSettings.MAX_PLANTS_PER_CELL;
+        private double initialSatietyPercent = SimulationSettings.INITIAL_SATIETY_PERCENT;
+        private double dailySatietyLoss = SimulationSettings.DAILY_SATIETY_LOSS;
+        private double mutationRate = SimulationSettings.MUTATION_RATE;
+        private int mutationStep = SimulationSettings.MUTATION_STEP;
+        // Параметры видов: {вес, максНаКлетке, скорость, потребностьВЕде, шансРазмножения}
+        private final double[][] species = new double[CONFIGS.length][];
+        private final int[] initialCounts = new int[CONFIGS.length];
+        private final int[][] eatingChance = new int[CONFIGS.length][];
+
+        public Builder() {
+            for (AnimalConfig config : CONFIGS) {
+                int s = config.ordinal();
+                species[s] = new double[] {config.weight, config.maxPerCell, config.maxSpeed,
+                        config.foodNeeded, config.reproductionChance};
+                initialCounts[s] = config.getInitialCount();
+                eatingChance[s] = new int[CONFIGS.length];
+                for (AnimalConfig prey : CONFIGS) {
+                    eatingChance[s][prey.ordinal()] = SimulationSettings.EatingChance.get(config, prey);
+                }
+            }
+        }
+
+        public Builder islandSize(int width, int height) {
+            if (width <= 0 || height <= 0) throw new IllegalArgumentException("Размер острова должен быть положительным");
+            this.width = width;
+            this.height = height;
+            return this;
+        }
+
+        public Builder randomSeed(long randomSeed) {
+            this.randomSeed = randomSeed;
+            return this;
+        }
+
+        public Builder plants(int growthPerDay, int maxPerCell) {
+            this.plantGrowthPerDay = growthPerDay;
+            this.maxPlantsPerCell = maxPerCell;
+            return this;
+        }
+
+        /**
+         * @param initialPercent Начальная сытость - доля дневной нормы
+         * @param dailyLossPercent Потеря сытости за день - доля дневной нормы
+         */
+        public Builder satiety(double initialPercent, double dailyLossPercent) {
+            this.initialSatietyPercent = initialPercent;
+            this.dailySatietyLoss = dailyLossPercent;
+            return this;
+        }
+
+        /**
+         * @param rate Вероятность мутации каждого гена потомка (0 - потомок наследует геном без изменений)
+         * @param step Наибольший сдвиг гена при мутации
+         */
+        public Builder mutation(double rate, int step) {
+            if (rate < 0 || rate > 1 || step < 0) throw new IllegalArgumentException("Неверные параметры мутации");
+            this.mutationRate = rate;
+            this.mutationStep = step;
+            return this;
+        }
+
+        /**
+         * Задает параметры вида (в том же порядке, что и в AnimalConfig).
+         */
+        public Builder species(AnimalConfig config, double weight, int maxPerCell, int maxSpeed,
+                               double foodNeeded, double reproductionChance) {
+            if (maxPerCell <= 0 || maxSpeed < 0) throw new IllegalArgumentException("Неверные параметры вида " + config);
+            species[config.ordinal()] = new double[] {weight, maxPerCell, maxSpeed, foodNeeded, reproductionChance};
+            return this;
+        }
+
+        public Builder reproductionChance(AnimalConfig config, double chance) {
+            species[config.ordinal()][4] = chance;
+            return this;
+        }
+
+        public Builder initialCount(AnimalConfig config, int count) {
+            initialCounts[config.ordinal()] = count;
+            return this;
+        }
+
+        /**
+         * Задает вероятность, с которой predator съедает prey, %.
+         * Список добычи вида - это виды с ненулевой вероятностью, поэтому новая пара меняет рацион.
+         * Травоядное с добычей ест её вместо растений.
+         */
+        public Builder eatingChance(AnimalConfig predator, AnimalConfig prey, int percent) {
+            if (percent < 0 || percent > 100) throw new IllegalArgumentException("Вероятность должна быть от 0 до 100");
+            eatingChance[predator.ordinal()][prey.ordinal()] = percent;
+            return this;
+        }
+
+        public Settings build() {
+            return new Settings(this);
+        }
+    }
+}
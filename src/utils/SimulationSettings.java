@@ -1,12 +1,16 @@
 package utils;
 
-// Импорты всех классов животных, которые могут быть созданы в симуляции
+// Импорты классов поведения животных (вид выбирает один из них по типу)
 
+import enums.AnimalKind;
+import enums.EngineMode;
+import enums.SteadyStateAction;
+import enums.Topology;
 import model.animals.Animal;
-import model.animals.herbivores.*;
-import model.animals.predators.*;
+import model.animals.Herbivore;
+import model.animals.Predator;
 
-import java.util.function.Supplier;
+import java.util.Arrays;
 
 /**
  * Класс, хранящий ВСЕ настройки симуляции острова.
@@ -41,6 +45,43 @@ public final class SimulationSettings {
      */
     public static final int ISLAND_HEIGHT = 10;
 
+    /**
+     * Сторона чанка в клетках.
+     * Остров хранится разреженно: память выделяется только под чанки, в которых есть
+     * животные или клетки с нестандартным количеством растений.
+     */
+    public static final int CHUNK_SIZE = 16;
+
+    /**
+     * Поведение острова на краях.
+     * BOUNDED - животное, дошедшее до края, останавливается на крайней клетке.
+     * TORUS - края склеены, животное выходит с противоположной стороны острова.
+     */
+    public static final Topology TOPOLOGY = Topology.BOUNDED;
+
+    /**
+     * Включает подкачку чанков: чанки сверх MAX_RESIDENT_CHUNKS выгружаются в файл
+     * CHUNK_STORE_FILE (отображенный в память) и загружаются обратно при обращении.
+     * Нужна для островов, которые не помещаются в оперативную память.
+     */
+    public static final boolean CHUNK_PAGING_ENABLED = false;
+
+    /**
+     * Файл, в который выгружаются чанки при включенной подкачке.
+     */
+    public static final String CHUNK_STORE_FILE = "island-chunks.bin";
+
+    /**
+     * Максимальное количество чанков, одновременно находящихся в памяти (рабочий набор).
+     */
+    public static final int MAX_RESIDENT_CHUNKS = 4096;
+
+    /**
+     * Сколько животных помещается в слот одного чанка в файле.
+     * Чанк с большим количеством животных не выгружается и остается в памяти.
+     */
+    public static final int CHUNK_STORE_ANIMALS_PER_CHUNK = 8192;
+
     /**
      * Продолжительность одного дня симуляции в миллисекундах.
      * 1000 мс = 1 секунда реального времени на 1 день симуляции.
@@ -77,6 +118,27 @@ public final class SimulationSettings {
      */
     public static final double DAILY_SATIETY_LOSS = 0.3;
 
+    /**
+     * Зерно генератора случайных чисел для начального заселения острова.
+     * При одинаковом зерне животные размещаются одинаково, независимо от количества потоков.
+     * Зерно задает только начальное размещение: ход дней (движение, охота, рождения) использует
+     * ThreadLocalRandom, и два прогона с одним зерном расходятся с первого дня.
+     */
+    public static final long RANDOM_SEED = 42L;
+
+    // ================== СЦЕНАРИИ ==================
+
+    /**
+     * Системное свойство с путем к файлу сценария (utils.Scenario), например
+     * -Dscenario=scenarios/max-density.properties. Без него используются настройки этого класса.
+     */
+    public static final String SCENARIO_PROPERTY = "scenario";
+
+    /**
+     * Каталог, в который генератор нагрузочных сценариев (benchmark.ScenarioGenerator) пишет файлы.
+     */
+    public static final String SCENARIO_DIRECTORY = "scenarios";
+
     // ================== НАСТРОЙКИ РАСТЕНИЙ ==================
 
     /**
@@ -91,6 +153,324 @@ public final class SimulationSettings {
      */
     public static final int PLANT_GROWTH_PER_DAY = 10;
 
+    // ================== ЖУРНАЛ СОБЫТИЙ ==================
+
+    /**
+     * Включает бинарный журнал событий (рождения, смерти, перемещения).
+     * Журнал пишется в папку EVENT_LOG_DIRECTORY, прочитать его можно утилитой EventLogReader.
+     */
+    public static final boolean EVENT_LOG_ENABLED = false;
+
+    /**
+     * Папка, в которую записываются файлы журнала событий.
+     */
+    public static final String EVENT_LOG_DIRECTORY = "event-log";
+
+    /**
+     * Размер буфера событий каждого потока в байтах.
+     * Чем больше буфер, тем реже происходит запись в файл.
+     */
+    public static final int EVENT_LOG_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * Максимальный размер одного файла журнала в байтах.
+     * При превышении журнал переключается на новый файл.
+     */
+    public static final long EVENT_LOG_MAX_FILE_BYTES = 256L * 1024 * 1024;
+
+    // ================== СОБЫТИЯ JAVA FLIGHT RECORDER ==================
+
+    /**
+     * События дня, фаз дня и животных для Java Flight Recorder (statistics.FlightEvents).
+     * Пока запись JFR не ведется, они почти ничего не стоят; false - вызовы вырезаются целиком.
+     */
+    public static final boolean JFR_EVENTS_ENABLED = true;
+
+    /**
+     * Из скольких событий животных (рождение, смерть, перемещение) записывается одно. 1 - все.
+     */
+    public static final int JFR_ANIMAL_SAMPLE_RATE = 1000;
+
+    /**
+     * Порог длительности дня, с которого он записывается (формат jdk.jfr.Threshold).
+     */
+    public static final String JFR_DAY_THRESHOLD = "0 ms";
+
+    /**
+     * Порог длительности фазы дня, с которого она записывается (формат jdk.jfr.Threshold).
+     */
+    public static final String JFR_PHASE_THRESHOLD = "1 ms";
+
+    // ================== ИСТОРИЯ СТАТИСТИКИ ПО ДНЯМ ==================
+
+    /**
+     * Размер блока истории статистики в днях.
+     * Столько последних дней хранится в памяти, блоками такого размера история пишется в файл.
+     */
+    public static final int TIME_SERIES_BLOCK_DAYS = 4096;
+
+    /**
+     * Включает запись истории статистики по дням в колоночный файл TIME_SERIES_FILE.
+     * Прочитать файл можно утилитой TimeSeriesReader.
+     */
+    public static final boolean TIME_SERIES_FILE_ENABLED = false;
+
+    /**
+     * Файл, в который записывается история статистики по дням.
+     */
+    public static final String TIME_SERIES_FILE = "statistics.ts";
+
+    // ================== ИСТОРИЯ ПОСЛЕДНИХ ДНЕЙ ==================
+
+    /**
+     * Сколько последних дней хранить снимками острова для перемотки назад (model.IslandHistory).
+     * Снимки разделяют неизменившиеся чанки; любой хранимый день можно записать в контрольную
+     * точку (model.Checkpoint). 0 - история выключена.
+     */
+    public static final int HISTORY_DAYS = 0;
+
+    // ================== УСТАНОВИВШИЙСЯ РЕЖИМ ==================
+
+    /**
+     * Что делать, когда численность видов пришла к вымиранию, неподвижной точке или циклу
+     * (statistics.SteadyStateDetector): остановить прогон, перемотать или ничего.
+     * Применяется в Main и в ансамбле прогонов; бенчмарки всегда считают заданные дни.
+     * По умолчанию NONE - режим только выводится в консоль, и Main работает все
+     * SIMULATION_DURATION_MINUTES. STOP или FAST_FORWARD включаются здесь явно.
+     */
+    public static final SteadyStateAction STEADY_STATE_ACTION = SteadyStateAction.NONE;
+
+    /**
+     * Длина окна наблюдения численности в днях (не меньше 3 * STEADY_STATE_MAX_PERIOD).
+     */
+    public static final int STEADY_STATE_WINDOW_DAYS = 120;
+
+    /**
+     * Наибольший распознаваемый период цикла в днях. Работа детектора за день - O(видов * период).
+     */
+    public static final int STEADY_STATE_MAX_PERIOD = 40;
+
+    /**
+     * Неподвижная точка: допустимое стандартное отклонение численности вида в окне как доля среднего.
+     */
+    public static final double STEADY_STATE_TOLERANCE = 0.02;
+
+    /**
+     * Цикл: наименьшая автокорреляция численности на лаге периода у каждого изменяющегося вида.
+     */
+    public static final double STEADY_STATE_CORRELATION = 0.8;
+
+    /**
+     * Сколько дней подряд режим должен держаться, чтобы считаться распознанным.
+     */
+    public static final int STEADY_STATE_CONFIRM_DAYS = 10;
+
+    // ================== БЮДЖЕТ ПАМЯТИ ==================
+
+    /**
+     * Бюджет памяти под животных и клетки как доля максимального размера кучи (-Xmx).
+     * При превышении бюджета новые потомки не создаются, поэтому симуляция не падает с OutOfMemoryError.
+     */
+    public static final double MEMORY_BUDGET_FRACTION = 0.75;
+
+    /**
+     * Мягкий порог как доля бюджета памяти.
+     * Выше этого порога шанс размножения всех видов плавно снижается до нуля на границе бюджета.
+     */
+    public static final double MEMORY_SOFT_LIMIT_FRACTION = 0.8;
+
+    // ================== ОБРАБОТКА ЖИВОТНЫХ ==================
+
+    /**
+     * Обрабатывать животных пачками одного вида (SpeciesBatch): в каждом чанке сначала все волки,
+     * затем все удавы и т.д. Так вызовы методов животных остаются мономорфными и встраиваются JIT.
+     * false - отдельная задача на каждое животное (вперемешку).
+     */
+    public static final boolean SPECIES_BATCHING_ENABLED = true;
+
+    /**
+     * Травоядные идут туда, где больше растений (по таблице префиксных сумм PlantDensityMap),
+     * а не в случайном направлении. Таблица занимает 8 байт на клетку острова.
+     */
+    public static final boolean FOOD_SEEKING_ENABLED = true;
+
+    /**
+     * Максимальное количество животных в одной пачке (одной задаче пула потоков).
+     */
+    public static final int SPECIES_BATCH_SIZE = 256;
+
+    /**
+     * Способ параллельной обработки животных: общий пул потоков (FORK_JOIN)
+     * или актор на регион с передачей животных сообщениями (ACTORS, см. ActorEngine).
+     */
+    public static final EngineMode ENGINE_MODE = EngineMode.FORK_JOIN;
+
+    /**
+     * Количество регионов (акторов) в режиме ACTORS. 0 - по количеству процессоров.
+     * Регион - полоса целых строк чанков, поэтому регионов не больше, чем строк чанков.
+     */
+    public static final int ACTOR_REGIONS = 0;
+
+    /**
+     * Вместимость почтового ящика актора в пачках перемещений.
+     */
+    public static final int ACTOR_MAILBOX_CAPACITY = 64;
+
+    /**
+     * Количество перемещений между регионами в одной пачке (одном сообщении).
+     */
+    public static final int ACTOR_BATCH_SIZE = 128;
+
+    /**
+     * Делить чанки между потоками на части равной стоимости (LoadBalancer): время обработки
+     * каждого чанка замеряется, и перед каждым днем чанки заново делятся рекурсивной бисекцией.
+     * Чанк - наименьшая единица разбиения: для ровной нагрузки в скоплениях животных нужен небольшой CHUNK_SIZE.
+     * false - отдельные задачи по чанкам, распределение отдается пулу потоков.
+     */
+    public static final boolean LOAD_BALANCING_ENABLED = true;
+
+    /**
+     * Количество частей при балансировке. 0 - по количеству процессоров.
+     */
+    public static final int LOAD_BALANCING_PARTS = 0;
+
+    /**
+     * Вес нового замера в сглаженной стоимости чанка (0..1]. Меньше - разбиение устойчивее,
+     * больше - быстрее следует за перемещением животных.
+     */
+    public static final double LOAD_COST_SMOOTHING = 0.5;
+
+    /**
+     * Вести индекс численности видов по областям острова (PopulationIndex, деревья Фенвика).
+     * По нему хищники и поедатели гусениц идут туда, где больше добычи.
+     */
+    public static final boolean POPULATION_INDEX_ENABLED = true;
+
+    /**
+     * Сторона блока индекса численности в клетках. 1 - точный индекс (4 байта на вид и клетку),
+     * больше - индекс в BLOCK² раз меньше, а запросы округляются до границ блоков.
+     */
+    public static final int POPULATION_INDEX_BLOCK = 1;
+
+    // ================== СРЕДНЕЕ ПОЛЕ ==================
+
+    /**
+     * Гибридный движок (simulation.MeanField): насыщенный чанк считается не по животным, а
+     * агрегатно - по численности видов, матрице поедания и ожидаемому приросту. Только в режиме FORK_JOIN.
+     * Ошибку относительно полного расчета и ускорение показывает benchmark.MeanFieldBenchmark.
+     */
+    public static final boolean MEAN_FIELD_ENABLED = false;
+
+    /**
+     * Заполненность чанка, с которой он переходит на среднее поле (0..1): средняя по животным
+     * доля maxPerCell их вида, занятая в чанке. 1 - все клетки заполнены до предела.
+     */
+    public static final double MEAN_FIELD_ENTER_FILL = 0.8;
+
+    /**
+     * Заполненность, ниже которой чанк возвращается к расчету по животным.
+     * Меньше MEAN_FIELD_ENTER_FILL, чтобы чанк у порога не переключался каждый день.
+     */
+    public static final double MEAN_FIELD_EXIT_FILL = 0.6;
+
+    // ================== ЭВОЛЮЦИЯ ==================
+
+    /**
+     * Наибольшее отклонение множителя признака от 1 (model.animals.Genome): крайние значения гена
+     * дают множители 1 - TRAIT_RANGE и 1 + TRAIT_RANGE параметра вида. Ограничивает и наибольшую
+     * скорость животного, а с ней таблицы перемещений и гало распределенного острова.
+     */
+    public static final double TRAIT_RANGE = 0.5;
+
+    /**
+     * Вероятность мутации каждого гена потомка (0..1). 0 - эволюции нет: все животные
+     * сохраняют нейтральный геном и ведут себя в точности по параметрам вида.
+     */
+    public static final double MUTATION_RATE = 0.0;
+
+    /**
+     * Наибольший сдвиг гена (0..255) при мутации.
+     */
+    public static final int MUTATION_STEP = 4;
+
+    // ================== РАСПРЕДЕЛЕННЫЙ ОСТРОВ ==================
+
+    /**
+     * Адрес координатора распределенного острова (пакет distributed):
+     * "tcp:порт" - TCP на локальном интерфейсе, иначе - путь к Unix-сокету.
+     */
+    public static final String DISTRIBUTED_ADDRESS = "island-coordinator.sock";
+
+    /**
+     * Количество рабочих процессов по умолчанию. Остров делится между ними на полосы строк чанков,
+     * поэтому рабочих не может быть больше, чем строк чанков.
+     */
+    public static final int DISTRIBUTED_WORKERS = 2;
+
+    /**
+     * Количество дней распределенного прогона по умолчанию.
+     */
+    public static final int DISTRIBUTED_DAYS = 50;
+
+    // ================== АНСАМБЛЬ ПРОГОНОВ ==================
+
+    /**
+     * Количество потоков общего пула ансамбля прогонов (simulation.EnsembleRunner).
+     * 0 - по количеству процессоров. Каждый прогон - одна задача пула.
+     */
+    public static final int ENSEMBLE_PARALLELISM = 0;
+
+    /**
+     * Количество зерен (повторов) на каждую комбинацию параметров в примере перебора.
+     */
+    public static final int ENSEMBLE_SEEDS = 8;
+
+    /**
+     * Количество дней каждого прогона ансамбля по умолчанию.
+     */
+    public static final int ENSEMBLE_DAYS = 50;
+
+    // ================== ЖИВОЙ ПРОСМОТР ==================
+
+    /**
+     * Запускает вместе с симуляцией локальный HTTP-сервер просмотра острова в браузере (view.LiveViewServer).
+     */
+    public static final boolean LIVE_VIEW_ENABLED = false;
+
+    /**
+     * Порт сервера просмотра (слушает только локальный адрес).
+     */
+    public static final int LIVE_VIEW_PORT = 8080;
+
+    /**
+     * Кадров в секунду: как часто накопленные изменения клеток кодируются в кадр для браузеров.
+     */
+    public static final int LIVE_VIEW_FPS = 10;
+
+    /**
+     * Сколько последних кадров хранится для отстающих браузеров.
+     * Отставший сильнее получает ключевой кадр со всеми клетками.
+     */
+    public static final int LIVE_VIEW_FRAME_BACKLOG = 50;
+
+    /**
+     * Максимальное количество одновременно подключенных браузеров.
+     */
+    public static final int LIVE_VIEW_MAX_CLIENTS = 16;
+
+    // ================== ПУЛ ОБЪЕКТОВ ЖИВОТНЫХ ==================
+
+    /**
+     * Включает повторное использование объектов погибших животных для рождений (AnimalPool).
+     */
+    public static final boolean ANIMAL_POOL_ENABLED = true;
+
+    /**
+     * Максимальное количество свободных объектов одного вида в пуле одного потока.
+     * Лишние погибшие животные просто отдаются сборщику мусора.
+     */
+    public static final int ANIMAL_POOL_MAX_PER_SPECIES = 4096;
+
     // ================== КОНФИГУРАЦИЯ ЖИВОТНЫХ ==================
 
     /**
@@ -99,26 +479,28 @@ public final class SimulationSettings {
      */
     public enum AnimalConfig {
         // Формат конструктора:
-        // Имя_вида(вес, максНаКлетке, скорость, потребностьВЕде, шансРазмножения, фабрика)
+        // Имя_вида(вес, максНаКлетке, скорость, потребностьВЕде, шансРазмножения, эмодзи, тип)
+        // Вид - это только данные: что он ест, задают вероятности поедания (EatingChance),
+        // а поведение - один из двух final-классов по типу (Predator или Herbivore)
 
         // ========= ХИЩНИКИ =========
-        WOLF(50, 30, 3, 8, 0.3, Wolf::new),
-        BOA(15, 30, 1, 3, 0.2, Boa::new),
-        FOX(8, 30, 2, 2, 0.4, Fox::new),
-        BEAR(500, 5, 2, 80, 0.25, Bear::new),
-        EAGLE(6, 20, 3, 1, 0.35, Eagle::new),
+        WOLF(50, 30, 3, 8, 0.3, "🐺", AnimalKind.PREDATOR),
+        BOA(15, 30, 1, 3, 0.2, "🐍", AnimalKind.PREDATOR),
+        FOX(8, 30, 2, 2, 0.4, "🦊", AnimalKind.PREDATOR),
+        BEAR(500, 5, 2, 80, 0.25, "🐻", AnimalKind.PREDATOR),
+        EAGLE(6, 20, 3, 1, 0.35, "🦅", AnimalKind.PREDATOR),
 
         // ========= ТРАВОЯДНЫЕ =========
-        HORSE(400, 20, 4, 60, 0.2, Horse::new),
-        DEER(300, 20, 4, 50, 0.3, Deer::new),
-        RABBIT(2, 150, 2, 0.45, 0.5, Rabbit::new),
-        MOUSE(0.05, 500, 1, 0.01, 0.6, Mouse::new),
-        GOAT(60, 140, 3, 10, 0.4, Goat::new),
-        SHEEP(70, 140, 3, 15, 0.4, Sheep::new),
-        BOAR(400, 50, 2, 50, 0.35, Boar::new),
-        BUFFALO(700, 10, 3, 100, 0.15, Buffalo::new),
-        DUCK(1, 200, 4, 0.15, 0.45, Duck::new),
-        CATERPILLAR(0.01, 1000, 0, 0, 0.7, Caterpillar::new);
+        HORSE(400, 20, 4, 60, 0.2, "🐎", AnimalKind.HERBIVORE),
+        DEER(300, 20, 4, 50, 0.3, "🦌", AnimalKind.HERBIVORE),
+        RABBIT(2, 150, 2, 0.45, 0.5, "🐇", AnimalKind.HERBIVORE),
+        MOUSE(0.05, 500, 1, 0.01, 0.6, "🐁", AnimalKind.HERBIVORE),
+        GOAT(60, 140, 3, 10, 0.4, "🐐", AnimalKind.HERBIVORE),
+        SHEEP(70, 140, 3, 15, 0.4, "🐑", AnimalKind.HERBIVORE),
+        BOAR(400, 50, 2, 50, 0.35, "🐗", AnimalKind.HERBIVORE),
+        BUFFALO(700, 10, 3, 100, 0.15, "🐃", AnimalKind.HERBIVORE),
+        DUCK(1, 200, 4, 0.15, 0.45, "🦆", AnimalKind.HERBIVORE),
+        CATERPILLAR(0.01, 1000, 0, 0, 0.7, "🐛", AnimalKind.HERBIVORE);
 
         // ========= ПАРАМЕТРЫ ЖИВОТНЫХ =========
 
@@ -152,10 +534,14 @@ public final class SimulationSettings {
         public final double reproductionChance;
 
         /**
-         * Фабрика для создания экземпляров животных через лямбда-выражение.
-         * Использует ссылку на конструктор соответствующего класса.
+         * Эмодзи вида для вывода острова и статистики.
+         */
+        public final String emoji;
+
+        /**
+         * Тип поведения: хищник (Predator) или травоядное (Herbivore).
          */
-        public final Supplier<Animal> factory;
+        public final AnimalKind kind;
 
         /**
          * Конструктор для значений enum.
@@ -165,27 +551,32 @@ public final class SimulationSettings {
          * @param maxSpeed Макс. скорость (клеток/ход)
          * @param foodNeeded Потребность в еде (кг/день)
          * @param reproductionChance Шанс размножения (0.0-1.0)
-         * @param factory Фабричный метод для создания экземпляров
+         * @param emoji Эмодзи вида
+         * @param kind Тип поведения
          */
         AnimalConfig(double weight, int maxPerCell, int maxSpeed,
                      double foodNeeded, double reproductionChance,
-                     Supplier<Animal> factory) {
+                     String emoji, AnimalKind kind) {
             this.weight = weight;
             this.maxPerCell = maxPerCell;
             this.maxSpeed = maxSpeed;
             this.foodNeeded = foodNeeded;
             this.reproductionChance = reproductionChance;
-            this.factory = factory;
+            this.emoji = emoji;
+            this.kind = kind;
         }
 
         /**
          * Создает новый экземпляр животного данного вида.
-         * Использует фабричный метод, переданный в конструкторе.
+         * Класс животного выбирается по типу вида, параметры берутся из настроек по умолчанию.
          *
          * @return Новый экземпляр животного
          */
         public Animal createAnimal() {
-            return factory.get();
+            return switch (kind) {
+                case PREDATOR -> new Predator(this);
+                case HERBIVORE -> new Herbivore(this);
+            };
         }
 
         /**
@@ -218,54 +609,93 @@ public final class SimulationSettings {
     // ================== ВЕРОЯТНОСТИ ПОЕДАНИЯ ==================
 
     /**
-     * Класс, содержащий вероятности успешной охоты/поедания.
-     * Значения в процентах (0-100).
+     * Вероятности успешной охоты/поедания по умолчанию, в процентах (0-100).
+     * Таблица задана строками "хищник, добыча, процент" (проверяются компилятором); пара без
+     * строки - 0 (не ест), поэтому рацион нового вида - это только его строки. Файл сценария
+     * (Scenario) переопределяет отдельные пары ключами eat.ХИЩНИК.ДОБЫЧА.
      */
     public static final class EatingChance {
-        // ========= ВОЛК =========
-        public static final int WOLF_RABBIT = 60; // 60% шанс съесть кролика
-        public static final int WOLF_MOUSE = 80;  // 80% шанс съесть мышь
-        public static final int WOLF_GOAT = 60;
-        public static final int WOLF_SHEEP = 70;
-        public static final int WOLF_HORSE = 10;
-        public static final int WOLF_DEER = 15;
-        public static final int WOLF_BOAR = 15;
-        public static final int WOLF_BUFFALO = 10;
-        public static final int WOLF_DUCK = 40;
-
-        // ========= УДАВ =========
-        public static final int BOA_FOX = 15;
-        public static final int BOA_RABBIT = 20;
-        public static final int BOA_MOUSE = 40;
-        public static final int BOA_DUCK = 10;
-
-        // ========= ЛИСА =========
-        public static final int FOX_RABBIT = 70;
-        public static final int FOX_MOUSE = 90;
-        public static final int FOX_DUCK = 60;
-        public static final int FOX_CATERPILLAR = 40;
-
-        // ========= МЕДВЕДЬ =========
-        public static final int BEAR_BOA = 80;
-        public static final int BEAR_HORSE = 40;
-        public static final int BEAR_DEER = 80;
-        public static final int BEAR_RABBIT = 80;
-        public static final int BEAR_MOUSE = 90;
-        public static final int BEAR_GOAT = 70;
-        public static final int BEAR_SHEEP = 70;
-        public static final int BEAR_BOAR = 50;
-        public static final int BEAR_DUCK = 10;
-
-        // ========= ОРЕЛ =========
-        public static final int EAGLE_FOX = 10;
-        public static final int EAGLE_RABBIT = 90;
-        public static final int EAGLE_MOUSE = 90;
-        public static final int EAGLE_DUCK = 80;
-
-        // ========= ОСОБЫЕ СЛУЧАИ =========
-        public static final int MOUSE_CATERPILLAR = 90;  // Мышь ест гусеницу
-        public static final int BOAR_CATERPILLAR = 90;  // Кабан ест гусеницу
-        public static final int DUCK_CATERPILLAR = 90;   // Утка ест гусеницу
+        // Таблица вероятностей [хищник][жертва] по порядковым номерам AnimalConfig
+        private static final int[][] TABLE = new int[AnimalConfig.values().length][AnimalConfig.values().length];
+
+        static {
+            // ========= ВОЛК =========
+            set(AnimalConfig.WOLF, AnimalConfig.RABBIT, 60);
+            set(AnimalConfig.WOLF, AnimalConfig.MOUSE, 80);
+            set(AnimalConfig.WOLF, AnimalConfig.GOAT, 60);
+            set(AnimalConfig.WOLF, AnimalConfig.SHEEP, 70);
+            set(AnimalConfig.WOLF, AnimalConfig.HORSE, 10);
+            set(AnimalConfig.WOLF, AnimalConfig.DEER, 15);
+            set(AnimalConfig.WOLF, AnimalConfig.BOAR, 15);
+            set(AnimalConfig.WOLF, AnimalConfig.BUFFALO, 10);
+            set(AnimalConfig.WOLF, AnimalConfig.DUCK, 40);
+
+            // ========= УДАВ =========
+            set(AnimalConfig.BOA, AnimalConfig.FOX, 15);
+            set(AnimalConfig.BOA, AnimalConfig.RABBIT, 20);
+            set(AnimalConfig.BOA, AnimalConfig.MOUSE, 40);
+            set(AnimalConfig.BOA, AnimalConfig.DUCK, 10);
+
+            // ========= ЛИСА =========
+            set(AnimalConfig.FOX, AnimalConfig.RABBIT, 70);
+            set(AnimalConfig.FOX, AnimalConfig.MOUSE, 90);
+            set(AnimalConfig.FOX, AnimalConfig.DUCK, 60);
+            set(AnimalConfig.FOX, AnimalConfig.CATERPILLAR, 40);
+
+            // ========= МЕДВЕДЬ =========
+            set(AnimalConfig.BEAR, AnimalConfig.BOA, 80);
+            set(AnimalConfig.BEAR, AnimalConfig.HORSE, 40);
+            set(AnimalConfig.BEAR, AnimalConfig.DEER, 80);
+            set(AnimalConfig.BEAR, AnimalConfig.RABBIT, 80);
+            set(AnimalConfig.BEAR, AnimalConfig.MOUSE, 90);
+            set(AnimalConfig.BEAR, AnimalConfig.GOAT, 70);
+            set(AnimalConfig.BEAR, AnimalConfig.SHEEP, 70);
+            set(AnimalConfig.BEAR, AnimalConfig.BOAR, 50);
+            set(AnimalConfig.BEAR, AnimalConfig.DUCK, 10);
+
+            // ========= ОРЕЛ =========
+            set(AnimalConfig.EAGLE, AnimalConfig.FOX, 10);
+            set(AnimalConfig.EAGLE, AnimalConfig.RABBIT, 90);
+            set(AnimalConfig.EAGLE, AnimalConfig.MOUSE, 90);
+            set(AnimalConfig.EAGLE, AnimalConfig.DUCK, 80);
+
+            // ========= ОСОБЫЕ СЛУЧАИ =========
+            set(AnimalConfig.MOUSE, AnimalConfig.CATERPILLAR, 90); // Мышь ест гусеницу
+            set(AnimalConfig.BOAR, AnimalConfig.CATERPILLAR, 90); // Кабан ест гусеницу
+            set(AnimalConfig.DUCK, AnimalConfig.CATERPILLAR, 90); // Утка ест гусеницу
+        }
+
+        // Виды, которых может съесть каждый вид (пустой массив - ест только растения)
+        private static final AnimalConfig[][] PREY = buildPrey();
+
+        /**
+         * @return Вероятность (0-100), что predator съест prey, или 0, если prey не его добыча
+         */
+        public static int get(AnimalConfig predator, AnimalConfig prey) {
+            return TABLE[predator.ordinal()][prey.ordinal()];
+        }
+
+        /**
+         * @return Виды добычи вида (общий массив - не изменять)
+         */
+        public static AnimalConfig[] preyOf(AnimalConfig predator) {
+            return PREY[predator.ordinal()];
+        }
+
+        private static void set(AnimalConfig predator, AnimalConfig prey, int percent) {
+            TABLE[predator.ordinal()][prey.ordinal()] = percent;
+        }
+
+        private static AnimalConfig[][] buildPrey() {
+            AnimalConfig[] species = AnimalConfig.values();
+            AnimalConfig[][] prey = new AnimalConfig[species.length][];
+            for (AnimalConfig predator : species) {
+                prey[predator.ordinal()] = Arrays.stream(species)
+                        .filter(p -> TABLE[predator.ordinal()][p.ordinal()] > 0)
+                        .toArray(AnimalConfig[]::new);
+            }
+            return prey;
+        }
     }
 
     // ================== НАЧАЛЬНОЕ КОЛИЧЕСТВО ЖИВОТНЫХ ==================
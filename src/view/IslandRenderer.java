@@ -30,8 +30,11 @@ public class IslandRenderer {
         for (int y = 0; y < island.getHeight(); y++) {
             System.out.print(ANSI_CYAN + "║" + ANSI_RESET); // Левая граница строки
             for (int x = 0; x < island.getWidth(); x++) {
-                Location cell = island.getLocation(x, y);
-                String content = formatCellContent(cell); // Форматирование содержимого ячейки
+                // Неявные клетки не материализуем: в них только растения по умолчанию
+                Location cell = island.findLocation(x, y);
+                String content = cell != null
+                        ? formatCellContent(cell.toString()) // Форматирование содержимого ячейки
+                        : formatCellContent(formatDefaultCell(island.defaultPlantCount()));
                 // Вывод ячейки с фиксированной шириной 12 символов
                 System.out.printf(" %-12s " + ANSI_CYAN + "║" + ANSI_RESET, content);
             }
@@ -48,11 +51,10 @@ public class IslandRenderer {
 
     /**
      * Форматирование содержимого ячейки с цветовой подсветкой
-     * @param cell - объект локации
+     * @param content - текстовое содержимое локации
      * @return отформатированная строка с ANSI-кодами
      */
-    private static String formatCellContent(Location cell) {
-        String content = cell.toString();
+    private static String formatCellContent(String content) {
         return content
                 // Регулярные выражения для поиска паттернов:
                 // 1. Числа перед emoji (например "3🐺")
@@ -62,4 +64,13 @@ public class IslandRenderer {
                 // 3. Воду (🌊)
                 .replace("🌊", ANSI_CYAN + "🌊" + ANSI_RESET);
     }
-}
\ No newline at end of file
+
+    /**
+     * Текстовое содержимое неявной клетки (без животных, с растениями по умолчанию)
+     * @param plants - количество растений в клетке
+     * @return строка в том же формате, что и Location.toString()
+     */
+    private static String formatDefaultCell(int plants) {
+        return plants > 0 ? " " + plants + "🌱" : "🌊";
+    }
+}
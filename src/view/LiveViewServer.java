@@ -0,0 +1,449 @@
+package view;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.Island;
+import simulation.DayDelta;
+import simulation.Simulation;
+import utils.SimulationSettings;
+import utils.SimulationSettings.AnimalConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Живой просмотр острова в браузере на встроенном HTTP-сервере JDK (com.sun.net.httpserver).
+ *
+ * GET /        - страница с canvas, одна клетка острова - один пиксель
+ * GET /events  - поток кадров (server-sent events)
+ *
+ * Сервер - единственный подписчик DayDeltaPublisher симуляции: он держит у себя состояние всех
+ * клеток (байт на клетку: доминирующий вид и уровень растений) и помечает изменившиеся.
+ * Неявные клетки хранятся отметкой IMPLICIT_CELL, а их общий уровень растений идет в заголовке
+ * кадра - рост растений по умолчанию не превращает каждый кадр в перерисовку всего острова.
+ * Таймер кадров LIVE_VIEW_FPS раз в секунду кодирует помеченные клетки в один разностный кадр
+ * (varint-разности индексов + байт состояния, base64 в строке data:), и этот кадр общий для
+ * всех браузеров. Поэтому число зрителей не влияет ни на поток дня, ни на кодирование -
+ * каждый браузер стоит только записи готовых байтов в свое соединение.
+ *
+ * Новый браузер (и отставший больше чем на LIVE_VIEW_FRAME_BACKLOG кадров) получает ключевой
+ * кадр - все клетки, сжатые кодированием длин серий, - и дальше идет по разностным кадрам.
+ *
+ * Сервер нужно создавать до startSimulation: начальное состояние снимается с острова
+ * в конструкторе, дальше оно обновляется только изменениями по дням.
+ */
+public class LiveViewServer implements Flow.Subscriber<DayDelta>, AutoCloseable {
+    private static final byte KEY_FRAME = 1; // Тип кадра: все клетки
+    private static final byte DELTA_FRAME = 2; // Тип кадра: только изменившиеся клетки
+    private static final int PLANT_LEVELS = 14; // Уровни растений 0..14 в младших 4 битах состояния клетки
+    private static final byte IMPLICIT_CELL = 15; // Неявная клетка: растения по умолчанию (уровень - в заголовке кадра)
+
+    // Цвета видов на canvas (индекс - AnimalConfig.ordinal)
+    private static final String[] SPECIES_COLORS = {
+            "#5b6770", "#d9d2c5", "#e8862a", "#b5651d", "#8a5a2b",
+            "#c2b280", "#f0f0f0", "#ff9ecb", "#7d4e3a", "#4a4a4a",
+            "#ffd166", "#a0a0a0", "#f7f3e9", "#ffffff", "#9acd32"
+    };
+
+    private final HttpServer server;
+    private final ExecutorService httpExecutor; // Потоки соединений (каждый поток событий держит свой)
+    private final ScheduledExecutorService frameClock; // Таймер кадров
+    private final AtomicInteger clients = new AtomicInteger();
+    private final int width, height;
+    private final int maxPlants;
+    private final byte[] page; // Страница просмотра
+
+    // Состояние клеток; все поля ниже охраняются монитором this
+    private final byte[] state; // (вид + 1) << 4 | уровень растений, либо IMPLICIT_CELL
+    private final BitSet dirty = new BitSet(); // Клетки, изменившиеся после последнего кадра
+    private int[] dirtyCells = new int[1024];
+    private int dirtyCount = 0;
+    private int implicitLevel; // Уровень растений неявных клеток
+    private final int[] population = new int[AnimalConfig.values().length];
+    private int day = 0;
+    private int framedDay = -1; // День последнего построенного кадра
+    private final byte[][] frames = new byte[SimulationSettings.LIVE_VIEW_FRAME_BACKLOG][]; // Кольцо готовых к отправке кадров
+    private long lastFrame = 0; // Номер последнего построенного кадра (кадр n лежит в frames[n % длина])
+    private boolean running = true;
+
+    private Flow.Subscription subscription;
+
+    /**
+     * Запускает сервер на локальном адресе и подписывается на изменения симуляции.
+     * @param simulation Симуляция (еще не запущенная)
+     * @param island Остров симуляции
+     * @param port Порт (0 - любой свободный)
+     */
+    public LiveViewServer(Simulation simulation, Island island, int port) throws IOException {
+        if (AnimalConfig.values().length >= 16) {
+            throw new IllegalStateException("Вид клетки не помещается в 4 бита состояния");
+        }
+        this.width = island.getWidth();
+        this.height = island.getHeight();
+        this.maxPlants = island.getSettings().maxPlantsPerCell;
+        this.state = new byte[width * height];
+        this.implicitLevel = plantLevel(island.defaultPlantCount());
+        Arrays.fill(state, IMPLICIT_CELL);
+        island.forEachLocation(location -> {
+            AnimalConfig dominant = location.getDominantSpecies();
+            state[location.index] = encode(location.getPlantCount(), dominant == null ? -1 : dominant.ordinal());
+            for (AnimalConfig config : AnimalConfig.values()) population[config.ordinal()] += location.countAnimals(config);
+        });
+        this.page = buildPage().getBytes(StandardCharsets.UTF_8);
+
+        this.httpExecutor = Executors.newCachedThreadPool(daemonThreads("live-view-http"));
+        this.frameClock = Executors.newSingleThreadScheduledExecutor(daemonThreads("live-view-frames"));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(httpExecutor);
+        server.createContext("/", this::servePage);
+        server.createContext("/events", this::serveEvents);
+        server.start();
+
+        long period = 1000L / SimulationSettings.LIVE_VIEW_FPS;
+        frameClock.scheduleAtFixedRate(this::buildFrame, period, period, TimeUnit.MILLISECONDS);
+        simulation.getDeltaPublisher().subscribe(this);
+    }
+
+    /**
+     * @return Адрес страницы просмотра
+     */
+    public String getUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + "/";
+    }
+
+    /**
+     * @return Количество подключенных браузеров
+     */
+    public int getClientCount() {
+        return clients.get();
+    }
+
+    // ================== ПОДПИСКА НА ИЗМЕНЕНИЯ ==================
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1); // По одному событию: если не успеваем, издатель сольет дни
+    }
+
+    @Override
+    public void onNext(DayDelta delta) {
+        synchronized (this) {
+            implicitLevel = plantLevel(delta.implicitPlants());
+            int[] cells = delta.cells();
+            for (int i = 0; i < cells.length; i++) {
+                int dominant = delta.cellDominant()[i];
+                int plants = delta.cellPlants()[i];
+                // Клетка без животных с растениями по умолчанию снова следует за неявными
+                setCell(cells[i], dominant < 0 && plants == delta.implicitPlants() ? IMPLICIT_CELL : encode(plants, dominant));
+            }
+            System.arraycopy(delta.population(), 0, population, 0, population.length);
+            day = delta.lastDay();
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        System.err.println("Живой просмотр: ошибка потока изменений: " + throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        // Последнее состояние остается доступным для просмотра до close()
+    }
+
+    private void setCell(int cell, byte value) {
+        if (state[cell] == value) return;
+        state[cell] = value;
+        if (!dirty.get(cell)) {
+            dirty.set(cell);
+            if (dirtyCount == dirtyCells.length) dirtyCells = Arrays.copyOf(dirtyCells, dirtyCount * 2);
+            dirtyCells[dirtyCount++] = cell;
+        }
+    }
+
+    private byte encode(int plants, int dominant) {
+        return (byte) ((dominant + 1) << 4 | plantLevel(plants));
+    }
+
+    private int plantLevel(int plants) {
+        return maxPlants <= 0 ? 0 : Math.min(PLANT_LEVELS, plants * PLANT_LEVELS / maxPlants);
+    }
+
+    // ================== КАДРЫ ==================
+
+    /**
+     * Кодирует изменения с прошлого кадра в общий разностный кадр (вызывается таймером кадров).
+     */
+    private void buildFrame() {
+        synchronized (this) {
+            if (!running || (dirtyCount == 0 && day == framedDay)) return;
+            int[] cells = Arrays.copyOf(dirtyCells, dirtyCount);
+            Arrays.sort(cells); // По возрастанию - разности индексов малы и занимают по байту
+            ByteArrayOutputStream out = new ByteArrayOutputStream(16 + cells.length * 2);
+            writeHeader(out, DELTA_FRAME, lastFrame + 1);
+            writeVarInt(out, cells.length);
+            int previous = 0;
+            for (int cell : cells) {
+                writeVarInt(out, cell - previous);
+                out.write(state[cell]);
+                previous = cell;
+                dirty.clear(cell);
+            }
+            dirtyCount = 0;
+            framedDay = day;
+
+            lastFrame++;
+            frames[(int) (lastFrame % frames.length)] = toEvent(out);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Ключевой кадр: все клетки в виде серий (длина, состояние). Вызывается под монитором this,
+     * кадр соответствует состоянию после кадра lastFrame.
+     */
+    private byte[] buildKeyFrame() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        writeHeader(out, KEY_FRAME, lastFrame);
+        writeVarInt(out, width);
+        writeVarInt(out, height);
+        int cell = 0;
+        while (cell < state.length) {
+            byte value = state[cell];
+            int run = 1;
+            while (cell + run < state.length && state[cell + run] == value) run++;
+            writeVarInt(out, run);
+            out.write(value);
+            cell += run;
+        }
+        return toEvent(out);
+    }
+
+    private void writeHeader(ByteArrayOutputStream out, byte type, long frame) {
+        out.write(type);
+        writeVarInt(out, (int) frame);
+        writeVarInt(out, day);
+        writeVarInt(out, implicitLevel);
+        writeVarInt(out, population.length);
+        for (int count : population) writeVarInt(out, count);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static byte[] toEvent(ByteArrayOutputStream frame) {
+        String data = Base64.getEncoder().encodeToString(frame.toByteArray());
+        return ("data: " + data + "\n\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // ================== HTTP ==================
+
+    private void servePage(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestURI().getPath().equals("/")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, page.length);
+            exchange.getResponseBody().write(page);
+        }
+    }
+
+    /**
+     * Поток событий одного браузера: ключевой кадр, затем общие разностные кадры по мере появления.
+     * Поток соединения ждет новых кадров и только пишет готовые байты.
+     */
+    private void serveEvents(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (clients.incrementAndGet() > SimulationSettings.LIVE_VIEW_MAX_CLIENTS) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            long sent = -1; // Последний отправленный кадр (-1 - нужен ключевой)
+            while (true) {
+                byte[] event;
+                synchronized (this) {
+                    while (running && sent == lastFrame) wait();
+                    if (!running) return;
+                    if (sent < 0 || lastFrame - sent > frames.length) {
+                        event = buildKeyFrame(); // Новый или отставший браузер
+                        sent = lastFrame;
+                    } else {
+                        sent++;
+                        event = frames[(int) (sent % frames.length)];
+                    }
+                }
+                out.write(event);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Браузер закрыл соединение
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clients.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        if (subscription != null) subscription.cancel();
+        frameClock.shutdownNow();
+        server.stop(0);
+        httpExecutor.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // ================== СТРАНИЦА ==================
+
+    private String buildPage() {
+        StringBuilder species = new StringBuilder("[");
+        for (AnimalConfig config : AnimalConfig.values()) {
+            if (config.ordinal() > 0) species.append(',');
+            species.append("{\"name\":\"").append(config.name())
+                    .append("\",\"emoji\":\"").append(config.emoji)
+                    .append("\",\"color\":\"").append(SPECIES_COLORS[config.ordinal() % SPECIES_COLORS.length])
+                    .append("\"}");
+        }
+        species.append(']');
+        return PAGE.replace("/*SPECIES*/[]", species.toString());
+    }
+
+    // Страница просмотра: декодер кадров повторяет writeHeader/buildFrame/buildKeyFrame
+    private static final String PAGE = """
+            <!DOCTYPE html>
+            <html lang="ru">
+            <head>
+            <meta charset="utf-8">
+            <title>Остров</title>
+            <style>
+              body { margin: 0; background: #1e2a38; color: #eee; font: 14px sans-serif; display: flex; }
+              #view { flex: 1; display: flex; align-items: center; justify-content: center; height: 100vh; }
+              canvas { image-rendering: pixelated; background: #000; }
+              #side { width: 240px; padding: 12px; overflow-y: auto; height: 100vh; box-sizing: border-box; }
+              .row { display: flex; justify-content: space-between; }
+              .swatch { display: inline-block; width: 10px; height: 10px; margin-right: 6px; }
+            </style>
+            </head>
+            <body>
+            <div id="view"><canvas id="island"></canvas></div>
+            <div id="side"><div id="status">Подключение...</div><div id="legend"></div></div>
+            <script>
+            const SPECIES = /*SPECIES*/[];
+            const canvas = document.getElementById('island');
+            const ctx = canvas.getContext('2d');
+            const palette = SPECIES.map(s => [1, 3, 5].map(i => parseInt(s.color.substr(i, 2), 16)));
+            let width = 0, height = 0, image = null, pixels = null, cells = null, implicitLevel = 0;
+            let lastFrame = -1, frames = 0, bytes = 0;
+
+            function paint(cell, value) {
+              cells[cell] = value;
+              const species = value >> 4, level = value === 15 ? implicitLevel : value & 15, p = cell * 4;
+              if (species > 0) {
+                const c = palette[species - 1];
+                pixels[p] = c[0]; pixels[p + 1] = c[1]; pixels[p + 2] = c[2];
+              } else {
+                pixels[p] = 40 - level * 2; pixels[p + 1] = 45 + level * 13; pixels[p + 2] = 30;
+              }
+              pixels[p + 3] = 255;
+            }
+
+            function fit() {
+              if (!width) return;
+              const scale = Math.max(1, Math.floor(Math.min((innerWidth - 240) / width, innerHeight / height)));
+              canvas.style.width = (width * scale) + 'px';
+              canvas.style.height = (height * scale) + 'px';
+            }
+
+            function decode(text) {
+              const bin = atob(text), data = new Uint8Array(bin.length);
+              for (let i = 0; i < bin.length; i++) data[i] = bin.charCodeAt(i);
+              let pos = 0;
+              const varint = () => {
+                let value = 0, shift = 0, b;
+                do { b = data[pos++]; value += (b & 127) * 2 ** shift; shift += 7; } while (b & 128);
+                return value;
+              };
+              const type = data[pos++], frame = varint(), day = varint(), implicit = varint(), count = varint(), population = [];
+              for (let i = 0; i < count; i++) population.push(varint());
+              if (type === 1) {
+                width = varint(); height = varint();
+                canvas.width = width; canvas.height = height; fit();
+                image = ctx.createImageData(width, height); pixels = image.data; cells = new Uint8Array(width * height);
+                implicitLevel = implicit;
+                let cell = 0;
+                while (pos < data.length) {
+                  const run = varint(), value = data[pos++];
+                  for (let i = 0; i < run; i++) paint(cell++, value);
+                }
+              } else {
+                if (!image || frame !== lastFrame + 1) return;
+                if (implicit !== implicitLevel) {
+                  implicitLevel = implicit; // Неявные клетки перерисовываются здесь, а не приходят в кадре
+                  for (let i = 0; i < cells.length; i++) if (cells[i] === 15) paint(i, 15);
+                }
+                const changed = varint();
+                let cell = 0;
+                for (let i = 0; i < changed; i++) { cell += varint(); paint(cell, data[pos++]); }
+              }
+              lastFrame = frame; frames++; bytes += text.length;
+              ctx.putImageData(image, 0, 0);
+              legend(day, population);
+            }
+
+            function legend(day, population) {
+              document.getElementById('status').textContent =
+                'День ' + day + ' · ' + width + 'x' + height + ' · кадров ' + frames + ' · ' + Math.round(bytes / 1024) + ' КБ';
+              document.getElementById('legend').innerHTML = SPECIES.map((s, i) =>
+                '<div class="row"><span><span class="swatch" style="background:' + s.color + '"></span>' +
+                s.emoji + ' ' + s.name + '</span><span>' + (population[i] || 0) + '</span></div>').join('');
+            }
+
+            addEventListener('resize', fit);
+            const events = new EventSource('events');
+            events.onmessage = e => decode(e.data);
+            events.onerror = () => { document.getElementById('status').textContent = 'Нет соединения'; lastFrame = -1; };
+            </script>
+            </body>
+            </html>
+            """;
+}